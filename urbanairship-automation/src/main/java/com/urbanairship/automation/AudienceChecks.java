@@ -7,14 +7,13 @@ import android.content.Context;
 import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
 import com.urbanairship.automation.tags.TagSelector;
-import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.modules.location.AirshipLocationClient;
-import com.urbanairship.push.PushManager;
 import com.urbanairship.util.UAStringUtil;
 import com.urbanairship.util.VersionUtils;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -23,6 +22,7 @@ import java.util.Set;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.os.ConfigurationCompat;
 import androidx.core.os.LocaleListCompat;
 
@@ -31,6 +31,19 @@ import androidx.core.os.LocaleListCompat;
  */
 public abstract class AudienceChecks {
 
+    private static final int MAX_CACHED_EVALUATIONS = 100;
+
+    private static final Map<Audience, Evaluation> evaluationCache = new LinkedHashMap<Audience, Evaluation>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Audience, Evaluation> eldest) {
+            return size() > MAX_CACHED_EVALUATIONS;
+        }
+    };
+
+    private static long inputsEpoch;
+    private static long cacheHitCount;
+    private static long cacheMissCount;
+
     /**
      * Checks the audience and new user.
      *
@@ -89,7 +102,8 @@ public abstract class AudienceChecks {
      *
      * @param context The application context.
      * @param audience The audience.
-     * @param tagGroups The channel tag groups.
+     * @param tagGroups The channel tag groups. The map is kept with the cached result and should not
+     * be modified after the check.
      * @return {@code true} if the audience conditions are met, otherwise {@code false}.
      */
     public static boolean checkAudience(@NonNull Context context, @Nullable Audience audience, @Nullable Map<String, Set<String>> tagGroups) {
@@ -102,40 +116,136 @@ public abstract class AudienceChecks {
         }
 
         UAirship airship = UAirship.shared();
-        AirshipLocationClient locationClient = airship.getLocationClient();
-        PushManager pushManager = airship.getPushManager();
-        AirshipChannel channel = airship.getChannel();
 
-        // Data collection enabled
+        // Opt-ins and locales have no reliable change callbacks so they are read on every check
         boolean isDataCollectionEnabled = airship.isDataCollectionEnabled();
+        Boolean locationOptIn = null;
+        if (audience.getLocationOptIn() != null) {
+            AirshipLocationClient locationClient = airship.getLocationClient();
+            locationOptIn = locationClient != null && locationClient.isOptIn();
+        }
+
+        Boolean notificationsOptIn = null;
+        if (audience.getNotificationsOptIn() != null) {
+            notificationsOptIn = airship.getPushManager().areNotificationsOptedIn();
+        }
+
+        LocaleListCompat locales = null;
+        if (!audience.getLanguageTags().isEmpty()) {
+            locales = ConfigurationCompat.getLocales(context.getResources().getConfiguration());
+        }
+
+        long epoch;
+        synchronized (evaluationCache) {
+            epoch = inputsEpoch;
+            Evaluation evaluation = evaluationCache.get(audience);
+            if (evaluation != null && evaluation.matches(epoch, isDataCollectionEnabled, locationOptIn, notificationsOptIn, locales, tagGroups)) {
+                cacheHitCount++;
+                return evaluation.result;
+            }
+            cacheMissCount++;
+        }
+
+        boolean result = evaluate(airship, audience, isDataCollectionEnabled, locationOptIn, notificationsOptIn, locales, tagGroups);
+
+        synchronized (evaluationCache) {
+            evaluationCache.put(audience, new Evaluation(epoch, isDataCollectionEnabled, locationOptIn, notificationsOptIn, locales, tagGroups, result));
+        }
+
+        return result;
+    }
 
+    /**
+     * Invalidates the cached evaluations. Called when an input with a change callback, such as
+     * the channel tags, changes.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public static void onInputsChanged() {
+        synchronized (evaluationCache) {
+            inputsEpoch++;
+        }
+    }
+
+    /**
+     * Gets the number of audience checks that reused a previous evaluation.
+     *
+     * @return The cache hit count.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public static long getCacheHitCount() {
+        synchronized (evaluationCache) {
+            return cacheHitCount;
+        }
+    }
+
+    /**
+     * Gets the number of audience checks that had to evaluate the audience.
+     *
+     * @return The cache miss count.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public static long getCacheMissCount() {
+        synchronized (evaluationCache) {
+            return cacheMissCount;
+        }
+    }
+
+    /**
+     * Clears the cached evaluations and metrics.
+     */
+    @VisibleForTesting
+    static void clearCache() {
+        synchronized (evaluationCache) {
+            evaluationCache.clear();
+            cacheHitCount = 0;
+            cacheMissCount = 0;
+        }
+    }
+
+    /**
+     * Evaluates the audience.
+     *
+     * @param airship The airship instance.
+     * @param audience The audience.
+     * @param isDataCollectionEnabled If data collection is enabled.
+     * @param locationOptIn The location opt-in, or null if the audience does not define it.
+     * @param notificationsOptIn The notification opt-in, or null if the audience does not define it.
+     * @param locales The device locales, or null if the audience does not define language tags.
+     * @param tagGroups The channel tag groups.
+     * @return {@code true} if the audience conditions are met, otherwise {@code false}.
+     */
+    private static boolean evaluate(@NonNull UAirship airship, @NonNull Audience audience,
+                                    boolean isDataCollectionEnabled, @Nullable Boolean locationOptIn,
+                                    @Nullable Boolean notificationsOptIn, @Nullable LocaleListCompat locales,
+                                    @NonNull Map<String, Set<String>> tagGroups) {
         // Location opt-in
         if (audience.getLocationOptIn() != null) {
             if (!isDataCollectionEnabled) {
                 return false;
             }
 
-            boolean optedIn = locationClient != null && locationClient.isOptIn();
-            if (audience.getLocationOptIn() != optedIn) {
+            if (!audience.getLocationOptIn().equals(locationOptIn)) {
                 return false;
             }
         }
 
         // Notification opt-in
-        boolean notificationsOptIn = pushManager.areNotificationsOptedIn();
-
         if (audience.getNotificationsOptIn() != null) {
             if (!isDataCollectionEnabled) {
                 return false;
             }
 
-            if (audience.getNotificationsOptIn() != notificationsOptIn) {
+            if (!audience.getNotificationsOptIn().equals(notificationsOptIn)) {
                 return false;
             }
         }
 
         // Locale
-        if (!isLocaleConditionMet(context, audience)) {
+        if (!isLocaleConditionMet(locales, audience)) {
             return false;
         }
 
@@ -144,28 +254,13 @@ public abstract class AudienceChecks {
             if (!isDataCollectionEnabled) {
                 return false;
             }
-            if (!audience.getTagSelector().apply(channel.getTags(), tagGroups)) {
+            if (!audience.getTagSelector().apply(airship.getChannel().getTags(), tagGroups)) {
                 return false;
             }
         }
 
         // Version
-        return isAppVersionConditionMet(audience);
-    }
-
-    /**
-     * Helper method to check the app version.
-     *
-     * @param audience The audience.
-     * @return {@code true} if the app version conditions are met or are not defined, otherwise {@code false}.
-     */
-    private static boolean isAppVersionConditionMet(@NonNull Audience audience) {
-        if (audience.getVersionPredicate() == null) {
-            return true;
-        }
-
-        // Apply the predicate
-        return audience.getVersionPredicate().apply(VersionUtils.createVersionObject());
+        return audience.getVersionPredicate() == null || audience.getVersionPredicate().apply(VersionUtils.createVersionObject());
     }
 
     private static Set<String> sanitizeLanguageTags(List<String> languageTags) {
@@ -191,17 +286,15 @@ public abstract class AudienceChecks {
     /**
      * Helper method to check the locales.
      *
-     * @param context The application context.
+     * @param userLocales The user locales, or null if the audience does not define locales.
      * @param audience The audience.
      * @return {@code true} if the locale conditions are met or are not defined, otherwise {@code false}.
      */
-    private static boolean isLocaleConditionMet(@NonNull Context context, @NonNull Audience audience) {
-        if (audience.getLanguageTags().isEmpty()) {
+    private static boolean isLocaleConditionMet(@Nullable LocaleListCompat userLocales, @NonNull Audience audience) {
+        if (audience.getLanguageTags().isEmpty() || userLocales == null) {
             return true;
         }
 
-        LocaleListCompat userLocales = ConfigurationCompat.getLocales(context.getResources().getConfiguration());
-
         // Find best locale
         Locale locale = userLocales.getFirstMatch(audience.getLanguageTags().toArray(new String[] {}));
         if (locale == null) {
@@ -237,4 +330,46 @@ public abstract class AudienceChecks {
         return false;
     }
 
+    /**
+     * Cached audience evaluation.
+     */
+    private static class Evaluation {
+
+        private final long epoch;
+        private final boolean isDataCollectionEnabled;
+        private final Boolean locationOptIn;
+        private final Boolean notificationsOptIn;
+        private final LocaleListCompat locales;
+        private final Map<String, Set<String>> tagGroups;
+        private final boolean result;
+
+        Evaluation(long epoch, boolean isDataCollectionEnabled, @Nullable Boolean locationOptIn,
+                   @Nullable Boolean notificationsOptIn, @Nullable LocaleListCompat locales,
+                   @NonNull Map<String, Set<String>> tagGroups, boolean result) {
+            this.epoch = epoch;
+            this.isDataCollectionEnabled = isDataCollectionEnabled;
+            this.locationOptIn = locationOptIn;
+            this.notificationsOptIn = notificationsOptIn;
+            this.locales = locales;
+            this.tagGroups = tagGroups;
+            this.result = result;
+        }
+
+        boolean matches(long epoch, boolean isDataCollectionEnabled, @Nullable Boolean locationOptIn,
+                        @Nullable Boolean notificationsOptIn, @Nullable LocaleListCompat locales,
+                        @NonNull Map<String, Set<String>> tagGroups) {
+            return this.epoch == epoch &&
+                    this.isDataCollectionEnabled == isDataCollectionEnabled &&
+                    isEqual(this.locationOptIn, locationOptIn) &&
+                    isEqual(this.notificationsOptIn, notificationsOptIn) &&
+                    isEqual(this.locales, locales) &&
+                    (this.tagGroups == tagGroups || this.tagGroups.equals(tagGroups));
+        }
+
+        private static boolean isEqual(@Nullable Object a, @Nullable Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+    }
+
 }
@@ -4,6 +4,7 @@ package com.urbanairship.automation;
 
 import android.app.Activity;
 import android.content.Context;
+import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
@@ -26,11 +27,13 @@ import com.urbanairship.automation.alarms.AlarmOperationScheduler;
 import com.urbanairship.automation.alarms.OperationScheduler;
 import com.urbanairship.automation.storage.AutomationDao;
 import com.urbanairship.automation.storage.AutomationDaoWrapper;
+import com.urbanairship.automation.storage.TriggerProgressBuffer;
 import com.urbanairship.automation.storage.AutomationDatabase;
 import com.urbanairship.automation.storage.FullSchedule;
 import com.urbanairship.automation.storage.LegacyDataMigrator;
 import com.urbanairship.automation.storage.ScheduleEntity;
 import com.urbanairship.automation.storage.ScheduleState;
+import com.urbanairship.automation.storage.ScheduleSummary;
 import com.urbanairship.automation.storage.TriggerEntity;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.iam.InAppActivityMonitor;
@@ -56,7 +59,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -104,9 +106,15 @@ public class AutomationEngine {
     private long startTime;
     private final SparseArray<Long> stateChangeTimeStamps = new SparseArray<>();
 
+    // Schedules waiting on schedule conditions. Only accessed on the background thread.
+    private final Set<String> waitingScheduleIds = new HashSet<>();
+    private boolean isCheckingReadiness;
+    private boolean isReadinessCheckPending;
+
     @VisibleForTesting
     HandlerThread backgroundThread;
-    private final List<ScheduleOperation> pendingAlarmOperations = new ArrayList<>();
+    private final Map<String, Set<ScheduleOperation>> scheduleAlarmOperations = new HashMap<>();
+    private final Map<String, Set<ScheduleOperation>> groupAlarmOperations = new HashMap<>();
 
     private String screen;
     private String regionId;
@@ -116,6 +124,22 @@ public class AutomationEngine {
     private Scheduler backgroundScheduler;
     private final AutomationDao dao;
 
+    /**
+     * Max time trigger progress is buffered in memory before being written to the database.
+     */
+    @VisibleForTesting
+    static final long TRIGGER_PROGRESS_FLUSH_INTERVAL_MS = 5000;
+
+    private final TriggerProgressBuffer triggerProgressBuffer;
+    private boolean isTriggerProgressFlushScheduled;
+
+    private final Runnable flushTriggerProgressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushTriggerProgress();
+        }
+    };
+
     private final ApplicationListener applicationListener = new ApplicationListener() {
         @Override
         public void onForeground(long time) {
@@ -225,6 +249,7 @@ public class AutomationEngine {
         this.scheduler = scheduler;
         this.mainHandler = new Handler(Looper.getMainLooper());
         this.dao = dao;
+        this.triggerProgressBuffer = new TriggerProgressBuffer(dao);
         this.legacyDataMigrator = legacyDataMigrator;
     }
 
@@ -294,7 +319,15 @@ public class AutomationEngine {
         activityMonitor.removeApplicationListener(applicationListener);
         analytics.removeAnalyticsListener(analyticsListener);
         cancelAlarms();
-        backgroundThread.quit();
+
+        // Persist any buffered trigger progress before the thread exits
+        backgroundHandler.post(flushTriggerProgressRunnable);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            backgroundThread.quitSafely();
+        } else {
+            backgroundThread.quit();
+        }
+
         backgroundThread = null;
         isStarted = false;
     }
@@ -487,6 +520,50 @@ public class AutomationEngine {
         return pendingResult;
     }
 
+    /**
+     * Gets the number of schedules of a type.
+     *
+     * @param type The schedule type.
+     * @return A pending result.
+     */
+    @NonNull
+    public PendingResult<Integer> getScheduleCount(@Schedule.Type final String type) {
+        final PendingResult<Integer> pendingResult = new PendingResult<>();
+
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                cleanSchedules();
+                pendingResult.setResult(Math.max(0, dao.getScheduleCount(type)));
+            }
+        });
+
+        return pendingResult;
+    }
+
+    /**
+     * Gets a page of schedule summaries by type. Summaries only contain the schedule's ID, type, group,
+     * state and priority so the schedule data and triggers are not loaded.
+     *
+     * @param type The schedule type.
+     * @param offset The offset of the first schedule.
+     * @param limit The max number of schedules.
+     * @return A pending result.
+     */
+    @NonNull
+    public PendingResult<List<ScheduleSummary>> getScheduleSummaries(@Schedule.Type final String type, final int offset, final int limit) {
+        final PendingResult<List<ScheduleSummary>> pendingResult = new PendingResult<>();
+
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                pendingResult.setResult(dao.getScheduleSummaries(type, offset, limit));
+            }
+        });
+
+        return pendingResult;
+    }
+
     /**
      * Gets a schedule for the given schedule ID.
      *
@@ -857,32 +934,14 @@ public class AutomationEngine {
     @WorkerThread
     private void cleanSchedules() {
         List<FullSchedule> expired = dao.getActiveExpiredSchedules();
-        List<FullSchedule> finished = dao.getSchedulesWithStates(ScheduleState.FINISHED);
-
         handleExpiredEntries(expired);
 
-        Set<FullSchedule> schedulesToDelete = new HashSet<>();
-        for (FullSchedule entry : finished) {
-            long finishDate;
-
-            // If grace period is unset - use the executionStateChangeDate as finishDate to avoid unnecessarily keeping schedules around
-            if (entry.schedule.editGracePeriod == 0) {
-                finishDate = entry.schedule.executionStateChangeDate;
-            } else if (entry.schedule.scheduleEnd >= 0) {
-                finishDate = entry.schedule.scheduleEnd + entry.schedule.editGracePeriod;
-            } else {
-                // no end date, keep it around for edits
-                continue;
-            }
-
-            if (System.currentTimeMillis() >= finishDate) {
-                schedulesToDelete.add(entry);
-            }
-        }
-
+        // Schedules with no grace period are removed as soon as they finish, otherwise
+        // they are kept around for edits until the grace period after their end date
+        List<String> schedulesToDelete = dao.getFinishedScheduleIdsToDelete(System.currentTimeMillis());
         if (!schedulesToDelete.isEmpty()) {
             Logger.verbose("AutomationEngine - Deleting finished schedules: %s", schedulesToDelete);
-            dao.deleteSchedules(schedulesToDelete);
+            dao.deleteSchedulesById(schedulesToDelete);
         }
     }
 
@@ -893,10 +952,15 @@ public class AutomationEngine {
      */
     @WorkerThread
     private void cancelScheduleAlarms(@NonNull Collection<String> scheduleIds) {
-        for (ScheduleOperation alarmOperation : new ArrayList<>(pendingAlarmOperations)) {
-            if (scheduleIds.contains(alarmOperation.scheduleId)) {
-                alarmOperation.cancel();
-                pendingAlarmOperations.remove(alarmOperation);
+        for (String scheduleId : scheduleIds) {
+            Set<ScheduleOperation> operations = scheduleAlarmOperations.get(scheduleId);
+            if (operations == null) {
+                continue;
+            }
+
+            for (ScheduleOperation operation : new ArrayList<>(operations)) {
+                operation.cancel();
+                removeAlarmOperation(operation);
             }
         }
     }
@@ -908,10 +972,15 @@ public class AutomationEngine {
      */
     @WorkerThread
     private void cancelGroupAlarms(@NonNull Collection<String> groups) {
-        for (ScheduleOperation alarmOperation : new ArrayList<>(pendingAlarmOperations)) {
-            if (groups.contains(alarmOperation.group)) {
-                alarmOperation.cancel();
-                pendingAlarmOperations.remove(alarmOperation);
+        for (String group : groups) {
+            Set<ScheduleOperation> operations = groupAlarmOperations.get(group);
+            if (operations == null) {
+                continue;
+            }
+
+            for (ScheduleOperation operation : new ArrayList<>(operations)) {
+                operation.cancel();
+                removeAlarmOperation(operation);
             }
         }
     }
@@ -921,11 +990,62 @@ public class AutomationEngine {
      */
     @WorkerThread
     private void cancelAlarms() {
-        for (ScheduleOperation operation : pendingAlarmOperations) {
-            operation.cancel();
+        for (Set<ScheduleOperation> operations : scheduleAlarmOperations.values()) {
+            for (ScheduleOperation operation : operations) {
+                operation.cancel();
+            }
+        }
+
+        scheduleAlarmOperations.clear();
+        groupAlarmOperations.clear();
+    }
+
+    /**
+     * Tracks a pending alarm operation by its schedule ID and group.
+     *
+     * @param operation The operation.
+     */
+    private void addAlarmOperation(@NonNull ScheduleOperation operation) {
+        Set<ScheduleOperation> operations = scheduleAlarmOperations.get(operation.scheduleId);
+        if (operations == null) {
+            operations = new HashSet<>();
+            scheduleAlarmOperations.put(operation.scheduleId, operations);
+        }
+        operations.add(operation);
+
+        if (operation.group != null) {
+            Set<ScheduleOperation> groupOperations = groupAlarmOperations.get(operation.group);
+            if (groupOperations == null) {
+                groupOperations = new HashSet<>();
+                groupAlarmOperations.put(operation.group, groupOperations);
+            }
+            groupOperations.add(operation);
+        }
+    }
+
+    /**
+     * Stops tracking a pending alarm operation.
+     *
+     * @param operation The operation.
+     */
+    private void removeAlarmOperation(@NonNull ScheduleOperation operation) {
+        Set<ScheduleOperation> operations = scheduleAlarmOperations.get(operation.scheduleId);
+        if (operations != null) {
+            operations.remove(operation);
+            if (operations.isEmpty()) {
+                scheduleAlarmOperations.remove(operation.scheduleId);
+            }
         }
 
-        pendingAlarmOperations.clear();
+        if (operation.group != null) {
+            Set<ScheduleOperation> groupOperations = groupAlarmOperations.get(operation.group);
+            if (groupOperations != null) {
+                groupOperations.remove(operation);
+                if (groupOperations.isEmpty()) {
+                    groupAlarmOperations.remove(operation.group);
+                }
+            }
+        }
     }
 
     /**
@@ -995,15 +1115,7 @@ public class AutomationEngine {
         backgroundHandler.post(new Runnable() {
             @Override
             public void run() {
-                List<FullSchedule> entries = dao.getSchedulesWithStates(ScheduleState.WAITING_SCHEDULE_CONDITIONS);
-                if (entries.isEmpty()) {
-                    return;
-                }
-
-                sortSchedulesByPriority(entries);
-                for (FullSchedule entry : entries) {
-                    attemptExecution(entry);
-                }
+                checkWaitingSchedules();
             }
         });
     }
@@ -1046,6 +1158,9 @@ public class AutomationEngine {
                     return;
                 }
 
+                // Pick up any progress that has not been written yet
+                triggerProgressBuffer.apply(triggerEntities);
+
                 Set<String> triggeredSchedules = new HashSet<>();
                 Set<String> cancelledSchedules = new HashSet<>();
                 Map<String, TriggerContext> triggerContextMap = new HashMap<>();
@@ -1073,7 +1188,15 @@ public class AutomationEngine {
                     }
                 }
 
-                dao.updateTriggers(triggersToUpdate);
+                triggerProgressBuffer.update(triggersToUpdate);
+
+                // Write through once a goal is reached or while in the background, otherwise
+                // batch the progress writes
+                if (!cancelledSchedules.isEmpty() || !triggeredSchedules.isEmpty() || !activityMonitor.isAppForegrounded()) {
+                    flushTriggerProgress();
+                } else {
+                    scheduleTriggerProgressFlush();
+                }
 
                 if (!cancelledSchedules.isEmpty()) {
                     handleCancelledSchedules(dao.getSchedules(cancelledSchedules));
@@ -1086,6 +1209,29 @@ public class AutomationEngine {
         });
     }
 
+    /**
+     * Schedules a flush of the buffered trigger progress if one is not already scheduled.
+     */
+    @WorkerThread
+    private void scheduleTriggerProgressFlush() {
+        if (isTriggerProgressFlushScheduled || triggerProgressBuffer.isEmpty()) {
+            return;
+        }
+
+        isTriggerProgressFlushScheduled = true;
+        backgroundHandler.postDelayed(flushTriggerProgressRunnable, TRIGGER_PROGRESS_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * Writes any buffered trigger progress to the database.
+     */
+    @WorkerThread
+    private void flushTriggerProgress() {
+        backgroundHandler.removeCallbacks(flushTriggerProgressRunnable);
+        isTriggerProgressFlushScheduled = false;
+        triggerProgressBuffer.flush();
+    }
+
     /**
      * Processes a list of cancelled schedule entries.
      *
@@ -1208,7 +1354,7 @@ public class AutomationEngine {
                                 case AutomationDriver.PREPARE_RESULT_CONTINUE:
                                     updateExecutionState(entry, ScheduleState.WAITING_SCHEDULE_CONDITIONS);
                                     dao.update(entry);
-                                    attemptExecution(entry);
+                                    checkWaitingSchedules();
                                     break;
 
                                 case AutomationDriver.PREPARE_RESULT_SKIP:
@@ -1273,93 +1419,182 @@ public class AutomationEngine {
     }
 
     /**
-     * Called to attempt executing a schedule entry.
-     *
-     * @param entry The schedule entry.
+     * Checks the execution readiness of every schedule waiting on schedule conditions. The schedules
+     * are checked in priority order in a single pass on the main thread, and the results are
+     * applied back on the background thread. If the conditions change while a pass is running,
+     * another pass runs once it finishes.
      */
     @WorkerThread
-    private void attemptExecution(@NonNull final FullSchedule entry) {
-        if (entry.schedule.executionState != ScheduleState.WAITING_SCHEDULE_CONDITIONS) {
-            Logger.error("Unable to execute schedule when state is %s scheduleID: %s", entry.schedule.executionState, entry.schedule.scheduleId);
+    private void checkWaitingSchedules() {
+        if (waitingScheduleIds.isEmpty()) {
             return;
         }
 
-        // Verify the schedule is not expired
-        if (isExpired(entry)) {
-            handleExpiredEntry(entry);
+        if (isCheckingReadiness) {
+            isReadinessCheckPending = true;
             return;
         }
 
-        final CountDownLatch latch = new CountDownLatch(1);
-        ScheduleRunnable<Integer> runnable = new ScheduleRunnable<Integer>(entry.schedule.scheduleId, entry.schedule.group) {
+        List<FullSchedule> entries = dao.getSchedules(new ArrayList<>(waitingScheduleIds));
+        waitingScheduleIds.clear();
+
+        final List<FullSchedule> waiting = new ArrayList<>();
+        for (FullSchedule entry : entries) {
+            if (entry.schedule.executionState != ScheduleState.WAITING_SCHEDULE_CONDITIONS) {
+                continue;
+            }
+
+            // Verify the schedule is not expired
+            if (isExpired(entry)) {
+                handleExpiredEntry(entry);
+                continue;
+            }
+
+            waitingScheduleIds.add(entry.schedule.scheduleId);
+            waiting.add(entry);
+        }
+
+        if (waiting.isEmpty()) {
+            return;
+        }
+
+        sortSchedulesByPriority(waiting);
+        isCheckingReadiness = true;
+
+        mainHandler.post(new Runnable() {
             @Override
             public void run() {
-                Schedule<? extends ScheduleData> schedule = null;
-                result = AutomationDriver.READY_RESULT_NOT_READY;
-
-                if (isPaused.get()) {
-                    return;
+                final List<ReadinessCheck> checks = new ArrayList<>(waiting.size());
+                for (FullSchedule entry : waiting) {
+                    checks.add(checkExecutionReadiness(entry));
                 }
 
-                if (isScheduleConditionsSatisfied(entry)) {
-                    try {
-                        schedule = ScheduleConverters.convert(entry);
-                        result = driver.onCheckExecutionReadiness(schedule);
-                    } catch (Exception e) {
-                        Logger.error(e, "Unable to create schedule.");
-                        this.exception = e;
-                    }
-                }
-                latch.countDown();
+                backgroundHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        isCheckingReadiness = false;
+                        for (ReadinessCheck check : checks) {
+                            onReadinessChecked(check);
+                        }
 
-                if (AutomationDriver.READY_RESULT_CONTINUE == result && schedule != null) {
-                    driver.onExecuteTriggeredSchedule(schedule, new ScheduleExecutorCallback(entry.schedule.scheduleId));
-                }
+                        if (isReadinessCheckPending) {
+                            isReadinessCheckPending = false;
+                            checkWaitingSchedules();
+                        }
+                    }
+                });
             }
-        };
+        });
+    }
 
-        this.mainHandler.post(runnable);
+    /**
+     * Checks if a schedule is ready to execute, and executes it if it is.
+     *
+     * @param entry The schedule entry.
+     * @return The readiness check.
+     */
+    @MainThread
+    @NonNull
+    private ReadinessCheck checkExecutionReadiness(@NonNull FullSchedule entry) {
+        ReadinessCheck check = new ReadinessCheck(entry);
+
+        if (isPaused.get() || !isScheduleConditionsSatisfied(entry)) {
+            return check;
+        }
 
+        Schedule<? extends ScheduleData> schedule;
         try {
-            latch.await();
-        } catch (InterruptedException ex) {
-            Logger.error(ex, "Failed to execute schedule. ");
-            Thread.currentThread().interrupt();
+            schedule = ScheduleConverters.convert(entry);
+            check.result = driver.onCheckExecutionReadiness(schedule);
+        } catch (Exception e) {
+            Logger.error(e, "Unable to create schedule.");
+            check.exception = e;
+            return check;
+        }
+
+        if (AutomationDriver.READY_RESULT_CONTINUE == check.result) {
+            driver.onExecuteTriggeredSchedule(schedule, new ScheduleExecutorCallback(entry.schedule.scheduleId));
+        }
+
+        return check;
+    }
+
+    /**
+     * Applies the result of a readiness check.
+     *
+     * @param check The readiness check.
+     */
+    @WorkerThread
+    private void onReadinessChecked(@NonNull ReadinessCheck check) {
+        String scheduleId = check.entry.schedule.scheduleId;
+
+        // Grab the updated entry
+        FullSchedule entry = dao.getSchedule(scheduleId);
+
+        // Make sure the schedule is still waiting
+        if (entry == null || entry.schedule.executionState != ScheduleState.WAITING_SCHEDULE_CONDITIONS) {
+            if (check.exception == null && check.result == AutomationDriver.READY_RESULT_CONTINUE) {
+                onExecutionStartedAfterChange(scheduleId, entry);
+            }
+            return;
         }
 
-        if (runnable.exception != null) {
-            Logger.error("Failed to check conditions. Deleting schedule: %s", entry.schedule.scheduleId);
+        if (check.exception != null) {
+            Logger.error("Failed to check conditions. Deleting schedule: %s", scheduleId);
+            waitingScheduleIds.remove(scheduleId);
             dao.delete(entry);
             notifyCancelledSchedule(Collections.singleton(entry));
-        } else {
-            int result = runnable.result == null ? AutomationDriver.READY_RESULT_NOT_READY : runnable.result;
-            switch (result) {
-                case AutomationDriver.READY_RESULT_INVALIDATE:
-                    Logger.verbose("AutomationEngine - Schedule invalidated: %s", entry.schedule.scheduleId);
-                    updateExecutionState(entry, ScheduleState.PREPARING_SCHEDULE);
-                    dao.update(entry);
-                    prepareSchedules(Collections.singletonList(dao.getSchedule(entry.schedule.scheduleId)));
-                    break;
+            return;
+        }
 
-                case AutomationDriver.READY_RESULT_CONTINUE:
-                    Logger.verbose("AutomationEngine - Schedule executing: %s", entry.schedule.scheduleId);
-                    updateExecutionState(entry, ScheduleState.EXECUTING);
-                    dao.update(entry);
-                    break;
+        switch (check.result) {
+            case AutomationDriver.READY_RESULT_INVALIDATE:
+                Logger.verbose("AutomationEngine - Schedule invalidated: %s", scheduleId);
+                updateExecutionState(entry, ScheduleState.PREPARING_SCHEDULE);
+                dao.update(entry);
+                prepareSchedules(Collections.singletonList(dao.getSchedule(scheduleId)));
+                break;
 
-                case AutomationDriver.READY_RESULT_NOT_READY:
-                    Logger.verbose("AutomationEngine - Schedule not ready for execution: %s", entry.schedule.scheduleId);
-                    break;
+            case AutomationDriver.READY_RESULT_CONTINUE:
+                Logger.verbose("AutomationEngine - Schedule executing: %s", scheduleId);
+                updateExecutionState(entry, ScheduleState.EXECUTING);
+                dao.update(entry);
+                break;
 
-                case AutomationDriver.READY_RESULT_SKIP:
-                    Logger.verbose("AutomationEngine - Schedule execution skipped: %s", entry.schedule.scheduleId);
-                    updateExecutionState(entry, ScheduleState.IDLE);
-                    dao.update(entry);
-                    break;
-            }
+            case AutomationDriver.READY_RESULT_NOT_READY:
+                Logger.verbose("AutomationEngine - Schedule not ready for execution: %s", scheduleId);
+                break;
+
+            case AutomationDriver.READY_RESULT_SKIP:
+                Logger.verbose("AutomationEngine - Schedule execution skipped: %s", scheduleId);
+                updateExecutionState(entry, ScheduleState.IDLE);
+                dao.update(entry);
+                break;
         }
     }
 
+    /**
+     * Handles a schedule that was cancelled, edited, or reset after the driver started executing it
+     * but before the execution was recorded.
+     *
+     * @param scheduleId The schedule ID.
+     * @param entry The updated entry, or null if the schedule was removed.
+     */
+    @WorkerThread
+    private void onExecutionStartedAfterChange(@NonNull String scheduleId, @Nullable FullSchedule entry) {
+        if (entry == null) {
+            // The finish callback is ignored for removed schedules, same as a cancel during execution
+            Logger.verbose("AutomationEngine - Schedule removed while executing: %s", scheduleId);
+            return;
+        }
+
+        // The execution is already running, record it so its finish is applied and the schedule
+        // is not prepared again until then
+        Logger.verbose("AutomationEngine - Schedule changed while executing: %s", scheduleId);
+        updateExecutionState(entry, ScheduleState.EXECUTING);
+        dao.update(entry);
+    }
+
     /**
      * Helper method to notify the schedule listener for expired schedule entries.
      *
@@ -1529,10 +1764,10 @@ public class AutomationEngine {
         operation.addOnRun(new Runnable() {
             @Override
             public void run() {
-                pendingAlarmOperations.remove(operation);
+                removeAlarmOperation(operation);
             }
         });
-        pendingAlarmOperations.add(operation);
+        addAlarmOperation(operation);
         scheduler.schedule(delay, operation);
     }
 
@@ -1570,11 +1805,11 @@ public class AutomationEngine {
         operation.addOnRun(new Runnable() {
             @Override
             public void run() {
-                pendingAlarmOperations.remove(operation);
+                removeAlarmOperation(operation);
             }
         });
 
-        pendingAlarmOperations.add(operation);
+        addAlarmOperation(operation);
         scheduler.schedule(interval, operation);
     }
 
@@ -1666,16 +1901,18 @@ public class AutomationEngine {
 
     }
 
-    private static abstract class ScheduleRunnable<T> implements Runnable {
+    /**
+     * The result of checking a schedule's execution readiness.
+     */
+    private static class ReadinessCheck {
 
-        final String scheduleId;
-        final String group;
-        T result;
+        final FullSchedule entry;
+        @AutomationDriver.ReadyResult
+        int result = AutomationDriver.READY_RESULT_NOT_READY;
         Exception exception;
 
-        ScheduleRunnable(String scheduleId, String group) {
-            this.scheduleId = scheduleId;
-            this.group = group;
+        ReadinessCheck(@NonNull FullSchedule entry) {
+            this.entry = entry;
         }
 
     }
@@ -1734,6 +1971,12 @@ public class AutomationEngine {
             schedule.schedule.executionState = executionState;
             schedule.schedule.executionStateChangeDate = System.currentTimeMillis();
         }
+
+        if (executionState == ScheduleState.WAITING_SCHEDULE_CONDITIONS) {
+            waitingScheduleIds.add(schedule.schedule.scheduleId);
+        } else {
+            waitingScheduleIds.remove(schedule.schedule.scheduleId);
+        }
     }
 
     /**
@@ -22,11 +22,13 @@ import com.urbanairship.automation.deferred.DeferredScheduleClient;
 import com.urbanairship.automation.limits.FrequencyChecker;
 import com.urbanairship.automation.limits.FrequencyConstraint;
 import com.urbanairship.automation.limits.FrequencyLimitManager;
+import com.urbanairship.automation.storage.ScheduleSummary;
 import com.urbanairship.automation.tags.AudienceManager;
 import com.urbanairship.automation.tags.TagGroupResult;
 import com.urbanairship.automation.tags.TagGroupUtils;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.channel.NamedUser;
+import com.urbanairship.channel.TagsChangedListener;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.Response;
@@ -43,6 +45,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -68,6 +71,11 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
      */
     private final static String PAUSE_KEY = "com.urbanairship.iam.paused";
 
+    /**
+     * Max time to spend retrying a deferred schedule before skipping it.
+     */
+    private final static long DEFERRED_RESOLVE_DEADLINE_MS = 30000;
+
     // State
     private final InAppRemoteDataObserver remoteDataSubscriber;
     private final Handler backgroundHandler;
@@ -75,15 +83,15 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
     private final AutomationEngine automationEngine;
     private final InAppMessageManager inAppMessageManager;
     private final AudienceManager audienceManager;
-    private final RetryingExecutor retryingExecutor;
+    private final PrepareScheduleQueue prepareQueue;
     private final DeferredScheduleClient deferredScheduleClient;
     private final FrequencyLimitManager frequencyLimitManager;
 
     private final ActionsScheduleDelegate actionScheduleDelegate;
     private final InAppMessageScheduleDelegate inAppMessageScheduleDelegate;
 
-    private final Map<String, ScheduleDelegate<?>> scheduleDelegateMap = new HashMap<>();
-    private final Map<String, FrequencyChecker> frequencyCheckerMap = new HashMap<>();
+    private final Map<String, ScheduleDelegate<?>> scheduleDelegateMap = new ConcurrentHashMap<>();
+    private final Map<String, FrequencyChecker> frequencyCheckerMap = new ConcurrentHashMap<>();
 
     private final AutomationDriver driver = new AutomationDriver() {
         @Override
@@ -150,9 +158,10 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         });
 
         this.backgroundHandler = new Handler(AirshipLoopers.getBackgroundLooper());
-        this.retryingExecutor = RetryingExecutor.newSerialExecutor(Looper.getMainLooper());
+        this.prepareQueue = new PrepareScheduleQueue(RetryingExecutor.newBoundedExecutor(Looper.getMainLooper(),
+                PrepareScheduleQueue.MAX_CONCURRENT_PREPARES, "UrbanAirship-SchedulePrepare"), backgroundHandler);
 
-        this.deferredScheduleClient = new DeferredScheduleClient(runtimeConfig, new AuthManager(runtimeConfig, airshipChannel));
+        this.deferredScheduleClient = new DeferredScheduleClient(runtimeConfig, new AuthManager(runtimeConfig, airshipChannel, preferenceDataStore));
         this.actionScheduleDelegate = new ActionsScheduleDelegate();
         this.inAppMessageScheduleDelegate = new InAppMessageScheduleDelegate(inAppMessageManager);
         this.frequencyLimitManager = new FrequencyLimitManager(context, runtimeConfig);
@@ -177,9 +186,9 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         this.audienceManager = audienceManager;
         this.remoteDataSubscriber = observer;
         this.inAppMessageManager = inAppMessageManager;
-        this.retryingExecutor = retryingExecutor;
         this.deferredScheduleClient = deferredScheduleClient;
         this.backgroundHandler = new Handler(AirshipLoopers.getBackgroundLooper());
+        this.prepareQueue = new PrepareScheduleQueue(retryingExecutor, backgroundHandler);
         this.actionScheduleDelegate = actionsScheduleDelegate;
         this.inAppMessageScheduleDelegate = inAppMessageScheduleDelegate;
         this.frequencyLimitManager = frequencyLimitManager;
@@ -217,6 +226,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         this.automationEngine.setScheduleListener(new AutomationEngine.ScheduleListener() {
             @Override
             public void onScheduleExpired(@NonNull final Schedule<? extends ScheduleData> schedule) {
+                prepareQueue.cancel(schedule.getId());
                 ScheduleDelegate<? extends ScheduleData> delegate = delegateForSchedule(schedule);
                 if (delegate != null) {
                     delegate.onScheduleFinished(schedule);
@@ -225,6 +235,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
 
             @Override
             public void onScheduleCancelled(@NonNull final Schedule<? extends ScheduleData> schedule) {
+                prepareQueue.cancel(schedule.getId());
                 ScheduleDelegate<? extends ScheduleData> delegate = delegateForSchedule(schedule);
                 if (delegate != null) {
                     delegate.onScheduleFinished(schedule);
@@ -233,6 +244,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
 
             @Override
             public void onScheduleLimitReached(@NonNull final Schedule<? extends ScheduleData> schedule) {
+                prepareQueue.cancel(schedule.getId());
                 ScheduleDelegate<? extends ScheduleData> delegate = delegateForSchedule(schedule);
                 if (delegate != null) {
                     delegate.onScheduleFinished(schedule);
@@ -248,6 +260,13 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
             }
         });
 
+        airshipChannel.addTagsChangedListener(new TagsChangedListener() {
+            @Override
+            public void onTagsChanged() {
+                AudienceChecks.onInputsChanged();
+            }
+        });
+
         automationEngine.start(driver);
         updateEnginePauseState();
 
@@ -437,6 +456,32 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         return automationEngine.getSchedulesByType(Schedule.TYPE_IN_APP_MESSAGE);
     }
 
+    /**
+     * Gets the number of in-app message schedules.
+     *
+     * @return A pending result.
+     * @hide
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public PendingResult<Integer> getMessageScheduleCount() {
+        return automationEngine.getScheduleCount(Schedule.TYPE_IN_APP_MESSAGE);
+    }
+
+    /**
+     * Gets a page of in-app message schedule summaries without loading the messages.
+     *
+     * @param offset The offset of the first schedule.
+     * @param limit The max number of schedules.
+     * @return A pending result.
+     * @hide
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public PendingResult<List<ScheduleSummary>> getMessageScheduleSummaries(int offset, int limit) {
+        return automationEngine.getScheduleSummaries(Schedule.TYPE_IN_APP_MESSAGE, offset, limit);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -536,64 +581,72 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
             return;
         }
 
-        // Audience checks
-        RetryingExecutor.Operation checkAudience = new RetryingExecutor.Operation() {
+        prepareQueue.prepare(schedule, callback, new PrepareScheduleQueue.OperationsFactory() {
+            @NonNull
             @Override
-            public int run() {
-                Map<String, Set<String>> tagGroups = null;
-
-                if (schedule.getAudience() == null) {
-                    return RetryingExecutor.RESULT_FINISHED;
-                }
-
-                if (schedule.getAudience().getTagSelector() != null && schedule.getAudience().getTagSelector().containsTagGroups()) {
-                    Map<String, Set<String>> tags = schedule.getAudience().getTagSelector().getTagGroups();
-                    TagGroupResult result = audienceManager.getTags(tags);
-                    if (!result.success) {
-                        return RetryingExecutor.RESULT_RETRY;
-                    }
-
-                    tagGroups = result.tagGroups;
-                }
+            public RetryingExecutor.Operation[] create(@NonNull final AutomationDriver.PrepareScheduleCallback prepareCallback) {
+                final long deferredDeadline = System.currentTimeMillis() + DEFERRED_RESOLVE_DEADLINE_MS;
+
+                // Audience checks
+                RetryingExecutor.Operation checkAudience = new RetryingExecutor.Operation() {
+                    @Override
+                    public int run() {
+                        Map<String, Set<String>> tagGroups = null;
+
+                        if (schedule.getAudience() == null) {
+                            return RetryingExecutor.RESULT_FINISHED;
+                        }
+
+                        if (schedule.getAudience().getTagSelector() != null && schedule.getAudience().getTagSelector().containsTagGroups()) {
+                            Map<String, Set<String>> tags = schedule.getAudience().getTagSelector().getTagGroups();
+                            TagGroupResult result = audienceManager.getTags(tags);
+                            if (!result.success) {
+                                return RetryingExecutor.RESULT_RETRY;
+                            }
 
-                if (AudienceChecks.checkAudience(getContext(), schedule.getAudience(), tagGroups)) {
-                    return RetryingExecutor.RESULT_FINISHED;
-                }
+                            tagGroups = result.tagGroups;
+                        }
 
-                callback.onFinish(getPrepareResultMissedAudience(schedule));
-                return RetryingExecutor.RESULT_CANCEL;
-            }
-        };
-
-        final AutomationDriver.PrepareScheduleCallback callbackWrapper = new AutomationDriver.PrepareScheduleCallback() {
-            @Override
-            public void onFinish(int result) {
-                if (result == AutomationDriver.PREPARE_RESULT_CONTINUE && frequencyChecker != null) {
-                    frequencyCheckerMap.put(schedule.getId(), frequencyChecker);
-                }
-                callback.onFinish(result);
-            }
-        };
+                        if (AudienceChecks.checkAudience(getContext(), schedule.getAudience(), tagGroups)) {
+                            return RetryingExecutor.RESULT_FINISHED;
+                        }
 
-        RetryingExecutor.Operation prepareSchedule = new RetryingExecutor.Operation() {
-            @Override
-            public int run() {
-                switch (schedule.getType()) {
-                    case Schedule.TYPE_DEFERRED:
-                        return resolveDeferred(schedule, triggerContext, callbackWrapper);
-                    case Schedule.TYPE_ACTION:
-                        prepareSchedule(schedule, (Actions) schedule.coerceType(), actionScheduleDelegate, callbackWrapper);
-                        break;
-                    case Schedule.TYPE_IN_APP_MESSAGE:
-                        prepareSchedule(schedule, (InAppMessage) schedule.coerceType(), inAppMessageScheduleDelegate, callbackWrapper);
-                        break;
-                }
+                        prepareCallback.onFinish(getPrepareResultMissedAudience(schedule));
+                        return RetryingExecutor.RESULT_CANCEL;
+                    }
+                };
+
+                final AutomationDriver.PrepareScheduleCallback callbackWrapper = new AutomationDriver.PrepareScheduleCallback() {
+                    @Override
+                    public void onFinish(int result) {
+                        if (result == AutomationDriver.PREPARE_RESULT_CONTINUE && frequencyChecker != null) {
+                            frequencyCheckerMap.put(schedule.getId(), frequencyChecker);
+                        }
+                        prepareCallback.onFinish(result);
+                    }
+                };
+
+                RetryingExecutor.Operation prepareSchedule = new RetryingExecutor.Operation() {
+                    @Override
+                    public int run() {
+                        switch (schedule.getType()) {
+                            case Schedule.TYPE_DEFERRED:
+                                return resolveDeferred(schedule, triggerContext, deferredDeadline, callbackWrapper);
+                            case Schedule.TYPE_ACTION:
+                                prepareSchedule(schedule, (Actions) schedule.coerceType(), actionScheduleDelegate, callbackWrapper);
+                                break;
+                            case Schedule.TYPE_IN_APP_MESSAGE:
+                                prepareSchedule(schedule, (InAppMessage) schedule.coerceType(), inAppMessageScheduleDelegate, callbackWrapper);
+                                break;
+                        }
+
+                        return RetryingExecutor.RESULT_FINISHED;
+                    }
+                };
 
-                return RetryingExecutor.RESULT_FINISHED;
+                return new RetryingExecutor.Operation[] { checkAudience, prepareSchedule };
             }
-        };
-
-        retryingExecutor.execute(checkAudience, prepareSchedule);
+        });
     }
 
     private <T extends ScheduleData> void prepareSchedule(final Schedule<? extends ScheduleData> schedule, T scheduleData, final ScheduleDelegate<T> delegate, final @NonNull AutomationDriver.PrepareScheduleCallback callback) {
@@ -611,6 +664,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
     @RetryingExecutor.Result
     private int resolveDeferred(final @NonNull Schedule<? extends ScheduleData> schedule,
                                 final @Nullable TriggerContext triggerContext,
+                                final long deadline,
                                 final @NonNull AutomationDriver.PrepareScheduleCallback callback) {
 
         Deferred deferredScheduleData = (Deferred) schedule.coerceType();
@@ -618,7 +672,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
 
         String channelId = airshipChannel.getId();
         if (channelId == null) {
-            return RetryingExecutor.RESULT_RETRY;
+            return retryDeferred(schedule, deadline, callback);
         }
 
         try {
@@ -628,7 +682,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         } catch (RequestException e) {
             if (deferredScheduleData.getRetryOnTimeout()) {
                 Logger.debug(e, "Failed to resolve deferred schedule, will retry. Schedule: %s", schedule.getId());
-                return RetryingExecutor.RESULT_RETRY;
+                return retryDeferred(schedule, deadline, callback);
             } else {
                 Logger.debug(e, "Failed to resolve deferred schedule. Schedule: %s", schedule.getId());
                 callback.onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
@@ -636,12 +690,12 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
             }
         } catch (AuthException e) {
             Logger.debug(e, "Failed to resolve deferred schedule: %s", schedule.getId());
-            return RetryingExecutor.RESULT_RETRY;
+            return retryDeferred(schedule, deadline, callback);
         }
 
         if (!response.isSuccessful()) {
             Logger.debug("Failed to resolve deferred schedule, will retry. Schedule: %s, Response: %", schedule.getId(), response);
-            return RetryingExecutor.RESULT_RETRY;
+            return retryDeferred(schedule, deadline, callback);
         }
 
         if (!response.getResult().isAudienceMatch()) {
@@ -660,6 +714,28 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         return RetryingExecutor.RESULT_FINISHED;
     }
 
+    /**
+     * Retries resolving a deferred schedule, or skips it once the deadline has passed so it
+     * does not hold up the prepare queue.
+     *
+     * @param schedule The schedule.
+     * @param deadline The deadline.
+     * @param callback The prepare callback.
+     * @return The operation result.
+     */
+    @RetryingExecutor.Result
+    private int retryDeferred(final @NonNull Schedule<? extends ScheduleData> schedule,
+                              final long deadline,
+                              final @NonNull AutomationDriver.PrepareScheduleCallback callback) {
+        if (System.currentTimeMillis() >= deadline) {
+            Logger.debug("Unable to resolve deferred schedule before the deadline, skipping. Schedule: %s", schedule.getId());
+            callback.onFinish(AutomationDriver.PREPARE_RESULT_SKIP);
+            return RetryingExecutor.RESULT_CANCEL;
+        }
+
+        return RetryingExecutor.RESULT_RETRY;
+    }
+
     @MainThread
     @AutomationDriver.ReadyResult
     private int onCheckExecutionReadiness(@NonNull Schedule<? extends ScheduleData> schedule) {
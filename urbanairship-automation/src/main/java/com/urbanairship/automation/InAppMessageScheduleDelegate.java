@@ -25,10 +25,30 @@ class InAppMessageScheduleDelegate implements ScheduleDelegate<InAppMessage> {
     @Override
     public void onNewSchedule(@NonNull Schedule<? extends ScheduleData> schedule) {
         if (Schedule.TYPE_IN_APP_MESSAGE.equals(schedule.getType())) {
-            messageManager.onNewMessageSchedule(schedule.getId(), (InAppMessage) schedule.coerceType());
+            messageManager.onNewMessageSchedule(schedule.getId(), (InAppMessage) schedule.coerceType(), isLikelyToTrigger(schedule));
         }
     }
 
+    /**
+     * Checks if the schedule has a trigger that fires during normal app usage, such as
+     * a foreground or screen view, making it likely to trigger soon.
+     *
+     * @param schedule The schedule.
+     * @return {@code true} if the schedule is likely to trigger, otherwise {@code false}.
+     */
+    private static boolean isLikelyToTrigger(@NonNull Schedule<? extends ScheduleData> schedule) {
+        for (Trigger trigger : schedule.getTriggers()) {
+            switch (trigger.getType()) {
+                case Trigger.LIFE_CYCLE_FOREGROUND:
+                case Trigger.LIFE_CYCLE_APP_INIT:
+                case Trigger.ACTIVE_SESSION:
+                case Trigger.SCREEN_VIEW:
+                    return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void onScheduleFinished(@NonNull Schedule<? extends ScheduleData> schedule) {
         messageManager.onMessageScheduleFinished(schedule.getId());
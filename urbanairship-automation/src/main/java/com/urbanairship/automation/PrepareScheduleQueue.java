@@ -0,0 +1,257 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.urbanairship.Logger;
+import com.urbanairship.util.RetryingExecutor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Runs the prepare operations for triggered schedules in parallel.
+ * <p>
+ * The engine prepares triggered schedules in priority order, so operations are started in priority
+ * order on a small bounded pool. Schedules can finish preparing out of order, so a result is held
+ * until every higher priority schedule in the queue has finished, and results are delivered in
+ * priority order. If a result has been held for {@link #MAX_BLOCKING_DELAY_MS}, it is delivered
+ * ahead of the higher priority schedules still preparing, so an unrelated download or retry can not
+ * hold up a prepared schedule indefinitely. The higher priority schedules keep preparing and are
+ * delivered once they finish. Results are delivered on the handler so the callbacks never run
+ * concurrently.
+ */
+class PrepareScheduleQueue {
+
+    /**
+     * Max number of schedules prepared at the same time.
+     */
+    static final int MAX_CONCURRENT_PREPARES = 3;
+
+    /**
+     * Max time a prepared result waits on higher priority schedules before it is delivered out of order.
+     */
+    static final long MAX_BLOCKING_DELAY_MS = 10000; // 10s
+
+    private final RetryingExecutor executor;
+    private final Handler handler;
+
+    // Sorted by priority. Guarded by pending.
+    private final List<PendingPrepare> pending = new ArrayList<>();
+
+    private final Runnable deliverRunnable = new Runnable() {
+        @Override
+        public void run() {
+            deliverResults();
+        }
+    };
+
+    private final Runnable timeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            deliverResults();
+        }
+    };
+
+    /**
+     * Default constructor.
+     *
+     * @param executor The executor that runs the prepare operations.
+     * @param handler Handler results are delivered on.
+     */
+    PrepareScheduleQueue(@NonNull RetryingExecutor executor, @NonNull Handler handler) {
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    /**
+     * Prepares a schedule.
+     *
+     * @param schedule The schedule.
+     * @param callback The callback the result will be delivered to.
+     * @param operations Factory for the prepare operations. The operations must finish with the callback
+     * passed to the factory.
+     */
+    void prepare(@NonNull Schedule<? extends ScheduleData> schedule,
+                 @NonNull AutomationDriver.PrepareScheduleCallback callback,
+                 @NonNull OperationsFactory operations) {
+
+        final PendingPrepare prepare = new PendingPrepare(schedule.getId(), schedule.getPriority(), callback);
+
+        synchronized (pending) {
+            // Replace any previous prepare for the same schedule
+            removePending(prepare.scheduleId);
+
+            int index = 0;
+            while (index < pending.size() && pending.get(index).priority <= prepare.priority) {
+                index++;
+            }
+            pending.add(index, prepare);
+        }
+
+        RetryingExecutor.Operation[] wrapped = operations.create(new AutomationDriver.PrepareScheduleCallback() {
+            @Override
+            public void onFinish(int result) {
+                onPrepareFinished(prepare, result);
+            }
+        });
+
+        for (int i = 0; i < wrapped.length; i++) {
+            final RetryingExecutor.Operation operation = wrapped[i];
+            wrapped[i] = new RetryingExecutor.Operation() {
+                @Override
+                public int run() {
+                    if (prepare.isCancelled) {
+                        return RetryingExecutor.RESULT_CANCEL;
+                    }
+                    return operation.run();
+                }
+            };
+        }
+
+        executor.execute(wrapped);
+    }
+
+    /**
+     * Cancels preparing a schedule. Any remaining operations are skipped and the result will not be
+     * delivered.
+     *
+     * @param scheduleId The schedule ID.
+     */
+    void cancel(@NonNull String scheduleId) {
+        synchronized (pending) {
+            if (removePending(scheduleId) == null) {
+                return;
+            }
+        }
+
+        Logger.verbose("PrepareScheduleQueue - Cancelled preparing schedule: %s", scheduleId);
+
+        // Results may have been waiting on the cancelled schedule
+        handler.post(deliverRunnable);
+    }
+
+    private void onPrepareFinished(@NonNull PendingPrepare prepare, int result) {
+        synchronized (pending) {
+            if (prepare.isCancelled || prepare.isFinished) {
+                return;
+            }
+
+            prepare.isFinished = true;
+            prepare.result = result;
+            prepare.finishTime = SystemClock.uptimeMillis();
+        }
+
+        handler.post(deliverRunnable);
+    }
+
+    /**
+     * Delivers every finished result that is not waiting on a higher priority schedule, or that has
+     * waited longer than {@link #MAX_BLOCKING_DELAY_MS}, in priority order. Only called on the handler,
+     * so results removed from the queue are delivered before any later ones.
+     */
+    private void deliverResults() {
+        List<PendingPrepare> ready = new ArrayList<>();
+        long nextTimeoutTime = -1;
+
+        synchronized (pending) {
+            long now = SystemClock.uptimeMillis();
+            Integer blockingPriority = null;
+            Iterator<PendingPrepare> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                PendingPrepare prepare = iterator.next();
+                if (!prepare.isFinished) {
+                    if (blockingPriority == null) {
+                        blockingPriority = prepare.priority;
+                    }
+                    continue;
+                }
+
+                long timeoutTime = prepare.finishTime + MAX_BLOCKING_DELAY_MS;
+                if (blockingPriority == null || blockingPriority >= prepare.priority) {
+                    iterator.remove();
+                    ready.add(prepare);
+                } else if (timeoutTime <= now) {
+                    Logger.debug("PrepareScheduleQueue - Schedule %s waited too long on higher priority schedules, delivering out of order.", prepare.scheduleId);
+                    iterator.remove();
+                    ready.add(prepare);
+                } else if (nextTimeoutTime == -1 || timeoutTime < nextTimeoutTime) {
+                    nextTimeoutTime = timeoutTime;
+                }
+            }
+        }
+
+        handler.removeCallbacks(timeoutRunnable);
+        if (nextTimeoutTime != -1) {
+            handler.postAtTime(timeoutRunnable, nextTimeoutTime);
+        }
+
+        for (PendingPrepare prepare : ready) {
+            prepare.callback.onFinish(prepare.result);
+        }
+    }
+
+    @Nullable
+    private PendingPrepare removePending(@NonNull String scheduleId) {
+        Iterator<PendingPrepare> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            PendingPrepare prepare = iterator.next();
+            if (prepare.scheduleId.equals(scheduleId)) {
+                prepare.isCancelled = true;
+                iterator.remove();
+                return prepare;
+            }
+        }
+        return null;
+    }
+
+    @VisibleForTesting
+    int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Creates the prepare operations for a schedule.
+     */
+    interface OperationsFactory {
+
+        /**
+         * Creates the operations.
+         *
+         * @param callback The callback the operations must finish with.
+         * @return The operations, run in order.
+         */
+        @NonNull
+        RetryingExecutor.Operation[] create(@NonNull AutomationDriver.PrepareScheduleCallback callback);
+
+    }
+
+    private static class PendingPrepare {
+
+        final String scheduleId;
+        final int priority;
+        final AutomationDriver.PrepareScheduleCallback callback;
+
+        volatile boolean isCancelled;
+        boolean isFinished;
+        int result;
+        long finishTime;
+
+        PendingPrepare(@NonNull String scheduleId, int priority, @NonNull AutomationDriver.PrepareScheduleCallback callback) {
+            this.scheduleId = scheduleId;
+            this.priority = priority;
+            this.callback = callback;
+        }
+
+    }
+
+}
@@ -8,13 +8,14 @@ import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 
+import com.urbanairship.Cancelable;
 import com.urbanairship.Logger;
 import com.urbanairship.util.Clock;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
@@ -35,21 +36,29 @@ public class AlarmOperationScheduler implements OperationScheduler {
     private static class PendingOperation {
         final Runnable operation;
         final long scheduledTime;
+        final long sequence;
 
-        PendingOperation(long scheduledTime, @NonNull Runnable operation) {
+        PendingOperation(long scheduledTime, long sequence, @NonNull Runnable operation) {
             this.operation = operation;
             this.scheduledTime = scheduledTime;
+            this.sequence = sequence;
         }
     }
 
-    private final Comparator<PendingOperation> OPERATION_COMPARATOR = new Comparator<PendingOperation>() {
+    private static final Comparator<PendingOperation> OPERATION_COMPARATOR = new Comparator<PendingOperation>() {
         @Override
         public int compare(PendingOperation lhs, PendingOperation rhs) {
-            return Long.valueOf(lhs.scheduledTime).compareTo(rhs.scheduledTime);
+            if (lhs.scheduledTime != rhs.scheduledTime) {
+                return lhs.scheduledTime < rhs.scheduledTime ? -1 : 1;
+            }
+
+            // Operations with the same time run in the order they were scheduled
+            return lhs.sequence < rhs.sequence ? -1 : (lhs.sequence == rhs.sequence ? 0 : 1);
         }
     };
 
-    private final List<PendingOperation> pendingOperations = new ArrayList<>();
+    private final PriorityQueue<PendingOperation> pendingOperations = new PriorityQueue<>(11, OPERATION_COMPARATOR);
+    private long sequence;
     private final Clock clock;
     private final AlarmManagerDelegate delegate;
     private final Context context;
@@ -102,14 +111,17 @@ public class AlarmOperationScheduler implements OperationScheduler {
     @Override
     public void schedule(long delay, @NonNull final Runnable operation) {
         long time = clock.elapsedRealtime() + delay;
-        PendingOperation pendingOperation = new PendingOperation(time, operation);
 
         Logger.verbose("AlarmOperationScheduler - Operation scheduled with %d delay", delay);
 
         synchronized (pendingOperations) {
+            PendingOperation pendingOperation = new PendingOperation(time, sequence++, operation);
             pendingOperations.add(pendingOperation);
-            Collections.sort(pendingOperations, OPERATION_COMPARATOR);
-            scheduleAlarm();
+
+            // Only update the alarm if the operation is the next one due
+            if (pendingOperations.peek() == pendingOperation) {
+                scheduleAlarm(time);
+            }
         }
     }
 
@@ -120,30 +132,42 @@ public class AlarmOperationScheduler implements OperationScheduler {
         Logger.verbose("AlarmOperationScheduler - Alarm fired");
 
         long time = clock.elapsedRealtime();
+        List<Runnable> dueOperations = new ArrayList<>();
 
         synchronized (pendingOperations) {
-            List<PendingOperation> copy = new ArrayList<>(pendingOperations);
-            for (PendingOperation pendingOperation : copy) {
-                if (pendingOperation.scheduledTime <= time) {
-                    pendingOperation.operation.run();
-                    pendingOperations.remove(pendingOperation);
-                }
+            while (!pendingOperations.isEmpty() && pendingOperations.peek().scheduledTime <= time) {
+                dueOperations.add(pendingOperations.poll().operation);
+            }
+
+            dropCancelledOperations();
+
+            PendingOperation next = pendingOperations.peek();
+            if (next != null) {
+                scheduleAlarm(next.scheduledTime);
             }
+        }
 
-            scheduleAlarm();
+        // Run outside of the lock so new operations can be scheduled
+        for (Runnable operation : dueOperations) {
+            operation.run();
         }
     }
 
-    private void scheduleAlarm() {
-        long nextScheduleTime;
-        synchronized (pendingOperations) {
-            if (pendingOperations.isEmpty()) {
+    /**
+     * Removes cancelled operations from the head of the queue so they do not wake up the device.
+     */
+    private void dropCancelledOperations() {
+        while (!pendingOperations.isEmpty()) {
+            Runnable operation = pendingOperations.peek().operation;
+            if (operation instanceof Cancelable && ((Cancelable) operation).isCancelled()) {
+                pendingOperations.poll();
+            } else {
                 return;
             }
-
-            nextScheduleTime = pendingOperations.get(0).scheduledTime;
         }
+    }
 
+    private void scheduleAlarm(long nextScheduleTime) {
         Intent intent = new Intent(context, AlarmOperationReceiver.class).setAction(AlarmOperationReceiver.ACTION);
         PendingIntent pendingIntent = PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT);
 
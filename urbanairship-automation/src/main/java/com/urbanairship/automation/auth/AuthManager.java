@@ -2,13 +2,25 @@
 
 package com.urbanairship.automation.auth;
 
+import android.os.Handler;
+
+import com.urbanairship.AirshipExecutors;
+import com.urbanairship.AirshipLoopers;
+import com.urbanairship.Logger;
+import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.Response;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.Clock;
 import com.urbanairship.util.UAStringUtil;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -17,28 +29,69 @@ import androidx.annotation.WorkerThread;
 
 /**
  * Auth manager.
+ * <p>
+ * Tokens are persisted across app launches and refreshed in the background shortly before they
+ * expire, so callers rarely have to wait on a token request. A refresh is only scheduled once the
+ * cached token has been requested since it was fetched, so an unused token is left to expire. Any
+ * token request that finds the token about to expire also starts a refresh.
  *
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class AuthManager {
 
+    /**
+     * Cached tokens that expire within this window are refreshed in the background. Short lived
+     * tokens use half of their lifetime instead, so they are not refetched on every request.
+     */
+    @VisibleForTesting
+    static final long MAX_REFRESH_WINDOW_MS = 5 * 60 * 1000;
+
+    private static final String TOKEN_KEY = "com.urbanairship.iam.auth.TOKEN";
+
     private final Object cachedAuthLock = new Object();
+    private final Object fetchLock = new Object();
     private final AuthApiClient apiClient;
     private final AirshipChannel channel;
     private final Clock clock;
+    private final PreferenceDataStore dataStore;
+    private final Executor executor;
+    private final Handler handler;
+
+    private final AtomicBoolean isRefreshing = new AtomicBoolean();
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private final AtomicInteger avoidedFetchCount = new AtomicInteger();
+
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onRefreshTimer();
+        }
+    };
 
     private AuthToken cachedAuth;
+    private long refreshTime;
+    private boolean isCacheLoaded;
+    private boolean isRefreshScheduled;
 
-    public AuthManager(@NonNull AirshipRuntimeConfig runtimeConfig, @NonNull AirshipChannel channel) {
-        this(new AuthApiClient(runtimeConfig), channel, Clock.DEFAULT_CLOCK);
+    public AuthManager(@NonNull AirshipRuntimeConfig runtimeConfig, @NonNull AirshipChannel channel, @NonNull PreferenceDataStore dataStore) {
+        this(new AuthApiClient(runtimeConfig), channel, Clock.DEFAULT_CLOCK, dataStore,
+                AirshipExecutors.newSerialExecutor(), new Handler(AirshipLoopers.getBackgroundLooper()));
     }
 
     @VisibleForTesting
-    AuthManager(@NonNull AuthApiClient apiClient, @NonNull AirshipChannel channel, @NonNull Clock clock) {
+    AuthManager(@NonNull AuthApiClient apiClient,
+                @NonNull AirshipChannel channel,
+                @NonNull Clock clock,
+                @NonNull PreferenceDataStore dataStore,
+                @NonNull Executor executor,
+                @NonNull Handler handler) {
         this.apiClient = apiClient;
         this.channel = channel;
         this.clock = clock;
+        this.dataStore = dataStore;
+        this.executor = executor;
+        this.handler = handler;
     }
 
     /**
@@ -55,22 +108,18 @@ public class AuthManager {
             throw new AuthException("Unable to create token, channel not created");
         }
 
-        String cachedToken = getCachedToken(channelId);
+        AuthToken cachedToken = getCachedToken(channelId);
         if (cachedToken != null) {
-            return cachedToken;
-        }
-
-        try {
-            Response<AuthToken> authResponse = apiClient.getToken(channelId);
-            if (authResponse.getResult() != null && authResponse.isSuccessful()) {
-                cache(authResponse.getResult());
-                return authResponse.getResult().getToken();
+            avoidedFetchCount.incrementAndGet();
+            if (isExpiring(cachedToken)) {
+                refreshToken(channelId);
             } else {
-                throw new AuthException("Failed to generate token. Response: " + authResponse);
+                onCachedTokenUsed(cachedToken);
             }
-        } catch (RequestException e) {
-            throw new AuthException("Failed to generate token.", e);
+            return cachedToken.getToken();
         }
+
+        return fetchToken(channelId).getToken();
     }
 
     /**
@@ -80,21 +129,188 @@ public class AuthManager {
      */
     public void tokenExpired(@NonNull String token) {
         synchronized (cachedAuthLock) {
-            if (token.equals(cachedAuth.getToken())) {
-                cachedAuth = null;
+            if (cachedAuth != null && token.equals(cachedAuth.getToken())) {
+                setCachedAuth(null);
+                dataStore.remove(TOKEN_KEY);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of tokens fetched from the API.
+     *
+     * @return The token fetch count.
+     */
+    public int getTokenFetchCount() {
+        return fetchCount.get();
+    }
+
+    /**
+     * Gets the number of token requests that were served by a cached token.
+     *
+     * @return The avoided token fetch count.
+     */
+    public int getAvoidedTokenFetchCount() {
+        return avoidedFetchCount.get();
+    }
+
+    /**
+     * Fetches a new token. Only a single fetch runs at a time, and callers that waited on
+     * another fetch use its token.
+     *
+     * @param channelId The channel ID.
+     * @return The auth token.
+     * @throws AuthException If the token fetch failed.
+     */
+    @WorkerThread
+    @NonNull
+    private AuthToken fetchToken(@NonNull String channelId) throws AuthException {
+        synchronized (fetchLock) {
+            AuthToken cachedToken = getCachedToken(channelId);
+            if (cachedToken != null && !isExpiring(cachedToken)) {
+                avoidedFetchCount.incrementAndGet();
+                return cachedToken;
+            }
+
+            try {
+                Response<AuthToken> authResponse = apiClient.getToken(channelId);
+                fetchCount.incrementAndGet();
+
+                if (authResponse.getResult() != null && authResponse.isSuccessful()) {
+                    cache(authResponse.getResult());
+                    Logger.verbose("AuthManager - Fetched token. Fetches: %s, avoided: %s", fetchCount.get(), avoidedFetchCount.get());
+                    return authResponse.getResult();
+                } else {
+                    throw new AuthException("Failed to generate token. Response: " + authResponse);
+                }
+            } catch (RequestException e) {
+                throw new AuthException("Failed to generate token.", e);
+            }
+        }
+    }
+
+    /**
+     * Refreshes the token in the background.
+     *
+     * @param channelId The channel ID.
+     */
+    private void refreshToken(@NonNull final String channelId) {
+        if (!isRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    fetchToken(channelId);
+                } catch (AuthException e) {
+                    Logger.debug(e, "AuthManager - Failed to refresh token.");
+                } finally {
+                    isRefreshing.set(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Called when the scheduled refresh time for the cached token is reached.
+     */
+    private void onRefreshTimer() {
+        String channelId = channel.getId();
+        if (channelId == null) {
+            return;
+        }
+
+        AuthToken cachedToken = getCachedToken(channelId);
+        if (cachedToken == null) {
+            return;
+        }
+
+        if (isExpiring(cachedToken)) {
+            refreshToken(channelId);
+        } else {
+            // Timer fired early, wait for the refresh time
+            synchronized (cachedAuthLock) {
+                scheduleRefresh();
+            }
+        }
+    }
+
+    /**
+     * Called when a cached token is used. Schedules a refresh ahead of its expiry, once per fetched token.
+     *
+     * @param token The token.
+     */
+    private void onCachedTokenUsed(@NonNull AuthToken token) {
+        synchronized (cachedAuthLock) {
+            if (token == cachedAuth && !isRefreshScheduled) {
+                isRefreshScheduled = true;
+                scheduleRefresh();
             }
         }
     }
 
-    private void cache(AuthToken cachedAuth) {
+    private boolean isExpiring(@NonNull AuthToken token) {
+        synchronized (cachedAuthLock) {
+            return token != cachedAuth || clock.currentTimeMillis() >= refreshTime;
+        }
+    }
+
+    /**
+     * Gets the refresh window for a token.
+     *
+     * @param lifetime The remaining lifetime of the token in milliseconds.
+     * @return The refresh window in milliseconds.
+     */
+    @VisibleForTesting
+    static long getRefreshWindow(long lifetime) {
+        return Math.max(0, Math.min(MAX_REFRESH_WINDOW_MS, lifetime / 2));
+    }
+
+    private void cache(@NonNull AuthToken cachedAuth) {
         synchronized (cachedAuthLock) {
-            this.cachedAuth = cachedAuth;
+            setCachedAuth(cachedAuth);
+            this.isCacheLoaded = true;
+            dataStore.put(TOKEN_KEY, cachedAuth);
+        }
+    }
+
+    /**
+     * Sets the cached token. The refresh is not scheduled until the token is used. Must be called
+     * while holding the cached auth lock.
+     *
+     * @param token The token, or null to clear it.
+     */
+    private void setCachedAuth(@Nullable AuthToken token) {
+        this.cachedAuth = token;
+        this.isRefreshScheduled = false;
+        handler.removeCallbacks(refreshRunnable);
+
+        if (token != null) {
+            long lifetime = token.getExpiration() - clock.currentTimeMillis();
+            this.refreshTime = token.getExpiration() - getRefreshWindow(lifetime);
+        }
+    }
+
+    /**
+     * Schedules the refresh timer for the cached token. Must be called while holding the cached auth lock.
+     */
+    private void scheduleRefresh() {
+        handler.removeCallbacks(refreshRunnable);
+        if (cachedAuth != null) {
+            handler.postDelayed(refreshRunnable, Math.max(0, refreshTime - clock.currentTimeMillis()));
         }
     }
 
     @Nullable
-    private String getCachedToken(@NonNull String channelId) {
+    private AuthToken getCachedToken(@NonNull String channelId) {
         synchronized (cachedAuthLock) {
+            if (!isCacheLoaded) {
+                setCachedAuth(loadToken());
+                isCacheLoaded = true;
+            }
+
             if (cachedAuth == null) {
                 return null;
             }
@@ -107,7 +323,23 @@ public class AuthManager {
                 return null;
             }
 
-            return cachedAuth.getToken();
+            return cachedAuth;
+        }
+    }
+
+    @Nullable
+    private AuthToken loadToken() {
+        JsonValue json = dataStore.getJsonValue(TOKEN_KEY);
+        if (json.isNull()) {
+            return null;
+        }
+
+        try {
+            return AuthToken.fromJson(json);
+        } catch (JsonException e) {
+            Logger.error(e, "AuthManager - Failed to parse stored token.");
+            dataStore.remove(TOKEN_KEY);
+            return null;
         }
     }
 
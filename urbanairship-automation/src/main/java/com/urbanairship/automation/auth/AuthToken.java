@@ -2,12 +2,21 @@
 
 package com.urbanairship.automation.auth;
 
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonSerializable;
+import com.urbanairship.json.JsonValue;
+
 import androidx.annotation.NonNull;
 
 /**
  * Auth token data for a channel ID.
  */
-class AuthToken {
+class AuthToken implements JsonSerializable {
+
+    private static final String CHANNEL_ID_KEY = "channel_id";
+    private static final String TOKEN_KEY = "token";
+    private static final String EXPIRATION_KEY = "expiration";
 
     private final long expiration;
     private final String token;
@@ -48,4 +57,36 @@ class AuthToken {
         return channelId;
     }
 
+    @NonNull
+    @Override
+    public JsonValue toJsonValue() {
+        return JsonMap.newBuilder()
+                      .put(CHANNEL_ID_KEY, channelId)
+                      .put(TOKEN_KEY, token)
+                      .put(EXPIRATION_KEY, expiration)
+                      .build()
+                      .toJsonValue();
+    }
+
+    /**
+     * Parses an auth token from JSON.
+     *
+     * @param jsonValue The JSON value.
+     * @return The auth token.
+     * @throws JsonException If the JSON is invalid.
+     */
+    @NonNull
+    static AuthToken fromJson(@NonNull JsonValue jsonValue) throws JsonException {
+        JsonMap map = jsonValue.optMap();
+        String channelId = map.opt(CHANNEL_ID_KEY).getString();
+        String token = map.opt(TOKEN_KEY).getString();
+        long expiration = map.opt(EXPIRATION_KEY).getLong(0);
+
+        if (channelId == null || token == null || expiration <= 0) {
+            throw new JsonException("Invalid auth token: " + jsonValue);
+        }
+
+        return new AuthToken(channelId, token, expiration);
+    }
+
 }
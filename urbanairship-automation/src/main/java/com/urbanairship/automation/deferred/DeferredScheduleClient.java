@@ -18,11 +18,16 @@ import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.Clock;
 import com.urbanairship.util.UAHttpStatusUtil;
 
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HttpsURLConnection;
 
@@ -38,9 +43,26 @@ import androidx.annotation.VisibleForTesting;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class DeferredScheduleClient {
 
+    /**
+     * How long a successful response is reused for identical requests.
+     */
+    @VisibleForTesting
+    static final long CACHE_TTL_MS = 30000;
+
+    /**
+     * Max time to wait on an identical in-flight request.
+     */
+    @VisibleForTesting
+    static final long COALESCED_REQUEST_TIMEOUT_MS = 15000;
+
     private final AirshipRuntimeConfig runtimeConfig;
     private final AuthManager authManager;
     private final RequestFactory requestFactory;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+    private final Map<String, CachedResponse> cachedResponses = new HashMap<>();
+    private final Map<String, PendingRequest> pendingRequests = new HashMap<>();
 
     private static final String PLATFORM_KEY = "platform";
     private static final String CHANNEL_ID_KEY = "channel_id";
@@ -73,22 +95,28 @@ public class DeferredScheduleClient {
             public StateOverrides get() {
                 return StateOverrides.defaultOverrides();
             }
-        });
+        }, Clock.DEFAULT_CLOCK);
     }
 
     @VisibleForTesting
     DeferredScheduleClient(@NonNull AirshipRuntimeConfig runtimeConfig,
                            @NonNull AuthManager authManager,
                            @NonNull RequestFactory requestFactory,
-                           @NonNull Supplier<StateOverrides> stateOverridesSupplier) {
+                           @NonNull Supplier<StateOverrides> stateOverridesSupplier,
+                           @NonNull Clock clock) {
         this.runtimeConfig = runtimeConfig;
         this.authManager = authManager;
         this.requestFactory = requestFactory;
         this.stateOverridesSupplier = stateOverridesSupplier;
+        this.clock = clock;
     }
 
     /**
      * Performs a request to resolve a deferred schedule.
+     * <p>
+     * Successful responses are cached for a short time and reused for identical requests. If an
+     * identical request is already in flight, the call waits for its response instead of
+     * making another request.
      *
      * @param url The deferred schedule URL.
      * @param channelId The channel ID.
@@ -102,7 +130,6 @@ public class DeferredScheduleClient {
                                            @Nullable TriggerContext triggerContext,
                                            @NonNull List<TagGroupsMutation> tagOverrides,
                                            @NonNull List<AttributeMutation> attributeOverrides) throws RequestException, AuthException {
-        String token = authManager.getToken();
         JsonMap.Builder requestBodyBuilder = JsonMap.newBuilder()
                 .put(PLATFORM_KEY, runtimeConfig.getPlatform() == UAirship.AMAZON_PLATFORM ? PLATFORM_AMAZON : PLATFORM_ANDROID)
                 .put(CHANNEL_ID_KEY, channelId);
@@ -126,6 +153,55 @@ public class DeferredScheduleClient {
         requestBodyBuilder.put(STATE_OVERRIDES_KEY, stateOverridesSupplier.get());
 
         JsonMap requestBody = requestBodyBuilder.build();
+        String requestKey = url + requestBody.toString();
+
+        PendingRequest pendingRequest;
+        boolean isInFlight;
+        synchronized (lock) {
+            CachedResponse cachedResponse = cachedResponses.get(requestKey);
+            if (cachedResponse != null && cachedResponse.expiry > clock.currentTimeMillis()) {
+                return cachedResponse.response;
+            }
+
+            pendingRequest = pendingRequests.get(requestKey);
+            isInFlight = pendingRequest != null;
+            if (!isInFlight) {
+                pendingRequest = new PendingRequest();
+                pendingRequests.put(requestKey, pendingRequest);
+            }
+        }
+
+        if (isInFlight) {
+            if (!pendingRequest.await(COALESCED_REQUEST_TIMEOUT_MS)) {
+                throw new RequestException("Timed out waiting on deferred schedule request: " + url);
+            }
+
+            Response<Result> response = pendingRequest.response;
+            if (response != null && response.isSuccessful()) {
+                return response;
+            }
+
+            // The in-flight request failed, try again on our own
+            return performAuthorizedRequest(url, requestBody);
+        }
+
+        Response<Result> response = null;
+        try {
+            response = performAuthorizedRequest(url, requestBody);
+            return response;
+        } finally {
+            synchronized (lock) {
+                pendingRequests.remove(requestKey);
+                if (response != null && response.isSuccessful()) {
+                    cacheResponse(requestKey, response);
+                }
+            }
+            pendingRequest.finish(response);
+        }
+    }
+
+    private Response<Result> performAuthorizedRequest(@NonNull URL url, @NonNull JsonMap requestBody) throws RequestException, AuthException {
+        String token = authManager.getToken();
         Response<Result> response = performRequest(url, token, requestBody);
 
         // If token expired, try again with a new token
@@ -137,6 +213,20 @@ public class DeferredScheduleClient {
         }
     }
 
+    private void cacheResponse(@NonNull String requestKey, @NonNull Response<Result> response) {
+        long now = clock.currentTimeMillis();
+
+        // Drop any expired responses
+        Iterator<CachedResponse> iterator = cachedResponses.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiry <= now) {
+                iterator.remove();
+            }
+        }
+
+        cachedResponses.put(requestKey, new CachedResponse(response, now + CACHE_TTL_MS));
+    }
+
     private Response<Result> performRequest(@NonNull URL url, @NonNull String token, @NonNull JsonMap requestBody) throws RequestException {
         return requestFactory.createRequest()
                              .setOperation("POST", url)
@@ -169,6 +259,45 @@ public class DeferredScheduleClient {
         return new Result(audienceMatch, message);
     }
 
+    /**
+     * A cached response.
+     */
+    private static class CachedResponse {
+
+        private final Response<Result> response;
+        private final long expiry;
+
+        CachedResponse(@NonNull Response<Result> response, long expiry) {
+            this.response = response;
+            this.expiry = expiry;
+        }
+
+    }
+
+    /**
+     * An in-flight request that identical requests can wait on.
+     */
+    private static class PendingRequest {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Response<Result> response;
+
+        void finish(@Nullable Response<Result> response) {
+            this.response = response;
+            latch.countDown();
+        }
+
+        boolean await(long timeoutMs) {
+            try {
+                return latch.await(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+    }
+
     /**
      * Deferred client result.
      */
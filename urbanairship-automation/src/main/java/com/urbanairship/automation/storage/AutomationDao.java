@@ -2,6 +2,7 @@
 
 package com.urbanairship.automation.storage;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -26,6 +27,8 @@ import androidx.room.Update;
 @Dao
 public abstract class AutomationDao {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     @Transaction
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     public abstract void insert(@NonNull ScheduleEntity entity, @NonNull List<TriggerEntity> entities);
@@ -44,6 +47,14 @@ public abstract class AutomationDao {
     @Query("SELECT COUNT(*) FROM schedules")
     public abstract int getScheduleCount();
 
+    @Query("SELECT COUNT(*) FROM schedules WHERE (scheduleType = :type)")
+    public abstract int getScheduleCount(@NonNull String type);
+
+    @Query("SELECT scheduleId, scheduleType, `group`, executionState, priority FROM schedules " +
+            "WHERE (scheduleType = :type) ORDER BY id LIMIT :limit OFFSET :offset")
+    @NonNull
+    public abstract List<ScheduleSummary> getScheduleSummaries(@NonNull String type, int offset, int limit);
+
     @Transaction
     @Query("SELECT * FROM schedules")
     @NonNull
@@ -97,6 +108,16 @@ public abstract class AutomationDao {
     @NonNull
     public abstract List<FullSchedule> getActiveExpiredSchedules();
 
+    @Query("SELECT scheduleId FROM schedules " +
+            "WHERE (executionState = " + ScheduleState.FINISHED + ") " +
+            "AND ((editGracePeriod = 0 AND executionStateChangeDate <= :time) " +
+            "OR (editGracePeriod != 0 AND scheduleEnd >= 0 AND scheduleEnd + editGracePeriod <= :time))")
+    @NonNull
+    public abstract List<String> getFinishedScheduleIdsToDelete(long time);
+
+    @Query("DELETE FROM schedules WHERE (scheduleId IN (:scheduleIds))")
+    abstract void deleteSchedulesByIdBatch(@NonNull List<String> scheduleIds);
+
     @Query("SELECT triggers.* FROM triggers " +
             "JOIN schedules ON schedules.scheduleId = triggers.parentScheduleId " +
             "WHERE (schedules.scheduleId = :scheduleId)" +
@@ -146,6 +167,15 @@ public abstract class AutomationDao {
         delete(entry.schedule);
     }
 
+    @Transaction
+    public void deleteSchedulesById(@NonNull Collection<String> scheduleIds) {
+        // Stay under SQLite's bound variable limit
+        List<String> ids = new ArrayList<>(scheduleIds);
+        for (int i = 0; i < ids.size(); i += MAX_BATCH_SIZE) {
+            deleteSchedulesByIdBatch(ids.subList(i, Math.min(ids.size(), i + MAX_BATCH_SIZE)));
+        }
+    }
+
     public void deleteSchedules(@NonNull Collection<FullSchedule> entries) {
         for (FullSchedule entry : entries) {
             if (entry != null) {
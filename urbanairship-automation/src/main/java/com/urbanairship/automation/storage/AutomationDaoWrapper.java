@@ -72,6 +72,27 @@ public class AutomationDaoWrapper extends AutomationDao {
         }
     }
 
+    @Override
+    public int getScheduleCount(@NonNull String type) {
+        try {
+            return dao.getScheduleCount(type);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to get schedule count by type %s", type);
+            return -1;
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<ScheduleSummary> getScheduleSummaries(@NonNull String type, int offset, int limit) {
+        try {
+            return dao.getScheduleSummaries(type, offset, limit);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to get schedule summaries by type %s", type);
+            return Collections.emptyList();
+        }
+    }
+
     @NonNull
     @Override
     public List<FullSchedule> getSchedules() {
@@ -182,6 +203,26 @@ public class AutomationDaoWrapper extends AutomationDao {
         }
     }
 
+    @NonNull
+    @Override
+    public List<String> getFinishedScheduleIdsToDelete(long time) {
+        try {
+            return dao.getFinishedScheduleIdsToDelete(time);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to get finished schedule IDs");
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    void deleteSchedulesByIdBatch(@NonNull List<String> scheduleIds) {
+        try {
+            dao.deleteSchedulesByIdBatch(scheduleIds);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to delete schedules %s", scheduleIds);
+        }
+    }
+
     @NonNull
     @Override
     public List<TriggerEntity> getActiveTriggers(int type, @NonNull String scheduleId) {
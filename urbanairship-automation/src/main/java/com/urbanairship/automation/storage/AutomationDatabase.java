@@ -24,7 +24,7 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
-@Database(entities = { ScheduleEntity.class, TriggerEntity.class }, version = 3, exportSchema = false)
+@Database(entities = { ScheduleEntity.class, TriggerEntity.class }, version = 4, exportSchema = false)
 @TypeConverters({ Converters.class })
 public abstract class AutomationDatabase extends RoomDatabase {
 
@@ -47,11 +47,22 @@ public abstract class AutomationDatabase extends RoomDatabase {
         }
     };
 
+    private static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_schedules_executionState` ON `schedules` (`executionState`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_schedules_group` ON `schedules` (`group`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_schedules_scheduleType` ON `schedules` (`scheduleType`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_schedules_scheduleEnd` ON `schedules` (`scheduleEnd`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_triggers_triggerType` ON `triggers` (`triggerType`)");
+        }
+    };
+
     public static AutomationDatabase createDatabase(@NonNull Context context, @NonNull AirshipRuntimeConfig config) {
         String name = config.getConfigOptions().appKey + "_in-app-automation";
         String path = new File(ContextCompat.getNoBackupFilesDir(context), name).getAbsolutePath();
         return Room.databaseBuilder(context, AutomationDatabase.class, path)
-                   .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
+                   .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4)
                    .fallbackToDestructiveMigrationOnDowngrade()
                    .build();
 
@@ -18,7 +18,12 @@ import androidx.room.PrimaryKey;
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
-@Entity(tableName = "schedules", indices = { @Index(value = { "scheduleId" }, unique = true) })
+@Entity(tableName = "schedules", indices = {
+        @Index(value = { "scheduleId" }, unique = true),
+        @Index("executionState"),
+        @Index("group"),
+        @Index("scheduleType"),
+        @Index("scheduleEnd") })
 public class ScheduleEntity {
 
     @PrimaryKey(autoGenerate = true)
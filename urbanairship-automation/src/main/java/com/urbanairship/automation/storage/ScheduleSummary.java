@@ -0,0 +1,51 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Schedule columns needed to list schedules without loading the schedule data or triggers.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class ScheduleSummary {
+
+    @NonNull
+    public String scheduleId;
+
+    @Nullable
+    public String scheduleType;
+
+    @Nullable
+    public String group;
+
+    public int executionState;
+
+    public int priority;
+
+    public ScheduleSummary(@NonNull String scheduleId, @Nullable String scheduleType, @Nullable String group,
+                           int executionState, int priority) {
+        this.scheduleId = scheduleId;
+        this.scheduleType = scheduleType;
+        this.group = group;
+        this.executionState = executionState;
+        this.priority = priority;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ScheduleSummary{" +
+                "scheduleId='" + scheduleId + '\'' +
+                ", scheduleType='" + scheduleType + '\'' +
+                ", group='" + group + '\'' +
+                ", executionState=" + executionState +
+                ", priority=" + priority +
+                '}';
+    }
+
+}
@@ -18,7 +18,7 @@ import androidx.room.PrimaryKey;
 @Entity(tableName = "triggers", foreignKeys = {
         @ForeignKey(onDelete = ForeignKey.CASCADE, entity = ScheduleEntity.class,
                 parentColumns = "scheduleId", childColumns = "parentScheduleId") },
-        indices = { @Index("parentScheduleId") })
+        indices = { @Index("parentScheduleId"), @Index("triggerType") })
 public class TriggerEntity {
 
     @PrimaryKey(autoGenerate = true)
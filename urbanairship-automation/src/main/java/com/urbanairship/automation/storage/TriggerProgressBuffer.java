@@ -0,0 +1,81 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Write-behind buffer for trigger progress. Dirty triggers are held in memory and written
+ * in a single transaction when the buffer is flushed.
+ * <p>
+ * Not thread safe, should only be accessed from the automation thread.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class TriggerProgressBuffer {
+
+    private final AutomationDao dao;
+    private final Map<Integer, TriggerEntity> dirtyTriggers = new HashMap<>();
+
+    public TriggerProgressBuffer(@NonNull AutomationDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Applies any buffered progress to the given triggers.
+     *
+     * @param triggers The triggers loaded from the database.
+     */
+    public void apply(@NonNull Collection<TriggerEntity> triggers) {
+        if (dirtyTriggers.isEmpty()) {
+            return;
+        }
+
+        for (TriggerEntity trigger : triggers) {
+            TriggerEntity dirty = dirtyTriggers.get(trigger.id);
+            if (dirty != null) {
+                trigger.progress = dirty.progress;
+            }
+        }
+    }
+
+    /**
+     * Buffers the triggers' progress.
+     *
+     * @param triggers The updated triggers.
+     */
+    public void update(@NonNull Collection<TriggerEntity> triggers) {
+        for (TriggerEntity trigger : triggers) {
+            dirtyTriggers.put(trigger.id, trigger);
+        }
+    }
+
+    /**
+     * Checks if the buffer has any unsaved progress.
+     *
+     * @return {@code true} if the buffer is empty, otherwise {@code false}.
+     */
+    public boolean isEmpty() {
+        return dirtyTriggers.isEmpty();
+    }
+
+    /**
+     * Writes all buffered progress to the database.
+     */
+    public void flush() {
+        if (dirtyTriggers.isEmpty()) {
+            return;
+        }
+
+        dao.updateTriggers(new ArrayList<>(dirtyTriggers.values()));
+        dirtyTriggers.clear();
+    }
+
+}
@@ -236,22 +236,18 @@ public class AudienceManager implements NamedUserListener {
         long cacheStaleReadTime = getCacheStaleReadTimeMilliseconds();
         long cacheMaxAgeTime = getCacheMaxAgeTimeMilliseconds();
 
-        TagGroupResponse cachedResponse = null;
-        if (TagGroupUtils.containsAll(cache.getRequestTags(), tags)) {
-            cachedResponse = cache.getResponse();
-        }
-
-        long cacheCreateDate = cache.getCreateDate();
+        TagGroupResponse cachedResponse = cache.getResponse(tags);
+        long cacheCreateDate = cache.getCreateDate(tags);
 
         if (cachedResponse != null && cacheMaxAgeTime > clock.currentTimeMillis() - cacheCreateDate) {
             return new TagGroupResult(true, generateTags(tags, cachedResponse, cacheCreateDate));
         }
 
-        // Refresh the cache
+        // Refresh the cache. Concurrent callers wait on this call and then read the refreshed cache.
         try {
-            refreshCache(tags, cachedResponse);
-            cachedResponse = cache.getResponse();
-            cacheCreateDate = cache.getCreateDate();
+            refreshCache(tags);
+            cachedResponse = cache.getResponse(tags);
+            cacheCreateDate = cache.getCreateDate(tags);
         } catch (Exception e) {
             Logger.error(e, "Failed to refresh tags.");
         }
@@ -295,9 +291,8 @@ public class AudienceManager implements NamedUserListener {
      * Refreshes the cache.
      *
      * @param tags The requested tags.
-     * @param cachedResponse The cached response.
      */
-    private void refreshCache(Map<String, Set<String>> tags, @Nullable TagGroupResponse cachedResponse) throws Exception {
+    private void refreshCache(Map<String, Set<String>> tags) throws Exception {
         Map<String, Set<String>> requestTags;
         if (requestTagsCallback != null) {
             requestTags = TagGroupUtils.union(tags, requestTagsCallback.getTags());
@@ -305,10 +300,8 @@ public class AudienceManager implements NamedUserListener {
             requestTags = tags;
         }
 
-        // Only use the cached response if it the requested tags are the same
-        if (cachedResponse != null && !requestTags.equals(cache.getRequestTags())) {
-            cachedResponse = null;
-        }
+        // Only use the cached response if it covers all of the request tags
+        TagGroupResponse cachedResponse = cache.getResponse(requestTags);
 
         TagGroupResponse response = client.lookupTagGroups(airshipChannel.getId(), requestTags, cachedResponse);
 
@@ -0,0 +1,191 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.tags;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Compiled form of a {@link TagSelector}.
+ *
+ * Each distinct tag referenced by the selector is interned to a bit index, and the selector tree is
+ * flattened into a postfix program. Applying the selector looks up each interned tag once to build
+ * a presence bitset, then runs the program on a bit stack packed into a long, so evaluation does not
+ * allocate or recurse.
+ * <p>
+ * The bitset only covers the selector's own tags, not a device-wide index of every tag. The tag
+ * groups are generated by {@link AudienceManager} on each lookup from the cached response and the
+ * {@link AudienceHistorian} records inside the prefer local data window, so they change as records
+ * age out and have no change event to rebuild an index from. Channel tag changes invalidate the
+ * cached audience evaluations instead.
+ */
+class CompiledTagSelector {
+
+    /**
+     * Max number of interned tags and max stack depth, limited to the bits in a long.
+     */
+    private static final int MAX_BITS = 64;
+
+    private static final int OP_TAG = 0;
+    private static final int OP_NOT = 1;
+    private static final int OP_AND = 2;
+    private static final int OP_OR = 3;
+
+    private static final int OP_BITS = 2;
+    private static final int OP_MASK = 0x3;
+
+    private final String[] tags;
+    private final String[] groups;
+    private final int[] program;
+
+    private CompiledTagSelector(@NonNull Builder builder) {
+        this.tags = builder.tags.toArray(new String[0]);
+        this.groups = builder.groups.toArray(new String[0]);
+        this.program = new int[builder.program.size()];
+        for (int i = 0; i < program.length; i++) {
+            program[i] = builder.program.get(i);
+        }
+    }
+
+    /**
+     * Applies the compiled selector.
+     *
+     * @param tags The channel tags.
+     * @param tagGroups The tag groups.
+     * @return {@code true} if the tag selector matches the tags, otherwise {@code false}.
+     */
+    boolean apply(@NonNull Collection<String> tags, @NonNull Map<String, Set<String>> tagGroups) {
+        long present = 0;
+        for (int i = 0; i < this.tags.length; i++) {
+            if (groups[i] == null) {
+                if (tags.contains(this.tags[i])) {
+                    present |= 1L << i;
+                }
+            } else {
+                Set<String> groupTags = tagGroups.get(groups[i]);
+                if (groupTags != null && groupTags.contains(this.tags[i])) {
+                    present |= 1L << i;
+                }
+            }
+        }
+
+        long stack = 0;
+        for (int instruction : program) {
+            int operand = instruction >>> OP_BITS;
+            switch (instruction & OP_MASK) {
+                case OP_TAG:
+                    stack = (stack << 1) | ((present >>> operand) & 1L);
+                    break;
+
+                case OP_NOT:
+                    stack ^= 1L;
+                    break;
+
+                case OP_AND:
+                case OP_OR:
+                default:
+                    long mask = (1L << operand) - 1;
+                    boolean result = (instruction & OP_MASK) == OP_AND ? (stack & mask) == mask : (stack & mask) != 0;
+                    stack = ((stack >>> operand) << 1) | (result ? 1L : 0L);
+                    break;
+            }
+        }
+
+        return (stack & 1L) != 0;
+    }
+
+    /**
+     * Builds the postfix program for a selector tree.
+     */
+    static class Builder {
+
+        private final List<String> tags = new ArrayList<>();
+        private final List<String> groups = new ArrayList<>();
+        private final Map<String, Integer> tagIds = new HashMap<>();
+        private final Map<String, Map<String, Integer>> groupTagIds = new HashMap<>();
+        private final List<Integer> program = new ArrayList<>();
+
+        private int depth;
+        private boolean isSupported = true;
+
+        /**
+         * Adds a tag check.
+         *
+         * @param tag The tag.
+         * @param group The tag group, or null for channel tags.
+         */
+        void addTag(@NonNull String tag, @Nullable String group) {
+            Map<String, Integer> ids = tagIds;
+            if (group != null) {
+                ids = groupTagIds.get(group);
+                if (ids == null) {
+                    ids = new HashMap<>();
+                    groupTagIds.put(group, ids);
+                }
+            }
+
+            Integer id = ids.get(tag);
+            if (id == null) {
+                id = tags.size();
+                ids.put(tag, id);
+                tags.add(tag);
+                groups.add(group);
+            }
+
+            add(OP_TAG, id, 1);
+        }
+
+        /**
+         * Negates the top of the stack.
+         */
+        void addNot() {
+            add(OP_NOT, 0, 0);
+        }
+
+        /**
+         * Combines the top entries of the stack with AND.
+         *
+         * @param count The number of entries.
+         */
+        void addAnd(int count) {
+            add(OP_AND, count, 1 - count);
+        }
+
+        /**
+         * Combines the top entries of the stack with OR.
+         *
+         * @param count The number of entries.
+         */
+        void addOr(int count) {
+            add(OP_OR, count, 1 - count);
+        }
+
+        private void add(int op, int operand, int stackChange) {
+            program.add((operand << OP_BITS) | op);
+            depth += stackChange;
+
+            if (depth > MAX_BITS || tags.size() > MAX_BITS || operand >= MAX_BITS) {
+                isSupported = false;
+            }
+        }
+
+        /**
+         * Builds the compiled selector.
+         *
+         * @return The compiled selector, or null if the selector is too large to compile.
+         */
+        @Nullable
+        CompiledTagSelector build() {
+            return isSupported ? new CompiledTagSelector(this) : null;
+        }
+
+    }
+
+}
@@ -3,9 +3,15 @@
 package com.urbanairship.automation.tags;
 
 import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonSerializable;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.Clock;
+import com.urbanairship.util.UAStringUtil;
 
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -16,20 +22,27 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
 /**
- * Cache for storing tag group lookup responses.
+ * Cache for storing tag group lookup responses. Responses are cached per tag group so requests for
+ * different tag groups do not invalidate each other.
  *
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public class TagGroupLookupResponseCache {
-    private static final String RESPONSE_KEY = "com.urbanairship.iam.tags.TAG_CACHE_RESPONSE";
-    private static final String CREATE_DATE_KEY = "com.urbanairship.iam.tags.TAG_CACHE_CREATE_DATE";
-    private static final String REQUESTED_TAGS_KEY = "com.urbanairship.iam.tags.TAG_CACHE_REQUESTED_TAGS";
+    private static final String GROUPS_KEY = "com.urbanairship.iam.tags.TAG_CACHE_GROUPS";
+    private static final String LEGACY_RESPONSE_KEY = "com.urbanairship.iam.tags.TAG_CACHE_RESPONSE";
+    private static final String LEGACY_CREATE_DATE_KEY = "com.urbanairship.iam.tags.TAG_CACHE_CREATE_DATE";
+    private static final String LEGACY_REQUESTED_TAGS_KEY = "com.urbanairship.iam.tags.TAG_CACHE_REQUESTED_TAGS";
     private static final String MAX_AGE_TIME_KEY = "com.urbanairship.iam.tags.TAG_CACHE_MAX_AGE_TIME";
     private static final String STALE_READ_TIME_KEY = "com.urbanairship.iam.tags.TAG_STALE_READ_TIME";
 
     private final PreferenceDataStore dataStore;
     private final Clock clock;
+    private final Object lock = new Object();
+
+    // Decoded copy of the persisted entries, loaded on first access. Guarded by lock.
+    @Nullable
+    private Map<String, GroupEntry> entries;
 
     /**
      * Min cache age time.
@@ -98,54 +111,228 @@ public class TagGroupLookupResponseCache {
     }
 
     /**
-     * Sets the cached response.
+     * Caches a response. The response is merged into the cache per tag group, replacing only
+     * the tag groups that were requested.
      *
      * @param response The response to cache.
+     * @param requestedTags The tags that were requested.
      */
     public void setResponse(@NonNull TagGroupResponse response, @NonNull Map<String, Set<String>> requestedTags) {
-        dataStore.put(RESPONSE_KEY, response);
-        dataStore.put(CREATE_DATE_KEY, clock.currentTimeMillis());
-        dataStore.put(REQUESTED_TAGS_KEY, JsonValue.wrapOpt(requestedTags));
+        long now = clock.currentTimeMillis();
+
+        synchronized (lock) {
+            Map<String, GroupEntry> entries = getEntries();
+            for (Map.Entry<String, Set<String>> requested : requestedTags.entrySet()) {
+                Set<String> tags = response.tags == null ? null : response.tags.get(requested.getKey());
+                entries.put(requested.getKey(), new GroupEntry(requested.getValue(), tags, now, response.lastModifiedTime));
+            }
+
+            save(entries);
+        }
     }
 
     /**
      * Clears the cache
      */
     public void clear() {
-        dataStore.remove(RESPONSE_KEY);
-        dataStore.remove(CREATE_DATE_KEY);
-        dataStore.remove(REQUESTED_TAGS_KEY);
+        synchronized (lock) {
+            entries = new HashMap<>();
+            dataStore.remove(GROUPS_KEY);
+            removeLegacyResponse();
+        }
     }
 
     /**
-     * Gets the cached response.
+     * Gets a cached response for the requested tags.
      *
-     * @return The cached response, or null if not available.
+     * @param requestedTags The requested tags.
+     * @return The cached response, or null if any of the requested tags have not been fetched.
      */
     @Nullable
-    public TagGroupResponse getResponse() {
-        JsonValue value = dataStore.getJsonValue(RESPONSE_KEY);
-        if (value.isNull()) {
-            return null;
+    public TagGroupResponse getResponse(@NonNull Map<String, Set<String>> requestedTags) {
+        synchronized (lock) {
+            Map<String, GroupEntry> entries = getEntries();
+            Map<String, Set<String>> tags = new HashMap<>();
+            String lastModified = null;
+            boolean first = true;
+
+            for (Map.Entry<String, Set<String>> requested : requestedTags.entrySet()) {
+                GroupEntry entry = entries.get(requested.getKey());
+                if (entry == null || !entry.requestedTags.containsAll(requested.getValue())) {
+                    return null;
+                }
+
+                if (entry.tags != null) {
+                    tags.put(requested.getKey(), new HashSet<>(entry.tags));
+                }
+
+                // Only use the last modified time if every group came from the same response
+                if (first) {
+                    lastModified = entry.lastModified;
+                    first = false;
+                } else if (!UAStringUtil.equals(lastModified, entry.lastModified)) {
+                    lastModified = null;
+                }
+            }
+
+            return new TagGroupResponse(HttpURLConnection.HTTP_OK, tags, lastModified);
+        }
+    }
+
+    /**
+     * Gets the cache creation date of the requested tags.
+     *
+     * @param requestedTags The requested tags.
+     * @return The oldest cache creation date of the requested tag groups if available, otherwise {@code -1} will be returned.
+     */
+    public long getCreateDate(@NonNull Map<String, Set<String>> requestedTags) {
+        synchronized (lock) {
+            Map<String, GroupEntry> entries = getEntries();
+            long createDate = -1;
+
+            for (String group : requestedTags.keySet()) {
+                GroupEntry entry = entries.get(group);
+                if (entry == null) {
+                    return -1;
+                }
+
+                if (createDate == -1 || entry.createDate < createDate) {
+                    createDate = entry.createDate;
+                }
+            }
+
+            return createDate;
         }
-        return TagGroupResponse.fromJsonValue(value);
     }
 
     /**
-     * Gets the cache creation date.
+     * Gets the decoded entries, loading them from the data store on first access.
      *
-     * @return The cache creation date if available, otherwise {@code -1} will be returned.
+     * @return The entries.
      */
-    public long getCreateDate() {
-        return dataStore.getLong(CREATE_DATE_KEY, -1);
+    @NonNull
+    private Map<String, GroupEntry> getEntries() {
+        if (entries != null) {
+            return entries;
+        }
+
+        entries = new HashMap<>();
+        for (Map.Entry<String, JsonValue> group : dataStore.getJsonValue(GROUPS_KEY).optMap()) {
+            GroupEntry entry = GroupEntry.fromJson(group.getValue());
+            if (entry != null) {
+                entries.put(group.getKey(), entry);
+            }
+        }
+
+        migrateLegacyResponse(entries);
+        return entries;
+    }
+
+    private void save(@NonNull Map<String, GroupEntry> entries) {
+        JsonMap.Builder builder = JsonMap.newBuilder();
+        for (Map.Entry<String, GroupEntry> entry : entries.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        dataStore.put(GROUPS_KEY, builder.build());
     }
 
     /**
-     * Gets the cache creation date.
+     * Moves the single cached response from older SDK versions into the per group entries.
      *
-     * @return The cache creation date if available, otherwise {@code -1} will be returned.
+     * @param entries The entries.
      */
-    public Map<String, Set<String>> getRequestTags() {
-        return TagGroupUtils.parseTags(dataStore.getJsonValue(REQUESTED_TAGS_KEY));
+    private void migrateLegacyResponse(@NonNull Map<String, GroupEntry> entries) {
+        JsonValue legacyResponse = dataStore.getJsonValue(LEGACY_RESPONSE_KEY);
+        if (legacyResponse.isNull()) {
+            return;
+        }
+
+        TagGroupResponse response = TagGroupResponse.fromJsonValue(legacyResponse);
+        Map<String, Set<String>> requestedTags = TagGroupUtils.parseTags(dataStore.getJsonValue(LEGACY_REQUESTED_TAGS_KEY));
+        long createDate = dataStore.getLong(LEGACY_CREATE_DATE_KEY, -1);
+
+        if (createDate != -1) {
+            for (Map.Entry<String, Set<String>> requested : requestedTags.entrySet()) {
+                Set<String> tags = response.tags == null ? null : response.tags.get(requested.getKey());
+                entries.put(requested.getKey(), new GroupEntry(requested.getValue(), tags, createDate, response.lastModifiedTime));
+            }
+            save(entries);
+        }
+
+        removeLegacyResponse();
+    }
+
+    private void removeLegacyResponse() {
+        dataStore.remove(LEGACY_RESPONSE_KEY);
+        dataStore.remove(LEGACY_CREATE_DATE_KEY);
+        dataStore.remove(LEGACY_REQUESTED_TAGS_KEY);
+    }
+
+    /**
+     * Cached tags for a single tag group.
+     */
+    private static class GroupEntry implements JsonSerializable {
+
+        private static final String REQUESTED_TAGS_KEY = "requested_tags";
+        private static final String TAGS_KEY = "tags";
+        private static final String CREATE_DATE_KEY = "create_date";
+        private static final String LAST_MODIFIED_KEY = "last_modified";
+
+        private final Set<String> requestedTags;
+
+        // Null if the group was requested but not in the response
+        @Nullable
+        private final Set<String> tags;
+        private final long createDate;
+        @Nullable
+        private final String lastModified;
+
+        GroupEntry(@NonNull Set<String> requestedTags, @Nullable Set<String> tags, long createDate, @Nullable String lastModified) {
+            this.requestedTags = new HashSet<>(requestedTags);
+            this.tags = tags == null ? null : new HashSet<>(tags);
+            this.createDate = createDate;
+            this.lastModified = lastModified;
+        }
+
+        @Nullable
+        static GroupEntry fromJson(@NonNull JsonValue value) {
+            JsonMap map = value.optMap();
+            if (!map.opt(CREATE_DATE_KEY).isNumber()) {
+                return null;
+            }
+
+            Set<String> tags = null;
+            if (map.containsKey(TAGS_KEY)) {
+                tags = parseTags(map.opt(TAGS_KEY));
+            }
+
+            return new GroupEntry(parseTags(map.opt(REQUESTED_TAGS_KEY)), tags,
+                    map.opt(CREATE_DATE_KEY).getLong(-1), map.opt(LAST_MODIFIED_KEY).getString());
+        }
+
+        @NonNull
+        private static Set<String> parseTags(@NonNull JsonValue value) {
+            Set<String> tags = new HashSet<>();
+            for (JsonValue tag : value.optList()) {
+                if (tag.isString()) {
+                    tags.add(tag.getString());
+                }
+            }
+            return tags;
+        }
+
+        @NonNull
+        @Override
+        public JsonValue toJsonValue() {
+            return JsonMap.newBuilder()
+                          .putOpt(REQUESTED_TAGS_KEY, requestedTags)
+                          .putOpt(TAGS_KEY, tags)
+                          .put(CREATE_DATE_KEY, createDate)
+                          .put(LAST_MODIFIED_KEY, lastModified)
+                          .build()
+                          .toJsonValue();
+        }
+
     }
+
 }
@@ -58,6 +58,9 @@ public class TagSelector implements JsonSerializable {
 
     private List<TagSelector> selectors;
 
+    private volatile CompiledTagSelector compiled;
+    private volatile boolean isCompiled;
+
     /**
      * Creates a tag selector that matches a single tag.
      *
@@ -270,6 +273,26 @@ public class TagSelector implements JsonSerializable {
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     public boolean apply(@NonNull Collection<String> tags, @NonNull Map<String, Set<String>> tagGroups) {
+        if (!isCompiled) {
+            compiled = compile();
+            isCompiled = true;
+        }
+
+        if (compiled != null) {
+            return compiled.apply(tags, tagGroups);
+        }
+
+        return evaluate(tags, tagGroups);
+    }
+
+    /**
+     * Evaluates the selector tree. Used for selectors too large to compile.
+     *
+     * @param tags The collection of tags.
+     * @param tagGroups The collection of tag groups.
+     * @return {@code true} if the tag selector matches the tags, otherwise {@code false}.
+     */
+    boolean evaluate(@NonNull Collection<String> tags, @NonNull Map<String, Set<String>> tagGroups) {
         switch (type) {
             case TAG:
 
@@ -281,11 +304,11 @@ public class TagSelector implements JsonSerializable {
                 }
 
             case NOT:
-                return !selectors.get(0).apply(tags, tagGroups);
+                return !selectors.get(0).evaluate(tags, tagGroups);
 
             case AND:
                 for (TagSelector selector : selectors) {
-                    if (!selector.apply(tags, tagGroups)) {
+                    if (!selector.evaluate(tags, tagGroups)) {
                         return false;
                     }
                 }
@@ -295,7 +318,7 @@ public class TagSelector implements JsonSerializable {
             case OR:
             default:
                 for (TagSelector selector : selectors) {
-                    if (selector.apply(tags, tagGroups)) {
+                    if (selector.evaluate(tags, tagGroups)) {
                         return true;
                     }
                 }
@@ -304,6 +327,51 @@ public class TagSelector implements JsonSerializable {
         }
     }
 
+    /**
+     * Compiles the selector.
+     *
+     * @return The compiled selector, or null if the selector is too large to compile.
+     */
+    @Nullable
+    CompiledTagSelector compile() {
+        CompiledTagSelector.Builder builder = new CompiledTagSelector.Builder();
+        addTo(builder);
+        return builder.build();
+    }
+
+    /**
+     * Adds the selector tree to the compiled program in postfix order.
+     *
+     * @param builder The builder.
+     */
+    private void addTo(@NonNull CompiledTagSelector.Builder builder) {
+        switch (type) {
+            case TAG:
+                builder.addTag(tag, group);
+                break;
+
+            case NOT:
+                selectors.get(0).addTo(builder);
+                builder.addNot();
+                break;
+
+            case AND:
+                for (TagSelector selector : selectors) {
+                    selector.addTo(builder);
+                }
+                builder.addAnd(selectors.size());
+                break;
+
+            case OR:
+            default:
+                for (TagSelector selector : selectors) {
+                    selector.addTo(builder);
+                }
+                builder.addOr(selectors.size());
+                break;
+        }
+    }
+
     /**
      * Checks if the selector defines any tag groups.
      *
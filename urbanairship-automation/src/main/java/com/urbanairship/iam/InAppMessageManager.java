@@ -59,10 +59,16 @@ public class InAppMessageManager {
      */
     private static final String DISPLAY_INTERVAL_KEY = "com.urbanairship.iam.displayinterval";
 
+    /**
+     * Max number of messages whose assets and adapters are prepared at the same time.
+     */
+    private static final int MAX_CONCURRENT_PREPARES = 3;
+
     // State
     private final Map<String, AdapterWrapper> adapterWrappers = Collections.synchronizedMap(new HashMap<String, AdapterWrapper>());
 
     private final RetryingExecutor executor;
+    private final RetryingExecutor prepareExecutor;
     private final ActionRunRequestFactory actionRunRequestFactory;
     private final Analytics analytics;
 
@@ -99,6 +105,7 @@ public class InAppMessageManager {
                                @NonNull Analytics analytics,
                                @NonNull Delegate delegate) {
         this(context, dataStore, analytics, RetryingExecutor.newSerialExecutor(Looper.getMainLooper()),
+                RetryingExecutor.newBoundedExecutor(Looper.getMainLooper(), MAX_CONCURRENT_PREPARES, "UrbanAirship-MessagePrepare"),
                 new ActionRunRequestFactory(), new AssetManager(context), delegate);
     }
 
@@ -107,6 +114,7 @@ public class InAppMessageManager {
                         @NonNull PreferenceDataStore dataStore,
                         @NonNull Analytics analytics,
                         @NonNull RetryingExecutor executor,
+                        @NonNull RetryingExecutor prepareExecutor,
                         @NonNull ActionRunRequestFactory runRequestFactory,
                         @NonNull AssetManager assetManager,
                         @NonNull Delegate delegate) {
@@ -115,6 +123,7 @@ public class InAppMessageManager {
         this.dataStore = dataStore;
         this.analytics = analytics;
         this.executor = executor;
+        this.prepareExecutor = prepareExecutor;
         this.assetManager = assetManager;
         this.delegate = delegate;
         this.actionRunRequestFactory = runRequestFactory;
@@ -123,6 +132,7 @@ public class InAppMessageManager {
         this.immediateDisplayCoordinator = new ImmediateDisplayCoordinator();
 
         executor.setPaused(true);
+        prepareExecutor.setPaused(true);
         setAdapterFactory(InAppMessage.TYPE_BANNER, new BannerAdapterFactory());
         setAdapterFactory(InAppMessage.TYPE_FULLSCREEN, new FullScreenAdapterFactory());
         setAdapterFactory(InAppMessage.TYPE_MODAL, new ModalAdapterFactory());
@@ -223,6 +233,7 @@ public class InAppMessageManager {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public void onAirshipReady() {
         executor.setPaused(false);
+        prepareExecutor.setPaused(false);
     }
 
     /**
@@ -293,8 +304,9 @@ public class InAppMessageManager {
             }
         };
 
-        // Execute the operations
-        executor.execute(prepareAssets, prepareAdapter);
+        // Execute the operations. Messages are prepared concurrently so a slow download does not
+        // hold up other messages.
+        prepareExecutor.execute(prepareAssets, prepareAdapter);
     }
 
     /**
@@ -478,6 +490,11 @@ public class InAppMessageManager {
 
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public void onNewMessageSchedule(@NonNull final String scheduleId, @NonNull final InAppMessage message) {
+        onNewMessageSchedule(scheduleId, message, false);
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public void onNewMessageSchedule(@NonNull final String scheduleId, @NonNull final InAppMessage message, final boolean isLikelyToTrigger) {
         executor.execute(new Runnable() {
             @Override
             public void run() {
@@ -486,7 +503,7 @@ public class InAppMessageManager {
                     public InAppMessage call() {
                         return extendMessage(message);
                     }
-                });
+                }, isLikelyToTrigger);
             }
         });
     }
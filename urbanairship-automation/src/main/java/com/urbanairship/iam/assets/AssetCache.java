@@ -11,11 +11,16 @@ import com.urbanairship.util.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
 /**
@@ -24,8 +29,16 @@ import androidx.annotation.WorkerThread;
 class AssetCache {
 
     private static final String CACHE_DIRECTORY = "com.urbanairship.iam.assets";
+
+    /**
+     * Max size of the cache on disk before inactive assets are evicted.
+     */
+    @VisibleForTesting
+    static final long MAX_CACHE_SIZE_BYTES = 50 * 1024 * 1024;
+
     private final File storageDirectory;
     private final StorageManager storageManager;
+    private final long maxCacheSize;
 
     /**
      * A map of active schedule IDs to assets. Prevents needed to load the asset's metadata
@@ -41,8 +54,14 @@ class AssetCache {
      * @param context The context.
      */
     AssetCache(@NonNull Context context) {
-        this.storageDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY);
-        this.storageManager = findStorageManager(context);
+        this(new File(context.getCacheDir(), CACHE_DIRECTORY), findStorageManager(context), MAX_CACHE_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    AssetCache(@NonNull File storageDirectory, @Nullable StorageManager storageManager, long maxCacheSize) {
+        this.storageDirectory = storageDirectory;
+        this.storageManager = storageManager;
+        this.maxCacheSize = maxCacheSize;
     }
 
     /**
@@ -57,13 +76,105 @@ class AssetCache {
         synchronized (activeAssets) {
             Assets assets = activeAssets.get(scheduleId);
             if (assets == null) {
-                assets = Assets.load(getAssetsDirectory(scheduleId));
+                File directory = getAssetsDirectory(scheduleId);
+
+                // Mark the assets as recently used for eviction
+                if (!directory.setLastModified(System.currentTimeMillis())) {
+                    Logger.verbose("Unable to update last modified time for directory: %s", directory.getAbsolutePath());
+                }
+
+                assets = Assets.load(directory);
                 activeAssets.put(scheduleId, assets);
             }
             return assets;
         }
     }
 
+    /**
+     * Checks if the schedule has any files stored on disk.
+     *
+     * @param scheduleId The schedule ID.
+     * @return {@code true} if the schedule has cached files, otherwise {@code false}.
+     */
+    @WorkerThread
+    boolean hasCachedFiles(@NonNull String scheduleId) {
+        File filesDirectory = new File(new File(storageDirectory, scheduleId), Assets.FILES_DIRECTORY);
+        String[] files = filesDirectory.list();
+        return files != null && files.length > 0;
+    }
+
+    /**
+     * Trims the cache to the max cache size. Assets that are not currently in use are
+     * evicted, least recently used first.
+     */
+    @WorkerThread
+    void trim() {
+        synchronized (activeAssets) {
+            File[] directories = storageDirectory.listFiles();
+            if (directories == null) {
+                return;
+            }
+
+            long totalSize = 0;
+            Map<File, Long> sizes = new HashMap<>();
+            List<File> evictable = new ArrayList<>();
+
+            for (File directory : directories) {
+                long size = sizeOf(directory);
+                totalSize += size;
+
+                if (!activeAssets.containsKey(directory.getName())) {
+                    sizes.put(directory, size);
+                    evictable.add(directory);
+                }
+            }
+
+            if (totalSize <= maxCacheSize) {
+                return;
+            }
+
+            Collections.sort(evictable, new Comparator<File>() {
+                @Override
+                public int compare(File lh, File rh) {
+                    long lhModified = lh.lastModified();
+                    long rhModified = rh.lastModified();
+                    return lhModified < rhModified ? -1 : (lhModified == rhModified ? 0 : 1);
+                }
+            });
+
+            for (File directory : evictable) {
+                if (totalSize <= maxCacheSize) {
+                    break;
+                }
+
+                Logger.debug("Evicting assets for schedule: %s", directory.getName());
+                FileUtils.deleteRecursively(directory);
+                totalSize -= sizes.get(directory);
+            }
+        }
+    }
+
+    /**
+     * Helper method to get the size of a file or directory.
+     *
+     * @param file The file.
+     * @return The size in bytes.
+     */
+    private static long sizeOf(@NonNull File file) {
+        if (!file.isDirectory()) {
+            return file.length();
+        }
+
+        long size = 0;
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                size += sizeOf(child);
+            }
+        }
+        return size;
+    }
+
     /**
      * Release the assets from the cache. Use `wipeFromDisk` parameter
      * to control if the assets should be deleted.
@@ -7,10 +7,12 @@ import android.content.Context;
 import com.urbanairship.Logger;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.InAppMessageManager;
+import com.urbanairship.util.Network;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
@@ -52,6 +54,10 @@ public class AssetManager {
     @NonNull
     private final AssetCache assetCache;
 
+    private volatile boolean isPrefetchEnabled;
+    private final AtomicInteger cacheHitCount = new AtomicInteger();
+    private final AtomicInteger cacheMissCount = new AtomicInteger();
+
     /**
      * Default constructor. Applications should not create their own, instead use the asset manager
      * from {@link InAppMessageManager#getAssetManager()}
@@ -91,6 +97,27 @@ public class AssetManager {
         this.cachePolicyDelegate = cachePolicyDelegate;
     }
 
+    /**
+     * Enables or disables speculative prefetching. When enabled, assets for schedules that are
+     * likely to trigger soon are downloaded when the schedule is created, as long as the device
+     * is on an unmetered network. Prefetched assets are evicted from the cache, least recently
+     * used first, once the cache grows past its max size. Disabled by default.
+     *
+     * @param enabled {@code true} to enable prefetching, otherwise {@code false}.
+     */
+    public void setPrefetchEnabled(boolean enabled) {
+        this.isPrefetchEnabled = enabled;
+    }
+
+    /**
+     * Checks if speculative prefetching is enabled.
+     *
+     * @return {@code true} if prefetching is enabled, otherwise {@code false}.
+     */
+    public boolean isPrefetchEnabled() {
+        return isPrefetchEnabled;
+    }
+
     /**
      * Called when a new schedule is available.
      *
@@ -101,20 +128,43 @@ public class AssetManager {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @WorkerThread
     public void onSchedule(@NonNull String scheduleId, @NonNull Callable<InAppMessage> extendedMessageCallable) {
+        onSchedule(scheduleId, extendedMessageCallable, false);
+    }
+
+    /**
+     * Called when a new schedule is available.
+     *
+     * @param scheduleId The schedule ID.
+     * @param extendedMessageCallable Callback used to get the extended message.
+     * @param isLikelyToTrigger If the schedule is likely to trigger soon.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @WorkerThread
+    public void onSchedule(@NonNull String scheduleId, @NonNull Callable<InAppMessage> extendedMessageCallable, boolean isLikelyToTrigger) {
         CachePolicyDelegate cachePolicyDelegate = this.cachePolicyDelegate;
         PrepareAssetsDelegate assetsDelegate = this.assetsDelegate;
 
-        if (cachePolicyDelegate != null && assetsDelegate != null) {
-            try {
-                InAppMessage message = extendedMessageCallable.call();
-                if (cachePolicyDelegate.shouldCacheOnSchedule(scheduleId, message)) {
-                    Assets assets = assetCache.getAssets(scheduleId);
-                    assetsDelegate.onSchedule(scheduleId, message, assets);
-                    assetCache.releaseAssets(scheduleId, false);
-                }
-            } catch (Exception e) {
-                Logger.error(e, "Unable to prepare assets for schedule: %s", scheduleId);
+        if (assetsDelegate == null) {
+            return;
+        }
+
+        boolean prefetch = isLikelyToTrigger && isPrefetchEnabled && isPrefetchAllowed();
+        if (cachePolicyDelegate == null && !prefetch) {
+            return;
+        }
+
+        try {
+            InAppMessage message = extendedMessageCallable.call();
+            boolean cache = cachePolicyDelegate != null && cachePolicyDelegate.shouldCacheOnSchedule(scheduleId, message);
+            if (cache || prefetch) {
+                Assets assets = assetCache.getAssets(scheduleId);
+                assetsDelegate.onSchedule(scheduleId, message, assets);
+                assetCache.releaseAssets(scheduleId, false);
+                assetCache.trim();
             }
+        } catch (Exception e) {
+            Logger.error(e, "Unable to prepare assets for schedule: %s", scheduleId);
         }
     }
 
@@ -130,13 +180,59 @@ public class AssetManager {
     public int onPrepare(@NonNull String scheduleId, @NonNull InAppMessage message) {
         PrepareAssetsDelegate assetsDelegate = this.assetsDelegate;
         if (assetsDelegate != null) {
+            boolean wasCached = assetCache.hasCachedFiles(scheduleId);
             Assets assets = assetCache.getAssets(scheduleId);
-            return assetsDelegate.onPrepare(scheduleId, message, assets);
+
+            @PrepareResult int result = assetsDelegate.onPrepare(scheduleId, message, assets);
+            if (result == PREPARE_RESULT_OK) {
+                if (wasCached) {
+                    cacheHitCount.incrementAndGet();
+                } else if (assetCache.hasCachedFiles(scheduleId)) {
+                    cacheMissCount.incrementAndGet();
+                }
+
+                Logger.verbose("Asset cache hits: %s misses: %s", cacheHitCount.get(), cacheMissCount.get());
+                assetCache.trim();
+            }
+
+            return result;
         }
 
         return PREPARE_RESULT_OK;
     }
 
+    /**
+     * Gets the number of prepared schedules whose assets were already cached.
+     *
+     * @return The cache hit count.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getCacheHitCount() {
+        return cacheHitCount.get();
+    }
+
+    /**
+     * Gets the number of prepared schedules whose assets had to be downloaded during prepare.
+     *
+     * @return The cache miss count.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getCacheMissCount() {
+        return cacheMissCount.get();
+    }
+
+    /**
+     * Checks if the device is in a state that allows prefetching.
+     *
+     * @return {@code true} if connected to an unmetered network, otherwise {@code false}.
+     */
+    @VisibleForTesting
+    boolean isPrefetchAllowed() {
+        return Network.isConnected() && !Network.isMetered();
+    }
+
     /**
      * Called when the schedule's message finished displaying.
      *
@@ -73,7 +73,7 @@ public class Assets implements Parcelable {
     /**
      * The file store directory.
      */
-    private static final String FILES_DIRECTORY = "files";
+    static final String FILES_DIRECTORY = "files";
 
     private final Executor executor;
     private final File rootDirectory;
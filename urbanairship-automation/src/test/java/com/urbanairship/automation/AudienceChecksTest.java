@@ -19,6 +19,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
 import java.util.Arrays;
@@ -30,9 +31,12 @@ import java.util.Set;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static com.urbanairship.automation.tags.TestUtils.tagSet;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -59,6 +63,8 @@ public class AudienceChecksTest {
         TestApplication.getApplication().setPushManager(pushManager);
         TestApplication.getApplication().setLocationClient(locationClient);
         TestApplication.getApplication().setApplicationMetrics(applicationMetrics);
+
+        AudienceChecks.clearCache();
     }
 
     @Test
@@ -238,4 +244,90 @@ public class AudienceChecksTest {
 
         assertTrue(AudienceChecks.checkAudience(context, audience));
     }
+
+    @Test
+    public void testEvaluationCache() {
+        when(pushManager.areNotificationsOptedIn()).thenReturn(true);
+        when(airshipChannel.getTags()).thenReturn(tagSet("some tag"));
+        when(applicationMetrics.getCurrentAppVersion()).thenReturn(1l);
+
+        Audience audience = Audience.newBuilder()
+                                    .setNotificationsOptIn(true)
+                                    .setTagSelector(TagSelector.tag("some tag"))
+                                    .setVersionMatcher(ValueMatcher.newNumberRangeMatcher(1.0, 2.0))
+                                    .build();
+
+        // Equal audience from another schedule
+        Audience sharedAudience = Audience.newBuilder()
+                                          .setNotificationsOptIn(true)
+                                          .setTagSelector(TagSelector.tag("some tag"))
+                                          .setVersionMatcher(ValueMatcher.newNumberRangeMatcher(1.0, 2.0))
+                                          .build();
+
+        assertTrue(AudienceChecks.checkAudience(context, audience));
+        assertTrue(AudienceChecks.checkAudience(context, audience));
+        assertTrue(AudienceChecks.checkAudience(context, sharedAudience));
+        assertEquals(1, AudienceChecks.getCacheMissCount());
+        assertEquals(2, AudienceChecks.getCacheHitCount());
+
+        // Cache hits do not read the tags
+        verify(airshipChannel, times(1)).getTags();
+
+        // Tag change is not picked up until the inputs are invalidated
+        when(airshipChannel.getTags()).thenReturn(tagSet("other tag"));
+        assertTrue(AudienceChecks.checkAudience(context, audience));
+        assertEquals(3, AudienceChecks.getCacheHitCount());
+
+        AudienceChecks.onInputsChanged();
+        assertFalse(AudienceChecks.checkAudience(context, audience));
+        assertEquals(2, AudienceChecks.getCacheMissCount());
+
+        // Opt-in change is read on every check
+        when(airshipChannel.getTags()).thenReturn(tagSet("some tag"));
+        AudienceChecks.onInputsChanged();
+        when(pushManager.areNotificationsOptedIn()).thenReturn(false);
+        assertFalse(AudienceChecks.checkAudience(context, audience));
+        assertEquals(3, AudienceChecks.getCacheMissCount());
+
+        when(pushManager.areNotificationsOptedIn()).thenReturn(true);
+        assertTrue(AudienceChecks.checkAudience(context, audience));
+        assertEquals(4, AudienceChecks.getCacheMissCount());
+        assertEquals(3, AudienceChecks.getCacheHitCount());
+    }
+
+    @Test
+    public void testEvaluationCacheLocaleChange() {
+        Audience audience = Audience.newBuilder()
+                                    .addLanguageTag("fr")
+                                    .build();
+
+        RuntimeEnvironment.setQualifiers("en-rUS");
+        assertFalse(AudienceChecks.checkAudience(context, audience));
+        assertFalse(AudienceChecks.checkAudience(context, audience));
+        assertEquals(1, AudienceChecks.getCacheHitCount());
+
+        // Locale changes are picked up without invalidating the inputs
+        RuntimeEnvironment.setQualifiers("fr-rFR");
+        assertTrue(AudienceChecks.checkAudience(context, audience));
+        assertEquals(2, AudienceChecks.getCacheMissCount());
+    }
+
+    @Test
+    public void testEvaluationCacheTagGroups() {
+        Audience audience = Audience.newBuilder()
+                                    .setTagSelector(TagSelector.tag("some tag", "some group"))
+                                    .build();
+
+        Map<String, Set<String>> tagGroups = new HashMap<>();
+        tagGroups.put("some group", tagSet("some tag"));
+
+        assertTrue(AudienceChecks.checkAudience(context, audience, tagGroups));
+        assertTrue(AudienceChecks.checkAudience(context, audience, new HashMap<>(tagGroups)));
+        assertEquals(1, AudienceChecks.getCacheHitCount());
+
+        // Different tag groups are evaluated
+        assertFalse(AudienceChecks.checkAudience(context, audience, new HashMap<String, Set<String>>()));
+        assertEquals(2, AudienceChecks.getCacheMissCount());
+    }
+
 }
@@ -22,6 +22,7 @@ import com.urbanairship.automation.storage.AutomationDatabase;
 import com.urbanairship.automation.storage.FullSchedule;
 import com.urbanairship.automation.storage.LegacyDataMigrator;
 import com.urbanairship.automation.storage.ScheduleState;
+import com.urbanairship.automation.storage.ScheduleSummary;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.json.ValueMatcher;
@@ -169,6 +170,38 @@ public class AutomationEngineTest {
         assertTrue(actionSchedulesByGroupPendingResult.get().contains(schedule));
     }
 
+    @Test
+    public void testGetScheduleSummaries() throws Exception {
+        Schedule<Actions> other = Schedule.newBuilder(schedule.getData())
+                                          .addTrigger(Triggers.newAppInitTriggerBuilder().setGoal(1).build())
+                                          .setPriority(3)
+                                          .build();
+
+        Future<Boolean> scheduleResult = automationEngine.schedule(Arrays.<Schedule<? extends ScheduleData>>asList(schedule, other));
+        runLooperTasks();
+        assertTrue(scheduleResult.get());
+
+        PendingResult<Integer> countResult = automationEngine.getScheduleCount(Schedule.TYPE_ACTION);
+        PendingResult<List<ScheduleSummary>> firstPage = automationEngine.getScheduleSummaries(Schedule.TYPE_ACTION, 0, 1);
+        PendingResult<List<ScheduleSummary>> secondPage = automationEngine.getScheduleSummaries(Schedule.TYPE_ACTION, 1, 1);
+        PendingResult<Integer> wrongTypeCount = automationEngine.getScheduleCount(Schedule.TYPE_IN_APP_MESSAGE);
+        runLooperTasks();
+
+        assertEquals(2, (int) countResult.get());
+        assertEquals(0, (int) wrongTypeCount.get());
+
+        assertEquals(1, firstPage.get().size());
+        ScheduleSummary summary = firstPage.get().get(0);
+        assertEquals(schedule.getId(), summary.scheduleId);
+        assertEquals(Schedule.TYPE_ACTION, summary.scheduleType);
+        assertEquals("group", summary.group);
+        assertEquals(ScheduleState.IDLE, summary.executionState);
+
+        assertEquals(1, secondPage.get().size());
+        assertEquals(other.getId(), secondPage.get().get(0).scheduleId);
+        assertEquals(3, secondPage.get().get(0).priority);
+    }
+
     @Test
     public void testMigrateOnStart() {
         automationEngine.stop();
@@ -480,6 +513,39 @@ public class AutomationEngineTest {
         verify(expiryListener).onScheduleExpired(schedule);
     }
 
+    @Test
+    public void testTriggerProgressWriteBehind() throws ExecutionException, InterruptedException {
+        activityMonitor.foreground();
+
+        Schedule<Actions> schedule = Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
+                                             .addTrigger(Triggers.newCustomEventTriggerBuilder()
+                                                                 .setCountGoal(3)
+                                                                 .setEventName("name")
+                                                                 .build())
+                                             .build();
+        schedule(schedule);
+
+        CustomEvent.newBuilder("name").build().track();
+        runCurrentLooperTasks();
+
+        // Progress is buffered until the flush interval
+        assertEquals(0, getTriggerProgress(schedule), 0.01);
+        advanceAutomationLooperScheduler(AutomationEngine.TRIGGER_PROGRESS_FLUSH_INTERVAL_MS);
+        assertEquals(1, getTriggerProgress(schedule), 0.01);
+
+        // Progress within the next flush window is all that a crash would lose
+        CustomEvent.newBuilder("name").build().track();
+        runCurrentLooperTasks();
+        assertEquals(1, getTriggerProgress(schedule), 0.01);
+        assertEquals(ScheduleState.IDLE, dao.getSchedule(schedule.getId()).schedule.executionState);
+
+        // Reaching the goal uses the buffered progress and flushes right away
+        CustomEvent.newBuilder("name").build().track();
+        runCurrentLooperTasks();
+        assertEquals(0, getTriggerProgress(schedule), 0.01);
+        verifyState(schedule, ScheduleState.PREPARING_SCHEDULE);
+    }
+
     @Test
     public void testNewScheduleListener() throws ExecutionException, InterruptedException {
         AutomationEngine.ScheduleListener listener = mock(AutomationEngine.ScheduleListener.class);
@@ -945,6 +1011,53 @@ public class AutomationEngineTest {
         verifyState(schedule, ScheduleState.EXECUTING);
     }
 
+    @Test
+    public void testWaitingSchedulesCheckedInPriorityOrder() throws Exception {
+        driver.onCheckExecutionReadinessResult = AutomationDriver.READY_RESULT_NOT_READY;
+
+        List<Schedule<Actions>> schedules = new ArrayList<>();
+        for (int priority : new int[] { 2, 0, 1 }) {
+            Schedule<Actions> schedule = Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
+                                                 .addTrigger(Triggers.newCustomEventTriggerBuilder()
+                                                                     .setCountGoal(1)
+                                                                     .setEventName("event")
+                                                                     .build())
+                                                 .setPriority(priority)
+                                                 .build();
+            schedules.add(schedule);
+            schedule(schedule);
+        }
+
+        // Trigger the schedules
+        CustomEvent.newBuilder("event")
+                   .build()
+                   .track();
+
+        runLooperTasks();
+
+        for (Schedule<Actions> schedule : schedules) {
+            driver.prepareCallbackMap.get(schedule.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        }
+        runLooperTasks();
+
+        for (Schedule<Actions> schedule : schedules) {
+            verifyState(schedule, ScheduleState.WAITING_SCHEDULE_CONDITIONS);
+        }
+
+        // Change the conditions several times before the checks run
+        driver.onCheckExecutionReadinessResult = AutomationDriver.READY_RESULT_CONTINUE;
+        driver.executedPriorityList.clear();
+        activityMonitor.resumeActivity(new Activity());
+        activityMonitor.resumeActivity(new Activity());
+        runLooperTasks();
+
+        // Verify each schedule executed once in priority order
+        assertEquals(Arrays.asList(0, 1, 2), driver.executedPriorityList);
+        for (Schedule<Actions> schedule : schedules) {
+            verifyState(schedule, ScheduleState.EXECUTING);
+        }
+    }
+
     private void verifyDelay(ScheduleDelay delay, Runnable resolveDelay) throws Exception {
         final Schedule<Actions> schedule = Schedule.newBuilder(this.schedule)
                                                    .setDelay(delay)
@@ -1065,6 +1178,24 @@ public class AutomationEngineTest {
         while (mainLooper.getScheduler().areAnyRunnable() || automationLooper.getScheduler().areAnyRunnable());
     }
 
+    /**
+     * Helper method to run the looper tasks that are due without advancing the clock.
+     */
+    private void runCurrentLooperTasks() {
+        ShadowLooper mainLooper = Shadows.shadowOf(Looper.getMainLooper());
+        ShadowLooper automationLooper = Shadows.shadowOf(automationEngine.backgroundThread.getLooper());
+
+        do {
+            mainLooper.idle();
+            automationLooper.idle();
+        }
+        while (mainLooper.getScheduler().areAnyRunnable() || automationLooper.getScheduler().areAnyRunnable());
+    }
+
+    private double getTriggerProgress(Schedule<?> schedule) {
+        return dao.getSchedule(schedule.getId()).triggers.get(0).progress;
+    }
+
     private void advanceAutomationLooperScheduler(long millis) {
         ShadowLooper automationLooper = Shadows.shadowOf(automationEngine.backgroundThread.getLooper());
         automationLooper.getScheduler().advanceBy(millis, TimeUnit.MILLISECONDS);
@@ -1076,6 +1207,73 @@ public class AutomationEngineTest {
         assertTrue(future.get());
     }
 
+    @Test
+    public void testCancelledBeforeExecutionRecorded() throws Exception {
+        schedule(schedule);
+
+        // Cancel the schedule on the main thread after it starts executing, before the
+        // readiness result is applied
+        driver.onExecuteRunnable = new Runnable() {
+            @Override
+            public void run() {
+                automationEngine.cancel(Collections.singleton(schedule.getId()));
+            }
+        };
+
+        CustomEvent.newBuilder("event")
+                   .build()
+                   .track();
+        runLooperTasks();
+
+        driver.prepareCallbackMap.get(schedule.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
+
+        assertTrue(driver.executionCallbackMap.containsKey(schedule.getId()));
+        assertNull(dao.getSchedule(schedule.getId()));
+
+        // Finishing the execution should not bring the schedule back
+        driver.executionCallbackMap.get(schedule.getId()).onFinish();
+        runLooperTasks();
+
+        assertNull(dao.getSchedule(schedule.getId()));
+        assertTrue(driver.interrupted.isEmpty());
+    }
+
+    @Test
+    public void testEditedBeforeExecutionRecorded() throws Exception {
+        final Schedule<Actions> schedule = Schedule.newBuilder(this.schedule)
+                                                   .setEditGracePeriod(1, TimeUnit.DAYS)
+                                                   .setLimit(2)
+                                                   .build();
+        schedule(schedule);
+
+        // Expire the schedule on the main thread after it starts executing, before the
+        // readiness result is applied
+        driver.onExecuteRunnable = new Runnable() {
+            @Override
+            public void run() {
+                ScheduleEdits<?> edits = ScheduleEdits.newBuilder().setEnd(System.currentTimeMillis()).build();
+                automationEngine.editSchedule(schedule.getId(), edits);
+            }
+        };
+
+        CustomEvent.newBuilder("event")
+                   .build()
+                   .track();
+        runLooperTasks();
+
+        driver.prepareCallbackMap.get(schedule.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
+
+        // The running execution is still recorded
+        verifyState(schedule, ScheduleState.EXECUTING);
+
+        driver.executionCallbackMap.get(schedule.getId()).onFinish();
+        runLooperTasks();
+
+        verifyState(schedule, ScheduleState.FINISHED);
+    }
+
     private void verifyState(Schedule<?> schedule, int state) {
         assertEquals(dao.getSchedule(schedule.getId()).schedule.executionState, state);
     }
@@ -1088,12 +1286,18 @@ public class AutomationEngineTest {
         Map<String, TriggerContext> preparedTriggerContextMap = new HashMap<>();
         Map<String, Schedule> interrupted = new HashMap<>();
         ArrayList<Integer> priorityList = new ArrayList<>();
+        ArrayList<Integer> executedPriorityList = new ArrayList<>();
 
         int onCheckExecutionReadinessResult = READY_RESULT_CONTINUE;
+        Runnable onExecuteRunnable;
 
         @Override
         public void onExecuteTriggeredSchedule(@NonNull Schedule schedule, @NonNull ExecutionCallback finishCallback) {
             executionCallbackMap.put(schedule.getId(), finishCallback);
+            executedPriorityList.add(schedule.getPriority());
+            if (onExecuteRunnable != null) {
+                onExecuteRunnable.run();
+            }
         }
 
         @Override
@@ -192,6 +192,7 @@ public class InAppAutomationTest {
         ArgumentCaptor<AutomationDriver.PrepareScheduleCallback> argumentCaptor = ArgumentCaptor.forClass(AutomationDriver.PrepareScheduleCallback.class);
         verify(mockMessageScheduleDelegate).onPrepareSchedule(eq(schedule), eq(schedule.getData()), argumentCaptor.capture());
         argumentCaptor.getValue().onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
     }
 
@@ -230,6 +231,7 @@ public class InAppAutomationTest {
         ArgumentCaptor<AutomationDriver.PrepareScheduleCallback> argumentCaptor = ArgumentCaptor.forClass(AutomationDriver.PrepareScheduleCallback.class);
         verify(mockMessageScheduleDelegate).onPrepareSchedule(eq(schedule), eq(message), argumentCaptor.capture());
         argumentCaptor.getValue().onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
 
         when(mockObserver.isRemoteSchedule(schedule)).thenReturn(false);
@@ -269,6 +271,7 @@ public class InAppAutomationTest {
         AutomationDriver.PrepareScheduleCallback callback = mock(AutomationDriver.PrepareScheduleCallback.class);
         driver.onPrepareSchedule(schedule, triggerContext, callback);
 
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_SKIP);
     }
 
@@ -288,6 +291,7 @@ public class InAppAutomationTest {
         ArgumentCaptor<AutomationDriver.PrepareScheduleCallback> argumentCaptor = ArgumentCaptor.forClass(AutomationDriver.PrepareScheduleCallback.class);
         verify(mockMessageScheduleDelegate).onPrepareSchedule(eq(schedule), eq(message), argumentCaptor.capture());
         argumentCaptor.getValue().onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
 
         // Check execution readiness
@@ -315,6 +319,7 @@ public class InAppAutomationTest {
         AutomationDriver.PrepareScheduleCallback callback = mock(AutomationDriver.PrepareScheduleCallback.class);
         driver.onPrepareSchedule(schedule, null, callback);
 
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
     }
 
@@ -333,6 +338,7 @@ public class InAppAutomationTest {
         ArgumentCaptor<AutomationDriver.PrepareScheduleCallback> argumentCaptor = ArgumentCaptor.forClass(AutomationDriver.PrepareScheduleCallback.class);
         verify(mockActionsScheduleDelegate).onPrepareSchedule(eq(schedule), eq(schedule.getData()), argumentCaptor.capture());
         argumentCaptor.getValue().onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
 
         when(mockActionsScheduleDelegate.onCheckExecutionReadiness(schedule)).thenReturn(AutomationDriver.READY_RESULT_CONTINUE);
@@ -362,6 +368,7 @@ public class InAppAutomationTest {
                         .build());
         runLooperTasks();
 
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
     }
 
@@ -402,6 +409,7 @@ public class InAppAutomationTest {
 
         AutomationDriver.PrepareScheduleCallback callback = mock(AutomationDriver.PrepareScheduleCallback.class);
         driver.onPrepareSchedule(schedule, null, callback);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
     }
 
@@ -457,6 +465,7 @@ public class InAppAutomationTest {
         ArgumentCaptor<AutomationDriver.PrepareScheduleCallback> argumentCaptor = ArgumentCaptor.forClass(AutomationDriver.PrepareScheduleCallback.class);
         verify(mockActionsScheduleDelegate).onPrepareSchedule(eq(schedule), eq(schedule.getData()), argumentCaptor.capture());
         argumentCaptor.getValue().onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
 
         when(mockActionsScheduleDelegate.onCheckExecutionReadiness(schedule)).thenReturn(AutomationDriver.READY_RESULT_CONTINUE);
@@ -562,6 +571,7 @@ public class InAppAutomationTest {
         runLooperTasks();
 
         // Verify the schedule is invalidated
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_INVALIDATE);
     }
 
@@ -605,6 +615,7 @@ public class InAppAutomationTest {
         driver.onPrepareSchedule(schedule, null, mockPrepareCallback);
 
         // Verify the miss behavior
+        runLooperTasks();
         verify(mockPrepareCallback).onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
     }
 
@@ -627,6 +638,7 @@ public class InAppAutomationTest {
         driver.onPrepareSchedule(schedule, null, mockPrepareCallback);
 
         // Verify the miss behavior
+        runLooperTasks();
         verify(mockPrepareCallback).onFinish(AutomationDriver.PREPARE_RESULT_CANCEL);
     }
 
@@ -645,6 +657,7 @@ public class InAppAutomationTest {
         driver.onPrepareSchedule(schedule, null, mockPrepareCallback);
 
         // Verify the miss behavior
+        runLooperTasks();
         verify(mockPrepareCallback).onFinish(AutomationDriver.PREPARE_RESULT_SKIP);
     }
 
@@ -663,6 +676,7 @@ public class InAppAutomationTest {
         driver.onPrepareSchedule(schedule, null, mockPrepareCallback);
 
         // Verify the miss behavior
+        runLooperTasks();
         verify(mockPrepareCallback).onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
     }
 
@@ -686,6 +700,7 @@ public class InAppAutomationTest {
         driver.onPrepareSchedule(schedule, null, mockPrepareCallback);
 
         // Verify prepare result
+        runLooperTasks();
         verify(mockPrepareCallback).onFinish(AutomationDriver.PREPARE_RESULT_SKIP);
     }
 
@@ -705,6 +720,7 @@ public class InAppAutomationTest {
         ArgumentCaptor<AutomationDriver.PrepareScheduleCallback> argumentCaptor = ArgumentCaptor.forClass(AutomationDriver.PrepareScheduleCallback.class);
         verify(mockMessageScheduleDelegate).onPrepareSchedule(eq(schedule), eq(message), argumentCaptor.capture());
         argumentCaptor.getValue().onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
 
         AutomationDriver.ExecutionCallback executionCallback = mock(AutomationDriver.ExecutionCallback.class);
@@ -724,6 +740,7 @@ public class InAppAutomationTest {
         ArgumentCaptor<AutomationDriver.PrepareScheduleCallback> argumentCaptor = ArgumentCaptor.forClass(AutomationDriver.PrepareScheduleCallback.class);
         verify(mockActionsScheduleDelegate).onPrepareSchedule(eq(schedule), eq(schedule.getData()), argumentCaptor.capture());
         argumentCaptor.getValue().onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
 
         AutomationDriver.ExecutionCallback executionCallback = mock(AutomationDriver.ExecutionCallback.class);
@@ -780,6 +797,7 @@ public class InAppAutomationTest {
         driver.onPrepareSchedule(schedule, null, mockPrepareCallback);
 
         // Verify the miss behavior
+        runLooperTasks();
         verify(mockPrepareCallback).onFinish(AutomationDriver.PREPARE_RESULT_SKIP);
     }
 
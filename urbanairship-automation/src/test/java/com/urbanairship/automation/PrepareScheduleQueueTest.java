@@ -0,0 +1,243 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.urbanairship.automation.actions.Actions;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.util.RetryingExecutor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Shadows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class PrepareScheduleQueueTest {
+
+    private PrepareScheduleQueue queue;
+    private final List<String> delivered = new ArrayList<>();
+    private final Map<String, Integer> results = new HashMap<>();
+    private final Map<String, AutomationDriver.PrepareScheduleCallback> prepareCallbacks = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        RetryingExecutor executor = new RetryingExecutor(new Handler(Looper.getMainLooper()), new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                runnable.run();
+            }
+        });
+
+        queue = new PrepareScheduleQueue(executor, new Handler(Looper.getMainLooper()));
+    }
+
+    @Test
+    public void testResultsDeliveredInPriorityOrder() {
+        Schedule<Actions> high = createSchedule(0);
+        Schedule<Actions> low = createSchedule(1);
+
+        prepare(high);
+        prepare(low);
+
+        // Low priority finishes first, held for the high priority schedule
+        prepareCallbacks.get(low.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        assertTrue(delivered.isEmpty());
+
+        prepareCallbacks.get(high.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        assertEquals(2, delivered.size());
+        assertEquals(high.getId(), delivered.get(0));
+        assertEquals(low.getId(), delivered.get(1));
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    public void testCancelReleasesHeldResults() {
+        Schedule<Actions> high = createSchedule(0);
+        Schedule<Actions> low = createSchedule(1);
+
+        prepare(high);
+        prepare(low);
+
+        prepareCallbacks.get(low.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        assertTrue(delivered.isEmpty());
+
+        queue.cancel(high.getId());
+        assertEquals(1, delivered.size());
+        assertEquals(low.getId(), delivered.get(0));
+
+        // Cancelled results are dropped
+        prepareCallbacks.get(high.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        assertEquals(1, delivered.size());
+    }
+
+    @Test
+    public void testCancelFromCallbackKeepsOrder() {
+        final Schedule<Actions> first = createSchedule(0);
+        Schedule<Actions> second = createSchedule(1);
+        final Schedule<Actions> blocking = createSchedule(2);
+        Schedule<Actions> last = createSchedule(3);
+
+        queue.prepare(first, new AutomationDriver.PrepareScheduleCallback() {
+            @Override
+            public void onFinish(int result) {
+                delivered.add(first.getId());
+                // Releases the last result while the second is still being delivered
+                queue.cancel(blocking.getId());
+            }
+        }, createOperations(first));
+        prepare(second);
+        prepare(blocking);
+        prepare(last);
+
+        prepareCallbacks.get(last.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        prepareCallbacks.get(second.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        prepareCallbacks.get(first.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        Shadows.shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(3, delivered.size());
+        assertEquals(first.getId(), delivered.get(0));
+        assertEquals(second.getId(), delivered.get(1));
+        assertEquals(last.getId(), delivered.get(2));
+    }
+
+    @Test
+    public void testHeldResultDeliveredAfterMaxDelay() {
+        Schedule<Actions> high = createSchedule(0);
+        Schedule<Actions> medium = createSchedule(1);
+        Schedule<Actions> low = createSchedule(2);
+
+        prepare(high);
+        prepare(medium);
+        prepare(low);
+
+        prepareCallbacks.get(low.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(PrepareScheduleQueue.MAX_BLOCKING_DELAY_MS - 1, TimeUnit.MILLISECONDS);
+        assertTrue(delivered.isEmpty());
+
+        // The medium priority schedule finishes while the result is held
+        prepareCallbacks.get(medium.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        assertTrue(delivered.isEmpty());
+
+        // Only the result that waited too long is delivered out of order
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.MILLISECONDS);
+        assertEquals(1, delivered.size());
+        assertEquals(low.getId(), delivered.get(0));
+        assertEquals(2, queue.getPendingCount());
+
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(PrepareScheduleQueue.MAX_BLOCKING_DELAY_MS, TimeUnit.MILLISECONDS);
+        assertEquals(2, delivered.size());
+        assertEquals(medium.getId(), delivered.get(1));
+
+        // The high priority schedule is never skipped
+        prepareCallbacks.get(high.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        assertEquals(3, delivered.size());
+        assertEquals(high.getId(), delivered.get(2));
+        assertEquals(AutomationDriver.PREPARE_RESULT_CONTINUE, (int) results.get(high.getId()));
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    public void testUnblockedPrepareDelivered() {
+        Schedule<Actions> high = createSchedule(0);
+        Schedule<Actions> low = createSchedule(1);
+
+        prepare(high);
+        prepare(low);
+
+        // Nothing is waiting on the high priority schedule
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(PrepareScheduleQueue.MAX_BLOCKING_DELAY_MS * 2, TimeUnit.MILLISECONDS);
+        assertTrue(delivered.isEmpty());
+
+        prepareCallbacks.get(high.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        assertEquals(1, delivered.size());
+        assertEquals(AutomationDriver.PREPARE_RESULT_CONTINUE, (int) results.get(high.getId()));
+    }
+
+    @Test
+    public void testCancelSkipsRemainingOperations() {
+        final Schedule<Actions> schedule = createSchedule(0);
+        final List<String> ran = new ArrayList<>();
+
+        queue.prepare(schedule, createCallback(schedule), new PrepareScheduleQueue.OperationsFactory() {
+            @NonNull
+            @Override
+            public RetryingExecutor.Operation[] create(@NonNull AutomationDriver.PrepareScheduleCallback callback) {
+                RetryingExecutor.Operation first = new RetryingExecutor.Operation() {
+                    @Override
+                    public int run() {
+                        ran.add("first");
+                        queue.cancel(schedule.getId());
+                        return RetryingExecutor.RESULT_FINISHED;
+                    }
+                };
+
+                RetryingExecutor.Operation second = new RetryingExecutor.Operation() {
+                    @Override
+                    public int run() {
+                        ran.add("second");
+                        return RetryingExecutor.RESULT_FINISHED;
+                    }
+                };
+
+                return new RetryingExecutor.Operation[] { first, second };
+            }
+        });
+
+        assertEquals(1, ran.size());
+        assertTrue(delivered.isEmpty());
+    }
+
+    private void prepare(final Schedule<Actions> schedule) {
+        queue.prepare(schedule, createCallback(schedule), createOperations(schedule));
+    }
+
+    private PrepareScheduleQueue.OperationsFactory createOperations(final Schedule<Actions> schedule) {
+        return new PrepareScheduleQueue.OperationsFactory() {
+            @NonNull
+            @Override
+            public RetryingExecutor.Operation[] create(@NonNull final AutomationDriver.PrepareScheduleCallback callback) {
+                return new RetryingExecutor.Operation[] { new RetryingExecutor.Operation() {
+                    @Override
+                    public int run() {
+                        prepareCallbacks.put(schedule.getId(), callback);
+                        return RetryingExecutor.RESULT_FINISHED;
+                    }
+                } };
+            }
+        };
+    }
+
+    private AutomationDriver.PrepareScheduleCallback createCallback(final Schedule<Actions> schedule) {
+        return new AutomationDriver.PrepareScheduleCallback() {
+            @Override
+            public void onFinish(int result) {
+                delivered.add(schedule.getId());
+                results.put(schedule.getId(), result);
+            }
+        };
+    }
+
+    private static Schedule<Actions> createSchedule(int priority) {
+        return Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
+                       .addTrigger(Triggers.newActiveSessionTriggerBuilder().build())
+                       .setPriority(priority)
+                       .build();
+    }
+
+}
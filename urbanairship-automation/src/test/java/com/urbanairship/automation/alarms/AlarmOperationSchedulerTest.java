@@ -4,17 +4,26 @@ package com.urbanairship.automation.alarms;
 
 import android.app.PendingIntent;
 
+import com.urbanairship.CancelableOperation;
 import com.urbanairship.TestClock;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -43,9 +52,10 @@ public class AlarmOperationSchedulerTest {
 
         verify(mockDelegate).onSchedule(eq(1001l), any(PendingIntent.class));
 
+        // Operation after the next alarm does not update the alarm
         scheduler.schedule(100000, mock(Runnable.class));
 
-        verify(mockDelegate, times(2)).onSchedule(eq(1001l), any(PendingIntent.class));
+        verify(mockDelegate, times(1)).onSchedule(eq(1001l), any(PendingIntent.class));
 
         scheduler.schedule(20, mock(Runnable.class));
 
@@ -82,4 +92,79 @@ public class AlarmOperationSchedulerTest {
         verify(operation3).run();
     }
 
+    @Test
+    public void testSkipCancelledOperations() {
+        testClock.elapsedRealtime = 0;
+
+        scheduler.schedule(10, mock(Runnable.class));
+
+        CancelableOperation cancelled = new CancelableOperation();
+        scheduler.schedule(20, cancelled);
+        cancelled.cancel();
+
+        scheduler.schedule(30, mock(Runnable.class));
+
+        clearInvocations(mockDelegate);
+        testClock.elapsedRealtime = 10;
+        scheduler.onAlarmFired();
+
+        // Next alarm skips the cancelled operation
+        verify(mockDelegate).onSchedule(eq(30l), any(PendingIntent.class));
+    }
+
+    @Test
+    public void testScheduleOperationFromOperation() {
+        testClock.elapsedRealtime = 0;
+
+        final Runnable operation2 = mock(Runnable.class);
+        scheduler.schedule(10, new Runnable() {
+            @Override
+            public void run() {
+                // Operations run outside of the lock and are able to schedule more work
+                scheduler.schedule(10, operation2);
+            }
+        });
+
+        testClock.elapsedRealtime = 10;
+        scheduler.onAlarmFired();
+        verify(mockDelegate).onSchedule(eq(20l), any(PendingIntent.class));
+
+        testClock.elapsedRealtime = 20;
+        scheduler.onAlarmFired();
+        verify(operation2).run();
+    }
+
+    /**
+     * Restores 10k pending delays, similar to restoring delayed schedules on app start, and
+     * verifies they fire in order without resetting the alarm on every insert.
+     */
+    @Test
+    public void testRestoreManyOperations() {
+        testClock.elapsedRealtime = 0;
+
+        final List<Long> executionTimes = new ArrayList<>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < 10000; i++) {
+            final long delay = 1 + random.nextInt(1000000);
+            scheduler.schedule(delay, new Runnable() {
+                @Override
+                public void run() {
+                    executionTimes.add(delay);
+                }
+            });
+        }
+
+        // Alarm only updates when a new earliest operation is scheduled
+        verify(mockDelegate, atMost(100)).onSchedule(anyLong(), any(PendingIntent.class));
+
+        testClock.elapsedRealtime = 1000000;
+        scheduler.onAlarmFired();
+
+        assertEquals(10000, executionTimes.size());
+        for (int i = 1; i < executionTimes.size(); i++) {
+            assertTrue(executionTimes.get(i - 1) <= executionTimes.get(i));
+        }
+    }
+
 }
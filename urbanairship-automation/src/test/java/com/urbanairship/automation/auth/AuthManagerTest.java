@@ -2,6 +2,11 @@
 
 package com.urbanairship.automation.auth;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.TestApplication;
 import com.urbanairship.TestClock;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.http.RequestException;
@@ -10,11 +15,18 @@ import com.urbanairship.http.Response;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.robolectric.Shadows;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
+import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(AndroidJUnit4.class)
@@ -24,14 +36,25 @@ public class AuthManagerTest {
     private AuthApiClient mockClient;
     private AirshipChannel mockChannel;
     private TestClock clock;
+    private PreferenceDataStore dataStore;
+    private Executor executor;
+    private Handler handler;
 
     @Before
     public void setup() {
         this.mockChannel = mock(AirshipChannel.class);
         this.mockClient = mock(AuthApiClient.class);
         this.clock = new TestClock();
+        this.dataStore = TestApplication.getApplication().preferenceDataStore;
+        this.executor = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                runnable.run();
+            }
+        };
+        this.handler = new Handler(Looper.getMainLooper());
 
-        this.authManager = new AuthManager(mockClient, mockChannel, clock);
+        this.authManager = new AuthManager(mockClient, mockChannel, clock, dataStore, executor, handler);
     }
 
     @Test
@@ -118,4 +141,140 @@ public class AuthManagerTest {
         assertEquals("some other token", authManager.getToken());
     }
 
+    @Test
+    public void testTokenPersisted() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", AuthManager.MAX_REFRESH_WINDOW_MS * 2))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+
+        // New instance should use the stored token
+        AuthManager restored = new AuthManager(mockClient, mockChannel, clock, dataStore, executor, handler);
+        assertEquals("some token", restored.getToken());
+        assertEquals(0, restored.getTokenFetchCount());
+        assertEquals(1, restored.getAvoidedTokenFetchCount());
+
+        verify(mockClient, times(1)).getToken("channel id");
+    }
+
+    @Test
+    public void testRefreshBeforeExpiry() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        long expiration = AuthManager.MAX_REFRESH_WINDOW_MS * 2;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", expiration))
+                        .build())
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some other token", expiration * 2))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+
+        // Not expiring yet, no refresh
+        clock.currentTimeMillis = expiration - AuthManager.MAX_REFRESH_WINDOW_MS - 1;
+        assertEquals("some token", authManager.getToken());
+        assertEquals(1, authManager.getTokenFetchCount());
+
+        // Within the refresh window, returns the cached token and refreshes in the background
+        clock.currentTimeMillis = expiration - AuthManager.MAX_REFRESH_WINDOW_MS;
+        assertEquals("some token", authManager.getToken());
+        assertEquals(2, authManager.getTokenFetchCount());
+
+        // Refreshed token is used without another fetch
+        assertEquals("some other token", authManager.getToken());
+        assertEquals(2, authManager.getTokenFetchCount());
+        assertEquals(3, authManager.getAvoidedTokenFetchCount());
+    }
+
+    @Test
+    public void testShortLivedTokenRefreshWindow() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        long lifetime = 60000;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", lifetime))
+                        .build())
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some other token", lifetime / 2 + lifetime))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+
+        // The window is capped at half the lifetime, so the token is not refetched right away
+        clock.currentTimeMillis = lifetime / 2 - 1;
+        assertEquals("some token", authManager.getToken());
+        assertEquals(1, authManager.getTokenFetchCount());
+
+        clock.currentTimeMillis = lifetime / 2;
+        assertEquals("some token", authManager.getToken());
+        assertEquals(2, authManager.getTokenFetchCount());
+
+        // The new token is used without refetching
+        clock.currentTimeMillis = lifetime / 2 + 1;
+        assertEquals("some other token", authManager.getToken());
+        assertEquals("some other token", authManager.getToken());
+        assertEquals(2, authManager.getTokenFetchCount());
+    }
+
+    @Test
+    public void testRefreshTimer() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        long expiration = AuthManager.MAX_REFRESH_WINDOW_MS * 2;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", expiration))
+                        .build())
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some other token", expiration * 2))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+
+        // Using the cached token schedules the refresh
+        assertEquals("some token", authManager.getToken());
+
+        // Refreshed once the refresh time is reached, without another token request
+        clock.currentTimeMillis = expiration - AuthManager.MAX_REFRESH_WINDOW_MS;
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(expiration - AuthManager.MAX_REFRESH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        assertEquals(2, authManager.getTokenFetchCount());
+
+        // The refreshed token is not refreshed again until it is used
+        clock.currentTimeMillis = expiration * 2;
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(expiration * 2, TimeUnit.MILLISECONDS);
+        assertEquals(2, authManager.getTokenFetchCount());
+    }
+
+    @Test
+    public void testUnusedTokenNotRefreshed() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        long expiration = AuthManager.MAX_REFRESH_WINDOW_MS * 2;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", expiration))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+
+        clock.currentTimeMillis = expiration;
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(expiration, TimeUnit.MILLISECONDS);
+        assertEquals(1, authManager.getTokenFetchCount());
+        verify(mockClient, times(1)).getToken("channel id");
+    }
+
+    @Test
+    public void testGetRefreshWindow() {
+        assertEquals(AuthManager.MAX_REFRESH_WINDOW_MS, AuthManager.getRefreshWindow(TimeUnit.HOURS.toMillis(1)));
+        assertEquals(30000, AuthManager.getRefreshWindow(60000));
+        assertEquals(0, AuthManager.getRefreshWindow(-1));
+    }
+
 }
@@ -3,6 +3,7 @@
 package com.urbanairship.automation.deferred;
 
 import com.urbanairship.TestAirshipRuntimeConfig;
+import com.urbanairship.TestClock;
 import com.urbanairship.TestRequest;
 import com.urbanairship.UAirship;
 import com.urbanairship.analytics.CustomEvent;
@@ -17,6 +18,7 @@ import com.urbanairship.http.Request;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.RequestFactory;
 import com.urbanairship.http.Response;
+import com.urbanairship.http.ResponseParser;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.custom.CustomDisplayContent;
 import com.urbanairship.json.JsonMap;
@@ -32,6 +34,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -40,6 +46,7 @@ import static com.urbanairship.automation.tags.TestUtils.tagSet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -56,6 +63,8 @@ public class DeferredScheduleClientTest {
     private Supplier<StateOverrides> mockSupplier;
     private TestRequest testRequest;
     private TestAirshipRuntimeConfig runtimeConfig;
+    private TestClock clock;
+    private AtomicInteger requestCount;
 
     @Before
     public void setup() {
@@ -64,6 +73,8 @@ public class DeferredScheduleClientTest {
         testRequest = new TestRequest();
         mockAuthManager = mock(AuthManager.class);
         mockSupplier = mock(Supplier.class);
+        clock = new TestClock();
+        requestCount = new AtomicInteger();
         client = new DeferredScheduleClient(
                 runtimeConfig,
                 mockAuthManager,
@@ -71,10 +82,12 @@ public class DeferredScheduleClientTest {
                     @NonNull
                     @Override
                     public Request createRequest() {
+                        requestCount.incrementAndGet();
                         return testRequest;
                     }
                 },
-                mockSupplier);
+                mockSupplier,
+                clock);
 
         when(mockSupplier.get()).thenReturn(null);
     }
@@ -284,4 +297,105 @@ public class DeferredScheduleClientTest {
         verify(mockAuthManager).tokenExpired("expired");
     }
 
+    @Test
+    public void testCachedResponse() throws AuthException, MalformedURLException, RequestException {
+        when(mockAuthManager.getToken()).thenReturn("some_token");
+
+        testRequest.responseStatus = 200;
+        testRequest.responseBody = JsonMap.newBuilder()
+                                          .put("audience_match", true)
+                                          .build()
+                                          .toString();
+
+        URL url = new URL("https://airship.com");
+        Response<DeferredScheduleClient.Result> response = client.performRequest(url, "channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES);
+
+        // Identical request within the TTL uses the cached response
+        clock.currentTimeMillis += DeferredScheduleClient.CACHE_TTL_MS - 1;
+        assertSame(response, client.performRequest(url, "channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES));
+        assertEquals(1, requestCount.get());
+
+        // Different request is not cached
+        client.performRequest(url, "other channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES);
+        assertEquals(2, requestCount.get());
+
+        // Expired
+        clock.currentTimeMillis += 1;
+        client.performRequest(url, "channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES);
+        assertEquals(3, requestCount.get());
+    }
+
+    @Test
+    public void testFailedResponseNotCached() throws AuthException, MalformedURLException, RequestException {
+        when(mockAuthManager.getToken()).thenReturn("some_token");
+        testRequest.responseStatus = 500;
+
+        URL url = new URL("https://airship.com");
+        client.performRequest(url, "channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES);
+        client.performRequest(url, "channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES);
+
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void testCoalesceRequests() throws Exception {
+        when(mockAuthManager.getToken()).thenReturn("some_token");
+
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch finishRequest = new CountDownLatch(1);
+        testRequest = new TestRequest() {
+            @NonNull
+            @Override
+            public <T> Response<T> execute(@NonNull ResponseParser<T> parser) throws RequestException {
+                requestStarted.countDown();
+                try {
+                    finishRequest.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RequestException("interrupted", e);
+                }
+                return super.execute(parser);
+            }
+        };
+        testRequest.responseStatus = 200;
+        testRequest.responseBody = JsonMap.newBuilder()
+                                          .put("audience_match", true)
+                                          .build()
+                                          .toString();
+
+        final URL url = new URL("https://airship.com");
+        final AtomicReference<Response<DeferredScheduleClient.Result>> firstResponse = new AtomicReference<>();
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    firstResponse.set(client.performRequest(url, "channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        first.start();
+        assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+
+        final AtomicReference<Response<DeferredScheduleClient.Result>> secondResponse = new AtomicReference<>();
+        Thread second = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    secondResponse.set(client.performRequest(url, "channel", null, EMPTY_TAGS, EMPTY_ATTRIBUTES));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        second.start();
+
+        finishRequest.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        assertEquals(1, requestCount.get());
+        assertSame(firstResponse.get(), secondResponse.get());
+    }
+
 }
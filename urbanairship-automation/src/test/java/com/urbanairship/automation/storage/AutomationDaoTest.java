@@ -0,0 +1,151 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.urbanairship.automation.Schedule;
+import com.urbanairship.automation.Trigger;
+import com.urbanairship.json.JsonValue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class AutomationDaoTest {
+
+    private AutomationDatabase database;
+    private AutomationDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AutomationDatabase.class)
+                       .allowMainThreadQueries()
+                       .build();
+        dao = database.getScheduleDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testGetFinishedScheduleIdsToDelete() {
+        // No grace period, deleted once finished
+        dao.insert(createSchedule("no grace", ScheduleState.FINISHED, 100, 0, -1));
+
+        // Grace period after the end date
+        dao.insert(createSchedule("grace", ScheduleState.FINISHED, 100, 1000, 100));
+
+        // Grace period without an end date is kept for edits
+        dao.insert(createSchedule("no end", ScheduleState.FINISHED, 100, 1000, -1));
+
+        // Not finished
+        dao.insert(createSchedule("idle", ScheduleState.IDLE, 100, 0, -1));
+
+        assertEquals(Collections.singletonList("no grace"), dao.getFinishedScheduleIdsToDelete(200));
+
+        List<String> ids = dao.getFinishedScheduleIdsToDelete(1100);
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains("no grace"));
+        assertTrue(ids.contains("grace"));
+    }
+
+    @Test
+    public void testDeleteSchedulesById() {
+        List<String> ids = new ArrayList<>();
+        List<FullSchedule> entries = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            FullSchedule entry = createSchedule(UUID.randomUUID().toString(), ScheduleState.IDLE, 0, 0, -1);
+            entries.add(entry);
+            ids.add(entry.schedule.scheduleId);
+        }
+        dao.insert(entries);
+
+        // More IDs than SQLite allows in a single statement
+        dao.deleteSchedulesById(ids);
+
+        assertEquals(0, dao.getScheduleCount());
+        assertTrue(dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT).isEmpty());
+    }
+
+    /**
+     * Cleans up a large synthetic schedule set like the engine does on start.
+     */
+    @Test
+    public void testCleanupLargeScheduleSet() {
+        List<FullSchedule> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int state = i % 2 == 0 ? ScheduleState.FINISHED : ScheduleState.IDLE;
+            entries.add(createSchedule("schedule-" + i, state, 100, 0, -1));
+        }
+        dao.insert(entries);
+
+        List<String> ids = dao.getFinishedScheduleIdsToDelete(200);
+        assertEquals(2500, ids.size());
+
+        dao.deleteSchedulesById(ids);
+        assertEquals(2500, dao.getScheduleCount());
+        assertTrue(dao.getSchedulesWithStates(ScheduleState.FINISHED).isEmpty());
+    }
+
+    @Test
+    public void testLookupsUseIndices() {
+        assertUsesIndex("SELECT * FROM schedules WHERE (executionState IN (1))", "index_schedules_executionState");
+        assertUsesIndex("SELECT * FROM schedules WHERE (`group` == 'group')", "index_schedules_group");
+        assertUsesIndex("SELECT * FROM schedules WHERE (scheduleType = 'actions')", "index_schedules_scheduleType");
+        assertUsesIndex("SELECT * FROM triggers WHERE (triggerType = 1)", "index_triggers_triggerType");
+    }
+
+    private void assertUsesIndex(String query, String index) {
+        Cursor cursor = database.query("EXPLAIN QUERY PLAN " + query, null);
+        StringBuilder plan = new StringBuilder();
+        try {
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnIndex("detail")));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        assertTrue("Expected " + index + " in plan: " + plan, plan.toString().contains(index));
+    }
+
+    private static FullSchedule createSchedule(String scheduleId, int state, long stateChangeDate, long gracePeriod, long end) {
+        ScheduleEntity schedule = new ScheduleEntity();
+        schedule.scheduleId = scheduleId;
+        schedule.scheduleType = Schedule.TYPE_ACTION;
+        schedule.group = "group";
+        schedule.data = JsonValue.NULL;
+        schedule.executionState = state;
+        schedule.executionStateChangeDate = stateChangeDate;
+        schedule.editGracePeriod = gracePeriod;
+        schedule.scheduleStart = -1;
+        schedule.scheduleEnd = end;
+
+        TriggerEntity trigger = new TriggerEntity();
+        trigger.triggerType = Trigger.CUSTOM_EVENT_COUNT;
+        trigger.goal = 1;
+        trigger.parentScheduleId = scheduleId;
+
+        return new FullSchedule(schedule, Collections.singletonList(trigger));
+    }
+
+}
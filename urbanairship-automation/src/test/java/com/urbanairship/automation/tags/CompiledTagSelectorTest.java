@@ -0,0 +1,117 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.tags;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static com.urbanairship.automation.tags.TestUtils.tagSet;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * {@link CompiledTagSelector} tests.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CompiledTagSelectorTest {
+
+    private final Random random = new Random(1);
+
+    /**
+     * Test the compiled selector matches the tree evaluation for random selectors and tags.
+     */
+    @Test
+    public void testMatchesTreeEvaluation() {
+        for (int i = 0; i < 500; i++) {
+            TagSelector selector = randomSelector(3);
+            CompiledTagSelector compiled = selector.compile();
+            assertNotNull(compiled);
+
+            for (int j = 0; j < 20; j++) {
+                Set<String> tags = randomTags();
+                Map<String, Set<String>> tagGroups = new HashMap<>();
+                tagGroups.put("group-a", randomTags());
+                tagGroups.put("group-b", randomTags());
+
+                assertEquals(selector.toString(), selector.evaluate(tags, tagGroups), compiled.apply(tags, tagGroups));
+            }
+        }
+    }
+
+    /**
+     * Test the same tag in different groups is interned separately.
+     */
+    @Test
+    public void testGroups() {
+        TagSelector selector = TagSelector.and(
+                TagSelector.tag("tag"),
+                TagSelector.not(TagSelector.tag("tag", "group")));
+
+        Map<String, Set<String>> tagGroups = new HashMap<>();
+        assertTrue(selector.apply(tagSet("tag"), tagGroups));
+
+        tagGroups.put("group", tagSet("tag"));
+        assertFalse(selector.apply(tagSet("tag"), tagGroups));
+    }
+
+    /**
+     * Test selectors with more tags than fit in the bitset fall back to the tree evaluation.
+     */
+    @Test
+    public void testLargeSelector() {
+        List<TagSelector> selectors = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            selectors.add(TagSelector.tag("tag-" + i));
+        }
+
+        TagSelector selector = TagSelector.or(selectors);
+        assertNull(selector.compile());
+
+        assertFalse(selector.apply(tagSet("other")));
+        assertTrue(selector.apply(tagSet("tag-99")));
+    }
+
+    private TagSelector randomSelector(int depth) {
+        int choice = depth == 0 ? 0 : random.nextInt(4);
+        switch (choice) {
+            case 0:
+                String tag = "tag-" + random.nextInt(6);
+                int group = random.nextInt(3);
+                return group == 0 ? TagSelector.tag(tag) : TagSelector.tag(tag, group == 1 ? "group-a" : "group-b");
+
+            case 1:
+                return TagSelector.not(randomSelector(depth - 1));
+
+            default:
+                List<TagSelector> children = new ArrayList<>();
+                int count = 1 + random.nextInt(4);
+                for (int i = 0; i < count; i++) {
+                    children.add(randomSelector(depth - 1));
+                }
+                return choice == 2 ? TagSelector.and(children) : TagSelector.or(children);
+        }
+    }
+
+    private Set<String> randomTags() {
+        Set<String> tags = tagSet();
+        for (int i = 0; i < 6; i++) {
+            if (random.nextBoolean()) {
+                tags.add("tag-" + i);
+            }
+        }
+        return tags;
+    }
+
+}
@@ -0,0 +1,159 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.tags;
+
+import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.TestApplication;
+import com.urbanairship.TestClock;
+import com.urbanairship.json.JsonValue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static com.urbanairship.automation.tags.TestUtils.tagSet;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * {@link TagGroupLookupResponseCache} tests.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TagGroupLookupResponseCacheTest {
+
+    private PreferenceDataStore dataStore;
+    private TestClock clock;
+    private TagGroupLookupResponseCache cache;
+
+    @Before
+    public void setup() {
+        dataStore = TestApplication.getApplication().preferenceDataStore;
+        clock = new TestClock();
+        cache = new TagGroupLookupResponseCache(dataStore, clock);
+    }
+
+    /**
+     * Test responses are cached per tag group.
+     */
+    @Test
+    public void testGetResponse() {
+        Map<String, Set<String>> requested = new HashMap<>();
+        requested.put("group-one", tagSet("a", "b"));
+        requested.put("group-two", tagSet("c"));
+
+        Map<String, Set<String>> responseTags = new HashMap<>();
+        responseTags.put("group-one", tagSet("a"));
+
+        clock.currentTimeMillis = 100;
+        cache.setResponse(new TagGroupResponse(200, responseTags, "last-modified"), requested);
+
+        assertEquals(new TagGroupResponse(200, responseTags, "last-modified"), cache.getResponse(requested));
+        assertEquals(100, cache.getCreateDate(requested));
+
+        // Subset of the requested tags
+        Map<String, Set<String>> subset = new HashMap<>();
+        subset.put("group-two", tagSet("c"));
+        assertEquals(new TagGroupResponse(200, new HashMap<String, Set<String>>(), "last-modified"), cache.getResponse(subset));
+
+        // Tags that were never requested
+        subset.put("group-two", tagSet("c", "d"));
+        assertNull(cache.getResponse(subset));
+        assertEquals(-1, cache.getCreateDate(subset));
+    }
+
+    /**
+     * Test setting a response only replaces the requested tag groups.
+     */
+    @Test
+    public void testSetResponseMergesGroups() {
+        Map<String, Set<String>> requestedOne = new HashMap<>();
+        requestedOne.put("group-one", tagSet("a"));
+        Map<String, Set<String>> responseOne = new HashMap<>();
+        responseOne.put("group-one", tagSet("a"));
+
+        clock.currentTimeMillis = 100;
+        cache.setResponse(new TagGroupResponse(200, responseOne, "one"), requestedOne);
+
+        Map<String, Set<String>> requestedTwo = new HashMap<>();
+        requestedTwo.put("group-two", tagSet("b"));
+        Map<String, Set<String>> responseTwo = new HashMap<>();
+        responseTwo.put("group-two", tagSet("b"));
+
+        clock.currentTimeMillis = 200;
+        cache.setResponse(new TagGroupResponse(200, responseTwo, "two"), requestedTwo);
+
+        Map<String, Set<String>> requestedBoth = new HashMap<>();
+        requestedBoth.putAll(requestedOne);
+        requestedBoth.putAll(requestedTwo);
+
+        Map<String, Set<String>> expectedTags = new HashMap<>();
+        expectedTags.putAll(responseOne);
+        expectedTags.putAll(responseTwo);
+
+        // Different last modified times are dropped
+        assertEquals(new TagGroupResponse(200, expectedTags, null), cache.getResponse(requestedBoth));
+
+        // Oldest create date
+        assertEquals(100, cache.getCreateDate(requestedBoth));
+        assertEquals(200, cache.getCreateDate(requestedTwo));
+    }
+
+    /**
+     * Test the cache is persisted.
+     */
+    @Test
+    public void testPersistence() {
+        Map<String, Set<String>> requested = new HashMap<>();
+        requested.put("group", tagSet("a", "b"));
+        Map<String, Set<String>> responseTags = new HashMap<>();
+        responseTags.put("group", tagSet("b"));
+
+        clock.currentTimeMillis = 100;
+        cache.setResponse(new TagGroupResponse(200, responseTags, "last-modified"), requested);
+
+        TagGroupLookupResponseCache restored = new TagGroupLookupResponseCache(dataStore, clock);
+        assertEquals(new TagGroupResponse(200, responseTags, "last-modified"), restored.getResponse(requested));
+        assertEquals(100, restored.getCreateDate(requested));
+    }
+
+    /**
+     * Test the single response stored by older SDK versions is migrated.
+     */
+    @Test
+    public void testMigrateLegacyResponse() {
+        Map<String, Set<String>> requested = new HashMap<>();
+        requested.put("group", tagSet("a", "b"));
+        Map<String, Set<String>> responseTags = new HashMap<>();
+        responseTags.put("group", tagSet("b"));
+
+        dataStore.put("com.urbanairship.iam.tags.TAG_CACHE_RESPONSE", new TagGroupResponse(200, responseTags, "last-modified"));
+        dataStore.put("com.urbanairship.iam.tags.TAG_CACHE_CREATE_DATE", 100L);
+        dataStore.put("com.urbanairship.iam.tags.TAG_CACHE_REQUESTED_TAGS", JsonValue.wrapOpt(requested));
+
+        assertEquals(new TagGroupResponse(200, responseTags, "last-modified"), cache.getResponse(requested));
+        assertEquals(100, cache.getCreateDate(requested));
+        assertEquals(JsonValue.NULL, dataStore.getJsonValue("com.urbanairship.iam.tags.TAG_CACHE_RESPONSE"));
+    }
+
+    /**
+     * Test clear.
+     */
+    @Test
+    public void testClear() {
+        Map<String, Set<String>> requested = new HashMap<>();
+        requested.put("group", tagSet("a"));
+        cache.setResponse(new TagGroupResponse(200, requested, null), requested);
+
+        cache.clear();
+
+        assertNull(cache.getResponse(requested));
+        assertNull(new TagGroupLookupResponseCache(dataStore, clock).getResponse(requested));
+    }
+
+}
@@ -22,17 +22,24 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.Shadows;
 
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -95,7 +102,7 @@ public class InAppMessageManagerTest {
 
         manager = new InAppMessageManager(TestApplication.getApplication(),
                 TestApplication.getApplication().preferenceDataStore, mockAnalytics,
-                executor, actionRunRequestFactory, mockAssetManager, mockDelegate);
+                executor, executor, actionRunRequestFactory, mockAssetManager, mockDelegate);
 
         manager.setAdapterFactory(InAppMessage.TYPE_CUSTOM, new InAppMessageAdapter.Factory() {
             @NonNull
@@ -116,6 +123,62 @@ public class InAppMessageManagerTest {
         manager.addListener(mockListener);
     }
 
+    @Test
+    public void testSlowPrepareDoesNotBlockOtherMessages() throws Exception {
+        final String slowScheduleId = UUID.randomUUID().toString();
+        final CountDownLatch slowDownload = new CountDownLatch(1);
+
+        when(mockAssetManager.onPrepare(anyString(), any(InAppMessage.class))).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                if (slowScheduleId.equals(invocation.getArgument(0))) {
+                    slowDownload.await();
+                }
+                return AssetManager.PREPARE_RESULT_OK;
+            }
+        });
+        when(mockAdapter.onPrepare(any(Context.class), any(Assets.class))).thenReturn(InAppMessageAdapter.OK);
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(2);
+        RetryingExecutor prepareExecutor = new RetryingExecutor(new Handler(Looper.getMainLooper()), threadPool);
+        RetryingExecutor executor = new RetryingExecutor(new Handler(Looper.getMainLooper()), new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                runnable.run();
+            }
+        });
+
+        manager = new InAppMessageManager(TestApplication.getApplication(),
+                TestApplication.getApplication().preferenceDataStore, mockAnalytics,
+                executor, prepareExecutor, actionRunRequestFactory, mockAssetManager, mockDelegate);
+        manager.setAdapterFactory(InAppMessage.TYPE_CUSTOM, new InAppMessageAdapter.Factory() {
+            @NonNull
+            @Override
+            public InAppMessageAdapter createAdapter(@NonNull InAppMessage message) {
+                return mockAdapter;
+            }
+        });
+        manager.onAirshipReady();
+
+        // Start the slow, lower priority message first
+        TestPrepareCallback slowCallback = new TestPrepareCallback();
+        manager.onPrepare(slowScheduleId, null, message, slowCallback);
+
+        TestPrepareCallback callback = new TestPrepareCallback();
+        manager.onPrepare(scheduleId, null, message, callback);
+
+        // Verify the higher priority message finishes while the slow download is still running
+        assertTrue(callback.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(AutomationDriver.PREPARE_RESULT_CONTINUE, callback.result);
+        assertEquals(1, slowCallback.latch.getCount());
+
+        slowDownload.countDown();
+        assertTrue(slowCallback.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(AutomationDriver.PREPARE_RESULT_CONTINUE, slowCallback.result);
+
+        threadPool.shutdown();
+    }
+
     @Test
     public void testOnCheckExecutionReadiness() {
         when(mockAssetManager.onPrepare(scheduleId, message)).thenReturn(AssetManager.PREPARE_RESULT_OK);
@@ -406,7 +469,7 @@ public class InAppMessageManagerTest {
                     return false;
                 }
             }
-        }));
+        }), eq(false));
     }
 
     @Test
@@ -416,4 +479,17 @@ public class InAppMessageManagerTest {
         verify(mockAssetManager, times(1)).onFinish(scheduleId);
     }
 
+    private static class TestPrepareCallback implements AutomationDriver.PrepareScheduleCallback {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile int result = -1;
+
+        @Override
+        public void onFinish(int result) {
+            this.result = result;
+            latch.countDown();
+        }
+
+    }
+
 }
@@ -0,0 +1,99 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.iam.assets;
+
+import com.urbanairship.TestApplication;
+import com.urbanairship.util.FileUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link AssetCache}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AssetCacheTest {
+
+    private File storageDirectory;
+    private AssetCache assetCache;
+
+    @Before
+    public void setup() {
+        storageDirectory = new File(TestApplication.getApplication().getCacheDir(), "asset-cache-test");
+        assetCache = new AssetCache(storageDirectory, null, 100);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteRecursively(storageDirectory);
+    }
+
+    /**
+     * Test checking for cached files.
+     */
+    @Test
+    public void testHasCachedFiles() throws IOException {
+        assertFalse(assetCache.hasCachedFiles("some-id"));
+
+        writeAsset("some-id", 10);
+        assertTrue(assetCache.hasCachedFiles("some-id"));
+    }
+
+    /**
+     * Test trim evicts the least recently used inactive assets until the cache fits.
+     */
+    @Test
+    public void testTrim() throws IOException {
+        writeAsset("oldest", 60);
+        writeAsset("older", 60);
+        writeAsset("active", 60);
+
+        new File(storageDirectory, "oldest").setLastModified(1000);
+        new File(storageDirectory, "older").setLastModified(2000);
+
+        // Active assets are never evicted, even if they are the least recently used
+        assetCache.getAssets("active");
+        new File(storageDirectory, "active").setLastModified(0);
+
+        assetCache.trim();
+
+        assertFalse(new File(storageDirectory, "oldest").exists());
+        assertFalse(new File(storageDirectory, "older").exists());
+        assertTrue(assetCache.hasCachedFiles("active"));
+    }
+
+    /**
+     * Test trim keeps assets when the cache is under the max size.
+     */
+    @Test
+    public void testTrimUnderMaxSize() throws IOException {
+        writeAsset("some-id", 50);
+        assetCache.trim();
+
+        assertTrue(assetCache.hasCachedFiles("some-id"));
+    }
+
+    private void writeAsset(String scheduleId, int size) throws IOException {
+        File files = new File(new File(storageDirectory, scheduleId), Assets.FILES_DIRECTORY);
+        assertTrue(files.exists() || files.mkdirs());
+
+        FileOutputStream outputStream = new FileOutputStream(new File(files, "asset"));
+        try {
+            outputStream.write(new byte[size]);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+}
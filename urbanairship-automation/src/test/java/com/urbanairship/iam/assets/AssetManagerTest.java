@@ -15,7 +15,10 @@ import java.util.concurrent.Callable;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -101,6 +104,81 @@ public class AssetManagerTest {
         verify(mockAssetsDelegate).onPrepare("some-id", MESSAGE, mockAssets);
     }
 
+    /**
+     * Test prefetching assets for a schedule that is likely to trigger.
+     */
+    @Test
+    public void testPrefetch() {
+        assetManager = spy(assetManager);
+        doReturn(true).when(assetManager).isPrefetchAllowed();
+        assetManager.setPrefetchEnabled(true);
+
+        Assets mockAssets = mock(Assets.class);
+        when(mockCache.getAssets("some-id")).thenReturn(mockAssets);
+        when(mockCachePolicyDelegate.shouldCacheOnSchedule("some-id", MESSAGE)).thenReturn(false);
+
+        assetManager.onSchedule("some-id", new Callable<InAppMessage>() {
+            @Override
+            public InAppMessage call() {
+                return MESSAGE;
+            }
+        }, true);
+
+        verify(mockAssetsDelegate).onSchedule("some-id", MESSAGE, mockAssets);
+        verify(mockCache).releaseAssets("some-id", false);
+        verify(mockCache).trim();
+    }
+
+    /**
+     * Test prefetching is skipped when disabled, unlikely to trigger, or not allowed by the network.
+     */
+    @Test
+    public void testSkipPrefetch() {
+        assetManager = spy(assetManager);
+        doReturn(false).when(assetManager).isPrefetchAllowed();
+
+        Callable<InAppMessage> callable = new Callable<InAppMessage>() {
+            @Override
+            public InAppMessage call() {
+                return MESSAGE;
+            }
+        };
+
+        // Disabled
+        assetManager.onSchedule("some-id", callable, true);
+
+        // Not allowed
+        assetManager.setPrefetchEnabled(true);
+        assetManager.onSchedule("some-id", callable, true);
+
+        // Not likely to trigger
+        doReturn(true).when(assetManager).isPrefetchAllowed();
+        assetManager.onSchedule("some-id", callable, false);
+
+        verifyZeroInteractions(mockAssetsDelegate);
+    }
+
+    /**
+     * Test prepare tracks cache hits and misses.
+     */
+    @Test
+    public void testPrepareCacheHitRate() {
+        Assets mockAssets = mock(Assets.class);
+        when(mockCache.getAssets("hit")).thenReturn(mockAssets);
+        when(mockCache.getAssets("miss")).thenReturn(mockAssets);
+        when(mockCache.hasCachedFiles("hit")).thenReturn(true);
+        when(mockCache.hasCachedFiles("miss")).thenReturn(false, true);
+        when(mockAssetsDelegate.onPrepare("hit", MESSAGE, mockAssets)).thenReturn(AssetManager.PREPARE_RESULT_OK);
+        when(mockAssetsDelegate.onPrepare("miss", MESSAGE, mockAssets)).thenReturn(AssetManager.PREPARE_RESULT_OK);
+
+        assetManager.onPrepare("hit", MESSAGE);
+        assetManager.onPrepare("miss", MESSAGE);
+
+        assertEquals(1, assetManager.getCacheHitCount());
+        assertEquals(1, assetManager.getCacheMissCount());
+        verify(mockCache, times(2)).trim();
+    }
+
     /**
      * Test clearing assets after the message is finished displaying.
      */
@@ -6,6 +6,9 @@ import com.urbanairship.util.SerialExecutor;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
@@ -18,6 +21,8 @@ import androidx.annotation.RestrictTo;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class AirshipExecutors {
 
+    private static final long BOUNDED_THREAD_KEEP_ALIVE_SECONDS = 30;
+
     /**
      * The shared thread pool executor.
      */
@@ -34,4 +39,21 @@ public class AirshipExecutors {
         return new SerialExecutor(THREAD_POOL_EXECUTOR);
     }
 
+    /**
+     * Creates a new executor that runs up to {@code maxThreads} tasks at once. Idle threads are
+     * released after a short keep alive.
+     *
+     * @param maxThreads The max number of threads.
+     * @param threadNamePrefix The thread name prefix.
+     * @return A new bounded executor.
+     */
+    @NonNull
+    public static ExecutorService newBoundedExecutor(int maxThreads, @NonNull String threadNamePrefix) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                BOUNDED_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new AirshipThreadFactory(threadNamePrefix));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
 }
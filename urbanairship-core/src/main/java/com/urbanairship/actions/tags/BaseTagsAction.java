@@ -90,10 +90,10 @@ abstract class BaseTagsAction extends Action {
 
             // Channel Tag Groups
             Map<String, Set<String>> tagsMap = new HashMap<>();
-            for (Map.Entry<String, JsonValue> entry : arguments.getValue().getMap().opt(CHANNEL_KEY).optMap().getMap().entrySet()) {
+            for (Map.Entry<String, JsonValue> entry : arguments.getValue().getMap().opt(CHANNEL_KEY).optMap().entrySet()) {
                 String group = entry.getKey();
                 Set<String> tags = new HashSet<>();
-                for (JsonValue jsonValue : entry.getValue().optList().getList()) {
+                for (JsonValue jsonValue : entry.getValue().optList()) {
                     tags.add(jsonValue.getString());
                 }
 
@@ -108,10 +108,10 @@ abstract class BaseTagsAction extends Action {
 
             // Named User Tag Groups
             tagsMap = new HashMap<>();
-            for (Map.Entry<String, JsonValue> entry : arguments.getValue().getMap().opt(NAMED_USER_KEY).optMap().getMap().entrySet()) {
+            for (Map.Entry<String, JsonValue> entry : arguments.getValue().getMap().opt(NAMED_USER_KEY).optMap().entrySet()) {
                 String group = entry.getKey();
                 Set<String> tags = new HashSet<>();
-                for (JsonValue jsonValue : entry.getValue().optList().getList()) {
+                for (JsonValue jsonValue : entry.getValue().optList()) {
                     tags.add(jsonValue.getString());
                 }
 
@@ -13,6 +13,8 @@ import com.urbanairship.Logger;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.UAirship;
 import com.urbanairship.analytics.data.EventManager;
+import com.urbanairship.analytics.data.EventStorageMetrics;
+import com.urbanairship.analytics.data.EventUploadMetrics;
 import com.urbanairship.analytics.location.RegionEvent;
 import com.urbanairship.app.ActivityMonitor;
 import com.urbanairship.app.ApplicationListener;
@@ -390,6 +392,31 @@ public class Analytics extends AirshipComponent {
         return sessionId;
     }
 
+    /**
+     * Gets the event upload metrics.
+     *
+     * @return The event upload metrics.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public EventUploadMetrics getEventUploadMetrics() {
+        return eventManager.getUploadMetrics();
+    }
+
+    /**
+     * Gets the event storage metrics, including the number of events dropped from each priority
+     * lane when the event database is full.
+     *
+     * @return The event storage metrics.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public EventStorageMetrics getEventStorageMetrics() {
+        return eventManager.getStorageMetrics();
+    }
+
     /**
      * Called when the app is foregrounded.
      *
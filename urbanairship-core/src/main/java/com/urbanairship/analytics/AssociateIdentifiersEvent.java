@@ -65,4 +65,13 @@ class AssociateIdentifiersEvent extends Event {
         return JsonValue.wrapOpt(ids).optMap();
     }
 
+    /**
+     * @hide
+     */
+    @Override
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getRetentionPriority() {
+        return HIGH_PRIORITY;
+    }
+
 }
@@ -227,6 +227,21 @@ public class CustomEvent extends Event implements JsonSerializable {
         return TYPE;
     }
 
+    /**
+     * Events with a value or transaction ID are conversions and are retained over other events.
+     *
+     * @hide
+     */
+    @Override
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getRetentionPriority() {
+        if (eventValue != null || transactionId != null) {
+            return HIGH_PRIORITY;
+        }
+
+        return super.getRetentionPriority();
+    }
+
     /**
      * @hide
      */
@@ -261,7 +276,7 @@ public class CustomEvent extends Event implements JsonSerializable {
             data.put(LAST_RECEIVED_METADATA, UAirship.shared().getPushManager().getLastReceivedMetadata());
         }
 
-        if (properties.getMap().size() > 0) {
+        if (!properties.isEmpty()) {
             data.put(PROPERTIES, properties);
         }
 
@@ -281,4 +281,18 @@ public abstract class Event {
         return NORMAL_PRIORITY;
     }
 
+    /**
+     * The event's retention priority. When the event database is full, events are evicted from
+     * the lowest retention priority first, and higher priority events are uploaded first.
+     * Defaults to the send priority.
+     *
+     * @return The event's retention priority.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @Priority
+    public int getRetentionPriority() {
+        return getPriority();
+    }
+
 }
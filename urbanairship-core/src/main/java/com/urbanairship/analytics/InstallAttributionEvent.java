@@ -45,4 +45,13 @@ class InstallAttributionEvent extends Event {
                       .build();
     }
 
+    /**
+     * @hide
+     */
+    @Override
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getRetentionPriority() {
+        return HIGH_PRIORITY;
+    }
+
 }
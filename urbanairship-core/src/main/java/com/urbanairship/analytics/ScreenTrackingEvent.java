@@ -114,4 +114,13 @@ class ScreenTrackingEvent extends Event {
                       .build();
     }
 
+    /**
+     * @hide
+     */
+    @Override
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getRetentionPriority() {
+        return LOW_PRIORITY;
+    }
+
 }
@@ -9,13 +9,8 @@ import com.urbanairship.http.RequestException;
 import com.urbanairship.http.RequestFactory;
 import com.urbanairship.http.Response;
 import com.urbanairship.http.ResponseParser;
-import com.urbanairship.json.JsonException;
-import com.urbanairship.json.JsonList;
-import com.urbanairship.json.JsonValue;
 
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -57,14 +52,14 @@ public class EventApiClient {
     }
 
     /**
-     * Sends a collection of events.
+     * Sends a batch of events.
      *
-     * @param events Specified events
+     * @param batch The event batch.
      * @param headers Headers
      * @return eventResponse
      */
     @NonNull
-    Response<EventResponse> sendEvents(@NonNull Collection<String> events,
+    Response<EventResponse> sendEvents(@NonNull EventBatch batch,
                                        @NonNull @Size(min=1) Map<String, String> headers) throws RequestException {
 
         URL url = runtimeConfig.getUrlConfig()
@@ -72,27 +67,15 @@ public class EventApiClient {
                                .appendEncodedPath(WARP9_PATH)
                                .build();
 
-        List<JsonValue> eventJSON = new ArrayList<>();
-
-        for (String eventPayload : events) {
-            try {
-                eventJSON.add(JsonValue.parseString(eventPayload));
-            } catch (JsonException e) {
-                Logger.error(e, "EventApiClient - Invalid eventPayload.");
-            }
-        }
-
-        String payload = new JsonList(eventJSON).toString();
         double sentAt = System.currentTimeMillis() / 1000.0;
 
         Request request = requestFactory.createRequest()
                                         .setOperation("POST", url)
-                                        .setRequestBody(payload, "application/json")
-                                        .setCompressRequestBody(true)
+                                        .setEncodedRequestBody(batch.getPayload(), "application/json", "gzip")
                                         .setHeader("X-UA-Sent-At", String.format(Locale.US, "%.3f", sentAt))
                                         .addHeaders(headers);
 
-        Logger.debug("EventApiClient - Sending analytics events. Request: %s Events: %s", request, events);
+        Logger.debug("EventApiClient - Sending %d analytics events. Request: %s", batch.getEventCount(), request);
         Response<EventResponse> response = request.execute(new ResponseParser<EventResponse>() {
             @Override
             public EventResponse parseResponse(int status, @Nullable Map<String, List<String>> headers, @Nullable String responseBody) {
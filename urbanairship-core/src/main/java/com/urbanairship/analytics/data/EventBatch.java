@@ -0,0 +1,163 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import com.urbanairship.analytics.Event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A batch of event payloads ready to upload. The payloads are written into a gzip compressed JSON
+ * array as they are read from the database, so the uncompressed batch is never held in memory.
+ */
+class EventBatch {
+
+    private static final String CHARSET = "UTF-8";
+
+    private final byte[] payload;
+    private final int eventCount;
+    private final long[] lastRowIds;
+    private final long uncompressedSize;
+    private final boolean hasMoreEvents;
+
+    private EventBatch(@NonNull Builder builder, boolean hasMoreEvents) {
+        this.payload = builder.bytes.toByteArray();
+        this.eventCount = builder.eventCount;
+        this.uncompressedSize = builder.uncompressedSize;
+        this.lastRowIds = builder.lastRowIds.clone();
+        this.hasMoreEvents = hasMoreEvents;
+    }
+
+    /**
+     * Gets the gzip compressed JSON array of events.
+     *
+     * @return The compressed payload.
+     */
+    @NonNull
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Gets the number of events in the batch.
+     *
+     * @return The event count.
+     */
+    int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Gets the row ID of the last event read into the batch from a priority lane. The batch contains
+     * every event in the lane up to and including this row.
+     *
+     * @param priority The retention priority lane.
+     * @return The last row ID, or 0 if no events were read from the lane.
+     */
+    long getLastRowId(@Event.Priority int priority) {
+        return lastRowIds[priority];
+    }
+
+    /**
+     * Gets the size of the payload before compression.
+     *
+     * @return The uncompressed size in bytes.
+     */
+    long getUncompressedSize() {
+        return uncompressedSize;
+    }
+
+    /**
+     * Gets the size of the compressed payload.
+     *
+     * @return The compressed size in bytes.
+     */
+    long getCompressedSize() {
+        return payload.length;
+    }
+
+    /**
+     * Checks if the batch stopped at its size or count limit, meaning there may be more events to upload.
+     *
+     * @return {@code true} if there may be more events, otherwise {@code false}.
+     */
+    boolean hasMoreEvents() {
+        return hasMoreEvents;
+    }
+
+    /**
+     * Event batch builder.
+     */
+    static class Builder {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final GZIPOutputStream gzip;
+        private final long[] lastRowIds = new long[Event.HIGH_PRIORITY + 1];
+        private int eventCount;
+        private long uncompressedSize;
+
+        Builder() throws IOException {
+            gzip = new GZIPOutputStream(bytes);
+            write("[");
+        }
+
+        /**
+         * Adds an event payload. The payload must be a JSON object.
+         *
+         * @param eventPayload The event payload.
+         * @throws IOException if the payload fails to compress.
+         */
+        void addEvent(@NonNull String eventPayload) throws IOException {
+            if (eventCount > 0) {
+                write(",");
+            }
+            write(eventPayload);
+            eventCount++;
+        }
+
+        /**
+         * Sets the row ID of the last event read from a priority lane.
+         *
+         * @param priority The retention priority lane.
+         * @param rowId The row ID.
+         */
+        void setLastRowId(@Event.Priority int priority, long rowId) {
+            lastRowIds[priority] = rowId;
+        }
+
+        /**
+         * Gets the number of events added.
+         *
+         * @return The event count.
+         */
+        int getEventCount() {
+            return eventCount;
+        }
+
+        /**
+         * Builds the batch.
+         *
+         * @param hasMoreEvents If more events may be available.
+         * @return The batch.
+         * @throws IOException if the payload fails to compress.
+         */
+        @NonNull
+        EventBatch build(boolean hasMoreEvents) throws IOException {
+            write("]");
+            gzip.close();
+            return new EventBatch(this, hasMoreEvents);
+        }
+
+        private void write(@NonNull String value) throws IOException {
+            byte[] data = value.getBytes(CHARSET);
+            gzip.write(data);
+            uncompressedSize += data.length;
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.urbanairship.analytics.data;
 
 import android.content.Context;
+import android.os.SystemClock;
 
 import com.urbanairship.Logger;
 import com.urbanairship.PreferenceDataStore;
@@ -14,6 +15,7 @@ import com.urbanairship.http.Response;
 import com.urbanairship.job.JobDispatcher;
 import com.urbanairship.job.JobInfo;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -39,11 +41,6 @@ public class EventManager {
     static final String SCHEDULED_SEND_TIME = "com.urbanairship.analytics.SCHEDULED_SEND_TIME";
     static final String MIN_BATCH_INTERVAL_KEY = "com.urbanairship.analytics.MIN_BATCH_INTERVAL";
 
-    /**
-     * Max batch event count.
-     */
-    private static final int MAX_BATCH_EVENT_COUNT = 500;
-
     /**
      * Batch delay for low priority events in milliseconds.
      */
@@ -59,17 +56,15 @@ public class EventManager {
      */
     private static final long NORMAL_PRIORITY_BATCH_DELAY = 10000; // 10s
 
-    /**
-     * Batch delay between multiple event uploads in milliseconds.
-     */
-    private static final long MULTIPLE_BATCH_DELAY = 1000; // 1s
-
     private final PreferenceDataStore preferenceDataStore;
     private final JobDispatcher jobDispatcher;
     private final ActivityMonitor activityMonitor;
     private final EventResolver eventResolver;
     private final EventApiClient apiClient;
     private final AirshipRuntimeConfig runtimeConfig;
+    private final EventUploadPolicy uploadPolicy;
+    private final EventUploadMetrics uploadMetrics = new EventUploadMetrics();
+    private final EventStorageMetrics storageMetrics = new EventStorageMetrics();
 
     private final Object eventLock = new Object();
 
@@ -79,7 +74,7 @@ public class EventManager {
                         @NonNull PreferenceDataStore preferenceDataStore,
                         @NonNull AirshipRuntimeConfig runtimeConfig) {
         this(preferenceDataStore, runtimeConfig, JobDispatcher.shared(context), GlobalActivityMonitor.shared(context),
-                new EventResolver(context), new EventApiClient(runtimeConfig));
+                new EventResolver(context), new EventApiClient(runtimeConfig), new EventUploadPolicy(context));
     }
 
     @VisibleForTesting
@@ -88,7 +83,8 @@ public class EventManager {
                  @NonNull JobDispatcher jobDispatcher,
                  @NonNull ActivityMonitor activityMonitor,
                  @NonNull EventResolver eventResolver,
-                 @NonNull EventApiClient apiClient) {
+                 @NonNull EventApiClient apiClient,
+                 @NonNull EventUploadPolicy uploadPolicy) {
 
         this.preferenceDataStore = preferenceDataStore;
         this.runtimeConfig = runtimeConfig;
@@ -96,7 +92,27 @@ public class EventManager {
         this.activityMonitor = activityMonitor;
         this.eventResolver = eventResolver;
         this.apiClient = apiClient;
+        this.uploadPolicy = uploadPolicy;
+    }
+
+    /**
+     * Gets the event upload metrics.
+     *
+     * @return The upload metrics.
+     */
+    @NonNull
+    public EventUploadMetrics getUploadMetrics() {
+        return uploadMetrics;
+    }
 
+    /**
+     * Gets the event storage metrics.
+     *
+     * @return The storage metrics.
+     */
+    @NonNull
+    public EventStorageMetrics getStorageMetrics() {
+        return storageMetrics;
     }
 
     /**
@@ -147,7 +163,7 @@ public class EventManager {
             eventResolver.insertEvent(event, sessionId);
 
             // Handle database max size exceeded
-            eventResolver.trimDatabase(preferenceDataStore.getInt(MAX_TOTAL_DB_SIZE_KEY, EventResponse.MAX_TOTAL_DB_SIZE_BYTES));
+            eventResolver.trimDatabase(preferenceDataStore.getInt(MAX_TOTAL_DB_SIZE_KEY, EventResponse.MAX_TOTAL_DB_SIZE_BYTES), storageMetrics);
         }
 
         switch (event.getPriority()) {
@@ -208,39 +224,39 @@ public class EventManager {
         isScheduled = false;
         preferenceDataStore.put(LAST_SEND_KEY, System.currentTimeMillis());
 
-        int eventCount;
-        Map<String, String> events;
-
+        EventBatch batch;
         synchronized (eventLock) {
-            eventCount = eventResolver.getEventCount();
-
-            if (eventCount <= 0) {
-                Logger.debug("EventManager - No events to send.");
-                return true;
+            int maxBatchSize = preferenceDataStore.getInt(MAX_BATCH_SIZE_KEY, EventResponse.MAX_BATCH_SIZE_BYTES);
+            int maxEventCount = uploadPolicy.getMaxBatchEventCount(uploadMetrics.getBacklogBatchCount());
+            try {
+                batch = eventResolver.getEventBatch(maxEventCount, maxBatchSize);
+            } catch (IOException e) {
+                Logger.error(e, "EventManager - Failed to create event batch.");
+                return false;
             }
-
-            final int avgSize = Math.max(1, eventResolver.getDatabaseSize() / eventCount);
-
-            //pull enough events to fill a batch (roughly)
-            int batchEventCount = Math.min(MAX_BATCH_EVENT_COUNT, preferenceDataStore.getInt(MAX_BATCH_SIZE_KEY, EventResponse.MAX_BATCH_SIZE_BYTES) / avgSize);
-            events = eventResolver.getEvents(batchEventCount);
         }
 
-        if (events.isEmpty()) {
-            Logger.verbose("EventApiClient - No analytics events to send.");
-            return false;
+        if (batch == null) {
+            Logger.debug("EventManager - No events to send.");
+            return true;
         }
 
         try {
-            Response<EventResponse> response = apiClient.sendEvents(events.values(), headers);
+            long start = SystemClock.elapsedRealtime();
+            Response<EventResponse> response = apiClient.sendEvents(batch, headers);
             if (!response.isSuccessful()) {
                 Logger.debug("EventManager - Analytic upload failed.");
                 return false;
             }
 
-            Logger.debug("EventManager - Analytic events uploaded.");
+            long end = SystemClock.elapsedRealtime();
+            long duration = Math.max(1, end - start);
+            Logger.debug("EventManager - Uploaded %d analytic events in %d ms (%.1f events/s), %d bytes compressed to %d bytes.",
+                    batch.getEventCount(), duration, batch.getEventCount() * 1000.0 / duration,
+                    batch.getUncompressedSize(), batch.getCompressedSize());
+
             synchronized (eventLock) {
-                eventResolver.deleteEvents(events.keySet());
+                eventResolver.deleteBatch(batch);
             }
 
             // Update preferences
@@ -248,9 +264,14 @@ public class EventManager {
             preferenceDataStore.put(MAX_BATCH_SIZE_KEY, response.getResult().getMaxBatchSize());
             preferenceDataStore.put(MIN_BATCH_INTERVAL_KEY, response.getResult().getMinBatchInterval());
 
+            uploadMetrics.onBatchUploaded(batch.getEventCount(), batch.hasMoreEvents(), start, end);
+
             // If there are still events left, schedule the next send
-            if (eventCount - events.size() > 0) {
-                scheduleEventUpload(MULTIPLE_BATCH_DELAY, TimeUnit.MILLISECONDS);
+            if (batch.hasMoreEvents()) {
+                long delay = uploadPolicy.getBatchDelay(uploadMetrics.getBacklogBatchCount());
+                Logger.debug("EventManager - Draining event backlog at %.1f events/s, next batch in %d ms.",
+                        uploadMetrics.getDrainRate(), delay);
+                scheduleEventUpload(delay, TimeUnit.MILLISECONDS);
             }
 
             return true;
@@ -11,11 +11,12 @@ import com.urbanairship.Logger;
 import com.urbanairship.UrbanAirshipProvider;
 import com.urbanairship.UrbanAirshipResolver;
 import com.urbanairship.analytics.Event;
-import com.urbanairship.util.UAStringUtil;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonValue;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -35,6 +36,16 @@ public class EventResolver extends UrbanAirshipResolver {
     @NonNull
     public static final String ASCENDING_SORT_ORDER = EventsStorage.Events._ID + " ASC";
 
+    /**
+     * Number of events read per query when building an upload batch.
+     */
+    private static final int EVENT_PAGE_SIZE = 50;
+
+    /**
+     * Selects the events in a retention priority lane.
+     */
+    private static final String LANE_SELECTION = EventsStorage.Events.COLUMN_NAME_PRIORITY + " = ?";
+
     @NonNull
     private final Uri uri;
 
@@ -44,126 +55,150 @@ public class EventResolver extends UrbanAirshipResolver {
     }
 
     /**
-     * Gets a map of event data
+     * Reads events into a compressed upload batch. Events are read from the high priority lane first,
+     * then the normal and low priority lanes, oldest first within each lane. Events are paged by row
+     * ID and compressed as they are read. Rows whose payload is not a valid JSON object are skipped,
+     * but still count towards the batch's last row IDs so they are deleted with the batch.
      *
-     * @param count Number of events to return, starts from the oldest to the newest.
-     * @return Map of event id to event data
+     * @param maxCount The max number of events.
+     * @param maxSize The max size of the events in bytes. The first event is always included.
+     * @return The event batch, or null if there are no events.
+     * @throws IOException if the batch fails to compress.
      */
-    @NonNull
-    Map<String, String> getEvents(int count) {
-        HashMap<String, String> events = new HashMap<>(count);
+    @Nullable
+    EventBatch getEventBatch(int maxCount, int maxSize) throws IOException {
+        while (true) {
+            EventBatch batch = readEventBatch(maxCount, maxSize);
+            if (batch == null || batch.getEventCount() > 0) {
+                return batch;
+            }
 
+            // Only invalid rows were read, drop them and try the next page
+            if (!deleteBatch(batch)) {
+                return null;
+            }
+        }
+    }
+
+    @Nullable
+    private EventBatch readEventBatch(int maxCount, int maxSize) throws IOException {
         String[] columns = new String[] {
-                EventsStorage.Events.COLUMN_NAME_EVENT_ID,
-                EventsStorage.Events.COLUMN_NAME_DATA
+                EventsStorage.Events._ID,
+                EventsStorage.Events.COLUMN_NAME_DATA,
+                EventsStorage.Events.COLUMN_NAME_EVENT_SIZE
         };
 
-        Uri eventsUri = uri.buildUpon().appendQueryParameter(UrbanAirshipProvider.QUERY_PARAMETER_LIMIT, String.valueOf(count)).build();
-
-        Cursor cursor = query(eventsUri, columns, null, null, ASCENDING_SORT_ORDER);
-
-        if (cursor == null) {
-            return events;
+        EventBatch.Builder builder = new EventBatch.Builder();
+        int count = 0;
+        int size = 0;
+        boolean isFull = false;
+
+        for (int priority = Event.HIGH_PRIORITY; priority >= Event.LOW_PRIORITY && !isFull; priority--) {
+            long lastRowId = 0;
+            while (true) {
+                int limit = Math.min(EVENT_PAGE_SIZE, maxCount - count);
+                Uri eventsUri = uri.buildUpon().appendQueryParameter(UrbanAirshipProvider.QUERY_PARAMETER_LIMIT, String.valueOf(limit)).build();
+                Cursor cursor = query(eventsUri, columns, LANE_SELECTION + " AND " + EventsStorage.Events._ID + " > ?",
+                        new String[] { String.valueOf(priority), String.valueOf(lastRowId) }, ASCENDING_SORT_ORDER);
+
+                if (cursor == null) {
+                    Logger.error("EventsStorage - Unable to query events database.");
+                    break;
+                }
+
+                int read = 0;
+                try {
+                    while (cursor.moveToNext()) {
+                        int eventSize = cursor.getInt(2);
+                        if (count > 0 && size + eventSize > maxSize) {
+                            isFull = true;
+                            break;
+                        }
+
+                        lastRowId = cursor.getLong(0);
+                        builder.setLastRowId(priority, lastRowId);
+
+                        String data = cursor.getString(1);
+                        if (isValidPayload(data)) {
+                            builder.addEvent(data);
+                        } else {
+                            Logger.error("EventsStorage - Skipping invalid event payload at row %s.", lastRowId);
+                        }
+
+                        size += eventSize;
+                        count++;
+                        read++;
+                    }
+                } finally {
+                    cursor.close();
+                }
+
+                if (count >= maxCount) {
+                    isFull = true;
+                }
+
+                if (isFull || read < limit) {
+                    break;
+                }
+            }
         }
 
-        cursor.moveToFirst();
-        while (!cursor.isAfterLast()) {
-            events.put(cursor.getString(0), cursor.getString(1));
-            cursor.moveToNext();
+        if (count == 0) {
+            return null;
         }
 
-        cursor.close();
-
-        return events;
+        return builder.build(isFull);
     }
 
-    /**
-     * Deletes all events.
-     */
-    void deleteAllEvents() {
-        delete(uri, null, null);
-    }
-
-    /**
-     * Delete a set of events
-     *
-     * @param eventIds Ids of the events to delete
-     * @return <code>true</code> if any events were deleted, otherwise <code>false</code>
-     */
-    boolean deleteEvents(@Nullable Set<String> eventIds) {
-        if (eventIds == null || eventIds.size() == 0) {
-            Logger.verbose("EventsStorage - Nothing to delete. Returning.");
+    private static boolean isValidPayload(@Nullable String data) {
+        if (data == null) {
             return false;
         }
 
-        int numOfEventIds = eventIds.size();
-        String inStatement = repeat("?", numOfEventIds, ", ");
-        int deleted = delete(uri, EventsStorage.Events.COLUMN_NAME_EVENT_ID + " IN ( " + inStatement + " )",
-                eventIds.toArray(new String[numOfEventIds]));
-
-        return deleted > 0;
-    }
-
-    private static String repeat(@NonNull String repeater, int times, @NonNull String separator) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < times; i++) {
-            builder.append(repeater);
-            if (i + 1 != times) {
-                builder.append(separator);
-            }
+        try {
+            return JsonValue.parseString(data).isJsonMap();
+        } catch (JsonException e) {
+            return false;
         }
-        return builder.toString();
     }
 
     /**
-     * Gets the oldest session id in the
-     * database
+     * Deletes the events that were read into a batch.
      *
-     * @return The oldest session id if exists, null otherwise
+     * @param batch The batch.
+     * @return <code>true</code> if any events were deleted, otherwise <code>false</code>
      */
-    @Nullable
-    private String getOldestSessionId() {
-        String[] columns = new String[] { EventsStorage.Events.COLUMN_NAME_SESSION_ID };
-        Uri eventsUri = uri.buildUpon().appendQueryParameter(UrbanAirshipProvider.QUERY_PARAMETER_LIMIT, "1").build();
+    boolean deleteBatch(@NonNull EventBatch batch) {
+        StringBuilder where = new StringBuilder();
+        List<String> args = new ArrayList<>();
+
+        for (int priority = Event.LOW_PRIORITY; priority <= Event.HIGH_PRIORITY; priority++) {
+            long lastRowId = batch.getLastRowId(priority);
+            if (lastRowId <= 0) {
+                continue;
+            }
 
-        Cursor cursor = query(eventsUri, columns, null, null, ASCENDING_SORT_ORDER);
+            if (where.length() > 0) {
+                where.append(" OR ");
+            }
 
-        if (cursor == null) {
-            Logger.error("EventsStorage - Unable to query database.");
-            return null;
+            where.append("(").append(LANE_SELECTION).append(" AND ").append(EventsStorage.Events._ID).append(" <= ?)");
+            args.add(String.valueOf(priority));
+            args.add(String.valueOf(lastRowId));
         }
 
-        String sessionId = null;
-        if (cursor.moveToFirst()) {
-            sessionId = cursor.getString(0);
+        if (args.isEmpty()) {
+            return false;
         }
-        cursor.close();
 
-        return sessionId;
+        return delete(uri, where.toString(), args.toArray(new String[0])) > 0;
     }
 
     /**
-     * Gets the current event count in the database
-     *
-     * @return The current event count
+     * Deletes all events.
      */
-    int getEventCount() {
-        Integer result = null;
-        String[] columns = new String[] { "COUNT(*) as _cnt" };
-        Cursor cursor = query(uri, columns, null, null, null);
-
-        if (cursor == null) {
-            Logger.error("EventsStorage - Unable to query events database.");
-            return -1;
-        }
-
-        if (cursor.moveToFirst()) {
-            result = cursor.getInt(0);
-        }
-
-        cursor.close();
-
-        return result == null ? -1 : result;
+    void deleteAllEvents() {
+        delete(uri, null, null);
     }
 
     /**
@@ -206,33 +241,80 @@ public class EventResolver extends UrbanAirshipResolver {
         values.put(EventsStorage.Events.COLUMN_NAME_TIME, event.getTime());
         values.put(EventsStorage.Events.COLUMN_NAME_SESSION_ID, sessionId);
         values.put(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE, eventPayload.length());
+        values.put(EventsStorage.Events.COLUMN_NAME_PRIORITY, event.getRetentionPriority());
 
         insert(uri, values);
     }
 
     /**
-     * Trims the database down to the specified size.
+     * Trims the database down to the specified size. Events are evicted from the low priority lane
+     * first, oldest first within each lane.
      *
      * @param maxDatabaseSize The max db size in bytes.
+     * @param metrics The storage metrics to record dropped events in.
      */
-    void trimDatabase(int maxDatabaseSize) {
-        while (getDatabaseSize() > maxDatabaseSize) {
+    void trimDatabase(int maxDatabaseSize, @NonNull EventStorageMetrics metrics) {
+        int excess = getDatabaseSize() - maxDatabaseSize;
 
-            String sessionId = getOldestSessionId();
-            if (UAStringUtil.isEmpty(sessionId)) {
-                break;
+        for (int priority = Event.LOW_PRIORITY; priority <= Event.HIGH_PRIORITY && excess > 0; priority++) {
+            long lastRowId = findTrimPoint(priority, excess);
+            if (lastRowId <= 0) {
+                continue;
             }
 
-            Logger.debug("Event database size exceeded. Deleting oldest session: %s", sessionId);
-
-            int deleted = delete(uri, EventsStorage.Events.COLUMN_NAME_SESSION_ID + " = ?", new String[] { sessionId });
+            int deleted = delete(uri, LANE_SELECTION + " AND " + EventsStorage.Events._ID + " <= ?",
+                    new String[] { String.valueOf(priority), String.valueOf(lastRowId) });
 
             if (deleted > 0) {
-                Logger.debug("EventsStorage - Deleted %s rows with session ID %s", deleted, sessionId);
-            } else {
+                Logger.debug("EventsStorage - Event database size exceeded. Deleted %s events with priority %s", deleted, priority);
+                metrics.onEventsDropped(priority, deleted);
+            }
+
+            excess = getDatabaseSize() - maxDatabaseSize;
+        }
+    }
+
+    /**
+     * Finds the newest row in a priority lane that needs to be deleted to free the given number
+     * of bytes, deleting oldest first.
+     *
+     * @param priority The priority lane.
+     * @param bytes The number of bytes to free.
+     * @return The last row ID to delete, or 0 if the lane is empty.
+     */
+    private long findTrimPoint(int priority, int bytes) {
+        String[] columns = new String[] { EventsStorage.Events._ID, EventsStorage.Events.COLUMN_NAME_EVENT_SIZE };
+        Uri eventsUri = uri.buildUpon().appendQueryParameter(UrbanAirshipProvider.QUERY_PARAMETER_LIMIT, String.valueOf(EVENT_PAGE_SIZE)).build();
+
+        long lastRowId = 0;
+        long freed = 0;
+
+        while (freed < bytes) {
+            Cursor cursor = query(eventsUri, columns, LANE_SELECTION + " AND " + EventsStorage.Events._ID + " > ?",
+                    new String[] { String.valueOf(priority), String.valueOf(lastRowId) }, ASCENDING_SORT_ORDER);
+
+            if (cursor == null) {
+                Logger.error("EventsStorage - Unable to query events database.");
+                break;
+            }
+
+            int read = 0;
+            try {
+                while (freed < bytes && cursor.moveToNext()) {
+                    lastRowId = cursor.getLong(0);
+                    freed += cursor.getInt(1);
+                    read++;
+                }
+            } finally {
+                cursor.close();
+            }
+
+            if (read < EVENT_PAGE_SIZE) {
                 break;
             }
         }
+
+        return lastRowId;
     }
 
 }
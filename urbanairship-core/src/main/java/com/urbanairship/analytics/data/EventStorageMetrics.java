@@ -0,0 +1,39 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import com.urbanairship.analytics.Event;
+
+import androidx.annotation.RestrictTo;
+
+/**
+ * Event storage metrics.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class EventStorageMetrics {
+
+    private final long[] droppedEventCounts = new long[Event.HIGH_PRIORITY + 1];
+
+    /**
+     * Called when events are evicted because the event database is full.
+     *
+     * @param priority The retention priority lane.
+     * @param count The number of events dropped.
+     */
+    synchronized void onEventsDropped(@Event.Priority int priority, int count) {
+        droppedEventCounts[priority] += count;
+    }
+
+    /**
+     * Gets the number of events dropped from a priority lane because the event database was full.
+     *
+     * @param priority The retention priority lane.
+     * @return The dropped event count.
+     */
+    public synchronized long getDroppedEventCount(@Event.Priority int priority) {
+        return droppedEventCounts[priority];
+    }
+
+}
@@ -0,0 +1,88 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import androidx.annotation.RestrictTo;
+
+/**
+ * Event upload metrics.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class EventUploadMetrics {
+
+    private long uploadedEventCount;
+    private long uploadedBatchCount;
+    private int backlogBatchCount;
+
+    private long drainStartTime = -1;
+    private long drainEventCount;
+    private double drainRate;
+
+    /**
+     * Called after a batch is uploaded.
+     *
+     * @param eventCount The batch event count.
+     * @param hasMoreEvents If events were left behind.
+     * @param startTime The elapsed realtime when the upload started.
+     * @param endTime The elapsed realtime when the upload finished.
+     */
+    synchronized void onBatchUploaded(int eventCount, boolean hasMoreEvents, long startTime, long endTime) {
+        uploadedEventCount += eventCount;
+        uploadedBatchCount++;
+
+        if (drainStartTime == -1) {
+            drainStartTime = startTime;
+            drainEventCount = 0;
+        }
+
+        drainEventCount += eventCount;
+        drainRate = drainEventCount * 1000.0 / Math.max(1, endTime - drainStartTime);
+
+        if (hasMoreEvents) {
+            backlogBatchCount++;
+        } else {
+            backlogBatchCount = 0;
+            drainStartTime = -1;
+        }
+    }
+
+    /**
+     * Gets the number of events uploaded.
+     *
+     * @return The uploaded event count.
+     */
+    public synchronized long getUploadedEventCount() {
+        return uploadedEventCount;
+    }
+
+    /**
+     * Gets the number of batches uploaded.
+     *
+     * @return The uploaded batch count.
+     */
+    public synchronized long getUploadedBatchCount() {
+        return uploadedBatchCount;
+    }
+
+    /**
+     * Gets the number of consecutive batches that left events behind.
+     *
+     * @return The backlog batch count, or 0 if the backlog is drained.
+     */
+    public synchronized int getBacklogBatchCount() {
+        return backlogBatchCount;
+    }
+
+    /**
+     * Gets the drain rate of the current backlog, or of the last one if the backlog is drained.
+     * The rate includes the delays between batches.
+     *
+     * @return The drain rate in events per second.
+     */
+    public synchronized double getDrainRate() {
+        return drainRate;
+    }
+
+}
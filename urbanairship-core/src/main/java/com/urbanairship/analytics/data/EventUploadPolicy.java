@@ -0,0 +1,118 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+
+import com.urbanairship.Logger;
+import com.urbanairship.util.Network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Chooses the batch size and cadence used to drain the event backlog.
+ * <p>
+ * A single batch per second is gentle on metered networks, but it leaves a device that was offline
+ * for a long time draining its backlog for minutes. On an unmetered network batches are sent back to
+ * back, with larger batches once a backlog builds up. The batch bytes are always capped by the
+ * server's max batch size.
+ */
+class EventUploadPolicy {
+
+    /**
+     * Max batch event count.
+     */
+    static final int MAX_BATCH_EVENT_COUNT = 500;
+
+    /**
+     * Max batch event count while draining a backlog on an unmetered network.
+     */
+    static final int DRAIN_MAX_BATCH_EVENT_COUNT = 1000;
+
+    /**
+     * Batch delay between multiple event uploads on a metered network in milliseconds.
+     */
+    static final long METERED_BATCH_DELAY = 1000; // 1s
+
+    /**
+     * Batch delay between multiple event uploads on an unmetered network in milliseconds.
+     */
+    static final long UNMETERED_BATCH_DELAY = 250; // 250ms
+
+    /**
+     * Number of consecutive full batches before the backlog is drained without a delay on an
+     * unmetered network.
+     */
+    static final int DEEP_BACKLOG_BATCH_COUNT = 5;
+
+    private final Context context;
+
+    /**
+     * Default constructor.
+     *
+     * @param context The application context.
+     */
+    EventUploadPolicy(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Gets the max number of events to include in the next batch.
+     *
+     * @param backlogBatchCount The number of consecutive batches that left events behind.
+     * @return The max batch event count.
+     */
+    int getMaxBatchEventCount(int backlogBatchCount) {
+        if (backlogBatchCount > 0 && !isMetered()) {
+            return DRAIN_MAX_BATCH_EVENT_COUNT;
+        }
+
+        return MAX_BATCH_EVENT_COUNT;
+    }
+
+    /**
+     * Gets the delay before the next batch when events are left behind.
+     *
+     * @param backlogBatchCount The number of consecutive batches that left events behind.
+     * @return The delay in milliseconds.
+     */
+    long getBatchDelay(int backlogBatchCount) {
+        if (isMetered()) {
+            return METERED_BATCH_DELAY;
+        }
+
+        if (backlogBatchCount >= DEEP_BACKLOG_BATCH_COUNT || isCharging()) {
+            return 0;
+        }
+
+        return UNMETERED_BATCH_DELAY;
+    }
+
+    @VisibleForTesting
+    boolean isMetered() {
+        return Network.isMetered();
+    }
+
+    @VisibleForTesting
+    boolean isCharging() {
+        Intent batteryStatus;
+        try {
+            batteryStatus = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        } catch (Exception e) {
+            Logger.verbose(e, "EventUploadPolicy - Unable to read the battery status.");
+            return false;
+        }
+
+        if (batteryStatus == null) {
+            return false;
+        }
+
+        int status = batteryStatus.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        return status == BatteryManager.BATTERY_STATUS_CHARGING || status == BatteryManager.BATTERY_STATUS_FULL;
+    }
+
+}
@@ -7,6 +7,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.provider.BaseColumns;
 
 import com.urbanairship.Logger;
+import com.urbanairship.analytics.Event;
 import com.urbanairship.util.DataManager;
 
 import androidx.annotation.NonNull;
@@ -28,7 +29,7 @@ public class EventsStorage extends DataManager {
     /**
      * The database version
      */
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 2;
 
     /**
      * Events table contract
@@ -65,6 +66,9 @@ public class EventsStorage extends DataManager {
         @NonNull
         String COLUMN_NAME_EVENT_SIZE = "event_size";
 
+        @NonNull
+        String COLUMN_NAME_PRIORITY = "priority";
+
     }
 
     public EventsStorage(@NonNull Context context, @NonNull String appKey) {
@@ -73,6 +77,15 @@ public class EventsStorage extends DataManager {
 
     @Override
     protected void onUpgrade(@NonNull SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion == 1) {
+            // Version 2 adds the retention priority lanes, existing events are normal priority
+            Logger.debug("EventsStorage - Upgrading analytics database from version %s to %s", oldVersion, newVersion);
+            db.execSQL("ALTER TABLE " + Events.TABLE_NAME + " ADD COLUMN " + Events.COLUMN_NAME_PRIORITY
+                    + " INTEGER NOT NULL DEFAULT " + Event.NORMAL_PRIORITY + ";");
+            createPriorityIndex(db);
+            return;
+        }
+
         // Logs that the database is being upgraded
         Logger.debug("EventsStorage - Upgrading analytics database from version %s to %s, which will destroy all old data", oldVersion, newVersion);
 
@@ -92,8 +105,16 @@ public class EventsStorage extends DataManager {
                 + Events.COLUMN_NAME_TIME + " INTEGER,"
                 + Events.COLUMN_NAME_DATA + " TEXT,"
                 + Events.COLUMN_NAME_SESSION_ID + " TEXT,"
-                + Events.COLUMN_NAME_EVENT_SIZE + " INTEGER"
+                + Events.COLUMN_NAME_EVENT_SIZE + " INTEGER,"
+                + Events.COLUMN_NAME_PRIORITY + " INTEGER NOT NULL DEFAULT " + Event.NORMAL_PRIORITY
                 + ");");
+
+        createPriorityIndex(db);
+    }
+
+    private void createPriorityIndex(@NonNull SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + Events.TABLE_NAME + "_priority ON "
+                + Events.TABLE_NAME + " (" + Events.COLUMN_NAME_PRIORITY + ", " + Events._ID + ");");
     }
 
     @Override
@@ -82,6 +82,7 @@ public class AirshipChannel extends AirshipComponent {
 
     private final List<AirshipChannelListener> airshipChannelListeners = new CopyOnWriteArrayList<>();
     private final List<ChannelRegistrationPayloadExtender> channelRegistrationPayloadExtenders = new CopyOnWriteArrayList<>();
+    private final List<TagsChangedListener> tagsChangedListeners = new CopyOnWriteArrayList<>();
     private final Object tagLock = new Object();
 
     private final TagGroupRegistrar tagGroupRegistrar;
@@ -289,6 +290,17 @@ public class AirshipChannel extends AirshipComponent {
         this.tagGroupRegistrar.addTagGroupListener(listener);
     }
 
+    /**
+     * Adds a listener for local tag and tag group changes.
+     *
+     * @param listener The listener.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public void addTagsChangedListener(@NonNull TagsChangedListener listener) {
+        this.tagsChangedListeners.add(listener);
+    }
+
     /**
      * Adds an attribute listener.
      *
@@ -351,6 +363,7 @@ public class AirshipChannel extends AirshipComponent {
 
                 if (!collapsedMutations.isEmpty()) {
                     tagGroupRegistrar.addPendingMutations(collapsedMutations);
+                    notifyTagsChanged();
                     dispatchUpdateJob();
                 }
             }
@@ -397,6 +410,7 @@ public class AirshipChannel extends AirshipComponent {
                 getDataStore().put(TAGS_KEY, JsonValue.wrapOpt(normalizedTags));
             }
 
+            notifyTagsChanged();
             dispatchUpdateJob();
         } else {
             Logger.warn("AirshipChannel - Unable to set tags when opted out of data collection.");
@@ -799,6 +813,15 @@ public class AirshipChannel extends AirshipComponent {
         jobDispatcher.dispatch(jobInfo);
     }
 
+    /**
+     * Notifies the tags changed listeners.
+     */
+    private void notifyTagsChanged() {
+        for (TagsChangedListener listener : tagsChangedListeners) {
+            listener.onTagsChanged();
+        }
+    }
+
     @Override
     protected void onDataCollectionEnabledChanged(boolean isDataCollectionEnabled) {
         if (!isDataCollectionEnabled) {
@@ -807,6 +830,7 @@ public class AirshipChannel extends AirshipComponent {
             }
             tagGroupRegistrar.clearPendingMutations();
             attributeRegistrar.clearPendingMutations();
+            notifyTagsChanged();
         }
 
         updateRegistration();
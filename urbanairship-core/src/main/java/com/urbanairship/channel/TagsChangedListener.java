@@ -0,0 +1,18 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.channel;
+
+import androidx.annotation.RestrictTo;
+
+/**
+ * Listener for local changes to the channel tags or tag groups.
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public interface TagsChangedListener {
+
+    /**
+     * Called when the channel tags or tag groups are changed on the device, before they are uploaded.
+     */
+    void onTagsChanged();
+}
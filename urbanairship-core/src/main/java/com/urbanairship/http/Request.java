@@ -65,6 +65,12 @@ public class Request {
     @Nullable
     protected String contentType;
 
+    @Nullable
+    protected byte[] encodedBody;
+
+    @Nullable
+    protected String contentEncoding;
+
     protected long ifModifiedSince = 0;
 
     protected boolean compressRequestBody = false;
@@ -125,7 +131,7 @@ public class Request {
     }
 
     /**
-     * Sets the request body.
+     * Sets the request body. Replaces any encoded body.
      *
      * @param body The string body.
      * @param contentType The string content type.
@@ -135,6 +141,26 @@ public class Request {
     public Request setRequestBody(@Nullable String body, @Nullable String contentType) {
         this.body = body;
         this.contentType = contentType;
+        this.encodedBody = null;
+        this.contentEncoding = null;
+        return this;
+    }
+
+    /**
+     * Sets a request body that is already encoded, such as a body that was compressed while
+     * it was being built. Replaces any string body.
+     *
+     * @param encodedBody The encoded body.
+     * @param contentType The string content type.
+     * @param contentEncoding The content encoding, e.g. {@code gzip}.
+     * @return The request.
+     */
+    @NonNull
+    public Request setEncodedRequestBody(@NonNull byte[] encodedBody, @Nullable String contentType, @Nullable String contentEncoding) {
+        this.body = null;
+        this.encodedBody = encodedBody;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
         return this;
     }
 
@@ -259,7 +285,7 @@ public class Request {
             conn.setRequestMethod(requestMethod);
             conn.setConnectTimeout(NETWORK_TIMEOUT_MS);
 
-            if (body != null) {
+            if (body != null || encodedBody != null) {
                 conn.setDoOutput(true);
                 conn.setRequestProperty("Content-Type", contentType);
             }
@@ -283,7 +309,15 @@ public class Request {
             }
 
             // Create the form content
-            if (body != null) {
+            if (encodedBody != null) {
+                if (contentEncoding != null) {
+                    conn.setRequestProperty("Content-Encoding", contentEncoding);
+                }
+                conn.setFixedLengthStreamingMode(encodedBody.length);
+                OutputStream out = conn.getOutputStream();
+                out.write(encodedBody);
+                out.close();
+            } else if (body != null) {
 
                 if (compressRequestBody) {
                     conn.setRequestProperty("Content-Encoding", "gzip");
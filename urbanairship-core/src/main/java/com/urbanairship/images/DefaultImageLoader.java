@@ -22,6 +22,7 @@ public class DefaultImageLoader implements ImageLoader {
 
     private final Map<ImageView, ImageRequest> requestMap;
     private final ImageCache imageCache;
+    private final ImageFetcher imageFetcher;
 
     /**
      * Creates an ImageLoader.
@@ -31,6 +32,7 @@ public class DefaultImageLoader implements ImageLoader {
     public DefaultImageLoader(@NonNull Context context) {
         this.requestMap = new WeakHashMap<>();
         this.imageCache = new ImageCache(context);
+        this.imageFetcher = new ImageFetcher(context, imageCache);
     }
 
     /**
@@ -53,7 +55,7 @@ public class DefaultImageLoader implements ImageLoader {
     public void load(@NonNull Context context, @NonNull ImageView imageView, @NonNull ImageRequestOptions imageRequestOptions) {
         cancelRequest(imageView);
 
-        ImageRequest request = new ImageRequest(context, imageCache, imageView, imageRequestOptions) {
+        ImageRequest request = new ImageRequest(context, imageCache, imageFetcher, imageView, imageRequestOptions) {
             @Override
             void onFinish(ImageView imageView) {
                 if (imageView != null) {
@@ -2,46 +2,31 @@ package com.urbanairship.images;
 
 import android.content.Context;
 import android.graphics.drawable.Drawable;
-import android.net.http.HttpResponseCache;
 import android.util.LruCache;
 
-import com.urbanairship.Logger;
-
-import java.io.File;
-import java.io.IOException;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
+/**
+ * Memory cache for decoded images, keyed by URL and target size.
+ */
 class ImageCache {
 
-    private static final String CACHE_DIR = "urbanairship-cache";
-
     /**
      * Max amount of memory cache.
      */
     private static final int MAX_MEM_CACHE_SIZE = 1024 * 1024 * 10; // 10MB
 
-    /**
-     * Max file size before we cache in memory.
-     */
-    private static final int MAX_MEM_CACHE_FILE_SIZE = 1024 * 1024; // 1MB
-
-    /**
-     * Disk cache size.
-     */
-    private static final int DISK_CACHE_SIZE = 1024 * 1024 * 50; // 50MB
-
     private final LruCache<String, CacheEntry> memoryCache;
 
-    private final Context context;
+    // Max size of a single entry so one large image does not evict the rest of the cache
+    private final int maxEntrySize;
 
     ImageCache(@NonNull Context context) {
-        this.context = context.getApplicationContext();
-
         // Memory Cache - 1/8 the available memory. Taken from https://developer.android.com/topic/performance/graphics/cache-bitmap
         int memCacheSize = (int) Math.min(MAX_MEM_CACHE_SIZE, Runtime.getRuntime().maxMemory() / 8);
+        this.maxEntrySize = memCacheSize / 4;
 
         this.memoryCache = new LruCache<String, CacheEntry>(memCacheSize) {
             @Override
@@ -56,7 +41,7 @@ class ImageCache {
 
     @WorkerThread
     void cacheDrawable(@NonNull String key, @NonNull Drawable drawable, long byteCount) {
-        if (byteCount <= MAX_MEM_CACHE_FILE_SIZE) {
+        if (byteCount <= maxEntrySize) {
             memoryCache.put(key, new CacheEntry(drawable, byteCount));
         }
     }
@@ -71,23 +56,16 @@ class ImageCache {
     }
 
     /**
-     * Installs a HttpResponseCache if a cache is not already installed.
+     * Gets the memory cache key for an image.
+     *
+     * @param url The image URL.
+     * @param width The target width.
+     * @param height The target height.
+     * @return The cache key.
      */
-    @WorkerThread
-    void installHttpCache() {
-        // URL Cache
-        File cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR);
-        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
-            Logger.error("Failed to create the cache.");
-        }
-
-        if (HttpResponseCache.getInstalled() == null) {
-            try {
-                HttpResponseCache.install(cacheDir, DISK_CACHE_SIZE);
-            } catch (IOException e) {
-                Logger.error("Unable to install image loader cache");
-            }
-        }
+    @NonNull
+    static String getCacheKey(@Nullable String url, int width, int height) {
+        return url == null ? "" : url + ",size(" + width + "x" + height + ")";
     }
 
     private static class CacheEntry {
@@ -0,0 +1,254 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.images;
+
+import android.content.Context;
+
+import com.urbanairship.Logger;
+import com.urbanairship.util.FileUtils;
+import com.urbanairship.util.UAStringUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Disk cache for downloaded images. Files are stored by the hash of their URL and evicted least
+ * recently used first once the cache grows past its max size. Entries older than the max age are
+ * treated as missing so an image updated at the same URL is downloaded again.
+ */
+class ImageDiskCache {
+
+    private static final String CACHE_DIR = "urbanairship-image-cache";
+
+    /**
+     * Directory used by the HttpResponseCache that was installed by older SDK versions.
+     */
+    private static final String LEGACY_CACHE_DIR = "urbanairship-cache";
+
+    private static final String TEMP_FILE_SUFFIX = ".temp";
+
+    /**
+     * Suffix of the marker file stored next to each entry. The marker's last modified time is the
+     * download time, since the entry's own last modified time tracks access for eviction.
+     */
+    private static final String FETCHED_FILE_SUFFIX = ".fetched";
+
+    /**
+     * Max age of a cached image.
+     */
+    private static final long MAX_AGE_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Disk cache size.
+     */
+    private static final long DISK_CACHE_SIZE = 1024 * 1024 * 50; // 50MB
+
+    private final File directory;
+    private final File legacyDirectory;
+    private final long maxSize;
+    private final long maxAgeMs;
+
+    // Size of the cached files, -1 until the directory has been scanned. Guarded by this.
+    private long size = -1;
+
+    /**
+     * Default constructor.
+     *
+     * @param context The application context.
+     */
+    ImageDiskCache(@NonNull Context context) {
+        this(new File(context.getCacheDir(), CACHE_DIR), new File(context.getCacheDir(), LEGACY_CACHE_DIR), DISK_CACHE_SIZE, MAX_AGE_MS);
+    }
+
+    @VisibleForTesting
+    ImageDiskCache(@NonNull File directory, @Nullable File legacyDirectory, long maxSize, long maxAgeMs) {
+        this.directory = directory;
+        this.legacyDirectory = legacyDirectory;
+        this.maxSize = maxSize;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Gets the cached file for the URL.
+     *
+     * @param url The URL.
+     * @return The cached file, or null if the URL is not cached or the entry is stale.
+     */
+    @Nullable
+    @WorkerThread
+    File get(@NonNull String url) {
+        File file = getFile(url);
+        if (!file.exists()) {
+            return null;
+        }
+
+        long fetched = getFetchedFile(file).lastModified();
+        if (fetched == 0 || System.currentTimeMillis() - fetched > maxAgeMs) {
+            Logger.verbose("ImageDiskCache - Cached image is stale: %s", url);
+            return null;
+        }
+
+        // Last modified time is used for eviction
+        if (!file.setLastModified(System.currentTimeMillis())) {
+            Logger.verbose("ImageDiskCache - Unable to update last modified time for %s", file);
+        }
+
+        return file;
+    }
+
+    /**
+     * Creates a temp file in the cache directory that can later be added with {@link #put(String, File)}.
+     *
+     * @return The temp file.
+     * @throws IOException if the file fails to be created.
+     */
+    @NonNull
+    @WorkerThread
+    File createTempFile() throws IOException {
+        init();
+        return File.createTempFile("ua_", TEMP_FILE_SUFFIX, directory);
+    }
+
+    /**
+     * Moves the file into the cache.
+     *
+     * @param url The URL.
+     * @param file The downloaded file. Should be created with {@link #createTempFile()}.
+     * @return The cached file, or null if the file could not be moved into the cache.
+     */
+    @Nullable
+    @WorkerThread
+    File put(@NonNull String url, @NonNull File file) {
+        init();
+
+        File cachedFile = getFile(url);
+        long previousLength = cachedFile.length();
+
+        if (!file.renameTo(cachedFile)) {
+            Logger.verbose("ImageDiskCache - Unable to cache %s", url);
+            return null;
+        }
+
+        File fetchedFile = getFetchedFile(cachedFile);
+        try {
+            if (!fetchedFile.createNewFile() && !fetchedFile.setLastModified(System.currentTimeMillis())) {
+                Logger.verbose("ImageDiskCache - Unable to update fetched time for %s", url);
+            }
+        } catch (IOException e) {
+            Logger.debug(e, "ImageDiskCache - Unable to record fetched time for %s", url);
+        }
+
+        synchronized (this) {
+            size += cachedFile.length() - previousLength;
+            if (size > maxSize) {
+                trim();
+            }
+        }
+
+        return cachedFile.exists() ? cachedFile : null;
+    }
+
+    /**
+     * Creates the cache directory and computes the cache size on first use.
+     */
+    private synchronized void init() {
+        if (size != -1) {
+            return;
+        }
+
+        if (legacyDirectory != null && legacyDirectory.exists()) {
+            FileUtils.deleteRecursively(legacyDirectory);
+        }
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            Logger.error("Failed to create the image cache.");
+        }
+
+        // Temp files left over from downloads that did not finish
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                    file.delete();
+                }
+            }
+        }
+
+        size = 0;
+        for (File file : listCachedFiles()) {
+            size += file.length();
+        }
+
+        if (size > maxSize) {
+            trim();
+        }
+    }
+
+    /**
+     * Evicts the least recently used files until the cache fits. Must be called while holding the lock.
+     */
+    private void trim() {
+        File[] files = listCachedFiles();
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long lhsModified = lhs.lastModified();
+                long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+
+        size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+
+        for (int i = 0; i < files.length && size > maxSize; i++) {
+            long length = files[i].length();
+            if (files[i].delete()) {
+                size -= length;
+                getFetchedFile(files[i]).delete();
+            }
+        }
+    }
+
+    @NonNull
+    private File[] listCachedFiles() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+
+        int count = 0;
+        for (File file : files) {
+            if (file.isFile() && !file.getName().endsWith(TEMP_FILE_SUFFIX) && !file.getName().endsWith(FETCHED_FILE_SUFFIX)) {
+                files[count++] = file;
+            }
+        }
+
+        return Arrays.copyOf(files, count);
+    }
+
+    @NonNull
+    private File getFetchedFile(@NonNull File file) {
+        return new File(directory, file.getName() + FETCHED_FILE_SUFFIX);
+    }
+
+    @NonNull
+    private File getFile(@NonNull String url) {
+        String name = UAStringUtil.sha256(url);
+        if (name == null) {
+            name = Integer.toHexString(url.hashCode());
+        }
+        return new File(directory, name);
+    }
+
+}
@@ -0,0 +1,300 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.images;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.webkit.URLUtil;
+
+import com.urbanairship.AirshipExecutors;
+import com.urbanairship.Logger;
+import com.urbanairship.util.AirshipThreadFactory;
+import com.urbanairship.util.FileUtils;
+import com.urbanairship.util.ImageUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Fetches and decodes images.
+ * <p>
+ * Concurrent fetches for the same URL and target size share a single download and decode. Downloads
+ * run on the shared Airship executor and are cached on disk, decodes run on a small bounded pool so
+ * a long list of images does not decode on many threads at once.
+ */
+class ImageFetcher {
+
+    private static final int DECODE_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long DECODE_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Fetch callback.
+     */
+    interface Callback {
+
+        /**
+         * Called on a background thread when the fetch finishes.
+         *
+         * @param drawable The drawable, or null if the image failed to load.
+         */
+        @WorkerThread
+        void onFetched(@Nullable Drawable drawable);
+
+    }
+
+    private final Context context;
+    private final ImageCache imageCache;
+    private final ImageDiskCache diskCache;
+    private final Executor downloadExecutor;
+    private final Executor decodeExecutor;
+
+    // Guarded by inFlight
+    private final Map<String, Fetch> inFlight = new HashMap<>();
+
+    /**
+     * Default constructor.
+     *
+     * @param context The application context.
+     * @param imageCache The memory cache.
+     */
+    ImageFetcher(@NonNull Context context, @NonNull ImageCache imageCache) {
+        this(context, imageCache, new ImageDiskCache(context), AirshipExecutors.THREAD_POOL_EXECUTOR, createDecodeExecutor());
+    }
+
+    @VisibleForTesting
+    ImageFetcher(@NonNull Context context, @NonNull ImageCache imageCache, @NonNull ImageDiskCache diskCache,
+                 @NonNull Executor downloadExecutor, @NonNull Executor decodeExecutor) {
+        this.context = context.getApplicationContext();
+        this.imageCache = imageCache;
+        this.diskCache = diskCache;
+        this.downloadExecutor = downloadExecutor;
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    /**
+     * Fetches an image. If the same image is already being fetched the callback will be
+     * notified with the result of that fetch.
+     *
+     * @param url The image URL.
+     * @param width The target width.
+     * @param height The target height.
+     * @param callback The callback.
+     * @return The subscription. Cancel it if the result is no longer needed.
+     */
+    @NonNull
+    Subscription fetch(@NonNull String url, int width, int height, @NonNull Callback callback) {
+        Subscription subscription = new Subscription(callback);
+        String key = ImageCache.getCacheKey(url, width, height);
+
+        synchronized (inFlight) {
+            Fetch fetch = inFlight.get(key);
+            if (fetch != null) {
+                fetch.subscriptions.add(subscription);
+                return subscription;
+            }
+
+            fetch = new Fetch(key, url, width, height);
+            fetch.subscriptions.add(subscription);
+            inFlight.put(key, fetch);
+            downloadExecutor.execute(fetch.downloadRunnable);
+        }
+
+        return subscription;
+    }
+
+    /**
+     * Fetch subscription.
+     */
+    static class Subscription {
+
+        private final Callback callback;
+        private volatile boolean isCancelled;
+
+        private Subscription(@NonNull Callback callback) {
+            this.callback = callback;
+        }
+
+        /**
+         * Cancels the subscription. The fetch is dropped once all of its subscriptions are cancelled.
+         */
+        void cancel() {
+            isCancelled = true;
+        }
+
+    }
+
+    /**
+     * A single download and decode shared by one or more subscriptions.
+     */
+    private class Fetch {
+
+        private final String key;
+        private final String url;
+        private final int width;
+        private final int height;
+
+        // Guarded by inFlight
+        private final List<Subscription> subscriptions = new ArrayList<>();
+
+        private final Runnable downloadRunnable = new Runnable() {
+            @Override
+            public void run() {
+                if (removeIfCancelled()) {
+                    return;
+                }
+
+                final URL imageUrl;
+                try {
+                    imageUrl = getImageUrl();
+                } catch (Exception e) {
+                    Logger.debug(e, "Unable to fetch image: %s", url);
+                    finish(null);
+                    return;
+                }
+
+                if (imageUrl == null) {
+                    finish(null);
+                    return;
+                }
+
+                decodeExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        decode(imageUrl);
+                    }
+                });
+            }
+        };
+
+        Fetch(@NonNull String key, @NonNull String url, int width, int height) {
+            this.key = key;
+            this.url = url;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Gets the local URL of the image, downloading it into the disk cache if needed.
+         *
+         * @return The local image URL, or null if it failed to download.
+         * @throws IOException if the file fails to download.
+         */
+        @Nullable
+        @WorkerThread
+        private URL getImageUrl() throws IOException {
+            if (URLUtil.isFileUrl(url)) {
+                return new URL(url);
+            }
+
+            File cached = diskCache.get(url);
+            if (cached != null) {
+                return cached.toURI().toURL();
+            }
+
+            File tempFile = diskCache.createTempFile();
+            try {
+                if (!FileUtils.downloadFile(new URL(url), tempFile).isSuccess) {
+                    Logger.verbose("ImageFetcher - Failed to fetch image from: %s", url);
+                    return null;
+                }
+
+                File file = diskCache.put(url, tempFile);
+                return file == null ? null : file.toURI().toURL();
+            } finally {
+                if (tempFile.exists()) {
+                    tempFile.delete();
+                }
+            }
+        }
+
+        @WorkerThread
+        private void decode(@NonNull URL imageUrl) {
+            if (removeIfCancelled()) {
+                return;
+            }
+
+            Drawable drawable = null;
+            try {
+                ImageUtils.DrawableResult result = ImageUtils.fetchScaledDrawable(context, imageUrl, width, height);
+                if (result != null) {
+                    imageCache.cacheDrawable(key, result.drawable, result.bytes);
+                    drawable = result.drawable;
+                }
+            } catch (Exception e) {
+                Logger.debug(e, "Unable to decode image: %s", url);
+            }
+
+            finish(drawable);
+        }
+
+        /**
+         * Drops the fetch if all of the subscriptions are cancelled. The check and the removal happen
+         * under the same lock so a subscription added in between starts a new fetch instead of joining
+         * this one.
+         *
+         * @return {@code true} if the fetch was dropped, otherwise {@code false}.
+         */
+        private boolean removeIfCancelled() {
+            synchronized (inFlight) {
+                for (Subscription subscription : subscriptions) {
+                    if (!subscription.isCancelled) {
+                        return false;
+                    }
+                }
+
+                inFlight.remove(key);
+                return true;
+            }
+        }
+
+        @WorkerThread
+        private void finish(@Nullable Drawable drawable) {
+            List<Subscription> subscriptions;
+            synchronized (inFlight) {
+                inFlight.remove(key);
+                subscriptions = new ArrayList<>(this.subscriptions);
+            }
+
+            boolean isShared = false;
+            for (Subscription subscription : subscriptions) {
+                if (subscription.isCancelled) {
+                    continue;
+                }
+
+                // A drawable can only be attached to a single view, give each additional view its own copy
+                Drawable result = drawable;
+                if (isShared && drawable != null && drawable.getConstantState() != null) {
+                    result = drawable.getConstantState().newDrawable(context.getResources());
+                }
+
+                subscription.callback.onFetched(result);
+                isShared = true;
+            }
+        }
+
+    }
+
+    @NonNull
+    private static Executor createDecodeExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS,
+                DECODE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new AirshipThreadFactory("UrbanAirship-ImageDecoder"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
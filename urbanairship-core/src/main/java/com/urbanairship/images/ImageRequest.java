@@ -9,20 +9,13 @@ import android.os.Build;
 import android.view.ViewTreeObserver;
 import android.widget.ImageView;
 
-import com.urbanairship.AirshipExecutors;
 import com.urbanairship.CancelableOperation;
-import com.urbanairship.Logger;
-import com.urbanairship.util.ImageUtils;
 
-import java.io.IOException;
 import java.lang.ref.WeakReference;
-import java.net.URL;
-import java.util.concurrent.Executor;
 
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.annotation.WorkerThread;
 import androidx.core.content.ContextCompat;
 
 /**
@@ -30,8 +23,6 @@ import androidx.core.content.ContextCompat;
  */
 abstract class ImageRequest {
 
-    private final Executor EXECUTOR = AirshipExecutors.THREAD_POOL_EXECUTOR;
-
     /**
      * Duration of the fade in animation when loading a bitmap into the image view in milliseconds.
      */
@@ -39,12 +30,14 @@ abstract class ImageRequest {
 
     private final ImageRequestOptions imageRequestOptions;
     private final ImageCache imageCache;
+    private final ImageFetcher imageFetcher;
     private final WeakReference<ImageView> imageViewReference;
     private final Context context;
 
     private final CancelableOperation pendingRequest = new CancelableOperation();
 
     private ViewTreeObserver.OnPreDrawListener preDrawListener;
+    private ImageFetcher.Subscription subscription;
     private int width;
     private int height;
 
@@ -53,16 +46,19 @@ abstract class ImageRequest {
      *
      * @param context The application context.
      * @param imageCache The image cache.
+     * @param imageFetcher The image fetcher.
      * @param imageView The image view.
      * @param imageRequestOptions The request options.
      */
     ImageRequest(@NonNull Context context,
                  @NonNull ImageCache imageCache,
+                 @NonNull ImageFetcher imageFetcher,
                  @NonNull ImageView imageView,
                  @NonNull ImageRequestOptions imageRequestOptions) {
 
         this.context = context;
         this.imageCache = imageCache;
+        this.imageFetcher = imageFetcher;
         this.imageRequestOptions = imageRequestOptions;
         this.imageViewReference = new WeakReference<>(imageView);
     }
@@ -77,6 +73,9 @@ abstract class ImageRequest {
             imageView.getViewTreeObserver().removeOnPreDrawListener(preDrawListener);
             imageViewReference.clear();
         }
+        if (subscription != null) {
+            subscription.cancel();
+        }
         pendingRequest.cancel();
     }
 
@@ -138,34 +137,29 @@ abstract class ImageRequest {
                 imageView.setImageDrawable(null);
             }
 
-            EXECUTOR.execute(new Runnable() {
+            if (imageRequestOptions.getUrl() == null) {
+                return;
+            }
+
+            subscription = imageFetcher.fetch(imageRequestOptions.getUrl(), width, height, new ImageFetcher.Callback() {
                 @Override
-                public void run() {
-                    if (pendingRequest.isCancelled()) {
+                public void onFetched(@Nullable final Drawable drawable) {
+                    if (drawable == null || pendingRequest.isCancelled()) {
                         return;
                     }
 
-                    try {
-                        final Drawable drawable = fetchDrawableOnBackground();
-
-                        if (drawable != null) {
-                            pendingRequest.addOnRun(new Runnable() {
-                                @Override
-                                public void run() {
-                                    if (pendingRequest.isCancelled()) {
-                                        return;
-                                    }
-
-                                    applyDrawable(drawable);
-                                }
-                            });
+                    pendingRequest.addOnRun(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (pendingRequest.isCancelled()) {
+                                return;
+                            }
 
-                            pendingRequest.run();
+                            applyDrawable(drawable);
                         }
+                    });
 
-                    } catch (IOException e) {
-                        Logger.debug(e, "Unable to fetch bitmap");
-                    }
+                    pendingRequest.run();
                 }
             });
         }
@@ -178,7 +172,7 @@ abstract class ImageRequest {
      */
     @NonNull
     private String getCacheKey() {
-        return imageRequestOptions.getUrl() == null ? "" : imageRequestOptions.getUrl() + ",size(" + width + "x" + height + ")";
+        return ImageCache.getCacheKey(imageRequestOptions.getUrl(), width, height);
     }
 
     /**
@@ -188,29 +182,6 @@ abstract class ImageRequest {
      */
     abstract void onFinish(@Nullable ImageView imageView);
 
-    @Nullable
-    @WorkerThread
-    private Drawable fetchDrawableOnBackground() throws IOException {
-        imageCache.installHttpCache();
-
-        if (imageViewReference.get() == null) {
-            return null;
-        }
-
-        if (imageRequestOptions.getUrl() == null) {
-            return null;
-        }
-
-        ImageUtils.DrawableResult result = ImageUtils.fetchScaledDrawable(context, new URL(imageRequestOptions.getUrl()), width, height);
-
-        if (result == null) {
-            return null;
-        }
-        imageCache.cacheDrawable(getCacheKey(), result.drawable, result.bytes);
-        return result.drawable;
-
-    }
-
     @MainThread
     private void applyDrawable(Drawable drawable) {
         final ImageView imageView = imageViewReference.get();
@@ -29,20 +29,15 @@ import androidx.annotation.WorkerThread;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class JavaScriptEnvironment {
 
-    private final List<String> getters;
+    private static final Object nativeBridgeLock = new Object();
 
-    private JavaScriptEnvironment(@NonNull Builder builder) {
-        this.getters = new ArrayList<>(builder.getters);
-    }
+    // Contents of the native bridge resource, read once. Guarded by nativeBridgeLock.
+    @Nullable
+    private static String nativeBridge;
 
-    @NonNull
-    public static Builder newBuilder() {
-        return new Builder();
-    }
-
-    @WorkerThread
-    public String getJavaScript(@NonNull Context context) {
+    private final String environment;
 
+    private JavaScriptEnvironment(@NonNull Builder builder) {
         /*
          * The native bridge will prototype _UAirship, so inject any additional
          * functionality under _UAirship and the final UAirship object will have
@@ -50,18 +45,60 @@ public class JavaScriptEnvironment {
          */
         StringBuilder sb = new StringBuilder().append("var _UAirship = {};");
 
-        for (String getter : getters) {
+        for (String getter : builder.getters) {
             sb.append(getter);
         }
 
-        try {
-            sb.append(readNativeBridge(context));
-        } catch (IOException e) {
-            Logger.error("Failed to read native bridge.");
+        this.environment = sb.toString();
+    }
+
+    @NonNull
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @WorkerThread
+    public String getJavaScript(@NonNull Context context) {
+        String nativeBridge = loadNativeBridge(context);
+        if (nativeBridge == null) {
             return "";
         }
 
-        return sb.toString();
+        return environment + nativeBridge;
+    }
+
+    /**
+     * Gets the JavaScript without reading the native bridge.
+     *
+     * @return The JavaScript, or null if the native bridge has not been loaded yet.
+     */
+    @Nullable
+    String getJavaScriptIfLoaded() {
+        synchronized (nativeBridgeLock) {
+            return nativeBridge == null ? null : environment + nativeBridge;
+        }
+    }
+
+    /**
+     * Loads the native bridge from resources. The bridge is static so it is only read once.
+     *
+     * @param context The context.
+     * @return The native bridge, or null if it failed to be read.
+     */
+    @Nullable
+    @WorkerThread
+    static String loadNativeBridge(@NonNull Context context) {
+        synchronized (nativeBridgeLock) {
+            if (nativeBridge == null) {
+                try {
+                    nativeBridge = readNativeBridge(context);
+                } catch (IOException e) {
+                    Logger.error("Failed to read native bridge.");
+                }
+            }
+
+            return nativeBridge;
+        }
     }
 
     /**
@@ -4,6 +4,7 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.net.Uri;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Cancelable;
@@ -179,6 +180,21 @@ public class NativeBridge {
         this.actionCompletionCallback = actionCompletionCallback;
     }
 
+    /**
+     * Reads the static part of the JavaScript environment in the background so it is ready by the
+     * time {@link #loadJavaScriptEnvironment(Context, JavaScriptEnvironment, JavaScriptExecutor)} is called.
+     *
+     * @param context The context.
+     */
+    public void preloadJavaScriptEnvironment(@NonNull final Context context) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                JavaScriptEnvironment.loadNativeBridge(context);
+            }
+        });
+    }
+
     @NonNull
     public Cancelable loadJavaScriptEnvironment(@NonNull final Context context,
                                                 @NonNull final JavaScriptEnvironment javaScriptEnvironment,
@@ -186,12 +202,24 @@ public class NativeBridge {
 
         Logger.info("Loading Airship Javascript interface.");
 
+        final long startTime = SystemClock.elapsedRealtime();
         final PendingResult<String> pendingLoad = new PendingResult<>();
+
+        // Inject right away if the native bridge has already been read
+        String cachedJavaScript = javaScriptEnvironment.getJavaScriptIfLoaded();
+        if (cachedJavaScript != null) {
+            javaScriptExecutor.executeJavaScript(cachedJavaScript);
+            Logger.debug("Airship Javascript interface loaded in %d ms.", SystemClock.elapsedRealtime() - startTime);
+            pendingLoad.setResult(cachedJavaScript);
+            return pendingLoad;
+        }
+
         pendingLoad.addResultCallback(Looper.myLooper(), new ResultCallback<String>() {
             @Override
             public void onResult(@Nullable String javaScript) {
                 if (javaScript != null) {
                     javaScriptExecutor.executeJavaScript(javaScript);
+                    Logger.debug("Airship Javascript interface loaded in %d ms.", SystemClock.elapsedRealtime() - startTime);
                 }
             }
         });
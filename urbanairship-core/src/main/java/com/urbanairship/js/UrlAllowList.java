@@ -3,6 +3,7 @@
 package com.urbanairship.js;
 
 import android.net.Uri;
+import android.util.LruCache;
 
 import com.urbanairship.AirshipConfigOptions;
 import com.urbanairship.Logger;
@@ -11,7 +12,9 @@ import com.urbanairship.util.UAStringUtil;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import androidx.annotation.IntDef;
@@ -60,6 +63,11 @@ public class UrlAllowList {
      */
     private static final String REGEX_SPECIAL_CHARACTERS = "\\.[]{}()^$?+|*";
 
+    /**
+     * Max number of URL results to cache.
+     */
+    private static final int MAX_CACHED_RESULTS = 100;
+
     /**
      * Interface that defines a callback that can be used to reject or allow a URL.
      */
@@ -81,6 +89,13 @@ public class UrlAllowList {
 
     private final List<Entry> entries = new ArrayList<>();
 
+    // Recent URL to matched scope results, guarded by entries
+    private final LruCache<String, Integer> resultCache = new LruCache<>(MAX_CACHED_RESULTS);
+
+    // Entries indexed by scheme and host, rebuilt lazily after entries change. Guarded by entries.
+    @Nullable
+    private EntryIndex entryIndex;
+
     /**
      * Adds an entry to the URL allow list for URL matching. Patterns must be defined with the following
      * syntax:
@@ -146,7 +161,7 @@ public class UrlAllowList {
      */
     public boolean addEntry(@NonNull String pattern, @Scope int scope) {
         if (pattern.equals("*")) {
-            addEntry(new UriPattern(null, null, null), scope);
+            addEntry(new UriPattern(null, null, null, null, null, null), scope);
             return true;
         }
 
@@ -174,30 +189,37 @@ public class UrlAllowList {
             return false;
         }
 
-        Pattern schemePattern;
-        if (UAStringUtil.isEmpty(scheme) || scheme.equals("*")) {
-            schemePattern = null;
-        } else {
-            schemePattern = Pattern.compile(escapeRegEx(scheme, false));
+        String schemeExact = null;
+        Pattern schemePattern = null;
+        if (!UAStringUtil.isEmpty(scheme) && !scheme.equals("*")) {
+            if (scheme.contains("*")) {
+                schemePattern = Pattern.compile(escapeRegEx(scheme, false));
+            } else {
+                schemeExact = scheme;
+            }
         }
 
-        Pattern hostPattern;
-        if (UAStringUtil.isEmpty(host) || host.equals("*")) {
-            hostPattern = null;
-        } else if (host.startsWith("*.")) {
-            hostPattern = Pattern.compile("(.*\\.)?" + escapeRegEx(host.substring(2), true));
-        } else {
-            hostPattern = Pattern.compile(escapeRegEx(host, true));
+        String hostExact = null;
+        String hostSuffix = null;
+        if (!UAStringUtil.isEmpty(host) && !host.equals("*")) {
+            if (host.startsWith("*.")) {
+                hostSuffix = host.substring(2);
+            } else {
+                hostExact = host;
+            }
         }
 
-        Pattern pathPattern;
-        if (UAStringUtil.isEmpty(path) || path.equals("/*")) {
-            pathPattern = null;
-        } else {
-            pathPattern = Pattern.compile(escapeRegEx(path, false));
+        String pathExact = null;
+        Pattern pathPattern = null;
+        if (!UAStringUtil.isEmpty(path) && !path.equals("/*")) {
+            if (path.contains("*")) {
+                pathPattern = Pattern.compile(escapeRegEx(path, false));
+            } else {
+                pathExact = path;
+            }
         }
 
-        addEntry(new UriPattern(schemePattern, hostPattern, pathPattern), scope);
+        addEntry(new UriPattern(schemeExact, schemePattern, hostExact, hostSuffix, pathExact, pathPattern), scope);
         return true;
     }
 
@@ -210,6 +232,8 @@ public class UrlAllowList {
     private void addEntry(@NonNull UriPattern pattern, @Scope int scope) {
         synchronized (entries) {
             entries.add(new Entry(pattern, scope));
+            entryIndex = null;
+            resultCache.evictAll();
         }
     }
 
@@ -235,14 +259,19 @@ public class UrlAllowList {
             return false;
         }
 
-        Uri uri = Uri.parse(url);
-        int matchedScope = 0;
+        int matchedScope;
 
         synchronized (entries) {
-            for (Entry entry : entries) {
-                if (entry.pattern.matches(uri)) {
-                    matchedScope |= entry.scope;
+            Integer cached = resultCache.get(url);
+            if (cached != null) {
+                matchedScope = cached;
+            } else {
+                if (entryIndex == null) {
+                    entryIndex = new EntryIndex(entries);
                 }
+
+                matchedScope = entryIndex.match(Uri.parse(url));
+                resultCache.put(url, matchedScope);
             }
         }
 
@@ -322,86 +351,185 @@ public class UrlAllowList {
     }
 
     /**
-     * Helper class that does the actual matching using the scheme and host patterns.
+     * Helper class that does the actual matching. Wild card schemes and paths fall back to regular
+     * expressions, everything else is compared directly.
      */
     private static class UriPattern {
 
-        private final Pattern scheme;
-        private final Pattern host;
-        private final Pattern path;
+        private final String schemeExact;
+        private final Pattern schemePattern;
+        private final String hostExact;
+        private final String hostSuffix;
+        private final String pathExact;
+        private final Pattern pathPattern;
 
         /**
          * Creates a new UriPattern.
          *
-         * @param scheme The pattern to use for scheme matching.
-         * @param host The pattern to use for host matching.
-         * @param path THe pattern to use for path matching.
+         * @param schemeExact The scheme to match exactly.
+         * @param schemePattern The pattern to use for wild card scheme matching.
+         * @param hostExact The host to match exactly.
+         * @param hostSuffix The domain to match, including any subdomains.
+         * @param pathExact The path to match exactly.
+         * @param pathPattern The pattern to use for wild card path matching.
          */
-        UriPattern(@Nullable Pattern scheme, @Nullable Pattern host, @Nullable Pattern path) {
-            this.scheme = scheme;
-            this.host = host;
-            this.path = path;
+        UriPattern(@Nullable String schemeExact, @Nullable Pattern schemePattern,
+                   @Nullable String hostExact, @Nullable String hostSuffix,
+                   @Nullable String pathExact, @Nullable Pattern pathPattern) {
+            this.schemeExact = schemeExact;
+            this.schemePattern = schemePattern;
+            this.hostExact = hostExact;
+            this.hostSuffix = hostSuffix;
+            this.pathExact = pathExact;
+            this.pathPattern = pathPattern;
         }
 
         /**
-         * Checks if a uri matches the pattern.
+         * Checks if the scheme and path match the pattern. The host is matched by the {@link EntryIndex}.
          *
-         * @param uri The uri to match.
-         * @return <code>true</code> if the uri matches, otherwise <code>false</code>.
+         * @param scheme The uri scheme.
+         * @param path The uri path.
+         * @return <code>true</code> if the scheme and path match, otherwise <code>false</code>.
          */
-        boolean matches(@NonNull Uri uri) {
-            if (scheme != null && (uri.getScheme() == null || !scheme.matcher(uri.getScheme()).matches())) {
+        boolean matches(@Nullable String scheme, @Nullable String path) {
+            if (schemeExact != null && !schemeExact.equals(scheme)) {
                 return false;
             }
 
-            if (host != null && (uri.getHost() == null || !host.matcher(uri.getHost()).matches())) {
+            if (schemePattern != null && (scheme == null || !schemePattern.matcher(scheme).matches())) {
                 return false;
             }
 
-            String uriPath = uri.isOpaque() ? uri.getSchemeSpecificPart() : uri.getPath();
-            return path == null || (uriPath != null && path.matcher(uriPath).matches());
+            if (pathExact != null) {
+                return pathExact.equals(path);
+            }
+
+            return pathPattern == null || (path != null && pathPattern.matcher(path).matches());
         }
 
-        @Override
-        public boolean equals(@Nullable Object o) {
-            if (this == o) {
-                return true;
+    }
+
+    private static class Entry {
+
+        private final int scope;
+        private final UriPattern pattern;
+
+        private Entry(UriPattern pattern, @Scope int scope) {
+            this.scope = scope;
+            this.pattern = pattern;
+        }
+
+    }
+
+    /**
+     * Entries indexed by host: exact hosts by table, `*.domain` hosts by a reversed suffix trie, and
+     * any host entries by exact scheme.
+     */
+    private static class EntryIndex {
+
+        private final Map<String, List<Entry>> exactHosts = new HashMap<>();
+        private final HostSuffixNode hostSuffixes = new HostSuffixNode();
+        private final Map<String, List<Entry>> anyHostBySchemes = new HashMap<>();
+        private final List<Entry> anyHost = new ArrayList<>();
+
+        EntryIndex(@NonNull List<Entry> entries) {
+            for (Entry entry : entries) {
+                UriPattern pattern = entry.pattern;
+                if (pattern.hostExact != null) {
+                    add(exactHosts, pattern.hostExact, entry);
+                } else if (pattern.hostSuffix != null) {
+                    hostSuffixes.add(pattern.hostSuffix, entry);
+                } else if (pattern.schemeExact != null) {
+                    add(anyHostBySchemes, pattern.schemeExact, entry);
+                } else {
+                    anyHost.add(entry);
+                }
             }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
+        }
+
+        /**
+         * Matches the uri against all entries.
+         *
+         * @param uri The uri.
+         * @return The combined scope of all matching entries.
+         */
+        int match(@NonNull Uri uri) {
+            String scheme = uri.getScheme();
+            String host = uri.getHost();
+            String path = uri.isOpaque() ? uri.getSchemeSpecificPart() : uri.getPath();
+
+            int matchedScope = match(anyHost, scheme, path);
+
+            if (scheme != null) {
+                matchedScope |= match(anyHostBySchemes.get(scheme), scheme, path);
             }
 
-            UriPattern that = (UriPattern) o;
+            if (host != null) {
+                matchedScope |= match(exactHosts.get(host), scheme, path);
 
-            if (scheme != null ? !scheme.equals(that.scheme) : that.scheme != null) {
-                return false;
+                // `*.domain` matches the domain itself and any host ending in `.domain`
+                HostSuffixNode node = hostSuffixes;
+                for (int i = host.length() - 1; i >= 0 && node != null; i--) {
+                    node = node.children.get(host.charAt(i));
+                    if (node != null && (i == 0 || host.charAt(i - 1) == '.')) {
+                        matchedScope |= match(node.entries, scheme, path);
+                    }
+                }
             }
 
-            if (host != null ? !host.equals(that.host) : that.host != null) {
-                return false;
+            return matchedScope;
+        }
+
+        private static int match(@Nullable List<Entry> entries, @Nullable String scheme, @Nullable String path) {
+            int matchedScope = 0;
+            if (entries == null) {
+                return matchedScope;
+            }
+
+            for (Entry entry : entries) {
+                if (entry.pattern.matches(scheme, path)) {
+                    matchedScope |= entry.scope;
+                }
             }
 
-            return path != null ? path.equals(that.path) : that.path == null;
+            return matchedScope;
         }
 
-        @Override
-        public int hashCode() {
-            int result = scheme != null ? scheme.hashCode() : 0;
-            result = 31 * result + (host != null ? host.hashCode() : 0);
-            result = 31 * result + (path != null ? path.hashCode() : 0);
-            return result;
+        private static void add(@NonNull Map<String, List<Entry>> map, @NonNull String key, @NonNull Entry entry) {
+            List<Entry> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<>(1);
+                map.put(key, list);
+            }
+            list.add(entry);
         }
 
     }
 
-    private static class Entry {
-
-        private final int scope;
-        private final UriPattern pattern;
+    /**
+     * Trie node keyed by host characters from the end of the host.
+     */
+    private static class HostSuffixNode {
+
+        private final Map<Character, HostSuffixNode> children = new HashMap<>();
+        private List<Entry> entries;
+
+        void add(@NonNull String domain, @NonNull Entry entry) {
+            HostSuffixNode node = this;
+            for (int i = domain.length() - 1; i >= 0; i--) {
+                char c = domain.charAt(i);
+                HostSuffixNode child = node.children.get(c);
+                if (child == null) {
+                    child = new HostSuffixNode();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
 
-        private Entry(UriPattern pattern, @Scope int scope) {
-            this.scope = scope;
-            this.pattern = pattern;
+            if (node.entries == null) {
+                node.entries = new ArrayList<>(1);
+            }
+            node.entries.add(entry);
         }
 
     }
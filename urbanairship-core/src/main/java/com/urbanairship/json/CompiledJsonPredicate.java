@@ -0,0 +1,280 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import com.urbanairship.Predicate;
+import com.urbanairship.json.matchers.ArrayContainsMatcher;
+import com.urbanairship.json.matchers.ExactValueMatcher;
+import com.urbanairship.json.matchers.NumberRangeMatcher;
+import com.urbanairship.json.matchers.PresenceMatcher;
+import com.urbanairship.json.matchers.VersionMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Flattened form of a {@link JsonPredicate}.
+ * <p>
+ * Matcher scopes and keys are resolved into a single key path, and the children of AND/OR
+ * predicates are ordered by their estimated cost so cheap checks can short-circuit expensive
+ * ones. Evaluation does not allocate. Predicates and matchers are side effect free, so reordering
+ * does not change the result.
+ */
+final class CompiledJsonPredicate {
+
+    private static final int COST_PRESENCE = 1;
+    private static final int COST_EXACT = 2;
+    private static final int COST_EXACT_CONTAINER = 4;
+    private static final int COST_NUMBER_RANGE = 2;
+    private static final int COST_VERSION = 4;
+    private static final int COST_ARRAY_CONTAINS = 16;
+    private static final int COST_UNKNOWN = 8;
+
+    private static final Comparator<Node> COST_COMPARATOR = new Comparator<Node>() {
+        @Override
+        public int compare(Node lhs, Node rhs) {
+            return lhs.cost < rhs.cost ? -1 : (lhs.cost == rhs.cost ? 0 : 1);
+        }
+    };
+
+    private final Node root;
+
+    private CompiledJsonPredicate(@NonNull Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles a predicate.
+     *
+     * @param predicate The predicate.
+     * @return The compiled predicate.
+     */
+    @NonNull
+    static CompiledJsonPredicate compile(@NonNull JsonPredicate predicate) {
+        return new CompiledJsonPredicate(compilePredicate(predicate));
+    }
+
+    /**
+     * Evaluates the compiled predicate.
+     *
+     * @param value The value.
+     * @return {@code true} if the value matches, otherwise {@code false}.
+     */
+    boolean apply(@NonNull JsonValue value) {
+        return root.apply(value);
+    }
+
+    @NonNull
+    private static Node compilePredicate(@NonNull JsonPredicate predicate) {
+        List<Predicate<JsonSerializable>> items = predicate.getItems();
+        if (items.isEmpty()) {
+            return new ConstantNode(true);
+        }
+
+        Node[] children = new Node[items.size()];
+        int cost = 0;
+        for (int i = 0; i < children.length; i++) {
+            children[i] = compileItem(items.get(i));
+            cost += children[i].cost;
+        }
+
+        switch (predicate.getType()) {
+            case JsonPredicate.NOT_PREDICATE_TYPE:
+                return new NotNode(children[0]);
+
+            case JsonPredicate.AND_PREDICATE_TYPE:
+                Arrays.sort(children, COST_COMPARATOR);
+                return new AndNode(children, cost);
+
+            case JsonPredicate.OR_PREDICATE_TYPE:
+            default:
+                Arrays.sort(children, COST_COMPARATOR);
+                return new OrNode(children, cost);
+        }
+    }
+
+    @NonNull
+    private static Node compileItem(@NonNull Predicate<JsonSerializable> item) {
+        if (item instanceof JsonPredicate) {
+            return compilePredicate((JsonPredicate) item);
+        }
+
+        if (item instanceof JsonMatcher) {
+            return compileMatcher((JsonMatcher) item);
+        }
+
+        return new PredicateNode(item);
+    }
+
+    @NonNull
+    private static Node compileMatcher(@NonNull JsonMatcher matcher) {
+        List<String> path = new ArrayList<>(matcher.getScope());
+        if (matcher.getKey() != null) {
+            path.add(matcher.getKey());
+        }
+
+        ValueMatcher valueMatcher = matcher.getValueMatcher();
+        int cost = path.size() + cost(valueMatcher);
+        return new MatcherNode(path.toArray(new String[0]), valueMatcher, matcher.isIgnoreCase(), cost);
+    }
+
+    private static int cost(@NonNull ValueMatcher matcher) {
+        if (matcher instanceof PresenceMatcher) {
+            return COST_PRESENCE;
+        }
+
+        if (matcher instanceof ExactValueMatcher) {
+            JsonValue expected = matcher.toJsonValue().optMap().opt(ExactValueMatcher.EQUALS_VALUE_KEY);
+            return expected.isJsonMap() || expected.isJsonList() ? COST_EXACT_CONTAINER : COST_EXACT;
+        }
+
+        if (matcher instanceof NumberRangeMatcher) {
+            return COST_NUMBER_RANGE;
+        }
+
+        if (matcher instanceof VersionMatcher) {
+            return COST_VERSION;
+        }
+
+        if (matcher instanceof ArrayContainsMatcher) {
+            return COST_ARRAY_CONTAINS;
+        }
+
+        return COST_UNKNOWN;
+    }
+
+    private abstract static class Node {
+
+        final int cost;
+
+        Node(int cost) {
+            this.cost = cost;
+        }
+
+        abstract boolean apply(@NonNull JsonValue value);
+
+    }
+
+    private static class ConstantNode extends Node {
+
+        private final boolean result;
+
+        ConstantNode(boolean result) {
+            super(0);
+            this.result = result;
+        }
+
+        @Override
+        boolean apply(@NonNull JsonValue value) {
+            return result;
+        }
+
+    }
+
+    private static class NotNode extends Node {
+
+        private final Node child;
+
+        NotNode(@NonNull Node child) {
+            super(child.cost);
+            this.child = child;
+        }
+
+        @Override
+        boolean apply(@NonNull JsonValue value) {
+            return !child.apply(value);
+        }
+
+    }
+
+    private static class AndNode extends Node {
+
+        private final Node[] children;
+
+        AndNode(@NonNull Node[] children, int cost) {
+            super(cost);
+            this.children = children;
+        }
+
+        @Override
+        boolean apply(@NonNull JsonValue value) {
+            for (int i = 0; i < children.length; i++) {
+                if (!children[i].apply(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    private static class OrNode extends Node {
+
+        private final Node[] children;
+
+        OrNode(@NonNull Node[] children, int cost) {
+            super(cost);
+            this.children = children;
+        }
+
+        @Override
+        boolean apply(@NonNull JsonValue value) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i].apply(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    private static class MatcherNode extends Node {
+
+        private final String[] path;
+        private final ValueMatcher matcher;
+        private final boolean ignoreCase;
+
+        MatcherNode(@NonNull String[] path, @NonNull ValueMatcher matcher, boolean ignoreCase, int cost) {
+            super(cost);
+            this.path = path;
+            this.matcher = matcher;
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        boolean apply(@NonNull JsonValue value) {
+            JsonValue current = value;
+            for (int i = 0; i < path.length; i++) {
+                current = current.optMap().opt(path[i]);
+                if (current.isNull()) {
+                    break;
+                }
+            }
+
+            return matcher.apply(current, ignoreCase);
+        }
+
+    }
+
+    private static class PredicateNode extends Node {
+
+        private final Predicate<JsonSerializable> predicate;
+
+        PredicateNode(@NonNull Predicate<JsonSerializable> predicate) {
+            super(COST_UNKNOWN);
+            this.predicate = predicate;
+        }
+
+        @Override
+        boolean apply(@NonNull JsonValue value) {
+            return predicate.apply(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,719 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Compact binary encoding for {@link JsonValue}s that are persisted.
+ * <p>
+ * The encoding starts with a magic byte and a format version, followed by a type-tagged,
+ * length-prefixed tree. Strings (both map keys and values) are interned, so a repeated string is
+ * only written once and referenced by index afterwards.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class JsonBinary {
+
+    /**
+     * The current format version.
+     */
+    public static final int VERSION = 1;
+
+    // JSON text can never start with this byte
+    private static final byte MAGIC = (byte) 0xCB;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_FALSE = 1;
+    private static final int TYPE_TRUE = 2;
+    private static final int TYPE_INT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_STRING = 6;
+    private static final int TYPE_STRING_REF = 7;
+    private static final int TYPE_LIST = 8;
+    private static final int TYPE_MAP = 9;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private JsonBinary() {}
+
+    /**
+     * Checks if the bytes are a binary encoded JSON value.
+     *
+     * @param bytes The bytes.
+     * @return {@code true} if the bytes start with the binary header, otherwise {@code false}.
+     */
+    public static boolean isBinary(@Nullable byte[] bytes) {
+        return bytes != null && bytes.length >= 2 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * Encodes a JSON value.
+     *
+     * @param value The value.
+     * @return The encoded bytes.
+     */
+    @NonNull
+    public static byte[] encode(@NonNull JsonValue value) {
+        Encoder encoder = new Encoder();
+        encoder.out.write(MAGIC);
+        encoder.out.write(VERSION);
+        encoder.write(value);
+        return encoder.out.toByteArray();
+    }
+
+    /**
+     * Decodes a JSON value.
+     *
+     * @param bytes The encoded bytes.
+     * @return The decoded value.
+     * @throws JsonException If the bytes are not a valid encoding or the version is not supported.
+     */
+    @NonNull
+    public static JsonValue decode(@NonNull byte[] bytes) throws JsonException {
+        checkHeader(bytes);
+
+        Decoder decoder = new Decoder(bytes, 2);
+        try {
+            JsonValue value = decoder.read();
+            if (decoder.position != bytes.length) {
+                throw new JsonException("Unexpected trailing bytes.");
+            }
+            return value;
+        } catch (IndexOutOfBoundsException e) {
+            throw new JsonException("Truncated binary JSON.", e);
+        }
+    }
+
+    /**
+     * Decodes a JSON value lazily. The bytes are validated and the string table is indexed
+     * up front, but maps and lists only index their fields on first access and only build the
+     * child values that are requested. Useful for large payloads where only a few fields are read.
+     * <p>
+     * The bytes must not be modified after they are passed in.
+     *
+     * @param bytes The encoded bytes.
+     * @return The decoded value.
+     * @throws JsonException If the bytes are not a valid encoding or the version is not supported.
+     */
+    @NonNull
+    public static JsonValue decodeLazy(@NonNull byte[] bytes) throws JsonException {
+        checkHeader(bytes);
+
+        LazyBlob blob = new LazyBlob(bytes);
+        try {
+            Scanner scanner = new Scanner(blob, 2);
+            scanner.skip(true);
+            if (scanner.position != bytes.length) {
+                throw new JsonException("Unexpected trailing bytes.");
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new JsonException("Truncated binary JSON.", e);
+        }
+
+        return blob.valueAt(2);
+    }
+
+    private static void checkHeader(@NonNull byte[] bytes) throws JsonException {
+        if (!isBinary(bytes)) {
+            throw new JsonException("Invalid binary JSON header.");
+        }
+
+        int version = bytes[1] & 0xFF;
+        if (version != VERSION) {
+            throw new JsonException("Unsupported binary JSON version: " + version);
+        }
+    }
+
+    /**
+     * Decodes either a binary encoded value or a JSON encoded string. Used to read rows that have
+     * not been migrated to the binary encoding yet.
+     *
+     * @param bytes The encoded bytes or UTF-8 JSON text.
+     * @return The decoded value.
+     * @throws JsonException If the value could not be decoded or parsed.
+     */
+    @NonNull
+    public static JsonValue decodeOrParse(@Nullable byte[] bytes) throws JsonException {
+        if (bytes == null || bytes.length == 0) {
+            return JsonValue.NULL;
+        }
+
+        if (isBinary(bytes)) {
+            return decode(bytes);
+        }
+
+        return JsonValue.parseString(new String(bytes, UTF_8));
+    }
+
+    private static class Encoder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private void write(@NonNull JsonValue value) {
+            Object raw = value.getValue();
+
+            if (raw == null) {
+                out.write(TYPE_NULL);
+            } else if (raw instanceof Boolean) {
+                out.write((Boolean) raw ? TYPE_TRUE : TYPE_FALSE);
+            } else if (raw instanceof Integer) {
+                out.write(TYPE_INT);
+                writeVarLong(zigZag((Integer) raw));
+            } else if (raw instanceof Long) {
+                out.write(TYPE_LONG);
+                writeVarLong(zigZag((Long) raw));
+            } else if (raw instanceof Number) {
+                out.write(TYPE_DOUBLE);
+                long bits = Double.doubleToLongBits(((Number) raw).doubleValue());
+                for (int i = 0; i < 8; i++) {
+                    out.write((int) (bits >>> (8 * i)));
+                }
+            } else if (raw instanceof String) {
+                writeString((String) raw);
+            } else if (raw instanceof JsonList) {
+                JsonList list = (JsonList) raw;
+                out.write(TYPE_LIST);
+                writeVarLong(list.size());
+                for (JsonValue child : list) {
+                    write(child);
+                }
+            } else if (raw instanceof JsonMap) {
+                JsonMap map = (JsonMap) raw;
+                out.write(TYPE_MAP);
+                writeVarLong(map.size());
+                for (Map.Entry<String, JsonValue> entry : map) {
+                    writeString(entry.getKey());
+                    write(entry.getValue());
+                }
+            } else {
+                // JsonValue only wraps the types above
+                out.write(TYPE_NULL);
+            }
+        }
+
+        private void writeString(@NonNull String string) {
+            Integer index = strings.get(string);
+            if (index != null) {
+                out.write(TYPE_STRING_REF);
+                writeVarLong(index);
+                return;
+            }
+
+            strings.put(string, strings.size());
+            byte[] bytes = string.getBytes(UTF_8);
+            out.write(TYPE_STRING);
+            writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+    }
+
+    private static class Decoder {
+
+        private final byte[] bytes;
+        private final List<String> strings = new ArrayList<>();
+        private final LazyBlob blob;
+        private int position;
+
+        private Decoder(@NonNull byte[] bytes, int position) {
+            this(bytes, position, null);
+        }
+
+        private Decoder(@NonNull byte[] bytes, int position, @Nullable LazyBlob blob) {
+            this.bytes = bytes;
+            this.position = position;
+            this.blob = blob;
+        }
+
+        @NonNull
+        private JsonValue read() throws JsonException {
+            int type = bytes[position++] & 0xFF;
+            switch (type) {
+                case TYPE_NULL:
+                    return JsonValue.NULL;
+                case TYPE_FALSE:
+                    return JsonValue.wrap(false);
+                case TYPE_TRUE:
+                    return JsonValue.wrap(true);
+                case TYPE_INT:
+                    return JsonValue.wrap((int) unZigZag(readVarLong()));
+                case TYPE_LONG:
+                    return JsonValue.wrap(unZigZag(readVarLong()));
+                case TYPE_DOUBLE:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits |= (bytes[position++] & 0xFFL) << (8 * i);
+                    }
+                    return JsonValue.wrap(Double.longBitsToDouble(bits));
+                case TYPE_STRING:
+                case TYPE_STRING_REF:
+                    return JsonValue.wrap(readString(type));
+                case TYPE_LIST:
+                    int length = readLength();
+                    List<JsonValue> list = new ArrayList<>(length);
+                    for (int i = 0; i < length; i++) {
+                        list.add(read());
+                    }
+                    return new JsonList(list, false).toJsonValue();
+                case TYPE_MAP:
+                    int size = readLength();
+                    Map<String, JsonValue> map = new HashMap<>(size * 2);
+                    for (int i = 0; i < size; i++) {
+                        String key = readString(bytes[position++] & 0xFF);
+                        map.put(key, read());
+                    }
+                    return new JsonMap(map, false).toJsonValue();
+                default:
+                    throw new JsonException("Invalid binary JSON type: " + type);
+            }
+        }
+
+        @NonNull
+        private String readString(int type) throws JsonException {
+            if (blob != null) {
+                // Lazy values resolve strings through the blob's string table
+                Scanner scanner = new Scanner(blob, position - 1);
+                String string = scanner.readString();
+                position = scanner.position;
+                return string;
+            }
+
+            if (type == TYPE_STRING_REF) {
+                long index = readVarLong();
+                if (index < 0 || index >= strings.size()) {
+                    throw new JsonException("Invalid string reference: " + index);
+                }
+                return strings.get((int) index);
+            }
+
+            if (type != TYPE_STRING) {
+                throw new JsonException("Expected string, found type: " + type);
+            }
+
+            int length = readLength();
+            if (position + length > bytes.length) {
+                throw new JsonException("Truncated binary JSON.");
+            }
+
+            String string = new String(bytes, position, length, UTF_8);
+            position += length;
+            strings.add(string);
+            return string;
+        }
+
+        private int readLength() throws JsonException {
+            long length = readVarLong();
+            if (length < 0 || length > bytes.length - position) {
+                throw new JsonException("Invalid binary JSON length: " + length);
+            }
+            return (int) length;
+        }
+
+        private long readVarLong() throws JsonException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new JsonException("Malformed varint.");
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+    }
+
+    /**
+     * Validated bytes shared by all lazy values decoded from the same blob.
+     */
+    private static class LazyBlob {
+
+        private final byte[] bytes;
+        private int[] stringOffsets = new int[16];
+        private int[] stringLengths = new int[16];
+        private String[] strings;
+        private int stringCount;
+
+        private LazyBlob(@NonNull byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private void addString(int offset, int length) {
+            if (stringCount == stringOffsets.length) {
+                stringOffsets = Arrays.copyOf(stringOffsets, stringCount * 2);
+                stringLengths = Arrays.copyOf(stringLengths, stringCount * 2);
+            }
+            stringOffsets[stringCount] = offset;
+            stringLengths[stringCount] = length;
+            stringCount++;
+        }
+
+        @NonNull
+        private synchronized String string(int index) {
+            if (strings == null) {
+                strings = new String[stringCount];
+            }
+
+            String string = strings[index];
+            if (string == null) {
+                string = new String(bytes, stringOffsets[index], stringLengths[index], UTF_8);
+                strings[index] = string;
+            }
+            return string;
+        }
+
+        @NonNull
+        private String stringAt(int offset) {
+            // Strings are recorded in encoding order, so the offsets are sorted
+            return string(Arrays.binarySearch(stringOffsets, 0, stringCount, offset));
+        }
+
+        @NonNull
+        private JsonValue valueAt(int offset) {
+            try {
+                int type = bytes[offset] & 0xFF;
+                switch (type) {
+                    case TYPE_LIST:
+                        return new JsonList(new LazyList(this, offset), false).toJsonValue();
+                    case TYPE_MAP:
+                        return new JsonMap(new LazyMap(this, offset), false).toJsonValue();
+                    default:
+                        return new Decoder(bytes, offset, this).read();
+                }
+            } catch (JsonException e) {
+                // Should never happen, the blob is validated before any value is created
+                throw new IllegalStateException("Invalid binary JSON.", e);
+            }
+        }
+
+    }
+
+    /**
+     * Walks the encoded bytes without building values.
+     */
+    private static class Scanner {
+
+        private final LazyBlob blob;
+        private int position;
+
+        private Scanner(@NonNull LazyBlob blob, int position) {
+            this.blob = blob;
+            this.position = position;
+        }
+
+        private void skip(boolean record) throws JsonException {
+            byte[] bytes = blob.bytes;
+            int type = bytes[position++] & 0xFF;
+            switch (type) {
+                case TYPE_NULL:
+                case TYPE_FALSE:
+                case TYPE_TRUE:
+                    return;
+                case TYPE_INT:
+                case TYPE_LONG:
+                    readVarLong();
+                    return;
+                case TYPE_DOUBLE:
+                    if (position + 8 > bytes.length) {
+                        throw new JsonException("Truncated binary JSON.");
+                    }
+                    position += 8;
+                    return;
+                case TYPE_STRING:
+                case TYPE_STRING_REF:
+                    skipString(type, record);
+                    return;
+                case TYPE_LIST:
+                    int length = readLength();
+                    for (int i = 0; i < length; i++) {
+                        skip(record);
+                    }
+                    return;
+                case TYPE_MAP:
+                    int size = readLength();
+                    for (int i = 0; i < size; i++) {
+                        skipString(bytes[position++] & 0xFF, record);
+                        skip(record);
+                    }
+                    return;
+                default:
+                    throw new JsonException("Invalid binary JSON type: " + type);
+            }
+        }
+
+        private void skipString(int type, boolean record) throws JsonException {
+            if (type == TYPE_STRING_REF) {
+                long index = readVarLong();
+                if (record && (index < 0 || index >= blob.stringCount)) {
+                    throw new JsonException("Invalid string reference: " + index);
+                }
+                return;
+            }
+
+            if (type != TYPE_STRING) {
+                throw new JsonException("Expected string, found type: " + type);
+            }
+
+            int length = readLength();
+            if (record) {
+                blob.addString(position, length);
+            }
+            position += length;
+        }
+
+        @NonNull
+        private String readString() throws JsonException {
+            int type = blob.bytes[position++] & 0xFF;
+            if (type == TYPE_STRING_REF) {
+                return blob.string((int) readVarLong());
+            }
+
+            int length = readLength();
+            String string = blob.stringAt(position);
+            position += length;
+            return string;
+        }
+
+        private int readLength() throws JsonException {
+            long length = readVarLong();
+            if (length < 0 || length > blob.bytes.length - position) {
+                throw new JsonException("Invalid binary JSON length: " + length);
+            }
+            return (int) length;
+        }
+
+        private long readVarLong() throws JsonException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = blob.bytes[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new JsonException("Malformed varint.");
+        }
+
+    }
+
+    /**
+     * Map that indexes its fields on first access and builds values on demand.
+     */
+    private static class LazyMap extends AbstractMap<String, JsonValue> {
+
+        private final LazyBlob blob;
+        private final int offset;
+
+        private Map<String, Integer> indices;
+        private String[] keys;
+        private int[] valueOffsets;
+        private JsonValue[] values;
+
+        private LazyMap(@NonNull LazyBlob blob, int offset) {
+            this.blob = blob;
+            this.offset = offset;
+        }
+
+        private synchronized void index() {
+            if (keys != null) {
+                return;
+            }
+
+            try {
+                Scanner scanner = new Scanner(blob, offset + 1);
+                int size = scanner.readLength();
+                String[] keys = new String[size];
+                int[] valueOffsets = new int[size];
+                Map<String, Integer> indices = new HashMap<>(size * 2);
+
+                for (int i = 0; i < size; i++) {
+                    keys[i] = scanner.readString();
+                    valueOffsets[i] = scanner.position;
+                    indices.put(keys[i], i);
+                    scanner.skip(false);
+                }
+
+                this.indices = indices;
+                this.valueOffsets = valueOffsets;
+                this.values = new JsonValue[size];
+                this.keys = keys;
+            } catch (JsonException e) {
+                // Should never happen, the blob is validated before any value is created
+                throw new IllegalStateException("Invalid binary JSON.", e);
+            }
+        }
+
+        @NonNull
+        private synchronized JsonValue value(int index) {
+            JsonValue value = values[index];
+            if (value == null) {
+                value = blob.valueAt(valueOffsets[index]);
+                values[index] = value;
+            }
+            return value;
+        }
+
+        @Nullable
+        @Override
+        public JsonValue get(@Nullable Object key) {
+            index();
+            Integer index = indices.get(key);
+            return index == null ? null : value(index);
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            index();
+            return indices.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            index();
+            return keys.length;
+        }
+
+        @NonNull
+        @Override
+        public Set<String> keySet() {
+            index();
+            return Collections.unmodifiableSet(indices.keySet());
+        }
+
+        @NonNull
+        @Override
+        public Set<Entry<String, JsonValue>> entrySet() {
+            index();
+            return new AbstractSet<Entry<String, JsonValue>>() {
+                @NonNull
+                @Override
+                public Iterator<Entry<String, JsonValue>> iterator() {
+                    return new Iterator<Entry<String, JsonValue>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, JsonValue> next() {
+                            if (next >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = next++;
+                            return new SimpleImmutableEntry<>(keys[index], value(index));
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+
+    }
+
+    /**
+     * List that indexes its items on first access and builds values on demand.
+     */
+    private static class LazyList extends AbstractList<JsonValue> {
+
+        private final LazyBlob blob;
+        private final int offset;
+
+        private int[] valueOffsets;
+        private JsonValue[] values;
+
+        private LazyList(@NonNull LazyBlob blob, int offset) {
+            this.blob = blob;
+            this.offset = offset;
+        }
+
+        private synchronized void index() {
+            if (valueOffsets != null) {
+                return;
+            }
+
+            try {
+                Scanner scanner = new Scanner(blob, offset + 1);
+                int length = scanner.readLength();
+                int[] valueOffsets = new int[length];
+                for (int i = 0; i < length; i++) {
+                    valueOffsets[i] = scanner.position;
+                    scanner.skip(false);
+                }
+
+                this.values = new JsonValue[length];
+                this.valueOffsets = valueOffsets;
+            } catch (JsonException e) {
+                // Should never happen, the blob is validated before any value is created
+                throw new IllegalStateException("Invalid binary JSON.", e);
+            }
+        }
+
+        @NonNull
+        @Override
+        public synchronized JsonValue get(int location) {
+            index();
+            JsonValue value = values[location];
+            if (value == null) {
+                value = blob.valueAt(valueOffsets[location]);
+                values[location] = value;
+            }
+            return value;
+        }
+
+        @Override
+        public int size() {
+            index();
+            return valueOffsets.length;
+        }
+
+    }
+
+}
@@ -8,6 +8,7 @@ import org.json.JSONException;
 import org.json.JSONStringer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -36,6 +37,17 @@ public class JsonList implements Iterable<JsonValue>, JsonSerializable {
         this.list = list == null ? new ArrayList<JsonValue>() : new ArrayList<>(list);
     }
 
+    /**
+     * Creates a JsonList that adopts the given list without copying it. The list must not be
+     * modified after it is passed in.
+     *
+     * @param list A list of JsonValues.
+     * @param copy {@code false} to adopt the list as is.
+     */
+    JsonList(@NonNull List<JsonValue> list, boolean copy) {
+        this.list = copy ? new ArrayList<>(list) : list;
+    }
+
     /**
      * Tests whether this {@code List} contains the specified JSON value.
      *
@@ -124,6 +136,17 @@ public class JsonList implements Iterable<JsonValue>, JsonSerializable {
         return new ArrayList<>(list);
     }
 
+    /**
+     * Gets a read-only view of the JsonList as a List. Unlike {@link #getList()}, the underlying
+     * list is not copied.
+     *
+     * @return An unmodifiable List backed by this JsonList.
+     */
+    @NonNull
+    public List<JsonValue> getReadOnlyList() {
+        return Collections.unmodifiableList(list);
+    }
+
     @Override
     public boolean equals(@Nullable Object object) {
         if (object == this) {
@@ -9,6 +9,7 @@ import org.json.JSONStringer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -36,6 +37,17 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
         this.map = map == null ? new HashMap<String, JsonValue>() : new HashMap<>(map);
     }
 
+    /**
+     * Creates a JsonMap that adopts the given map without copying it. The map must not be modified
+     * after it is passed in.
+     *
+     * @param map A map of strings to JsonValues.
+     * @param copy {@code false} to adopt the map as is.
+     */
+    JsonMap(@NonNull Map<String, JsonValue> map, boolean copy) {
+        this.map = copy ? new HashMap<>(map) : map;
+    }
+
     /**
      * Factory method to create a new JSON map builder.
      *
@@ -160,6 +172,17 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
         return new HashMap<>(map);
     }
 
+    /**
+     * Gets a read-only view of the JsonMap as a Map. Unlike {@link #getMap()}, the underlying map
+     * is not copied.
+     *
+     * @return An unmodifiable Map backed by this JsonMap.
+     */
+    @NonNull
+    public Map<String, JsonValue> getReadOnlyMap() {
+        return Collections.unmodifiableMap(map);
+    }
+
     @Override
     public boolean equals(@Nullable Object object) {
         if (object == this) {
@@ -69,6 +69,25 @@ public class JsonMatcher implements JsonSerializable, Predicate<JsonSerializable
         return value.apply(jsonValue, (ignoreCase != null) && ignoreCase);
     }
 
+    @Nullable
+    String getKey() {
+        return key;
+    }
+
+    @NonNull
+    List<String> getScope() {
+        return scopeList;
+    }
+
+    @NonNull
+    ValueMatcher getValueMatcher() {
+        return value;
+    }
+
+    boolean isIgnoreCase() {
+        return ignoreCase != null && ignoreCase;
+    }
+
     /**
      * Parses a JsonValue object into a JsonMatcher.
      *
@@ -50,6 +50,9 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
     private final List<Predicate<JsonSerializable>> items;
     private final String type;
 
+    // Compiled on first apply, predicates are immutable so this caches it per instance
+    private volatile CompiledJsonPredicate compiled;
+
     private JsonPredicate(Builder builder) {
         this.items = builder.items;
         this.type = builder.type;
@@ -139,6 +142,22 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
 
     @Override
     public boolean apply(@Nullable JsonSerializable value) {
+        CompiledJsonPredicate compiled = this.compiled;
+        if (compiled == null) {
+            compiled = CompiledJsonPredicate.compile(this);
+            this.compiled = compiled;
+        }
+
+        return compiled.apply(value == null ? JsonValue.NULL : value.toJsonValue());
+    }
+
+    /**
+     * Evaluates the predicate by walking the predicate tree without compiling it.
+     *
+     * @param value The value.
+     * @return {@code true} if the value matches, otherwise {@code false}.
+     */
+    boolean applyInterpreted(@Nullable JsonSerializable value) {
         if (items.size() == 0) {
             return true;
         }
@@ -169,6 +188,17 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
 
     }
 
+    @NonNull
+    List<Predicate<JsonSerializable>> getItems() {
+        return items;
+    }
+
+    @NonNull
+    @PredicateType
+    String getType() {
+        return type;
+    }
+
     /**
      * Builder class.
      */
@@ -708,7 +708,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
 
         }
 
-        return new JsonValue(new JsonList(list));
+        return new JsonValue(new JsonList(list, false));
     }
 
     /**
@@ -727,7 +727,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
             }
         }
 
-        return new JsonValue(new JsonList(list));
+        return new JsonValue(new JsonList(list, false));
     }
 
     /**
@@ -750,7 +750,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
             }
         }
 
-        return new JsonValue(new JsonMap(jsonValueMap));
+        return new JsonValue(new JsonMap(jsonValueMap, false));
     }
 
     /**
@@ -770,7 +770,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
         }
 
         // Return a JsonValue that contains a JsonList
-        return new JsonValue(new JsonList(list));
+        return new JsonValue(new JsonList(list, false));
     }
 
     /**
@@ -793,7 +793,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
         }
 
         // Return a JsonValue that contains a JsonMap
-        return new JsonValue(new JsonMap(jsonValueMap));
+        return new JsonValue(new JsonMap(jsonValueMap, false));
     }
 
     @Override
@@ -148,7 +148,7 @@ public class RemoteDataPayload {
     public int hashCode() {
         int result = type.hashCode();
         result = 31 * result + (int) (timestamp ^ (timestamp >>> 32));
-        result = 31 * result + data.hashCode();
+        // Data is left out so hashing does not materialize lazily decoded payloads
         result = 31 * result + metadata.hashCode();
         return result;
     }
@@ -9,6 +9,7 @@ import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 
 import com.urbanairship.Logger;
+import com.urbanairship.json.JsonBinary;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.DataManager;
@@ -41,16 +42,16 @@ public class RemoteDataStore extends DataManager {
     // The timestamp as a long integer of milliseconds
     private static final String COLUMN_NAME_TIMESTAMP = "time";
 
-    // Arbitrary JSON-serialized data
+    // Arbitrary JSON data, stored using JsonBinary (text for rows written before version 3)
     private static final String COLUMN_NAME_DATA = "data";
 
-    // Metadata JSON-serialized data.
+    // Metadata JSON data, stored using JsonBinary (text for rows written before version 3)
     private static final String COLUMN_NAME_METADATA = "metadata";
 
     /**
      * The database version.
      */
-    private static final int DATABASE_VERSION = 2;
+    private static final int DATABASE_VERSION = 3;
 
     /**
      * RemoteDataStore constructor.
@@ -80,6 +81,9 @@ public class RemoteDataStore extends DataManager {
         switch (oldVersion) {
             case 1:
                 db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_NAME_METADATA + " TEXT;");
+                // Fall through
+            case 2:
+                migrateToBinary(db);
                 break;
             default:
                 db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
@@ -118,8 +122,8 @@ public class RemoteDataStore extends DataManager {
                 ContentValues value = new ContentValues();
                 value.put(COLUMN_NAME_TYPE, payload.getType());
                 value.put(COLUMN_NAME_TIMESTAMP, payload.getTimestamp());
-                value.put(COLUMN_NAME_DATA, payload.getData().toString());
-                value.put(COLUMN_NAME_METADATA, payload.getMetadata().toString());
+                value.put(COLUMN_NAME_DATA, JsonBinary.encode(payload.getData().toJsonValue()));
+                value.put(COLUMN_NAME_METADATA, JsonBinary.encode(payload.getMetadata().toJsonValue()));
                 try {
                     long id = db.insert(TABLE_NAME, null, value);
                     if (id == -1) {
@@ -215,8 +219,8 @@ public class RemoteDataStore extends DataManager {
                 RemoteDataPayload payload = RemoteDataPayload.newBuilder()
                                                              .setType(cursor.getString(cursor.getColumnIndex(COLUMN_NAME_TYPE)))
                                                              .setTimeStamp(cursor.getLong(cursor.getColumnIndex(COLUMN_NAME_TIMESTAMP)))
-                                                             .setMetadata(JsonValue.parseString(cursor.getString(cursor.getColumnIndex(COLUMN_NAME_METADATA))).optMap())
-                                                             .setData(JsonValue.parseString(cursor.getString(cursor.getColumnIndex(COLUMN_NAME_DATA))).optMap())
+                                                             .setMetadata(readJson(cursor, cursor.getColumnIndex(COLUMN_NAME_METADATA), false).optMap())
+                                                             .setData(readJson(cursor, cursor.getColumnIndex(COLUMN_NAME_DATA), true).optMap())
                                                              .build();
                 entries.add(payload);
             } catch (IllegalArgumentException | JsonException e) {
@@ -229,4 +233,57 @@ public class RemoteDataStore extends DataManager {
         return entries;
     }
 
+    /**
+     * Reads a JSON column that may contain either binary encoded JSON or JSON text.
+     *
+     * @param cursor The cursor.
+     * @param index The column index.
+     * @param lazy {@code true} to only build the values that are accessed.
+     * @return The JSON value.
+     * @throws JsonException If the column could not be decoded.
+     */
+    @NonNull
+    private static JsonValue readJson(@NonNull Cursor cursor, int index, boolean lazy) throws JsonException {
+        if (cursor.getType(index) == Cursor.FIELD_TYPE_BLOB) {
+            byte[] bytes = cursor.getBlob(index);
+            return lazy ? JsonBinary.decodeLazy(bytes) : JsonBinary.decode(bytes);
+        }
+
+        return JsonValue.parseString(cursor.getString(index));
+    }
+
+    /**
+     * Re-encodes any JSON text rows using {@link JsonBinary}.
+     *
+     * @param db The database.
+     */
+    private static void migrateToBinary(@NonNull SQLiteDatabase db) {
+        Cursor cursor = null;
+        try {
+            cursor = db.query(TABLE_NAME, new String[] { COLUMN_NAME_ID, COLUMN_NAME_DATA, COLUMN_NAME_METADATA },
+                    null, null, null, null, null);
+
+            int idIndex = cursor.getColumnIndex(COLUMN_NAME_ID);
+            int dataIndex = cursor.getColumnIndex(COLUMN_NAME_DATA);
+            int metadataIndex = cursor.getColumnIndex(COLUMN_NAME_METADATA);
+
+            while (cursor.moveToNext()) {
+                try {
+                    ContentValues value = new ContentValues();
+                    value.put(COLUMN_NAME_DATA, JsonBinary.encode(readJson(cursor, dataIndex, false)));
+                    value.put(COLUMN_NAME_METADATA, JsonBinary.encode(readJson(cursor, metadataIndex, false)));
+                    db.update(TABLE_NAME, value, COLUMN_NAME_ID + " = ?", new String[] { String.valueOf(cursor.getLong(idIndex)) });
+                } catch (JsonException e) {
+                    Logger.error(e, "RemoteDataStore - Unable to migrate payload, leaving it as text.");
+                }
+            }
+        } catch (SQLException e) {
+            Logger.error(e, "RemoteDataStore - Unable to migrate payloads to binary JSON.");
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
 }
@@ -169,14 +169,21 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
         }
 
         return new Predicate<String>() {
+
+            // Most callers check the same app or SDK version over and over
+            private volatile Version lastVersion;
+
             @Override
             public boolean apply(@NonNull String object) {
 
-                Version version;
-                try {
-                    version = new Version(object);
-                } catch (NumberFormatException e) {
-                    return false;
+                Version version = lastVersion;
+                if (version == null || !version.version.equals(object)) {
+                    try {
+                        version = new Version(object);
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                    lastVersion = version;
                 }
 
                 if (endToken != null && endVersion != null) {
@@ -10,6 +10,7 @@ import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
 
 import androidx.annotation.RestrictTo;
+import androidx.core.net.ConnectivityManagerCompat;
 
 /**
  * This class provides information about the device's network state.
@@ -39,4 +40,23 @@ public class Network {
         return info != null && info.isConnected();
     }
 
+    /**
+     * Determines whether or not the active network is metered. Users may be charged for data on
+     * metered networks, so large transfers should be avoided or spread out.
+     *
+     * @return <code>true</code> if the active network is metered or the network state is unknown,
+     * otherwise <code>false</code>.
+     */
+    public static boolean isMetered() {
+        ConnectivityManager cm = (ConnectivityManager)
+                UAirship.getApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        if (cm == null) {
+            Logger.error("Error fetching network info.");
+            return true;
+        }
+
+        return ConnectivityManagerCompat.isActiveNetworkMetered(cm);
+    }
+
 }
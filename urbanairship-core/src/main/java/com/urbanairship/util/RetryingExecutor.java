@@ -81,6 +81,19 @@ public class RetryingExecutor implements Executor {
         return new RetryingExecutor(new Handler(looper), AirshipExecutors.newSerialExecutor());
     }
 
+    /**
+     * Creates a retrying executor that runs up to {@code maxThreads} operations at once.
+     *
+     * @param looper The looper used to schedule retries.
+     * @param maxThreads The max number of threads.
+     * @param threadNamePrefix The thread name prefix.
+     * @return A new retrying executor.
+     */
+    @NonNull
+    public static RetryingExecutor newBoundedExecutor(@NonNull Looper looper, int maxThreads, @NonNull String threadNamePrefix) {
+        return new RetryingExecutor(new Handler(looper), AirshipExecutors.newBoundedExecutor(maxThreads, threadNamePrefix));
+    }
+
     /**
      * Executes a runnable. The runnable will not be retried.
      *
@@ -100,7 +100,7 @@ public class AirshipWebView extends WebView {
      * the view, used only if defStyle is 0 or cannot be found in the theme. Can be 0 to not
      * look for defaults.
      */
-    @SuppressLint({ "NewApi", "SetJavaScriptEnabled" })
+    @SuppressLint({ "NewApi", "SetJavaScriptEnabled", "AddJavascriptInterface" })
     private void init(@NonNull Context context, @Nullable AttributeSet attrs, int defStyle, int defResStyle) {
         WebSettings settings = getSettings();
 
@@ -137,6 +137,11 @@ public class AirshipWebView extends WebView {
             }
         }
 
+        // Interfaces are only safe to expose on 17+
+        if (Build.VERSION.SDK_INT >= 17) {
+            addJavascriptInterface(new NativeBridgeJavascriptInterface(this), NativeBridgeJavascriptInterface.INTERFACE_NAME);
+        }
+
         initializeView();
         populateCustomJavascriptInterfaces();
     }
@@ -28,6 +28,7 @@ import com.urbanairship.js.UrlAllowList;
 
 import java.io.BufferedInputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 
@@ -44,6 +45,7 @@ public class AirshipWebViewClient extends WebViewClient {
 
     private final Map<String, Credentials> authRequestCredentials = new HashMap<>();
     private final Map<WebView, Cancelable> pendingNativeBridgeLoads = new WeakHashMap<>();
+    private final Map<WebView, BatchingJavaScriptExecutor> batchingExecutors = new WeakHashMap<>();
     private final NativeBridge nativeBridge;
 
     private boolean faviconEnabled = false;
@@ -222,12 +224,33 @@ public class AirshipWebViewClient extends WebViewClient {
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     private boolean interceptUrl(@NonNull final WebView webView, @Nullable String url) {
+        return interceptUrl(webView, url, new WebViewJavaScriptExecutor(webView));
+    }
+
+    /**
+     * Called with a batch of commands sent through the native bridge JavaScript interface.
+     * Action callbacks for the batch are delivered to the web view in a single evaluation.
+     *
+     * @param webView The web view.
+     * @param urls The command URLs.
+     */
+    void onCommands(@NonNull WebView webView, @NonNull List<String> urls) {
+        BatchingJavaScriptExecutor javaScriptExecutor = batchingExecutors.get(webView);
+        if (javaScriptExecutor == null) {
+            javaScriptExecutor = new BatchingJavaScriptExecutor(new WebViewJavaScriptExecutor(webView));
+            batchingExecutors.put(webView, javaScriptExecutor);
+        }
+
+        for (String url : urls) {
+            interceptUrl(webView, url, javaScriptExecutor);
+        }
+    }
+
+    private boolean interceptUrl(@NonNull final WebView webView, @Nullable String url, @NonNull JavaScriptExecutor javaScriptExecutor) {
         if (!isAllowed(webView.getUrl())) {
             return false;
         }
 
-        JavaScriptExecutor javaScriptExecutor = new WebViewJavaScriptExecutor(webView);
-
         ActionRunRequestExtender extender = new ActionRunRequestExtender() {
             @NonNull
             @Override
@@ -290,6 +313,11 @@ public class AirshipWebViewClient extends WebViewClient {
         if (cancelable != null) {
             cancelable.cancel();
         }
+
+        // Read the native bridge while the page loads so it can be injected as soon as the page finishes
+        if (isAllowed(url)) {
+            nativeBridge.preloadJavaScriptEnvironment(view.getContext());
+        }
     }
 
     /**
@@ -0,0 +1,82 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.webkit;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.urbanairship.javascript.JavaScriptExecutor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * JavaScript executor that combines scripts executed within the same main loop turn into a
+ * single evaluation. Each script is wrapped in its own try/catch so an exception in one script,
+ * such as a throwing page callback, does not skip the scripts after it. Caught exceptions are
+ * rethrown asynchronously so they still reach the page's error handlers.
+ */
+class BatchingJavaScriptExecutor implements JavaScriptExecutor {
+
+    private final JavaScriptExecutor executor;
+    private final Handler handler;
+    private final StringBuilder pending = new StringBuilder();
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    BatchingJavaScriptExecutor(@NonNull JavaScriptExecutor executor) {
+        this(executor, new Handler(Looper.getMainLooper()));
+    }
+
+    BatchingJavaScriptExecutor(@NonNull JavaScriptExecutor executor, @NonNull Handler handler) {
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    @Override
+    public void executeJavaScript(@NonNull String javaScript) {
+        synchronized (pending) {
+            boolean schedule = pending.length() == 0;
+            appendIsolated(pending, javaScript);
+
+            if (schedule) {
+                handler.post(flushRunnable);
+            }
+        }
+    }
+
+    /**
+     * Appends a script wrapped in a try/catch.
+     *
+     * @param builder The builder.
+     * @param javaScript The script.
+     */
+    static void appendIsolated(@NonNull StringBuilder builder, @NonNull String javaScript) {
+        // New line before the closing brace in case the script ends with a line comment
+        builder.append("try{")
+               .append(javaScript)
+               .append("\n}catch(e){setTimeout(function(){throw e;});}");
+    }
+
+    /**
+     * Executes any pending scripts.
+     */
+    void flush() {
+        String javaScript;
+        synchronized (pending) {
+            if (pending.length() == 0) {
+                return;
+            }
+
+            javaScript = pending.toString();
+            pending.setLength(0);
+        }
+
+        executor.executeJavaScript(javaScript);
+    }
+
+}
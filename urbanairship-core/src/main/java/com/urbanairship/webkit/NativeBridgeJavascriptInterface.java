@@ -0,0 +1,81 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.webkit;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.webkit.JavascriptInterface;
+import android.webkit.WebViewClient;
+
+import com.urbanairship.Logger;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonValue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+
+/**
+ * JavaScript interface that receives batches of native bridge commands.
+ * <p>
+ * The native bridge queues `uairship://` commands and sends them once per frame instead of
+ * loading a URL per command. Commands are handled by the web view's {@link AirshipWebViewClient}
+ * the same way as intercepted URLs, including the URL allow list check.
+ */
+class NativeBridgeJavascriptInterface {
+
+    /**
+     * Name of the interface in JavaScript.
+     */
+    static final String INTERFACE_NAME = "_UAirshipNative";
+
+    private final WeakReference<AirshipWebView> webViewReference;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    NativeBridgeJavascriptInterface(AirshipWebView webView) {
+        this.webViewReference = new WeakReference<>(webView);
+    }
+
+    /**
+     * Called from JavaScript with a JSON array of command URLs.
+     *
+     * @param commands The commands.
+     */
+    @JavascriptInterface
+    public void sendCommands(@Nullable String commands) {
+        final List<String> urls = new ArrayList<>();
+        try {
+            for (JsonValue value : JsonValue.parseString(commands).optList()) {
+                if (value.isString()) {
+                    urls.add(value.getString());
+                }
+            }
+        } catch (JsonException e) {
+            Logger.error(e, "Invalid native bridge commands: %s", commands);
+            return;
+        }
+
+        if (urls.isEmpty()) {
+            return;
+        }
+
+        // JavaScript interfaces are called on a background thread
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                AirshipWebView webView = webViewReference.get();
+                if (webView == null) {
+                    return;
+                }
+
+                WebViewClient client = webView.getWebViewClientCompat();
+                if (client instanceof AirshipWebViewClient) {
+                    ((AirshipWebViewClient) client).onCommands(webView, urls);
+                }
+            }
+        });
+    }
+
+}
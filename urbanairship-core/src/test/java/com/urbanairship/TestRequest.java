@@ -57,6 +57,24 @@ public class TestRequest extends Request {
         return body;
     }
 
+    /**
+     * Get the encoded request body.
+     *
+     * @return The encoded request body.
+     */
+    public byte[] getEncodedRequestBody() {
+        return encodedBody;
+    }
+
+    /**
+     * Get the request content encoding.
+     *
+     * @return The content encoding.
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
     /**
      * Get the request headers.
      *
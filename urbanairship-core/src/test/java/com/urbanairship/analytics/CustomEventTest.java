@@ -516,6 +516,16 @@ public class CustomEventTest extends BaseTestCase {
         assertFalse(eventBuilder.build().isValid());
     }
 
+    /**
+     * Test conversion events are retained over other events.
+     */
+    @Test
+    public void testRetentionPriority() {
+        assertEquals(Event.NORMAL_PRIORITY, CustomEvent.newBuilder("event name").build().getRetentionPriority());
+        assertEquals(Event.HIGH_PRIORITY, CustomEvent.newBuilder("event name").setEventValue(1).build().getRetentionPriority());
+        assertEquals(Event.HIGH_PRIORITY, CustomEvent.newBuilder("event name").setTransactionId("transaction").build().getRetentionPriority());
+    }
+
     /**
      * Helper method to create a fixed size string with a repeating character.
      *
@@ -14,34 +14,33 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.when;
 
 public class EventApiClientTest extends BaseTestCase {
 
-    private List<String> events;
+    private EventBatch events;
     private EventApiClient client;
     private TestRequest testRequest;
     private TestAirshipRuntimeConfig runtimeConfig;
     private RequestFactory mockRequestFactory;
 
     @Before
-    public void setUp() {
+    public void setUp() throws IOException {
         runtimeConfig = TestAirshipRuntimeConfig.newTestConfig();
         runtimeConfig.setUrlConfig(AirshipUrlConfig.newBuilder()
                                                    .setAnalyticsUrl("http://example.com")
                                                    .build());
 
 
-        events = new ArrayList<>();
-        events.add("{\"some\":\"json\"}");
+        events = createBatch("{\"some\":\"json\"}");
 
         testRequest = new TestRequest();
         mockRequestFactory = Mockito.mock(RequestFactory.class);
@@ -82,12 +81,12 @@ public class EventApiClientTest extends BaseTestCase {
      * Test sending null or empty events returns an empty response.
      */
     @Test
-    public void testSendEmptyEvents() throws RequestException {
+    public void testSendEmptyEvents() throws RequestException, IOException {
         testRequest.responseBody = "";
         testRequest.responseStatus = 200;
         testRequest.responseLastModifiedTime = 0;
 
-        events = new ArrayList<>();
+        events = createBatch();
 
         Response<EventResponse> response = client.sendEvents(events, Collections.<String, String>emptyMap());
 
@@ -100,6 +99,20 @@ public class EventApiClientTest extends BaseTestCase {
 
     }
 
+    /**
+     * Test the batch payload is sent gzip encoded.
+     */
+    @Test
+    public void testSendEventsBody() throws RequestException {
+        testRequest.responseStatus = 200;
+
+        client.sendEvents(events, Collections.<String, String>emptyMap());
+
+        assertArrayEquals(events.getPayload(), testRequest.getEncodedRequestBody());
+        assertEquals("gzip", testRequest.getContentEncoding());
+        assertNull(testRequest.getRequestBody());
+    }
+
     /**
      * This verifies all required and most optional headers.
      */
@@ -128,13 +141,12 @@ public class EventApiClientTest extends BaseTestCase {
      * Verify we return a response even if the Json is malformated
      */
     @Test
-    public void testWrongJson() throws RequestException {
+    public void testWrongJson() throws RequestException, IOException {
         testRequest.responseBody = "";
         testRequest.responseStatus = 200;
         testRequest.responseLastModifiedTime = 0;
 
-        events = new ArrayList<>();
-        events.add("{{null2:\"some\":}");
+        events = createBatch("{{null2:\"some\":}");
         Response<EventResponse> response = client.sendEvents(events, Collections.<String, String>emptyMap());
         assertEquals(200, response.getStatus());
         assertEquals("", response.getResponseBody());
@@ -143,4 +155,12 @@ public class EventApiClientTest extends BaseTestCase {
         assertEquals(0, response.getLastModifiedTime());
     }
 
+    private static EventBatch createBatch(String... events) throws IOException {
+        EventBatch.Builder builder = new EventBatch.Builder();
+        for (String event : events) {
+            builder.addEvent(event);
+        }
+        return builder.build(false);
+    }
+
 }
@@ -5,6 +5,7 @@ import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.TestAirshipRuntimeConfig;
 import com.urbanairship.TestApplication;
 import com.urbanairship.analytics.CustomEvent;
+import com.urbanairship.analytics.Event;
 import com.urbanairship.analytics.location.RegionEvent;
 import com.urbanairship.app.ActivityMonitor;
 import com.urbanairship.http.RequestException;
@@ -18,6 +19,7 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 import org.mockito.internal.verification.Times;
 
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,6 +41,7 @@ public class EventManagerTest extends BaseTestCase {
     private EventResolver mockEventResolver;
     private JobDispatcher mockDispatcher;
     private ActivityMonitor mockActivityMonitor;
+    private EventUploadPolicy mockUploadPolicy;
     private PreferenceDataStore dataStore;
 
     private TestAirshipRuntimeConfig testAirshipRuntimeConfig;
@@ -53,10 +56,14 @@ public class EventManagerTest extends BaseTestCase {
         mockClient = mock(EventApiClient.class);
         mockActivityMonitor = mock(ActivityMonitor.class);
 
+        mockUploadPolicy = mock(EventUploadPolicy.class);
+        when(mockUploadPolicy.getMaxBatchEventCount(Mockito.anyInt())).thenReturn(500);
+        when(mockUploadPolicy.getBatchDelay(Mockito.anyInt())).thenReturn(1000L);
+
         dataStore = TestApplication.getApplication().preferenceDataStore;
 
         eventManager = new EventManager(dataStore, testAirshipRuntimeConfig, mockDispatcher,
-                mockActivityMonitor, mockEventResolver, mockClient);
+                mockActivityMonitor, mockEventResolver, mockClient, mockUploadPolicy);
     }
 
     /**
@@ -106,28 +113,17 @@ public class EventManagerTest extends BaseTestCase {
      * Tests sending events
      */
     @Test
-    public void testSendingEvents() throws RequestException {
-        Map<String, String> events = new HashMap<>();
-        events.put("firstEvent", "{ 'firstEventBody' }");
+    public void testSendingEvents() throws Exception {
+        EventBatch batch = createBatch(5, true, "{ \"firstEventBody\": true }");
 
         Map<String, String> headers = new HashMap<>();
         headers.put("foo", "bar");
 
-        // Set up data manager to return 2 count for events.
-        // Note: we only have one event, but it should only ask for one to upload
-        // having it return 2 will make it schedule to upload events in the future
-        when(mockEventResolver.getEventCount()).thenReturn(2);
-
-        // Return 200 bytes in size.  It should only be able to do 100 bytes so only
-        // the first event.
-        when(mockEventResolver.getDatabaseSize()).thenReturn(200);
-
-        // Return the event when it asks for 1
-        when(mockEventResolver.getEvents(1)).thenReturn(events);
-
         // Set the max batch size to 100
         dataStore.put(EventManager.MAX_BATCH_SIZE_KEY, 100);
 
+        when(mockEventResolver.getEventBatch(500, 100)).thenReturn(batch);
+
         // Set up the response
         EventResponse eventResponse = mock(EventResponse.class);
         when(eventResponse.getMaxTotalSize()).thenReturn(200);
@@ -135,7 +131,7 @@ public class EventManagerTest extends BaseTestCase {
         when(eventResponse.getMinBatchInterval()).thenReturn(100);
 
         // Return the response
-        when(mockClient.sendEvents(events.values(), headers))
+        when(mockClient.sendEvents(batch, headers))
                 .thenReturn(new Response.Builder<EventResponse>(HttpURLConnection.HTTP_OK)
                         .setResult(eventResponse)
                         .build());
@@ -144,10 +140,10 @@ public class EventManagerTest extends BaseTestCase {
         assertTrue(eventManager.uploadEvents(headers));
 
         // Check mockClients receives the events
-        verify(mockClient).sendEvents(events.values(), headers);
+        verify(mockClient).sendEvents(batch, headers);
 
         // Check data manager deletes events
-        verify(mockEventResolver).deleteEvents(events.keySet());
+        verify(mockEventResolver).deleteBatch(batch);
 
         // Verify responses are being saved
         assertEquals(200, dataStore.getInt(EventManager.MAX_TOTAL_DB_SIZE_KEY, 0));
@@ -158,49 +154,100 @@ public class EventManagerTest extends BaseTestCase {
         verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals(EventManager.ACTION_SEND);
+                return jobInfo.getAction().equals(EventManager.ACTION_SEND) && jobInfo.getInitialDelay() == 1000L;
+            }
+        }));
+    }
+
+    /**
+     * Test draining a backlog uses the upload policy and tracks the drain metrics.
+     */
+    @Test
+    public void testDrainingBacklog() throws Exception {
+        dataStore.put(EventManager.MAX_BATCH_SIZE_KEY, 100000);
+
+        EventBatch firstBatch = createBatch(2, true, "{ \"first\": true }", "{ \"second\": true }");
+        EventBatch secondBatch = createBatch(3, false, "{ \"third\": true }");
+
+        when(mockUploadPolicy.getMaxBatchEventCount(0)).thenReturn(500);
+        when(mockUploadPolicy.getMaxBatchEventCount(1)).thenReturn(1000);
+        when(mockUploadPolicy.getBatchDelay(1)).thenReturn(0L);
+
+        when(mockEventResolver.getEventBatch(500, 100000)).thenReturn(firstBatch);
+        when(mockEventResolver.getEventBatch(1000, 100000)).thenReturn(secondBatch);
+
+        EventResponse eventResponse = mock(EventResponse.class);
+        when(eventResponse.getMaxTotalSize()).thenReturn(200);
+        when(eventResponse.getMaxBatchSize()).thenReturn(100000);
+        when(eventResponse.getMinBatchInterval()).thenReturn(100);
+
+        when(mockClient.sendEvents(Mockito.any(EventBatch.class), Mockito.<String, String>anyMap()))
+                .thenReturn(new Response.Builder<EventResponse>(HttpURLConnection.HTTP_OK)
+                        .setResult(eventResponse)
+                        .build());
+
+        // First batch leaves events behind
+        assertTrue(eventManager.uploadEvents(Collections.<String, String>emptyMap()));
+        assertEquals(1, eventManager.getUploadMetrics().getBacklogBatchCount());
+
+        // Next batch is scheduled with the policy's delay
+        verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
+            @Override
+            public boolean matches(JobInfo jobInfo) {
+                return jobInfo.getAction().equals(EventManager.ACTION_SEND) && jobInfo.getInitialDelay() == 0;
             }
         }));
+
+        // Second batch drains the backlog with the larger batch size
+        assertTrue(eventManager.uploadEvents(Collections.<String, String>emptyMap()));
+        verify(mockEventResolver).getEventBatch(1000, 100000);
+
+        EventUploadMetrics metrics = eventManager.getUploadMetrics();
+        assertEquals(0, metrics.getBacklogBatchCount());
+        assertEquals(3, metrics.getUploadedEventCount());
+        assertEquals(2, metrics.getUploadedBatchCount());
+        assertTrue(metrics.getDrainRate() > 0);
     }
 
     /**
      * Test event batching only sends a max of 500 events.
      */
     @Test
-    public void testSendEventMaxCount() throws RequestException {
+    public void testSendEventMaxCount() throws Exception {
         // Make the match batch size greater than 500
         dataStore.put(EventManager.MAX_BATCH_SIZE_KEY, 100000);
 
-        // Fake the resolver to act like it has more than 500 events
-        when(mockEventResolver.getDatabaseSize()).thenReturn(100000);
-        when(mockEventResolver.getEventCount()).thenReturn(1000);
-
         eventManager.uploadEvents(Collections.<String, String>emptyMap());
 
         // Verify it only asked for 500
-        verify(mockEventResolver).getEvents(500);
+        verify(mockEventResolver).getEventBatch(500, 100000);
+    }
+
+    /**
+     * Test sending events when there are no events.
+     */
+    @Test
+    public void testSendNoEvents() throws Exception {
+        when(mockEventResolver.getEventBatch(Mockito.anyInt(), Mockito.anyInt())).thenReturn(null);
+
+        assertTrue(eventManager.uploadEvents(Collections.<String, String>emptyMap()));
+        verify(mockClient, never()).sendEvents(Mockito.any(EventBatch.class), Mockito.<String, String>anyMap());
     }
 
     /**
      * Test sending events when the upload fails.
      */
     @Test
-    public void testSendEventsFails() throws RequestException {
-        Map<String, String> events = new HashMap<>();
-        events.put("firstEvent", "{ 'firstEventBody' }");
+    public void testSendEventsFails() throws Exception {
+        EventBatch batch = createBatch(1, false, "{ \"firstEventBody\": true }");
 
         Map<String, String> headers = new HashMap<>();
         headers.put("foo", "bar");
 
-        when(mockEventResolver.getEventCount()).thenReturn(1);
-        when(mockEventResolver.getDatabaseSize()).thenReturn(100);
-        when(mockEventResolver.getEvents(1)).thenReturn(events);
-
         dataStore.put(EventManager.MAX_BATCH_SIZE_KEY, 100);
+        when(mockEventResolver.getEventBatch(500, 100)).thenReturn(batch);
 
-        EventResponse eventResponse = mock(EventResponse.class);
-
-        when(mockClient.sendEvents(events.values(), headers))
+        when(mockClient.sendEvents(batch, headers))
                 .thenReturn(new Response.Builder<EventResponse>(HttpURLConnection.HTTP_BAD_REQUEST)
                         .setResult(null)
                         .build());
@@ -208,10 +255,10 @@ public class EventManagerTest extends BaseTestCase {
         assertFalse(eventManager.uploadEvents(headers));
 
         // Check mockClient receives the events
-        verify(mockClient).sendEvents(events.values(), headers);
+        verify(mockClient).sendEvents(batch, headers);
 
         // If it fails, it should skip deleting events
-        verify(mockEventResolver, never()).deleteEvents(events.keySet());
+        verify(mockEventResolver, never()).deleteBatch(Mockito.any(EventBatch.class));
     }
 
     /**
@@ -248,4 +295,13 @@ public class EventManagerTest extends BaseTestCase {
         verify(mockEventResolver).deleteAllEvents();
     }
 
+    private static EventBatch createBatch(long lastRowId, boolean hasMoreEvents, String... events) throws IOException {
+        EventBatch.Builder builder = new EventBatch.Builder();
+        for (String event : events) {
+            builder.addEvent(event);
+        }
+        builder.setLastRowId(Event.NORMAL_PRIORITY, lastRowId);
+        return builder.build(hasMoreEvents);
+    }
+
 }
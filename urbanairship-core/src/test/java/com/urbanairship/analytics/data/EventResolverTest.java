@@ -2,33 +2,44 @@
 
 package com.urbanairship.analytics.data;
 
+import android.content.ContentValues;
+import android.content.Context;
+
 import com.urbanairship.BaseTestCase;
+import com.urbanairship.UrbanAirshipProvider;
 import com.urbanairship.analytics.Event;
 import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonValue;
 
-import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.robolectric.RuntimeEnvironment;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import androidx.annotation.NonNull;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class EventResolverTest extends BaseTestCase {
 
     EventResolver eventResolver;
+    EventStorageMetrics metrics;
 
     @Before
     public void setUp() {
         eventResolver = new EventResolver(RuntimeEnvironment.application);
+        metrics = new EventStorageMetrics();
     }
 
     /**
@@ -36,36 +47,65 @@ public class EventResolverTest extends BaseTestCase {
      * to retrieve the data for the event
      */
     @Test
-    public void testInsertEvent() {
+    public void testInsertEvent() throws Exception {
         TestEvent event = new TestEvent("some-id");
 
         eventResolver.insertEvent(event, "session id");
-        assertEquals(1, eventResolver.getEventCount());
 
-        Map<String, String> eventData = eventResolver.getEvents(1);
-        assertEquals(1, eventData.size());
-        Assert.assertEquals(event.createEventPayload("session id"), eventData.get("some-id"));
+        List<JsonValue> events = readEvents();
+        assertEquals(1, events.size());
+        assertEquals(JsonValue.parseString(event.createEventPayload("session id")), events.get(0));
     }
 
     /**
-     * Test trimming the database deletes the oldest sessions until its under the specified size.
+     * Test trimming the database deletes the oldest events until its under the specified size.
      */
     @Test
-    public void testTrimDatabase() {
+    public void testTrimDatabase() throws Exception {
         TestEvent event = new TestEvent("some-id");
 
         eventResolver.insertEvent(event, "OLD");
         eventResolver.insertEvent(event, "NEW");
 
-        assertEquals(2, eventResolver.getEventCount());
+        assertEquals(2, readEvents().size());
 
         // Trim it down to only the size of the first session
-        eventResolver.trimDatabase(event.createEventPayload("OLD").length());
-        assertEquals(1, eventResolver.getEventCount());
+        eventResolver.trimDatabase(event.createEventPayload("OLD").length(), metrics);
+        List<JsonValue> events = readEvents();
+        assertEquals(1, events.size());
+        assertEquals(JsonValue.parseString(event.createEventPayload("NEW")), events.get(0));
 
         // Trim it down to 0
-        eventResolver.trimDatabase(0);
-        assertEquals(0, eventResolver.getEventCount());
+        eventResolver.trimDatabase(0, metrics);
+        assertTrue(readEvents().isEmpty());
+        assertEquals(2, metrics.getDroppedEventCount(Event.NORMAL_PRIORITY));
+    }
+
+    /**
+     * Test trimming the database evicts the low priority lane before the higher priority lanes.
+     */
+    @Test
+    public void testTrimDatabasePriorityLanes() throws Exception {
+        TestEvent high = new TestEvent("high-id", Event.HIGH_PRIORITY);
+        TestEvent normal = new TestEvent("normal-id", Event.NORMAL_PRIORITY);
+        TestEvent low = new TestEvent("low-id", Event.LOW_PRIORITY);
+
+        // Oldest first
+        eventResolver.insertEvent(high, "session-id");
+        eventResolver.insertEvent(normal, "session-id");
+        eventResolver.insertEvent(low, "session-id");
+
+        int eventSize = high.createEventPayload("session-id").length();
+
+        eventResolver.trimDatabase(eventSize * 2, metrics);
+        assertEquals(Arrays.asList("high-id", "normal-id"), readEventIds());
+
+        eventResolver.trimDatabase(eventSize, metrics);
+        assertEquals(Collections.singletonList("high-id"), readEventIds());
+
+        assertEquals(1, metrics.getDroppedEventCount(Event.LOW_PRIORITY));
+        assertEquals(1, metrics.getDroppedEventCount(Event.NORMAL_PRIORITY));
+        assertEquals(0, metrics.getDroppedEventCount(Event.HIGH_PRIORITY));
     }
 
     /**
@@ -79,76 +119,194 @@ public class EventResolverTest extends BaseTestCase {
         eventResolver.insertEvent(event, null);
 
         // Trim the database
-        eventResolver.trimDatabase(0);
+        eventResolver.trimDatabase(0, metrics);
     }
 
     /**
-     * Test deleting several events at once
+     * Test deleting all events.
      */
     @Test
-    public void testDeleteEvents() {
+    public void testDeleteAllEvents() throws Exception {
         eventResolver.insertEvent(new TestEvent("id-1"), "session-id");
-        eventResolver.insertEvent(new TestEvent("id-2"), "session-id");
-        eventResolver.insertEvent(new TestEvent("id-3"), "session-id");
-        eventResolver.insertEvent(new TestEvent("id-4"), "session-id");
+        eventResolver.insertEvent(new TestEvent("id-2", Event.HIGH_PRIORITY), "session-id");
+
+        eventResolver.deleteAllEvents();
+        assertNull(eventResolver.getEventBatch(500, 100000));
+    }
+
+    /**
+     * Test reading events into a compressed batch.
+     */
+    @Test
+    public void testGetEventBatch() throws Exception {
+        TestEvent first = new TestEvent("first-id");
+        TestEvent second = new TestEvent("second-id");
+        eventResolver.insertEvent(first, "session-id");
+        eventResolver.insertEvent(second, "session-id");
+
+        EventBatch batch = eventResolver.getEventBatch(500, 100000);
+        assertEquals(2, batch.getEventCount());
+        assertFalse(batch.hasMoreEvents());
+
+        String expected = JsonValue.wrapOpt(Arrays.asList(
+                JsonValue.parseString(first.createEventPayload("session-id")),
+                JsonValue.parseString(second.createEventPayload("session-id")))).toString();
+
+        JsonValue payload = JsonValue.parseString(decompress(batch.getPayload()));
+        assertEquals(JsonValue.parseString(expected), payload);
+        assertEquals(decompress(batch.getPayload()).getBytes("UTF-8").length, batch.getUncompressedSize());
+    }
 
-        assertEquals(4, eventResolver.getEventCount());
+    /**
+     * Test batches stop at the max count and max size.
+     */
+    @Test
+    public void testGetEventBatchLimits() throws Exception {
+        for (int i = 0; i < 120; i++) {
+            eventResolver.insertEvent(new TestEvent("id-" + i), "session-id");
+        }
 
-        // Delete all but id-3
-        assertTrue(eventResolver.deleteEvents(new HashSet<>(Arrays.asList("id-1", "id-2", "id-4"))));
+        EventBatch batch = eventResolver.getEventBatch(110, 100000);
+        assertEquals(110, batch.getEventCount());
+        assertTrue(batch.hasMoreEvents());
 
-        assertEquals(1, eventResolver.getEventCount());
-        assertTrue(eventResolver.getEvents(1).containsKey("id-3"));
+        int eventSize = new TestEvent("id-0").createEventPayload("session-id").length();
+        batch = eventResolver.getEventBatch(500, eventSize * 3);
+        assertEquals(3, batch.getEventCount());
+        assertTrue(batch.hasMoreEvents());
+
+        // Always includes at least one event
+        batch = eventResolver.getEventBatch(500, 1);
+        assertEquals(1, batch.getEventCount());
     }
 
     /**
-     * Test when the database is empty, deleting multiple events
-     * at once does not throw any exceptions
+     * Test getting a batch from an empty database.
      */
     @Test
-    public void testDeleteEventsEmptyDatabase() {
-        assertFalse(eventResolver.deleteEvents(new HashSet<>(Arrays.asList("id", "another-id"))));
-        assertEquals(0, eventResolver.getEventCount());
+    public void testGetEventBatchEmptyDatabase() throws Exception {
+        assertNull(eventResolver.getEventBatch(500, 100000));
     }
 
     /**
-     * Tests getting events returns a set of events
-     * from oldest to newest
+     * Test batches read the high priority lane first.
      */
     @Test
-    public void testGetEvents() {
-        eventResolver.insertEvent(new TestEvent("oldest-id"), UUID.randomUUID().toString());
-        eventResolver.insertEvent(new TestEvent("older-id"), UUID.randomUUID().toString());
-        eventResolver.insertEvent(new TestEvent("newer-id"), UUID.randomUUID().toString());
+    public void testGetEventBatchPriorityLanes() throws Exception {
+        eventResolver.insertEvent(new TestEvent("low-id", Event.LOW_PRIORITY), "session-id");
+        eventResolver.insertEvent(new TestEvent("normal-id", Event.NORMAL_PRIORITY), "session-id");
+        eventResolver.insertEvent(new TestEvent("high-id", Event.HIGH_PRIORITY), "session-id");
 
-        assertEquals(3, eventResolver.getEventCount());
+        EventBatch batch = eventResolver.getEventBatch(2, 100000);
+        assertEquals(2, batch.getEventCount());
+        assertTrue(batch.hasMoreEvents());
 
-        //Should return the oldest events
-        Map<String, String> eventData = eventResolver.getEvents(2);
+        JsonValue payload = JsonValue.parseString(decompress(batch.getPayload()));
+        assertEquals("high-id", payload.optList().get(0).optMap().opt("event_id").getString());
+        assertEquals("normal-id", payload.optList().get(1).optMap().opt("event_id").getString());
 
-        assertEquals(2, eventData.size());
-        assertTrue(eventData.containsKey("oldest-id"));
-        assertTrue(eventData.containsKey("older-id"));
+        assertTrue(eventResolver.deleteBatch(batch));
+        assertEquals(Collections.singletonList("low-id"), readEventIds());
     }
 
     /**
-     * Test asking for more events than what is currently available.
+     * Test rows with an invalid payload are skipped but still deleted with the batch.
      */
     @Test
-    public void testGetEventsMoreThanAvailable() {
-        eventResolver.insertEvent(new TestEvent("oldest-id"), UUID.randomUUID().toString());
-        Map<String, String> eventData = eventResolver.getEvents(300);
-        assertEquals(1, eventData.size());
+    public void testGetEventBatchInvalidPayload() throws Exception {
+        eventResolver.insertEvent(new TestEvent("first-id"), "session-id");
+        insertRawEvent("invalid-id", "{\"event_id\": \"invalid-id\"");
+        eventResolver.insertEvent(new TestEvent("second-id"), "session-id");
+
+        EventBatch batch = eventResolver.getEventBatch(500, 100000);
+        assertEquals(2, batch.getEventCount());
+
+        JsonValue payload = JsonValue.parseString(decompress(batch.getPayload()));
+        assertEquals(2, payload.optList().size());
+        assertEquals("first-id", payload.optList().get(0).optMap().opt("event_id").getString());
+        assertEquals("second-id", payload.optList().get(1).optMap().opt("event_id").getString());
+
+        assertTrue(eventResolver.deleteBatch(batch));
+        assertNull(eventResolver.getEventBatch(500, 100000));
     }
 
     /**
-     * Test getting events on an empty database returns an empty
-     * map
+     * Test a batch that only reads invalid rows drops them and reads the next page.
      */
     @Test
-    public void testGetEventsEmptyDatabase() {
-        Map<String, String> eventData = eventResolver.getEvents(300);
-        assertEquals(0, eventData.size());
+    public void testGetEventBatchOnlyInvalidPayloads() throws Exception {
+        insertRawEvent("invalid-id", "not json");
+        insertRawEvent("array-id", "[]");
+        eventResolver.insertEvent(new TestEvent("valid-id"), "session-id");
+
+        EventBatch batch = eventResolver.getEventBatch(2, 100000);
+        assertEquals(1, batch.getEventCount());
+
+        // The invalid rows were dropped
+        assertEquals(Collections.singletonList("valid-id"), readEventIds());
+
+        assertTrue(eventResolver.deleteBatch(batch));
+        assertNull(eventResolver.getEventBatch(2, 100000));
+    }
+
+    /**
+     * Test deleting the events in a batch.
+     */
+    @Test
+    public void testDeleteBatch() throws Exception {
+        eventResolver.insertEvent(new TestEvent("id-1"), "session-id");
+        eventResolver.insertEvent(new TestEvent("id-2"), "session-id");
+
+        EventBatch batch = eventResolver.getEventBatch(500, 100000);
+        eventResolver.insertEvent(new TestEvent("id-3"), "session-id");
+
+        assertTrue(eventResolver.deleteBatch(batch));
+        assertEquals(Collections.singletonList("id-3"), readEventIds());
+    }
+
+    private static void insertRawEvent(@NonNull String eventId, @NonNull String data) {
+        ContentValues values = new ContentValues();
+        values.put(EventsStorage.Events.COLUMN_NAME_TYPE, "raw");
+        values.put(EventsStorage.Events.COLUMN_NAME_EVENT_ID, eventId);
+        values.put(EventsStorage.Events.COLUMN_NAME_DATA, data);
+        values.put(EventsStorage.Events.COLUMN_NAME_TIME, "0");
+        values.put(EventsStorage.Events.COLUMN_NAME_SESSION_ID, "session-id");
+        values.put(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE, data.length());
+        values.put(EventsStorage.Events.COLUMN_NAME_PRIORITY, Event.NORMAL_PRIORITY);
+
+        Context context = RuntimeEnvironment.application;
+        context.getContentResolver().insert(UrbanAirshipProvider.getEventsContentUri(context), values);
+    }
+
+    /**
+     * Reads the stored events without removing them.
+     */
+    private List<JsonValue> readEvents() throws Exception {
+        EventBatch batch = eventResolver.getEventBatch(500, 100000);
+        if (batch == null) {
+            return Collections.emptyList();
+        }
+        return JsonValue.parseString(decompress(batch.getPayload())).optList().getList();
+    }
+
+    private List<String> readEventIds() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (JsonValue event : readEvents()) {
+            ids.add(event.optMap().opt("event_id").getString());
+        }
+        return ids;
+    }
+
+    private static String decompress(byte[] bytes) throws IOException {
+        GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        inputStream.close();
+        return outputStream.toString("UTF-8");
     }
 
     /**
@@ -169,20 +327,6 @@ public class EventResolverTest extends BaseTestCase {
         assertEquals(eventSize * 3, eventResolver.getDatabaseSize());
     }
 
-    /**
-     * Test getting the event count
-     */
-    @Test
-    public void testEventCount() {
-        assertEquals(0, eventResolver.getEventCount());
-
-        eventResolver.insertEvent(new TestEvent(), UUID.randomUUID().toString());
-        eventResolver.insertEvent(new TestEvent(), UUID.randomUUID().toString());
-        eventResolver.insertEvent(new TestEvent(), UUID.randomUUID().toString());
-
-        assertEquals(3, eventResolver.getEventCount());
-    }
-
     /**
      * Testing class for testing events
      */
@@ -190,6 +334,7 @@ public class EventResolverTest extends BaseTestCase {
 
         String id;
         String eventType;
+        int priority = NORMAL_PRIORITY;
 
         public TestEvent() {
             this(null);
@@ -199,11 +344,21 @@ public class EventResolverTest extends BaseTestCase {
             this(id, "TEST EVENT");
         }
 
+        public TestEvent(String id, int priority) {
+            this(id, "TEST EVENT");
+            this.priority = priority;
+        }
+
         public TestEvent(String id, String eventType) {
             this.id = id;
             this.eventType = eventType;
         }
 
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
         @NonNull
         @Override
         public String getType() {
@@ -0,0 +1,63 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.TestApplication;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+public class EventUploadPolicyTest extends BaseTestCase {
+
+    private EventUploadPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = spy(new EventUploadPolicy(TestApplication.getApplication()));
+        doReturn(false).when(policy).isCharging();
+    }
+
+    /**
+     * Test metered networks keep the default batch size and delay.
+     */
+    @Test
+    public void testMetered() {
+        doReturn(true).when(policy).isMetered();
+        doReturn(true).when(policy).isCharging();
+
+        assertEquals(EventUploadPolicy.MAX_BATCH_EVENT_COUNT, policy.getMaxBatchEventCount(0));
+        assertEquals(EventUploadPolicy.MAX_BATCH_EVENT_COUNT, policy.getMaxBatchEventCount(10));
+        assertEquals(EventUploadPolicy.METERED_BATCH_DELAY, policy.getBatchDelay(1));
+        assertEquals(EventUploadPolicy.METERED_BATCH_DELAY, policy.getBatchDelay(10));
+    }
+
+    /**
+     * Test unmetered networks use larger batches and shorter delays while draining a backlog.
+     */
+    @Test
+    public void testUnmetered() {
+        doReturn(false).when(policy).isMetered();
+
+        assertEquals(EventUploadPolicy.MAX_BATCH_EVENT_COUNT, policy.getMaxBatchEventCount(0));
+        assertEquals(EventUploadPolicy.DRAIN_MAX_BATCH_EVENT_COUNT, policy.getMaxBatchEventCount(1));
+        assertEquals(EventUploadPolicy.UNMETERED_BATCH_DELAY, policy.getBatchDelay(1));
+        assertEquals(0, policy.getBatchDelay(EventUploadPolicy.DEEP_BACKLOG_BATCH_COUNT));
+    }
+
+    /**
+     * Test unmetered networks drain without a delay while charging.
+     */
+    @Test
+    public void testUnmeteredCharging() {
+        doReturn(false).when(policy).isMetered();
+        doReturn(true).when(policy).isCharging();
+
+        assertEquals(0, policy.getBatchDelay(1));
+    }
+
+}
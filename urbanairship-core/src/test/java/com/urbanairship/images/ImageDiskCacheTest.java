@@ -0,0 +1,115 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.images;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.TestApplication;
+import com.urbanairship.util.FileUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ImageDiskCacheTest extends BaseTestCase {
+
+    private File directory;
+    private File legacyDirectory;
+    private ImageDiskCache cache;
+
+    @Before
+    public void setup() {
+        File cacheDir = TestApplication.getApplication().getCacheDir();
+        directory = new File(cacheDir, "image-cache-test");
+        legacyDirectory = new File(cacheDir, "legacy-image-cache-test");
+        cache = new ImageDiskCache(directory, legacyDirectory, 10, 60000);
+    }
+
+    @After
+    public void cleanup() {
+        FileUtils.deleteRecursively(directory);
+        FileUtils.deleteRecursively(legacyDirectory);
+    }
+
+    /**
+     * Test caching a file.
+     */
+    @Test
+    public void testPut() throws IOException {
+        assertNull(cache.get("https://example.com/image.png"));
+
+        File cached = cache.put("https://example.com/image.png", createFile(4));
+        assertNotNull(cached);
+        assertEquals(4, cached.length());
+        assertEquals(cached, cache.get("https://example.com/image.png"));
+    }
+
+    /**
+     * Test the least recently used files are evicted once the cache is full.
+     */
+    @Test
+    public void testEviction() throws IOException {
+        File first = cache.put("first", createFile(4));
+        File second = cache.put("second", createFile(4));
+        assertNotNull(first);
+        assertNotNull(second);
+
+        first.setLastModified(1000);
+        second.setLastModified(2000);
+
+        cache.put("third", createFile(4));
+
+        assertNull(cache.get("first"));
+        assertNotNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+    }
+
+    /**
+     * Test entries older than the max age are treated as missing.
+     */
+    @Test
+    public void testStaleEntry() throws IOException {
+        File cached = cache.put("https://example.com/image.png", createFile(4));
+        assertNotNull(cached);
+
+        File fetched = new File(directory, cached.getName() + ".fetched");
+        assertTrue(fetched.setLastModified(System.currentTimeMillis() - 60001));
+        assertNull(cache.get("https://example.com/image.png"));
+
+        // Downloading it again refreshes the entry
+        cached = cache.put("https://example.com/image.png", createFile(4));
+        assertNotNull(cached);
+        assertEquals(cached, cache.get("https://example.com/image.png"));
+    }
+
+    /**
+     * Test the legacy HTTP cache directory is removed.
+     */
+    @Test
+    public void testRemovesLegacyDirectory() throws IOException {
+        assertTrue(legacyDirectory.mkdirs());
+        assertTrue(new File(legacyDirectory, "journal").createNewFile());
+
+        cache.createTempFile().delete();
+
+        assertFalse(legacyDirectory.exists());
+    }
+
+    private File createFile(int length) throws IOException {
+        File file = cache.createTempFile();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[length]);
+        outputStream.close();
+        return file;
+    }
+
+}
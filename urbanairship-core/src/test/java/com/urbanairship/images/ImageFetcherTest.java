@@ -0,0 +1,155 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.images;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.TestApplication;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class ImageFetcherTest extends BaseTestCase {
+
+    private static final String URL = "file:///does/not/exist.png";
+
+    private QueueExecutor downloadExecutor;
+    private QueueExecutor decodeExecutor;
+    private ImageFetcher fetcher;
+
+    @Before
+    public void setup() {
+        Context context = TestApplication.getApplication();
+        File directory = new File(context.getCacheDir(), "image-fetcher-test");
+
+        downloadExecutor = new QueueExecutor();
+        decodeExecutor = new QueueExecutor();
+        fetcher = new ImageFetcher(context, mock(ImageCache.class), new ImageDiskCache(directory, null, 1024, 60000),
+                downloadExecutor, decodeExecutor);
+    }
+
+    /**
+     * Test fetches for the same image share a single download.
+     */
+    @Test
+    public void testCoalescesFetches() {
+        TestCallback first = new TestCallback();
+        TestCallback second = new TestCallback();
+
+        fetcher.fetch(URL, 10, 10, first);
+        fetcher.fetch(URL, 10, 10, second);
+
+        // Different size is a different fetch
+        fetcher.fetch(URL, 20, 20, new TestCallback());
+
+        assertEquals(2, downloadExecutor.runnables.size());
+
+        downloadExecutor.runAll();
+        decodeExecutor.runAll();
+
+        assertEquals(1, first.count);
+        assertEquals(1, second.count);
+        assertNull(first.drawable);
+    }
+
+    /**
+     * Test the fetch is dropped once every subscription is cancelled.
+     */
+    @Test
+    public void testCancel() {
+        TestCallback first = new TestCallback();
+        TestCallback second = new TestCallback();
+
+        fetcher.fetch(URL, 10, 10, first).cancel();
+        fetcher.fetch(URL, 10, 10, second).cancel();
+
+        downloadExecutor.runAll();
+
+        assertEquals(0, decodeExecutor.runnables.size());
+        assertEquals(0, first.count);
+        assertEquals(0, second.count);
+    }
+
+    /**
+     * Test a fetch that only has some of its subscriptions cancelled still notifies the others.
+     */
+    @Test
+    public void testPartialCancel() {
+        TestCallback first = new TestCallback();
+        TestCallback second = new TestCallback();
+
+        fetcher.fetch(URL, 10, 10, first).cancel();
+        fetcher.fetch(URL, 10, 10, second);
+
+        downloadExecutor.runAll();
+        decodeExecutor.runAll();
+
+        assertEquals(0, first.count);
+        assertEquals(1, second.count);
+    }
+
+    /**
+     * Test a fetch for an image whose previous fetch was cancelled starts a new download.
+     */
+    @Test
+    public void testFetchAfterCancel() {
+        fetcher.fetch(URL, 10, 10, new TestCallback()).cancel();
+        downloadExecutor.runAll();
+
+        TestCallback callback = new TestCallback();
+        fetcher.fetch(URL, 10, 10, callback);
+        assertEquals(1, downloadExecutor.runnables.size());
+
+        downloadExecutor.runAll();
+        decodeExecutor.runAll();
+
+        assertEquals(1, callback.count);
+    }
+
+    private static class TestCallback implements ImageFetcher.Callback {
+
+        private int count;
+        private Drawable drawable;
+
+        @Override
+        public void onFetched(@Nullable Drawable drawable) {
+            this.count++;
+            this.drawable = drawable;
+        }
+
+    }
+
+    private static class QueueExecutor implements Executor {
+
+        private final List<Runnable> runnables = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnables.add(runnable);
+        }
+
+        void runAll() {
+            List<Runnable> pending = new ArrayList<>(runnables);
+            runnables.clear();
+            for (Runnable runnable : pending) {
+                runnable.run();
+            }
+        }
+
+    }
+
+}
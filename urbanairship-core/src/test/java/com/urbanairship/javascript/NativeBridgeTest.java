@@ -29,6 +29,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 
+import androidx.test.core.app.ApplicationProvider;
+
+import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
@@ -72,6 +75,25 @@ public class NativeBridgeTest extends BaseTestCase {
         nativeBridge = new NativeBridge(runRequestFactory, executor);
     }
 
+    /**
+     * Test loading the JavaScript environment.
+     */
+    @Test
+    public void testLoadJavaScriptEnvironment() {
+        JavaScriptEnvironment environment = JavaScriptEnvironment.newBuilder()
+                                                                 .addGetter("cool", "neat")
+                                                                 .build();
+
+        nativeBridge.preloadJavaScriptEnvironment(ApplicationProvider.getApplicationContext());
+
+        // The native bridge is already loaded so the environment is injected right away
+        String expected = environment.getJavaScriptIfLoaded();
+        assertNotNull(expected);
+
+        nativeBridge.loadJavaScriptEnvironment(ApplicationProvider.getApplicationContext(), environment, javaScriptExecutor);
+        verify(javaScriptExecutor).executeJavaScript(expected);
+    }
+
     /**
      * Test run basic actions command
      */
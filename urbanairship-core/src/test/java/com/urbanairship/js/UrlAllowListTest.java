@@ -38,6 +38,23 @@ public class UrlAllowListTest extends BaseTestCase {
         assertFalse(urlAllowList.isAllowed("file:///*", UrlAllowList.SCOPE_OPEN_URL));
     }
 
+    /**
+     * Test cached results are invalidated when entries are added.
+     */
+    @Test
+    public void testAddEntryInvalidatesCachedResults() {
+        assertFalse(urlAllowList.isAllowed("https://cool.urbanairship.com/story.html"));
+        assertFalse(urlAllowList.isAllowed("https://cool.urbanairship.com/story.html"));
+
+        assertTrue(urlAllowList.addEntry("https://*.urbanairship.com/*.html", UrlAllowList.SCOPE_OPEN_URL));
+        assertTrue(urlAllowList.isAllowed("https://cool.urbanairship.com/story.html", UrlAllowList.SCOPE_OPEN_URL));
+        assertFalse(urlAllowList.isAllowed("https://cool.urbanairship.com/story.html", UrlAllowList.SCOPE_ALL));
+
+        assertTrue(urlAllowList.addEntry("https://cool.urbanairship.com/story.html", UrlAllowList.SCOPE_JAVASCRIPT_INTERFACE));
+        assertTrue(urlAllowList.isAllowed("https://cool.urbanairship.com/story.html", UrlAllowList.SCOPE_ALL));
+        assertFalse(urlAllowList.isAllowed("https://coolurbanairship.com/story.html", UrlAllowList.SCOPE_OPEN_URL));
+    }
+
     /**
      * Test the default urlAllowList accepts Airship URLs.
      */
@@ -0,0 +1,140 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import com.urbanairship.BaseTestCase;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class JsonBinaryTest extends BaseTestCase {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Test encoding and decoding every JSON type.
+     */
+    @Test
+    public void testRoundTrip() throws JsonException {
+        JsonValue value = JsonMap.newBuilder()
+                                 .put("string", "hello ☃")
+                                 .put("int", -42)
+                                 .put("long", Long.MAX_VALUE)
+                                 .put("double", 1.5)
+                                 .put("true", true)
+                                 .put("false", false)
+                                 .put("list", JsonValue.wrapOpt(new Object[] { 1, "two", 3.0 }))
+                                 .put("map", JsonMap.newBuilder().put("nested", "value").build())
+                                 .put("empty", JsonMap.EMPTY_MAP)
+                                 .build()
+                                 .toJsonValue();
+
+        byte[] bytes = JsonBinary.encode(value);
+        assertTrue(JsonBinary.isBinary(bytes));
+        assertEquals(value, JsonBinary.decode(bytes));
+    }
+
+    /**
+     * Test primitive values.
+     */
+    @Test
+    public void testPrimitives() throws JsonException {
+        assertEquals(JsonValue.NULL, JsonBinary.decode(JsonBinary.encode(JsonValue.NULL)));
+        assertEquals(JsonValue.wrap("cool"), JsonBinary.decode(JsonBinary.encode(JsonValue.wrap("cool"))));
+        assertEquals(JsonValue.wrap(Long.MIN_VALUE), JsonBinary.decode(JsonBinary.encode(JsonValue.wrap(Long.MIN_VALUE))));
+    }
+
+    /**
+     * Test repeated keys and values are interned.
+     */
+    @Test
+    public void testInterning() throws JsonException {
+        Object[] items = new Object[50];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = JsonMap.newBuilder()
+                              .put("message_id", "some-message-id")
+                              .put("display_type", "banner")
+                              .put("index", i)
+                              .build();
+        }
+
+        JsonValue value = JsonValue.wrapOpt(items);
+        byte[] bytes = JsonBinary.encode(value);
+        byte[] text = value.toString().getBytes(UTF_8);
+
+        assertTrue(bytes.length * 3 < text.length);
+        assertEquals(value, JsonBinary.decode(bytes));
+    }
+
+    /**
+     * Test decodeOrParse falls back to parsing JSON text.
+     */
+    @Test
+    public void testDecodeOrParse() throws JsonException {
+        JsonValue value = JsonMap.newBuilder().put("foo", "bar").build().toJsonValue();
+
+        assertFalse(JsonBinary.isBinary(value.toString().getBytes(UTF_8)));
+        assertEquals(value, JsonBinary.decodeOrParse(value.toString().getBytes(UTF_8)));
+        assertEquals(value, JsonBinary.decodeOrParse(JsonBinary.encode(value)));
+        assertEquals(JsonValue.NULL, JsonBinary.decodeOrParse(null));
+    }
+
+    /**
+     * Test truncated bytes throw a JsonException.
+     */
+    @Test(expected = JsonException.class)
+    public void testTruncated() throws JsonException {
+        JsonValue value = JsonMap.newBuilder().put("foo", "bar").build().toJsonValue();
+        byte[] bytes = JsonBinary.encode(value);
+        byte[] truncated = new byte[bytes.length - 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        JsonBinary.decode(truncated);
+    }
+
+    /**
+     * Test unknown versions throw a JsonException.
+     */
+    @Test(expected = JsonException.class)
+    public void testUnsupportedVersion() throws JsonException {
+        byte[] bytes = JsonBinary.encode(JsonValue.wrap("foo"));
+        bytes[1] = (byte) (JsonBinary.VERSION + 1);
+        JsonBinary.decode(bytes);
+    }
+
+    /**
+     * Test lazily decoded values match eagerly decoded values.
+     */
+    @Test
+    public void testDecodeLazy() throws JsonException {
+        JsonValue value = JsonValue.parseString("{\"id\":\"some-id\",\"list\":[1,\"id\",{\"id\":2.5}],\"map\":{\"list\":[true]}}");
+        JsonValue lazy = JsonBinary.decodeLazy(JsonBinary.encode(value));
+
+        assertEquals("some-id", lazy.optMap().opt("id").getString());
+        assertEquals("id", lazy.optMap().opt("list").optList().get(1).getString());
+        assertEquals(2.5, lazy.optMap().opt("list").optList().get(2).optMap().opt("id").getDouble(0));
+        assertTrue(lazy.optMap().opt("map").optMap().opt("list").optList().get(0).getBoolean(false));
+
+        assertEquals(value, lazy);
+        assertEquals(lazy, value);
+        assertEquals(value.hashCode(), lazy.hashCode());
+        assertEquals(value.toString(), lazy.toString());
+    }
+
+    /**
+     * Test lazy decoding validates the bytes up front.
+     */
+    @Test(expected = JsonException.class)
+    public void testDecodeLazyTruncated() throws JsonException {
+        JsonValue value = JsonMap.newBuilder().put("foo", "bar").build().toJsonValue();
+        byte[] bytes = JsonBinary.encode(value);
+        byte[] truncated = new byte[bytes.length - 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        JsonBinary.decodeLazy(truncated);
+    }
+
+}
@@ -49,4 +49,13 @@ public class JsonListTest extends BaseTestCase {
         assertEquals("[]", new JsonList(null).toString());
     }
 
+    /**
+     * Test the read-only list view.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyList() {
+        assertEquals(jsonList.getList(), jsonList.getReadOnlyList());
+        jsonList.getReadOnlyList().add(JsonValue.NULL);
+    }
+
 }
@@ -102,4 +102,13 @@ public class JsonMapTest extends BaseTestCase {
         assertEquals("c", jsonMap.get("list").getList().getList().get(4).getString());
     }
 
+    /**
+     * Test the read-only map view.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyMap() {
+        assertEquals(jsonMap.getMap(), jsonMap.getReadOnlyMap());
+        jsonMap.getReadOnlyMap().put("foo", JsonValue.NULL);
+    }
+
 }
@@ -432,4 +432,42 @@ public class JsonPredicateTest extends BaseTestCase {
         Assert.assertTrue(predicate.apply(versionObject));
     }
 
+    /**
+     * Test the compiled predicate matches the interpreted predicate.
+     */
+    @Test
+    public void testCompiledMatchesInterpreted() throws JsonException {
+        JsonPredicate versionPredicate = JsonPredicate.parse(JsonValue.parseString(
+                "{\"and\":[{\"value\":{\"version_matches\":\"[1.0, 2.0[\"},\"scope\":[\"ua_sdk\"],\"key\":\"version\"}," +
+                        "{\"value\":{\"is_present\":true},\"key\":\"legs\"}]}"));
+
+        JsonPredicate arrayPredicate = JsonPredicate.parse(JsonValue.parseString(
+                "{\"or\":[{\"value\":{\"array_contains\":{\"value\":{\"equals\":\"cool\"}}},\"key\":\"tags\"}," +
+                        "{\"not\":[{\"value\":{\"at_least\":5},\"key\":\"legs\"}]}]}"));
+
+        JsonPredicate predicate = JsonPredicate.newBuilder()
+                                               .setPredicateType(JsonPredicate.AND_PREDICATE_TYPE)
+                                               .addMatcher(sleepMatcher)
+                                               .addPredicate(versionPredicate)
+                                               .addPredicate(arrayPredicate)
+                                               .build();
+
+        JsonValue[] values = new JsonValue[] {
+                JsonValue.NULL,
+                JsonValue.wrap("mittens"),
+                catJson.toJsonValue(),
+                JsonValue.parseString("{\"legs\":4,\"schedule\":{\"sleep\":\"all day\"},\"ua_sdk\":{\"version\":\"1.5.0\"}}"),
+                JsonValue.parseString("{\"legs\":8,\"schedule\":{\"sleep\":\"all day\"},\"ua_sdk\":{\"version\":\"1.5.0\"},\"tags\":[\"cool\"]}"),
+                JsonValue.parseString("{\"legs\":8,\"schedule\":{\"sleep\":\"all day\"},\"ua_sdk\":{\"version\":\"2.0.0\"},\"tags\":[\"cool\"]}"),
+                JsonValue.parseString("{\"legs\":8,\"schedule\":{\"sleep\":\"all day\"},\"ua_sdk\":{\"version\":\"1.0\"},\"tags\":[\"lame\"]}")
+        };
+
+        boolean[] expected = new boolean[] { false, false, false, true, true, false, false };
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(expected[i], predicate.applyInterpreted(values[i]));
+            assertEquals(expected[i], predicate.apply(values[i]));
+        }
+    }
+
 }
@@ -2,6 +2,8 @@
 
 package com.urbanairship.remotedata;
 
+import android.content.ContentValues;
+
 import com.urbanairship.BaseTestCase;
 import com.urbanairship.json.JsonMap;
 
@@ -80,4 +82,24 @@ public class RemoteDataStoreTest extends BaseTestCase {
         Assert.assertTrue(dataStore.getPayloads(Arrays.asList("type", "otherType")).size() == 0);
     }
 
+    /**
+     * Test reading payloads that were stored as JSON text before the binary encoding.
+     */
+    @Test
+    public void testGetTextPayloads() {
+        ContentValues values = new ContentValues();
+        values.put("type", "type");
+        values.put("time", 123);
+        values.put("data", "{\"foo\":\"bar\"}");
+        values.put("metadata", "{\"meta\":\"data\"}");
+        dataStore.insert("payloads", values);
+
+        Set<RemoteDataPayload> savedPayloads = dataStore.getPayloads(Arrays.asList("type"));
+        Assert.assertEquals(1, savedPayloads.size());
+
+        RemoteDataPayload payload = savedPayloads.iterator().next();
+        Assert.assertEquals(JsonMap.newBuilder().put("foo", "bar").build(), payload.getData());
+        Assert.assertEquals(JsonMap.newBuilder().put("meta", "data").build(), payload.getMetadata());
+    }
+
 }
@@ -26,7 +26,11 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
@@ -115,6 +119,24 @@ public class AirshipWebViewClientTest extends BaseTestCase {
         verifyZeroInteractions(nativeBridge);
     }
 
+    /**
+     * Test onPageStarted preloads the js bridge for allowed URLs.
+     */
+    @Test
+    public void testOnPageStartedPreloads() {
+        client.onPageStarted(webView, webViewUrl, null);
+        verify(nativeBridge).preloadJavaScriptEnvironment(any(Context.class));
+    }
+
+    /**
+     * Test onPageStarted does not preload the js bridge if the url is not allowed.
+     */
+    @Test
+    public void testOnPageStartedNotAllowed() {
+        client.onPageStarted(webView, "http://notallowed", null);
+        verifyZeroInteractions(nativeBridge);
+    }
+
     /**
      * Test close command calls onClose
      */
@@ -210,4 +232,39 @@ public class AirshipWebViewClientTest extends BaseTestCase {
             verify(webView).evaluateJavascript("cool", null);
         }
     }
+
+    /**
+     * Test commands from the native bridge interface share a JavaScript executor.
+     */
+    @Test
+    public void testOnCommands() {
+        ArgumentCaptor<JavaScriptExecutor> argument = ArgumentCaptor.forClass(JavaScriptExecutor.class);
+
+        client.onCommands(webView, Arrays.asList("uairship://one", "uairship://two"));
+
+        verify(nativeBridge).onHandleCommand(
+                eq("uairship://one"),
+                argument.capture(),
+                any(ActionRunRequestExtender.class),
+                any(NativeBridge.CommandDelegate.class));
+
+        verify(nativeBridge).onHandleCommand(
+                eq("uairship://two"),
+                argument.capture(),
+                any(ActionRunRequestExtender.class),
+                any(NativeBridge.CommandDelegate.class));
+
+        assertSame(argument.getAllValues().get(0), argument.getAllValues().get(1));
+    }
+
+    /**
+     * Test commands from the native bridge interface are ignored if the url is not allowed.
+     */
+    @Test
+    public void testOnCommandsNotAllowed() {
+        webViewUrl = "http://not-allowed";
+        client.onCommands(webView, Collections.singletonList("uairship://one"));
+        verifyZeroInteractions(nativeBridge);
+    }
+
 }
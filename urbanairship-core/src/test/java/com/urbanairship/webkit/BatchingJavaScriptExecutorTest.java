@@ -0,0 +1,79 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.webkit;
+
+import android.os.Handler;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.javascript.JavaScriptExecutor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class BatchingJavaScriptExecutorTest extends BaseTestCase {
+
+    private JavaScriptExecutor javaScriptExecutor;
+    private Handler handler;
+    private BatchingJavaScriptExecutor batchingExecutor;
+
+    @Before
+    public void setup() {
+        javaScriptExecutor = mock(JavaScriptExecutor.class);
+        handler = mock(Handler.class);
+        batchingExecutor = new BatchingJavaScriptExecutor(javaScriptExecutor, handler);
+    }
+
+    /**
+     * Test scripts are combined into a single evaluation.
+     */
+    @Test
+    public void testBatchesScripts() {
+        batchingExecutor.executeJavaScript("one();");
+        batchingExecutor.executeJavaScript("two();");
+
+        // Only a single flush is scheduled
+        verify(handler, times(1)).post(any(Runnable.class));
+        verifyZeroInteractions(javaScriptExecutor);
+
+        batchingExecutor.flush();
+        verify(javaScriptExecutor).executeJavaScript(isolated("one();") + isolated("two();"));
+
+        // Nothing left to flush
+        batchingExecutor.flush();
+        verify(javaScriptExecutor, times(1)).executeJavaScript(any(String.class));
+
+        // New scripts schedule another flush
+        batchingExecutor.executeJavaScript("three();");
+        verify(handler, times(2)).post(any(Runnable.class));
+    }
+
+    /**
+     * Test each script is isolated so a throwing callback does not skip the scripts after it.
+     */
+    @Test
+    public void testIsolatesScripts() {
+        String throwingCallback = "UAirship.finishAction(null, '\"first\"', 'cb-1'); // callback throws";
+        String callback = "UAirship.finishAction(null, '\"second\"', 'cb-2');";
+
+        batchingExecutor.executeJavaScript(throwingCallback);
+        batchingExecutor.executeJavaScript(callback);
+        batchingExecutor.flush();
+
+        verify(javaScriptExecutor).executeJavaScript(
+                "try{" + throwingCallback + "\n}catch(e){setTimeout(function(){throw e;});}" +
+                        "try{" + callback + "\n}catch(e){setTimeout(function(){throw e;});}");
+    }
+
+    private static String isolated(String javaScript) {
+        StringBuilder builder = new StringBuilder();
+        BatchingJavaScriptExecutor.appendIsolated(builder, javaScript);
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,92 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.debug
+
+import android.os.SystemClock
+import com.urbanairship.Logger
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.GlobalScope
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+
+/**
+ * Buffers recorded items and writes them in batches off the caller thread. Items recorded within
+ * the batch window are written together, so a burst of events costs a single transaction instead
+ * of one insert per event.
+ */
+internal class BatchingRecorder<T>(
+    private val name: String,
+    private val windowMs: Long = DEFAULT_WINDOW_MS,
+    private val maxBatchSize: Int = DEFAULT_MAX_BATCH_SIZE,
+    private val scope: CoroutineScope = GlobalScope,
+    private val dispatcher: CoroutineDispatcher = Dispatchers.IO,
+    private val onFlush: (List<T>) -> Unit
+) {
+
+    companion object {
+        const val DEFAULT_WINDOW_MS = 250L
+        const val DEFAULT_MAX_BATCH_SIZE = 100
+    }
+
+    private val lock = Any()
+    private var pending = ArrayList<T>()
+    private var isFlushScheduled = false
+
+    private var recordedCount = 0L
+    private var writeTimeMs = 0L
+
+    /**
+     * Records an item. The item will be written within the batch window.
+     */
+    fun record(item: T) {
+        val flushNow: Boolean
+        synchronized(lock) {
+            pending.add(item)
+            flushNow = pending.size >= maxBatchSize
+            if (!flushNow && isFlushScheduled) {
+                return
+            }
+            isFlushScheduled = true
+        }
+
+        scope.launch(dispatcher) {
+            if (!flushNow) {
+                delay(windowMs)
+            }
+            flush()
+        }
+    }
+
+    /**
+     * Writes any pending items on the calling thread.
+     */
+    fun flush() {
+        val items = synchronized(lock) {
+            isFlushScheduled = false
+            val items = pending
+            pending = ArrayList()
+            items
+        }
+
+        if (items.isEmpty()) {
+            return
+        }
+
+        val start = SystemClock.elapsedRealtime()
+        try {
+            onFlush(items)
+        } catch (e: Exception) {
+            Logger.error(e, "Failed to store debug %s.", name)
+            return
+        }
+
+        val elapsed = SystemClock.elapsedRealtime() - start
+        synchronized(lock) {
+            recordedCount += items.size
+            writeTimeMs += elapsed
+            Logger.verbose("Stored %d debug %s in %d ms, %d ms total for %d.", items.size, name, elapsed, writeTimeMs, recordedCount)
+        }
+    }
+}
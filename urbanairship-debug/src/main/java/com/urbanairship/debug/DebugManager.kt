@@ -7,9 +7,11 @@ import androidx.annotation.RestrictTo
 import com.urbanairship.AirshipComponent
 import com.urbanairship.PreferenceDataStore
 import com.urbanairship.UAirship
+import com.urbanairship.analytics.Event
 import com.urbanairship.debug.event.EventListFragment
 import com.urbanairship.debug.event.persistence.EventEntity
 import com.urbanairship.debug.push.persistence.PushEntity
+import com.urbanairship.push.PushMessage
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.GlobalScope
 import kotlinx.coroutines.launch
@@ -28,10 +30,14 @@ class DebugManager(context: Context, preferenceDataStore: PreferenceDataStore) :
     override fun onAirshipReady(airship: UAirship) {
         super.onAirshipReady(airship)
 
+        val pushRecorder = BatchingRecorder<PushMessage>("pushes") { messages ->
+            val pushDao = ServiceLocator.shared(context).getPushDao()
+            pushDao.insertPushes(messages.map { PushEntity(it) })
+            pushDao.trimPushes(TRIM_PUSHES_COUNT)
+        }
+
         airship.pushManager.addInternalPushListener { message, _ ->
-            GlobalScope.launch(Dispatchers.IO) {
-                ServiceLocator.shared(context).getPushDao().insertPush(PushEntity(message))
-            }
+            pushRecorder.record(message)
         }
 
         GlobalScope.launch(Dispatchers.IO) {
@@ -47,12 +53,15 @@ class DebugManager(context: Context, preferenceDataStore: PreferenceDataStore) :
                     .trimPushes(TRIM_PUSHES_COUNT)
         }
 
+        // Payloads are created when the batch is written to keep the work off the analytics thread
+        val eventRecorder = BatchingRecorder<Pair<Event, String>>("events") { events ->
+            ServiceLocator.shared(context)
+                    .getEventDao()
+                    .insertEvents(events.map { EventEntity(it.first, it.second) })
+        }
+
         airship.analytics.addEventListener { event, session ->
-            GlobalScope.launch(Dispatchers.IO) {
-                ServiceLocator.shared(context)
-                        .getEventDao()
-                        .insertEvent(EventEntity(event, session))
-            }
+            eventRecorder.record(Pair(event, session))
         }
     }
 }
@@ -4,14 +4,13 @@ package com.urbanairship.debug.automation
 
 import android.view.LayoutInflater
 import android.view.ViewGroup
+import androidx.paging.PagedListAdapter
 import androidx.recyclerview.widget.DiffUtil
-import androidx.recyclerview.widget.ListAdapter
 import androidx.recyclerview.widget.RecyclerView
-import com.urbanairship.automation.Schedule
+import com.urbanairship.automation.storage.ScheduleSummary
 import com.urbanairship.debug.databinding.UaItemAutomationBinding
-import com.urbanairship.iam.InAppMessage
 
-internal class ScheduleListAdapter(private val callback: ((schedule: Schedule<InAppMessage>) -> Unit)) : ListAdapter<Schedule<InAppMessage>, ScheduleListAdapter.ViewHolder>(diffCallback) {
+internal class ScheduleListAdapter(private val callback: ((schedule: ScheduleSummary) -> Unit)) : PagedListAdapter<ScheduleSummary, ScheduleListAdapter.ViewHolder>(diffCallback) {
 
     class ViewHolder(val binding: UaItemAutomationBinding) : RecyclerView.ViewHolder(binding.root)
 
@@ -33,13 +32,16 @@ internal class ScheduleListAdapter(private val callback: ((schedule: Schedule<In
     }
 
     companion object {
-        private val diffCallback = object : DiffUtil.ItemCallback<Schedule<InAppMessage>>() {
-            override fun areItemsTheSame(oldItem: Schedule<InAppMessage>, newItem: Schedule<InAppMessage>): Boolean {
-                return oldItem == newItem
+        private val diffCallback = object : DiffUtil.ItemCallback<ScheduleSummary>() {
+            override fun areItemsTheSame(oldItem: ScheduleSummary, newItem: ScheduleSummary): Boolean {
+                return oldItem.scheduleId == newItem.scheduleId
             }
 
-            override fun areContentsTheSame(oldItem: Schedule<InAppMessage>, newItem: Schedule<InAppMessage>): Boolean {
-                return oldItem == newItem
+            override fun areContentsTheSame(oldItem: ScheduleSummary, newItem: ScheduleSummary): Boolean {
+                return oldItem.scheduleType == newItem.scheduleType &&
+                        oldItem.group == newItem.group &&
+                        oldItem.executionState == newItem.executionState &&
+                        oldItem.priority == newItem.priority
             }
         }
     }
@@ -26,7 +26,7 @@ class ScheduleListFragment : Fragment() {
         val automationAdapter = ScheduleListAdapter {
             if (isResumed) {
                 val args = Bundle()
-                args.putString(ScheduleDetailsFragment.ARGUMENT_SCHEDULE_ID, it.id)
+                args.putString(ScheduleDetailsFragment.ARGUMENT_SCHEDULE_ID, it.scheduleId)
                 Navigation.findNavController(binding.root).navigate(R.id.inAppScheduleDetailsFragment, args)
             }
         }
@@ -2,13 +2,27 @@
 
 package com.urbanairship.debug.automation
 
-import com.urbanairship.automation.Schedule
-import com.urbanairship.iam.InAppMessage
+import com.urbanairship.automation.storage.ScheduleState
+import com.urbanairship.automation.storage.ScheduleSummary
 
-class ScheduleListItem(schedule: Schedule<InAppMessage>) {
-    val message = schedule.data
+class ScheduleListItem(summary: ScheduleSummary) {
 
-    val type = message.type
+    val id = summary.scheduleId
 
-    val id = schedule.id
+    val type = summary.scheduleType.orEmpty()
+
+    val title = summary.group ?: summary.scheduleId
+
+    val state = when (summary.executionState) {
+        ScheduleState.IDLE -> "idle"
+        ScheduleState.WAITING_SCHEDULE_CONDITIONS -> "waiting"
+        ScheduleState.TIME_DELAYED -> "delayed"
+        ScheduleState.PREPARING_SCHEDULE -> "preparing"
+        ScheduleState.EXECUTING -> "executing"
+        ScheduleState.PAUSED -> "paused"
+        ScheduleState.FINISHED -> "finished"
+        else -> "unknown"
+    }
+
+    val priority = summary.priority
 }
@@ -3,22 +3,21 @@
 package com.urbanairship.debug.automation
 
 import androidx.lifecycle.LiveData
-import androidx.lifecycle.Transformations
 import androidx.lifecycle.ViewModel
-import com.urbanairship.automation.InAppAutomation
-import com.urbanairship.automation.Schedule
-import com.urbanairship.debug.utils.PendingResultLiveData
-import com.urbanairship.iam.InAppMessage
+import androidx.paging.LivePagedListBuilder
+import androidx.paging.PagedList
+import com.urbanairship.automation.storage.ScheduleSummary
 
-@Suppress("UNCHECKED_CAST")
 class ScheduleListViewModel : ViewModel() {
 
-    val schedules: LiveData<List<Schedule<InAppMessage>>>
-
-    init {
-        val pendingResultLiveData = PendingResultLiveData(InAppAutomation.shared().messageSchedules)
-        schedules = Transformations.map(pendingResultLiveData) { collection ->
-            collection.toList()
-        }
+    companion object {
+        private const val PAGE_SIZE = 30
     }
+
+    val schedules: LiveData<PagedList<ScheduleSummary>> = LivePagedListBuilder(ScheduleSummaryDataSource.Factory(),
+            PagedList.Config.Builder()
+                    .setPageSize(PAGE_SIZE)
+                    .setEnablePlaceholders(false)
+                    .build())
+            .build()
 }
@@ -0,0 +1,46 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.debug.automation
+
+import androidx.paging.DataSource
+import androidx.paging.PositionalDataSource
+import com.urbanairship.automation.InAppAutomation
+import com.urbanairship.automation.storage.ScheduleSummary
+
+/**
+ * Pages in-app message schedule summaries from the automation database. Only the summary columns
+ * are loaded, the full schedule is loaded by the details screen.
+ */
+internal class ScheduleSummaryDataSource : PositionalDataSource<ScheduleSummary>() {
+
+    override fun loadInitial(params: LoadInitialParams, callback: LoadInitialCallback<ScheduleSummary>) {
+        val count = InAppAutomation.shared().messageScheduleCount.get() ?: 0
+        if (count == 0) {
+            callback.onResult(emptyList(), 0, 0)
+            return
+        }
+
+        val position = computeInitialLoadPosition(params, count)
+        val size = computeInitialLoadSize(params, position, count)
+        val summaries = load(position, size)
+
+        // Schedules may have been removed since the count was loaded
+        if (summaries.size == size) {
+            callback.onResult(summaries, position, count)
+        } else {
+            invalidate()
+        }
+    }
+
+    override fun loadRange(params: LoadRangeParams, callback: LoadRangeCallback<ScheduleSummary>) {
+        callback.onResult(load(params.startPosition, params.loadSize))
+    }
+
+    private fun load(offset: Int, limit: Int): List<ScheduleSummary> {
+        return InAppAutomation.shared().getMessageScheduleSummaries(offset, limit).get() ?: emptyList()
+    }
+
+    class Factory : DataSource.Factory<Int, ScheduleSummary>() {
+        override fun create(): DataSource<Int, ScheduleSummary> = ScheduleSummaryDataSource()
+    }
+}
@@ -6,6 +6,7 @@ import androidx.annotation.RestrictTo
 import androidx.paging.DataSource
 import com.urbanairship.debug.event.persistence.EventDao
 import com.urbanairship.debug.event.persistence.EventEntity
+import java.util.concurrent.TimeUnit
 
 /**
  * Event repository.
@@ -18,6 +19,6 @@ class EventRepository(val dao: EventDao) {
     fun getEvent(eventId: String) = dao.getEvent(eventId)
 
     fun trimOldEvents(days: Int) {
-        dao.trimOldEvents(days)
+        dao.trimEventsBefore(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days.toLong()))
     }
 }
@@ -20,6 +20,9 @@ interface EventDao {
     @Insert
     fun insertEvent(event: EventEntity)
 
+    @Insert
+    fun insertEvents(events: List<EventEntity>)
+
     @Query("SELECT * FROM events ORDER BY id DESC")
     fun getEvents(): DataSource.Factory<Int, EventEntity>
 
@@ -29,9 +32,16 @@ interface EventDao {
     @Query("select * from events where eventId = :eventId")
     fun getEvent(eventId: String): LiveData<EventEntity?>
 
-    @Query("DELETE FROM events where eventId NOT IN (SELECT eventId from events ORDER BY time LIMIT :count)")
+    /**
+     * Deletes all but the newest [count] events. IDs are assigned in insert order, so this is a range delete
+     * on the primary key.
+     */
+    @Query("DELETE FROM events WHERE id <= (SELECT id FROM events ORDER BY id DESC LIMIT 1 OFFSET :count)")
     fun trimEvents(count: Long)
 
-    @Query("DELETE FROM events WHERE datetime( time / 1000 , 'unixepoch') < datetime('now', '-' || :days || ' day')")
-    fun trimOldEvents(days: Int)
+    /**
+     * Deletes events older than the [cutoff] time in milliseconds.
+     */
+    @Query("DELETE FROM events WHERE time < :cutoff")
+    fun trimEventsBefore(cutoff: Long)
 }
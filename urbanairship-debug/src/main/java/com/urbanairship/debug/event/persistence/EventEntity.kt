@@ -4,6 +4,7 @@ package com.urbanairship.debug.event.persistence
 
 import androidx.annotation.RestrictTo
 import androidx.room.Entity
+import androidx.room.Index
 import androidx.room.PrimaryKey
 import com.urbanairship.analytics.Event
 
@@ -11,7 +12,7 @@ import com.urbanairship.analytics.Event
  * Entities stored in the event database.\
  * @hide
  */
-@Entity(tableName = "events")
+@Entity(tableName = "events", indices = [Index("eventId"), Index("time")])
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 data class EventEntity(
     @PrimaryKey(autoGenerate = true)
@@ -19,12 +19,19 @@ interface PushDao {
     @Insert
     fun insertPush(push: PushEntity)
 
+    @Insert
+    fun insertPushes(pushes: List<PushEntity>)
+
     @Query("SELECT * FROM pushes ORDER BY id DESC")
     fun getPushes(): DataSource.Factory<Int, PushEntity>
 
     @Query("SELECT * FROM pushes WHERE pushId = :pushId")
     fun getPush(pushId: String): LiveData<PushEntity?>
 
-    @Query("DELETE FROM pushes where id NOT IN (SELECT id from pushes ORDER BY time LIMIT :count)")
+    /**
+     * Deletes all but the newest [count] pushes. IDs are assigned in insert order, so this is a range delete
+     * on the primary key.
+     */
+    @Query("DELETE FROM pushes WHERE id <= (SELECT id FROM pushes ORDER BY id DESC LIMIT 1 OFFSET :count)")
     fun trimPushes(count: Long)
 }
@@ -31,6 +31,7 @@ import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.modules.location.AirshipLocationClient;
 import com.urbanairship.util.AirshipHandlerThread;
+import com.urbanairship.util.Clock;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -66,11 +67,19 @@ public class AirshipLocationManager extends AirshipComponent implements AirshipL
     private final List<LocationListener> locationListeners = new ArrayList<>();
     private final AirshipChannel airshipChannel;
     private final Analytics analytics;
+    private final LocationUpdateFilter updateFilter;
 
     @VisibleForTesting
     final HandlerThread backgroundThread;
     private Handler backgroundHandler;
 
+    private final Runnable flushLocationUpdatesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushLocationUpdates();
+        }
+    };
+
     /**
      * When preferences are changed on the current process or other processes,
      * it will trigger the PreferenceChangeListener.  Instead of dealing
@@ -136,6 +145,12 @@ public class AirshipLocationManager extends AirshipComponent implements AirshipL
             @Override
             public void onBackground(long time) {
                 AirshipLocationManager.this.updateServiceConnection();
+
+                // The process may be killed while in the background, record any pending location now
+                if (backgroundHandler != null) {
+                    backgroundHandler.removeCallbacks(flushLocationUpdatesRunnable);
+                    backgroundHandler.post(flushLocationUpdatesRunnable);
+                }
             }
         };
         this.activityMonitor = activityMonitor;
@@ -146,6 +161,7 @@ public class AirshipLocationManager extends AirshipComponent implements AirshipL
 
         this.airshipChannel = airshipChannel;
         this.analytics = analytics;
+        this.updateFilter = new LocationUpdateFilter(Clock.DEFAULT_CLOCK);
     }
 
     @Override
@@ -456,7 +472,67 @@ public class AirshipLocationManager extends AirshipComponent implements AirshipL
         }
 
         // Record the location
-        recordLocation(location, getLocationRequestOptions(), LocationEvent.UPDATE_TYPE_CONTINUOUS);
+        LocationRequestOptions options = getLocationRequestOptions();
+        switch (updateFilter.onLocationUpdate(location, options)) {
+            case LocationUpdateFilter.RESULT_RECORD:
+                recordLocation(location, options, LocationEvent.UPDATE_TYPE_CONTINUOUS);
+                break;
+
+            case LocationUpdateFilter.RESULT_SCHEDULE_FLUSH:
+                if (backgroundHandler == null) {
+                    flushLocationUpdates();
+                } else {
+                    backgroundHandler.postDelayed(flushLocationUpdatesRunnable, updateFilter.getFlushDelay());
+                }
+                break;
+
+            case LocationUpdateFilter.RESULT_DROPPED:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Records the location that is pending in the update filter.
+     */
+    private void flushLocationUpdates() {
+        Location location = updateFilter.takePending();
+        if (location != null && isDataCollectionEnabled()) {
+            recordLocation(location, getLocationRequestOptions(), LocationEvent.UPDATE_TYPE_CONTINUOUS);
+        }
+    }
+
+    /**
+     * Gets the number of continuous location updates that were filtered out instead of recorded.
+     *
+     * @return The dropped location count.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getDroppedLocationCount() {
+        return updateFilter.getDroppedCount();
+    }
+
+    /**
+     * Gets the number of continuous location updates that were coalesced into a later update.
+     *
+     * @return The coalesced location count.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getCoalescedLocationCount() {
+        return updateFilter.getCoalescedCount();
+    }
+
+    /**
+     * Gets the number of continuous location updates that were recorded.
+     *
+     * @return The recorded location count.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getRecordedLocationCount() {
+        return updateFilter.getRecordedCount();
     }
 
     /**
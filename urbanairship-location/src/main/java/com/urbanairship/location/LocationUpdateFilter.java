@@ -0,0 +1,203 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.location;
+
+import android.location.Location;
+
+import com.urbanairship.Logger;
+import com.urbanairship.util.Clock;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Filters and coalesces continuous location updates before they are recorded.
+ * <p>
+ * The OS treats the min time and distance in {@link LocationRequestOptions} as hints, and the fused
+ * provider will deliver fixes requested by other apps. Recording uses stricter gates than the ones
+ * requested from the OS: a fix is only accepted once at least {@link #MIN_RECORD_INTERVAL_MS} (or
+ * the requested min time, if longer) has passed since the last accepted fix, and it has moved at
+ * least {@link #MIN_RECORD_DISTANCE_METERS} (or the requested min distance, if longer) beyond the
+ * combined accuracy radius of both fixes. Fixes that are too inaccurate to be useful are dropped.
+ * Accepted fixes are recorded at most once per batch window; any fixes that arrive within the
+ * window are coalesced into the latest one, which is recorded when the window closes.
+ */
+class LocationUpdateFilter {
+
+    /**
+     * Fixes with an accuracy radius larger than this are dropped.
+     */
+    static final float MAX_ACCURACY_METERS = 1000;
+
+    /**
+     * Minimum time between recorded locations.
+     */
+    static final long BATCH_WINDOW_MS = 60 * 1000;
+
+    /**
+     * Minimum time between accepted fixes.
+     */
+    static final long MIN_RECORD_INTERVAL_MS = 2 * 60 * 1000;
+
+    /**
+     * Minimum displacement between accepted fixes, beyond their combined accuracy radius.
+     */
+    static final float MIN_RECORD_DISTANCE_METERS = 250;
+
+    @IntDef({ RESULT_DROPPED, RESULT_RECORD, RESULT_SCHEDULE_FLUSH })
+    @Retention(RetentionPolicy.SOURCE)
+    @interface Result {}
+
+    /**
+     * The update was dropped or coalesced into a pending update.
+     */
+    static final int RESULT_DROPPED = 0;
+
+    /**
+     * The update should be recorded now.
+     */
+    static final int RESULT_RECORD = 1;
+
+    /**
+     * The update is pending, {@link #takePending()} should be called after {@link #getFlushDelay()}.
+     */
+    static final int RESULT_SCHEDULE_FLUSH = 2;
+
+    private final Clock clock;
+
+    private Location lastAccepted;
+    private Location pending;
+    private long lastRecordTime = -1;
+
+    private int droppedCount;
+    private int coalescedCount;
+    private int recordedCount;
+
+    /**
+     * Default constructor.
+     *
+     * @param clock The clock.
+     */
+    LocationUpdateFilter(@NonNull Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Filters a location update.
+     *
+     * @param location The location.
+     * @param options The request options the update was requested with.
+     * @return The filter result.
+     */
+    @Result
+    synchronized int onLocationUpdate(@NonNull Location location, @NonNull LocationRequestOptions options) {
+        if (location.hasAccuracy() && location.getAccuracy() > MAX_ACCURACY_METERS) {
+            Logger.verbose("LocationUpdateFilter - Dropping inaccurate location: %s", location);
+            return drop();
+        }
+
+        if (lastAccepted != null) {
+            long elapsed = location.getTime() - lastAccepted.getTime();
+            if (elapsed < Math.max(options.getMinTime(), MIN_RECORD_INTERVAL_MS)) {
+                Logger.verbose("LocationUpdateFilter - Dropping location within %d ms of the last location.", elapsed);
+                return drop();
+            }
+
+            // Movement within the accuracy radius of either fix could just be jitter
+            float displacement = location.distanceTo(lastAccepted) - location.getAccuracy() - lastAccepted.getAccuracy();
+            if (displacement < Math.max(options.getMinDistance(), MIN_RECORD_DISTANCE_METERS)) {
+                Logger.verbose("LocationUpdateFilter - Dropping location that moved %.0f meters beyond the accuracy of the last location.", displacement);
+                return drop();
+            }
+        }
+
+        lastAccepted = location;
+
+        if (pending != null) {
+            // Coalesce into the pending location, a flush is already scheduled
+            pending = location;
+            coalescedCount++;
+            return RESULT_DROPPED;
+        }
+
+        long now = clock.elapsedRealtime();
+        if (lastRecordTime == -1 || now - lastRecordTime >= BATCH_WINDOW_MS) {
+            onRecord(now);
+            return RESULT_RECORD;
+        }
+
+        pending = location;
+        return RESULT_SCHEDULE_FLUSH;
+    }
+
+    /**
+     * Gets the delay until the pending location should be recorded.
+     *
+     * @return The delay in milliseconds.
+     */
+    synchronized long getFlushDelay() {
+        if (lastRecordTime == -1) {
+            return 0;
+        }
+
+        return Math.max(0, lastRecordTime + BATCH_WINDOW_MS - clock.elapsedRealtime());
+    }
+
+    /**
+     * Takes the pending location.
+     *
+     * @return The location that should be recorded, or null if no location is pending.
+     */
+    @Nullable
+    synchronized Location takePending() {
+        Location location = pending;
+        if (location != null) {
+            pending = null;
+            onRecord(clock.elapsedRealtime());
+        }
+        return location;
+    }
+
+    /**
+     * Gets the number of updates that were dropped by the accuracy, time or distance gates.
+     *
+     * @return The dropped count.
+     */
+    synchronized int getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of accepted updates that were coalesced into a later update.
+     *
+     * @return The coalesced count.
+     */
+    synchronized int getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Gets the number of updates that were recorded.
+     *
+     * @return The recorded count.
+     */
+    synchronized int getRecordedCount() {
+        return recordedCount;
+    }
+
+    private int drop() {
+        droppedCount++;
+        return RESULT_DROPPED;
+    }
+
+    private void onRecord(long time) {
+        lastRecordTime = time;
+        recordedCount++;
+        Logger.verbose("LocationUpdateFilter - Recorded %d locations, dropped %d, coalesced %d.", recordedCount, droppedCount, coalescedCount);
+    }
+
+}
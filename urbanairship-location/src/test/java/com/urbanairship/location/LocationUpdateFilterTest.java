@@ -0,0 +1,140 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.location;
+
+import android.location.Location;
+
+import com.urbanairship.util.Clock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(AndroidJUnit4.class)
+public class LocationUpdateFilterTest {
+
+    private Clock clock;
+    private LocationUpdateFilter filter;
+    private LocationRequestOptions options;
+
+    @Before
+    public void setUp() {
+        clock = mock(Clock.class);
+        filter = new LocationUpdateFilter(clock);
+        options = LocationRequestOptions.newBuilder()
+                                        .setMinDistance(100)
+                                        .setMinTime(1000, TimeUnit.MILLISECONDS)
+                                        .build();
+    }
+
+    /**
+     * Test the first location is recorded immediately.
+     */
+    @Test
+    public void testFirstLocationRecorded() {
+        assertEquals(LocationUpdateFilter.RESULT_RECORD, filter.onLocationUpdate(createLocation(0, 0, 0), options));
+        assertEquals(1, filter.getRecordedCount());
+        assertEquals(0, filter.getDroppedCount());
+    }
+
+    /**
+     * Test inaccurate locations are dropped.
+     */
+    @Test
+    public void testInaccurateLocationDropped() {
+        Location location = createLocation(0, 0, 0);
+        location.setAccuracy(LocationUpdateFilter.MAX_ACCURACY_METERS + 1);
+
+        assertEquals(LocationUpdateFilter.RESULT_DROPPED, filter.onLocationUpdate(location, options));
+        assertEquals(1, filter.getDroppedCount());
+    }
+
+    /**
+     * Test locations within the recording interval or distance of the last location are dropped.
+     */
+    @Test
+    public void testMinDistanceAndTime() {
+        long interval = LocationUpdateFilter.MIN_RECORD_INTERVAL_MS;
+
+        filter.onLocationUpdate(createLocation(0, 0, 0), options);
+        when(clock.elapsedRealtime()).thenReturn(LocationUpdateFilter.BATCH_WINDOW_MS);
+
+        // Too close
+        assertEquals(LocationUpdateFilter.RESULT_DROPPED, filter.onLocationUpdate(createLocation(0.0001, 0, interval), options));
+
+        // Past the requested min time, but within the recording interval
+        assertEquals(LocationUpdateFilter.RESULT_DROPPED, filter.onLocationUpdate(createLocation(1, 0, 5000), options));
+
+        assertEquals(LocationUpdateFilter.RESULT_RECORD, filter.onLocationUpdate(createLocation(1, 0, interval), options));
+        assertEquals(2, filter.getDroppedCount());
+        assertEquals(2, filter.getRecordedCount());
+    }
+
+    /**
+     * Test the recording gates are stricter than the requested options.
+     */
+    @Test
+    public void testRecordingThresholds() {
+        long interval = LocationUpdateFilter.MIN_RECORD_INTERVAL_MS;
+
+        filter.onLocationUpdate(createLocation(0, 0, 0), options);
+        when(clock.elapsedRealtime()).thenReturn(LocationUpdateFilter.BATCH_WINDOW_MS);
+
+        // ~222 meters, past the requested min distance but within the recording distance
+        assertEquals(LocationUpdateFilter.RESULT_DROPPED, filter.onLocationUpdate(createLocation(0.002, 0, interval), options));
+
+        // ~555 meters, but within the combined accuracy of both fixes
+        Location inaccurate = createLocation(0.005, 0, interval);
+        inaccurate.setAccuracy(400);
+        assertEquals(LocationUpdateFilter.RESULT_DROPPED, filter.onLocationUpdate(inaccurate, options));
+
+        assertEquals(LocationUpdateFilter.RESULT_RECORD, filter.onLocationUpdate(createLocation(0.005, 0, interval), options));
+        assertEquals(2, filter.getDroppedCount());
+        assertEquals(0, filter.getCoalescedCount());
+    }
+
+    /**
+     * Test locations within the batch window are coalesced into the latest location.
+     */
+    @Test
+    public void testCoalesce() {
+        long interval = LocationUpdateFilter.MIN_RECORD_INTERVAL_MS;
+
+        filter.onLocationUpdate(createLocation(0, 0, 0), options);
+
+        when(clock.elapsedRealtime()).thenReturn(10L);
+        Location first = createLocation(1, 0, interval);
+        assertEquals(LocationUpdateFilter.RESULT_SCHEDULE_FLUSH, filter.onLocationUpdate(first, options));
+        assertEquals(LocationUpdateFilter.BATCH_WINDOW_MS - 10, filter.getFlushDelay());
+
+        Location second = createLocation(2, 0, interval * 2);
+        assertEquals(LocationUpdateFilter.RESULT_DROPPED, filter.onLocationUpdate(second, options));
+
+        when(clock.elapsedRealtime()).thenReturn(LocationUpdateFilter.BATCH_WINDOW_MS);
+        assertSame(second, filter.takePending());
+        assertNull(filter.takePending());
+
+        assertEquals(0, filter.getDroppedCount());
+        assertEquals(1, filter.getCoalescedCount());
+        assertEquals(2, filter.getRecordedCount());
+    }
+
+    private static Location createLocation(double latitude, double longitude, long time) {
+        Location location = new Location("provider");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setTime(time);
+        return location;
+    }
+
+}
@@ -83,6 +83,7 @@ public class Inbox {
     private final ApplicationListener listener;
     private final ActivityMonitor activityMonitor;
     private final AirshipChannel airshipChannel;
+    private final MessageBodyCache messageBodyCache;
 
     private boolean isFetchingMessages = false;
     private InboxJobHandler inboxJobHandler;
@@ -117,6 +118,7 @@ public class Inbox {
         this.executor = executor;
         this.jobDispatcher = jobDispatcher;
         this.airshipChannel = airshipChannel;
+        this.messageBodyCache = new MessageBodyCache(context);
         this.listener = new ApplicationListener() {
             @Override
             public void onForeground(long time) {
@@ -213,6 +215,18 @@ public class Inbox {
         activityMonitor.removeApplicationListener(listener);
     }
 
+    /**
+     * Gets the cache of prefetched message bodies.
+     *
+     * @return The message body cache.
+     * @hide
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public MessageBodyCache getMessageBodyCache() {
+        return messageBodyCache;
+    }
+
     /**
      * Returns the {@link User}.
      *
@@ -698,6 +712,18 @@ public class Inbox {
         jobDispatcher.dispatch(jobInfo);
     }
 
+    /**
+     * Dispatches a job to prefetch unread message bodies.
+     */
+    void dispatchPrefetchMessageBodiesJob() {
+        JobInfo jobInfo = JobInfo.newBuilder()
+                                 .setAction(InboxJobHandler.ACTION_PREFETCH_MESSAGE_BODIES)
+                                 .setAirshipComponent(MessageCenter.class)
+                                 .build();
+
+        jobDispatcher.dispatch(jobInfo);
+    }
+
     static class SentAtRichPushMessageComparator implements Comparator<Message> {
 
         @Override
@@ -18,6 +18,7 @@ import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.UAHttpStatusUtil;
 import com.urbanairship.util.UAStringUtil;
 
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
@@ -165,6 +166,26 @@ public class InboxApiClient {
                              .execute();
     }
 
+    @NonNull
+    Response<String> fetchMessageBody(@NonNull User user, @NonNull String messageBodyUrl) throws RequestException {
+        URL url;
+        try {
+            url = new URL(messageBodyUrl);
+        } catch (MalformedURLException e) {
+            throw new RequestException("Invalid message body URL: " + messageBodyUrl, e);
+        }
+
+        return requestFactory.createRequest()
+                             .setOperation("GET", url)
+                             .setCredentials(user.getId(), user.getPassword())
+                             .execute(new ResponseParser<String>() {
+                                 @Override
+                                 public String parseResponse(int status, @Nullable Map<String, List<String>> headers, @Nullable String responseBody) {
+                                     return UAHttpStatusUtil.inSuccessRange(status) ? responseBody : null;
+                                 }
+                             });
+    }
+
     /**
      * Gets the URL for inbox/user api calls
      *
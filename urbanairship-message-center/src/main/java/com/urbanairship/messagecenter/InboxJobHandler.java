@@ -46,6 +46,11 @@ class InboxJobHandler {
      */
     static final String ACTION_RICH_PUSH_USER_UPDATE = "ACTION_RICH_PUSH_USER_UPDATE";
 
+    /**
+     * Starts the service to prefetch unread message bodies.
+     */
+    static final String ACTION_PREFETCH_MESSAGE_BODIES = "ACTION_PREFETCH_MESSAGE_BODIES";
+
     /**
      * Extra key to indicate if the rich push user needs to be updated forcefully.
      */
@@ -56,11 +61,17 @@ class InboxJobHandler {
     private static final String LAST_UPDATE_TIME = "com.urbanairship.user.LAST_UPDATE_TIME";
     private static final long USER_UPDATE_INTERVAL_MS = 24 * 60 * 60 * 1000; //24H
 
+    /**
+     * Max message bodies prefetched per update.
+     */
+    private static final int MAX_PREFETCH_MESSAGES = 10;
+
     private final MessageCenterResolver resolver;
     private final User user;
     private final Inbox inbox;
     private final PreferenceDataStore dataStore;
     private final AirshipChannel channel;
+    private final MessageBodyCache messageBodyCache;
 
     private final InboxApiClient inboxApiClient;
 
@@ -70,7 +81,8 @@ class InboxJobHandler {
                     @NonNull AirshipChannel channel,
                     @NonNull AirshipRuntimeConfig runtimeConfig,
                     @NonNull PreferenceDataStore dataStore) {
-        this(inbox, user, channel, dataStore, new MessageCenterResolver(context), new InboxApiClient(runtimeConfig));
+        this(inbox, user, channel, dataStore, new MessageCenterResolver(context), new InboxApiClient(runtimeConfig),
+                inbox.getMessageBodyCache());
     }
 
     @VisibleForTesting
@@ -79,13 +91,15 @@ class InboxJobHandler {
                     @NonNull AirshipChannel channel,
                     @NonNull PreferenceDataStore dataStore,
                     @NonNull MessageCenterResolver resolver,
-                    @NonNull InboxApiClient inboxApiClient) {
+                    @NonNull InboxApiClient inboxApiClient,
+                    @NonNull MessageBodyCache messageBodyCache) {
         this.inbox = inbox;
         this.user = user;
         this.channel = channel;
         this.dataStore = dataStore;
         this.resolver = resolver;
         this.inboxApiClient = inboxApiClient;
+        this.messageBodyCache = messageBodyCache;
     }
 
     /**
@@ -108,6 +122,10 @@ class InboxJobHandler {
             case ACTION_SYNC_MESSAGE_STATE:
                 onSyncMessages();
                 break;
+
+            case ACTION_PREFETCH_MESSAGE_BODIES:
+                onPrefetchMessageBodies();
+                break;
         }
 
         return JobInfo.JOB_FINISHED;
@@ -126,6 +144,10 @@ class InboxJobHandler {
             inbox.onUpdateMessagesFinished(success);
             this.syncReadMessageState();
             this.syncDeletedMessageState();
+
+            if (success) {
+                inbox.dispatchPrefetchMessageBodiesJob();
+            }
         }
     }
 
@@ -245,6 +267,42 @@ class InboxJobHandler {
         resolver.deleteMessages(deletedMessageIds);
     }
 
+    /**
+     * Downloads unread message bodies so they can be displayed without waiting on the network.
+     */
+    private void onPrefetchMessageBodies() {
+        if (!user.isUserCreated()) {
+            Logger.debug("InboxJobHandler - User has not been created, canceling message body prefetch");
+            return;
+        }
+
+        messageBodyCache.retainAll(inbox.getMessageIds());
+
+        int count = 0;
+        for (Message message : inbox.getUnreadMessages()) {
+            if (count >= MAX_PREFETCH_MESSAGES) {
+                break;
+            }
+
+            if (message.isExpired() || messageBodyCache.contains(message)) {
+                continue;
+            }
+
+            count++;
+
+            try {
+                Response<String> response = inboxApiClient.fetchMessageBody(user, message.getMessageBodyUrl());
+                if (response.isSuccessful() && response.getResult() != null) {
+                    messageBodyCache.put(message, response.getResult());
+                } else {
+                    Logger.debug("InboxJobHandler - Unable to prefetch message body %s.", response);
+                }
+            } catch (RequestException e) {
+                Logger.debug(e, "InboxJobHandler - Message body prefetch failed.");
+            }
+        }
+    }
+
     /**
      * Synchronizes local deleted message state with the server.
      */
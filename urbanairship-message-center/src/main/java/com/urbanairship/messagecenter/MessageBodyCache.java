@@ -0,0 +1,562 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.messagecenter;
+
+import android.content.Context;
+import android.webkit.WebResourceResponse;
+
+import com.urbanairship.Logger;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.FileUtils;
+import com.urbanairship.util.UAStringUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Disk cache for prefetched message bodies and the assets they reference.
+ * <p>
+ * Entries are keyed by the message ID and sent date, and evicted least recently used first once
+ * the cache grows past its max size.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class MessageBodyCache {
+
+    private static final String CACHE_DIR = "urbanairship-message-bodies";
+    private static final long MAX_CACHE_SIZE = 1024 * 1024 * 20; // 20MB
+
+    /**
+     * Max assets cached per message.
+     */
+    private static final int MAX_ASSETS = 10;
+
+    private static final String INDEX_FILE = "index.json";
+    private static final String BODY_FILE = "body";
+    private static final String ASSET_FILE_PREFIX = "asset_";
+    private static final String TEMP_DIRECTORY_SUFFIX = ".tmp";
+
+    private static final String BODY_MIME_TYPE = "text/html";
+    private static final String BODY_ENCODING = "UTF-8";
+    private static final String DEFAULT_ASSET_MIME_TYPE = "application/octet-stream";
+
+    // Index keys
+    private static final String MESSAGE_ID_KEY = "message_id";
+    private static final String VERSION_KEY = "version";
+    private static final String RESOURCES_KEY = "resources";
+    private static final String URL_KEY = "url";
+    private static final String FILE_KEY = "file";
+    private static final String MIME_TYPE_KEY = "mime_type";
+    private static final String ENCODING_KEY = "encoding";
+
+    private static final Pattern SRC_PATTERN = Pattern.compile("\\ssrc\\s*=\\s*[\"']([^\"']+)[\"']", Pattern.CASE_INSENSITIVE);
+
+    private final File directory;
+    private final long maxSize;
+
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicInteger missCount = new AtomicInteger();
+
+    // Loaded on first access. Guarded by this.
+    private Map<String, Entry> entries;
+    private Map<String, Resource> resources;
+
+    /**
+     * Default constructor.
+     *
+     * @param context The application context.
+     */
+    MessageBodyCache(@NonNull Context context) {
+        this(new File(context.getCacheDir(), CACHE_DIR), MAX_CACHE_SIZE);
+    }
+
+    @VisibleForTesting
+    MessageBodyCache(@NonNull File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Checks if the current version of the message body is cached.
+     *
+     * @param message The message.
+     * @return {@code true} if cached, otherwise {@code false}.
+     */
+    @WorkerThread
+    synchronized boolean contains(@NonNull Message message) {
+        Entry entry = getEntries().get(message.getMessageId());
+        return entry != null && entry.version == message.getSentDateMS();
+    }
+
+    /**
+     * Caches a message body and downloads the assets it references.
+     *
+     * @param message The message.
+     * @param body The message body.
+     */
+    @WorkerThread
+    void put(@NonNull Message message, @NonNull String body) {
+        // Written to a temp directory and moved into place under the lock, so readers never see a
+        // partially written entry
+        File entryDirectory = getEntryDirectory(message.getMessageId());
+        File tempDirectory = new File(directory, entryDirectory.getName() + TEMP_DIRECTORY_SUFFIX);
+        FileUtils.deleteRecursively(tempDirectory);
+        if (!tempDirectory.mkdirs()) {
+            Logger.error("MessageBodyCache - Failed to create cache directory.");
+            return;
+        }
+
+        List<Resource> entryResources = new ArrayList<>();
+
+        try {
+            writeFile(new File(tempDirectory, BODY_FILE), body.getBytes(BODY_ENCODING));
+        } catch (IOException e) {
+            Logger.debug(e, "MessageBodyCache - Failed to cache message body.");
+            FileUtils.deleteRecursively(tempDirectory);
+            return;
+        }
+
+        entryResources.add(new Resource(message.getMessageBodyUrl(), new File(entryDirectory, BODY_FILE), BODY_MIME_TYPE, BODY_ENCODING));
+
+        int assetCount = 0;
+        for (String assetUrl : findAssetUrls(message.getMessageBodyUrl(), body)) {
+            if (assetCount >= MAX_ASSETS) {
+                break;
+            }
+
+            String fileName = ASSET_FILE_PREFIX + assetCount;
+            try {
+                if (FileUtils.downloadFile(new URL(assetUrl), new File(tempDirectory, fileName)).isSuccess) {
+                    String mimeType = URLConnection.guessContentTypeFromName(new URL(assetUrl).getPath());
+                    entryResources.add(new Resource(assetUrl, new File(entryDirectory, fileName), mimeType == null ? DEFAULT_ASSET_MIME_TYPE : mimeType, null));
+                    assetCount++;
+                }
+            } catch (IOException e) {
+                Logger.debug(e, "MessageBodyCache - Failed to cache asset %s", assetUrl);
+            }
+        }
+
+        Entry entry = new Entry(message.getMessageId(), message.getSentDateMS(), entryDirectory, entryResources);
+        try {
+            writeFile(new File(tempDirectory, INDEX_FILE), entry.toJsonValue().toString().getBytes(BODY_ENCODING));
+        } catch (IOException e) {
+            Logger.debug(e, "MessageBodyCache - Failed to write cache index.");
+            FileUtils.deleteRecursively(tempDirectory);
+            return;
+        }
+
+        synchronized (this) {
+            // Unregister the previous entry before its files are replaced. Streams already handed
+            // out keep reading the old files.
+            Entry previous = getEntries().remove(entry.messageId);
+            if (previous != null) {
+                removeResources(previous);
+            }
+
+            FileUtils.deleteRecursively(entryDirectory);
+            if (!tempDirectory.renameTo(entryDirectory)) {
+                Logger.debug("MessageBodyCache - Failed to move cache entry into place.");
+                FileUtils.deleteRecursively(tempDirectory);
+                return;
+            }
+
+            // Recreate the entry now that the files are in place so its size is computed
+            entry = new Entry(entry.messageId, entry.version, entryDirectory, entryResources);
+            entries.put(entry.messageId, entry);
+            for (Resource resource : entry.resources) {
+                resources.put(resource.url, resource);
+            }
+
+            trim();
+        }
+    }
+
+    /**
+     * Removes any cached messages that are not in the set of message IDs.
+     *
+     * @param messageIds The message IDs to keep.
+     */
+    @WorkerThread
+    synchronized void retainAll(@NonNull Set<String> messageIds) {
+        Iterator<Entry> iterator = getEntries().values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!messageIds.contains(entry.messageId)) {
+                iterator.remove();
+                removeResources(entry);
+                FileUtils.deleteRecursively(entry.directory);
+            }
+        }
+    }
+
+    /**
+     * Gets a cached response for a URL.
+     *
+     * @param url The URL.
+     * @return The cached response, or null if the URL is not cached.
+     */
+    @Nullable
+    @WorkerThread
+    public WebResourceResponse getResponse(@Nullable String url) {
+        Resource resource;
+        synchronized (this) {
+            getEntries();
+            resource = url == null ? null : resources.get(url);
+        }
+
+        if (resource != null) {
+            try {
+                InputStream inputStream = new FileInputStream(resource.file);
+                resource.touch();
+                logHitRatio(hitCount.incrementAndGet(), missCount.get());
+                return new WebResourceResponse(resource.mimeType, resource.encoding, inputStream);
+            } catch (FileNotFoundException e) {
+                Logger.debug(e, "MessageBodyCache - Cached file missing for %s", url);
+            }
+        }
+
+        logHitRatio(hitCount.get(), missCount.incrementAndGet());
+        return null;
+    }
+
+    /**
+     * Gets the number of requests served from the cache.
+     *
+     * @return The hit count.
+     */
+    public int getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of requests that were not in the cache.
+     *
+     * @return The miss count.
+     */
+    public int getMissCount() {
+        return missCount.get();
+    }
+
+    private static void logHitRatio(int hits, int misses) {
+        Logger.verbose("MessageBodyCache - Hit ratio %d/%d", hits, hits + misses);
+    }
+
+    /**
+     * Finds the absolute URLs of assets referenced with a src attribute.
+     *
+     * @param baseUrl The URL of the body.
+     * @param body The body.
+     * @return The asset URLs.
+     */
+    @NonNull
+    @VisibleForTesting
+    static Collection<String> findAssetUrls(@Nullable String baseUrl, @NonNull String body) {
+        Set<String> urls = new LinkedHashSet<>();
+
+        URL base = null;
+        try {
+            base = baseUrl == null ? null : new URL(baseUrl);
+        } catch (MalformedURLException e) {
+            Logger.debug(e, "MessageBodyCache - Invalid body URL %s", baseUrl);
+        }
+
+        Matcher matcher = SRC_PATTERN.matcher(body);
+        while (matcher.find()) {
+            try {
+                URL url = base == null ? new URL(matcher.group(1)) : new URL(base, matcher.group(1));
+                if ("http".equals(url.getProtocol()) || "https".equals(url.getProtocol())) {
+                    urls.add(url.toString());
+                }
+            } catch (MalformedURLException e) {
+                Logger.verbose("MessageBodyCache - Ignoring asset %s", matcher.group(1));
+            }
+        }
+
+        return urls;
+    }
+
+    /**
+     * Loads the entries from disk on first access. Must be called while holding the lock.
+     *
+     * @return The entries.
+     */
+    @NonNull
+    private Map<String, Entry> getEntries() {
+        if (entries != null) {
+            return entries;
+        }
+
+        entries = new HashMap<>();
+        resources = new HashMap<>();
+
+        File[] entryDirectories = directory.listFiles();
+        if (entryDirectories == null) {
+            return entries;
+        }
+
+        for (File entryDirectory : entryDirectories) {
+            // Left over from a put that did not finish
+            if (entryDirectory.getName().endsWith(TEMP_DIRECTORY_SUFFIX)) {
+                FileUtils.deleteRecursively(entryDirectory);
+                continue;
+            }
+
+            Entry entry = Entry.read(entryDirectory);
+            if (entry == null) {
+                FileUtils.deleteRecursively(entryDirectory);
+                continue;
+            }
+
+            entries.put(entry.messageId, entry);
+            for (Resource resource : entry.resources) {
+                resources.put(resource.url, resource);
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits. Must be called while holding the lock.
+     */
+    private void trim() {
+        long size = 0;
+        for (Entry entry : entries.values()) {
+            size += entry.size;
+        }
+
+        while (size > maxSize && !entries.isEmpty()) {
+            Entry oldest = null;
+            for (Entry entry : entries.values()) {
+                if (oldest == null || entry.getLastAccess() < oldest.getLastAccess()) {
+                    oldest = entry;
+                }
+            }
+
+            entries.remove(oldest.messageId);
+            removeResources(oldest);
+            FileUtils.deleteRecursively(oldest.directory);
+            size -= oldest.size;
+        }
+    }
+
+    /**
+     * Removes the entry's resources. Assets shared with another cached entry are pointed at that
+     * entry's copy instead. Must be called while holding the lock, after the entry is removed from
+     * the entries.
+     *
+     * @param entry The removed entry.
+     */
+    private void removeResources(@NonNull Entry entry) {
+        for (Resource resource : entry.resources) {
+            if (resources.get(resource.url) != resource) {
+                continue;
+            }
+
+            resources.remove(resource.url);
+            for (Entry other : entries.values()) {
+                Resource shared = other.getResource(resource.url);
+                if (shared != null) {
+                    resources.put(shared.url, shared);
+                    break;
+                }
+            }
+        }
+    }
+
+    @NonNull
+    private File getEntryDirectory(@NonNull String messageId) {
+        String name = UAStringUtil.sha256(messageId);
+        return new File(directory, name == null ? Integer.toHexString(messageId.hashCode()) : name);
+    }
+
+    private static void writeFile(@NonNull File file, @NonNull byte[] bytes) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(bytes);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * A cached file.
+     */
+    private static class Resource {
+
+        private final String url;
+        private final File file;
+        private final String mimeType;
+        private final String encoding;
+
+        Resource(@NonNull String url, @NonNull File file, @NonNull String mimeType, @Nullable String encoding) {
+            this.url = url;
+            this.file = file;
+            this.mimeType = mimeType;
+            this.encoding = encoding;
+        }
+
+        /**
+         * Marks the entry as recently used.
+         */
+        void touch() {
+            File index = new File(file.getParentFile(), INDEX_FILE);
+            if (!index.setLastModified(System.currentTimeMillis())) {
+                Logger.verbose("MessageBodyCache - Unable to update last access time for %s", index);
+            }
+        }
+
+    }
+
+    /**
+     * A cached message body and its assets.
+     */
+    private static class Entry {
+
+        private final String messageId;
+        private final long version;
+        private final File directory;
+        private final List<Resource> resources;
+        private final long size;
+
+        Entry(@NonNull String messageId, long version, @NonNull File directory, @NonNull List<Resource> resources) {
+            this.messageId = messageId;
+            this.version = version;
+            this.directory = directory;
+            this.resources = resources;
+
+            long size = 0;
+            for (Resource resource : resources) {
+                size += resource.file.length();
+            }
+            this.size = size;
+        }
+
+        long getLastAccess() {
+            return new File(directory, INDEX_FILE).lastModified();
+        }
+
+        @Nullable
+        Resource getResource(@NonNull String url) {
+            for (Resource resource : resources) {
+                if (resource.url.equals(url)) {
+                    return resource;
+                }
+            }
+            return null;
+        }
+
+        @NonNull
+        JsonValue toJsonValue() {
+            List<JsonMap> resourcesJson = new ArrayList<>();
+            for (Resource resource : resources) {
+                resourcesJson.add(JsonMap.newBuilder()
+                                         .put(URL_KEY, resource.url)
+                                         .put(FILE_KEY, resource.file.getName())
+                                         .put(MIME_TYPE_KEY, resource.mimeType)
+                                         .put(ENCODING_KEY, resource.encoding)
+                                         .build());
+            }
+
+            return JsonMap.newBuilder()
+                          .put(MESSAGE_ID_KEY, messageId)
+                          .put(VERSION_KEY, version)
+                          .putOpt(RESOURCES_KEY, resourcesJson)
+                          .build()
+                          .toJsonValue();
+        }
+
+        /**
+         * Reads an entry from its directory.
+         *
+         * @param directory The entry directory.
+         * @return The entry, or null if the entry is incomplete.
+         */
+        @Nullable
+        static Entry read(@NonNull File directory) {
+            File index = new File(directory, INDEX_FILE);
+            if (!index.exists()) {
+                return null;
+            }
+
+            JsonMap json;
+            try {
+                json = JsonValue.parseString(readFile(index)).optMap();
+            } catch (IOException | JsonException e) {
+                Logger.debug(e, "MessageBodyCache - Invalid cache index %s", index);
+                return null;
+            }
+
+            String messageId = json.opt(MESSAGE_ID_KEY).getString();
+            if (messageId == null) {
+                return null;
+            }
+
+            List<Resource> resources = new ArrayList<>();
+            for (JsonValue value : json.opt(RESOURCES_KEY).optList()) {
+                JsonMap resourceJson = value.optMap();
+                String url = resourceJson.opt(URL_KEY).getString();
+                String fileName = resourceJson.opt(FILE_KEY).getString();
+                String mimeType = resourceJson.opt(MIME_TYPE_KEY).getString();
+                if (url == null || fileName == null || mimeType == null) {
+                    return null;
+                }
+
+                File file = new File(directory, fileName);
+                if (!file.exists()) {
+                    return null;
+                }
+
+                resources.add(new Resource(url, file, mimeType, resourceJson.opt(ENCODING_KEY).getString()));
+            }
+
+            return new Entry(messageId, json.opt(VERSION_KEY).getLong(-1), directory, resources);
+        }
+
+        @NonNull
+        private static String readFile(@NonNull File file) throws IOException {
+            InputStream inputStream = new FileInputStream(file);
+            try {
+                byte[] bytes = new byte[(int) file.length()];
+                int offset = 0;
+                int read;
+                while (offset < bytes.length && (read = inputStream.read(bytes, offset, bytes.length - offset)) != -1) {
+                    offset += read;
+                }
+                return new String(bytes, 0, offset, BODY_ENCODING);
+            } finally {
+                inputStream.close();
+            }
+        }
+
+    }
+
+}
@@ -7,6 +7,7 @@ import android.content.Intent;
 import android.net.Uri;
 
 import com.urbanairship.AirshipComponent;
+import com.urbanairship.AirshipExecutors;
 import com.urbanairship.AirshipComponentGroups;
 import com.urbanairship.Logger;
 import com.urbanairship.Predicate;
@@ -19,6 +20,8 @@ import com.urbanairship.push.PushManager;
 import com.urbanairship.push.PushMessage;
 import com.urbanairship.util.UAStringUtil;
 
+import java.util.concurrent.Executor;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -51,6 +54,8 @@ public class MessageCenter extends AirshipComponent {
 
     private Predicate<Message> predicate;
 
+    private final Executor prefetchExecutor = AirshipExecutors.newSerialExecutor();
+
     /**
      * Listener for showing the message center. If set, the listener
      * will be called to show the message center instead of the default behavior. For more
@@ -152,6 +157,21 @@ public class MessageCenter extends AirshipComponent {
         return AirshipComponentGroups.MESSAGE_CENTER;
     }
 
+    /**
+     * @hide
+     */
+    @NonNull
+    @Override
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public Executor getJobExecutor(@NonNull JobInfo jobInfo) {
+        // Prefetching message bodies can take a while, keep it from delaying inbox updates
+        if (InboxJobHandler.ACTION_PREFETCH_MESSAGE_BODIES.equals(jobInfo.getAction())) {
+            return prefetchExecutor;
+        }
+
+        return super.getJobExecutor(jobInfo);
+    }
+
     /**
      * @hide
      */
@@ -3,6 +3,7 @@
 package com.urbanairship.messagecenter.webkit;
 
 import android.os.Bundle;
+import android.webkit.WebResourceResponse;
 import android.webkit.WebView;
 
 import com.urbanairship.actions.ActionArguments;
@@ -84,6 +85,21 @@ public class MessageWebViewClient extends AirshipWebViewClient {
 
     }
 
+    /**
+     * Serves prefetched message bodies and assets from the cache.
+     */
+    @CallSuper
+    @Override
+    @Nullable
+    public WebResourceResponse shouldInterceptRequest(@NonNull WebView webView, @NonNull String url) {
+        WebResourceResponse response = super.shouldInterceptRequest(webView, url);
+        if (response != null) {
+            return response;
+        }
+
+        return MessageCenter.shared().getInbox().getMessageBodyCache().getResponse(url);
+    }
+
     /**
      * Helper method to get the RichPushMessage from the web view.
      *
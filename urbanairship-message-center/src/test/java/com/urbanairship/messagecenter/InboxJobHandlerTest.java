@@ -22,6 +22,7 @@ import org.mockito.Mockito;
 
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -34,10 +35,14 @@ import static junit.framework.Assert.assertFalse;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNull;
 import static junit.framework.TestCase.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(AndroidJUnit4.class)
@@ -50,6 +55,7 @@ public class InboxJobHandlerTest {
     private AirshipChannel mockChannel;
     private MessageCenterResolver mockResolver;
     private InboxApiClient mockInboxApiClient;
+    private MessageBodyCache mockMessageBodyCache;
 
     private User user;
     private PreferenceDataStore dataStore;
@@ -76,8 +82,10 @@ public class InboxJobHandlerTest {
         // Clear any user or password
         user.setUser(null, null);
 
+        mockMessageBodyCache = mock(MessageBodyCache.class);
+
         jobHandler = new InboxJobHandler(inbox, user, mockChannel, dataStore,
-                mockResolver, mockInboxApiClient);
+                mockResolver, mockInboxApiClient, mockMessageBodyCache);
     }
 
     /**
@@ -170,6 +178,10 @@ public class InboxJobHandlerTest {
 
         // Verify we updated the inbox
         verify(inbox).refresh(true);
+
+        // Verify message bodies are prefetched in a separate job
+        verify(inbox).dispatchPrefetchMessageBodiesJob();
+        verify(mockInboxApiClient, never()).fetchMessageBody(any(User.class), anyString());
     }
 
     /**
@@ -252,6 +264,9 @@ public class InboxJobHandlerTest {
 
         // Verify we updated the inbox
         verify(inbox).refresh(true);
+
+        // Verify message bodies are not prefetched
+        verify(inbox, never()).dispatchPrefetchMessageBodiesJob();
     }
 
     @Test
@@ -655,8 +670,111 @@ public class InboxJobHandlerTest {
         assertFalse(userListener.lastUpdateUserResult);
     }
 
+    /**
+     * Test prefetching message bodies.
+     */
+    @Test
+    public void testPrefetchMessageBodies() throws RequestException, JsonException {
+        user.setUser("fakeUserId", "password");
+
+        Set<String> messageIds = new HashSet<>();
+        List<Message> unreadMessages = new ArrayList<>();
+
+        Message expired = createFakeMessage("expired", true, false, "2015-01-01 00:00:00");
+        Message cached = createFakeMessage("cached", true, false);
+        unreadMessages.add(expired);
+        unreadMessages.add(cached);
+        when(mockMessageBodyCache.contains(cached)).thenReturn(true);
+
+        for (int i = 0; i < 12; i++) {
+            unreadMessages.add(createFakeMessage("message-" + i, true, false));
+        }
+
+        for (Message message : unreadMessages) {
+            messageIds.add(message.getMessageId());
+        }
+
+        when(inbox.getMessageIds()).thenReturn(messageIds);
+        when(inbox.getUnreadMessages()).thenReturn(unreadMessages);
+        when(mockInboxApiClient.fetchMessageBody(any(User.class), anyString()))
+                .thenReturn(new Response.Builder<String>(HttpURLConnection.HTTP_OK)
+                        .setResult("<html>body</html>")
+                        .build());
+
+        JobInfo jobInfo = JobInfo.newBuilder()
+                                 .setAction(InboxJobHandler.ACTION_PREFETCH_MESSAGE_BODIES)
+                                 .build();
+
+        assertEquals(JobInfo.JOB_FINISHED, jobHandler.performJob(jobInfo));
+
+        // Messages no longer in the inbox are removed
+        verify(mockMessageBodyCache).retainAll(messageIds);
+
+        // Expired and cached messages are skipped, and only 10 are fetched
+        verify(mockMessageBodyCache, never()).put(eq(expired), anyString());
+        verify(mockMessageBodyCache, never()).put(eq(cached), anyString());
+        verify(mockInboxApiClient, times(10)).fetchMessageBody(any(User.class), anyString());
+
+        for (int i = 0; i < 10; i++) {
+            verify(mockMessageBodyCache).put(unreadMessages.get(i + 2), "<html>body</html>");
+        }
+        verify(mockMessageBodyCache, never()).put(eq(unreadMessages.get(12)), anyString());
+        verify(mockMessageBodyCache, never()).put(eq(unreadMessages.get(13)), anyString());
+    }
+
+    /**
+     * Test failed message body fetches are skipped.
+     */
+    @Test
+    public void testPrefetchMessageBodiesFailures() throws RequestException, JsonException {
+        user.setUser("fakeUserId", "password");
+
+        Message first = createFakeMessage("first", true, false);
+        Message second = createFakeMessage("second", true, false);
+        Message third = createFakeMessage("third", true, false);
+
+        when(inbox.getMessageIds()).thenReturn(new HashSet<>(Arrays.asList("first", "second", "third")));
+        when(inbox.getUnreadMessages()).thenReturn(Arrays.asList(first, second, third));
+        when(mockInboxApiClient.fetchMessageBody(any(User.class), anyString()))
+                .thenReturn(new Response.Builder<String>(HttpURLConnection.HTTP_INTERNAL_ERROR).build())
+                .thenThrow(new RequestException("error"))
+                .thenReturn(new Response.Builder<String>(HttpURLConnection.HTTP_OK)
+                        .setResult("<html>body</html>")
+                        .build());
+
+        JobInfo jobInfo = JobInfo.newBuilder()
+                                 .setAction(InboxJobHandler.ACTION_PREFETCH_MESSAGE_BODIES)
+                                 .build();
+
+        assertEquals(JobInfo.JOB_FINISHED, jobHandler.performJob(jobInfo));
+
+        verify(mockMessageBodyCache, never()).put(eq(first), anyString());
+        verify(mockMessageBodyCache, never()).put(eq(second), anyString());
+        verify(mockMessageBodyCache).put(third, "<html>body</html>");
+    }
+
+    /**
+     * Test message bodies are not prefetched without a user.
+     */
+    @Test
+    public void testPrefetchMessageBodiesUserNotCreated() throws RequestException {
+        JobInfo jobInfo = JobInfo.newBuilder()
+                                 .setAction(InboxJobHandler.ACTION_PREFETCH_MESSAGE_BODIES)
+                                 .build();
+
+        assertEquals(JobInfo.JOB_FINISHED, jobHandler.performJob(jobInfo));
+
+        verify(mockInboxApiClient, never()).fetchMessageBody(any(User.class), anyString());
+        verifyZeroInteractions(mockMessageBodyCache);
+    }
+
     private Message createFakeMessage(String messageId, boolean unread, boolean deleted) throws JsonException {
+        return createFakeMessage(messageId, unread, deleted, null);
+    }
+
+    private Message createFakeMessage(String messageId, boolean unread, boolean deleted, String expiry) throws JsonException {
         JsonValue messageJson = JsonValue.parseString("{\"message_id\": \"" + messageId + "\"," +
+                (expiry == null ? "" : "\"message_expiry\": \"" + expiry + "\",") +
                 "\"message_url\": \"https://go.urbanairship.com/api/user/userId/messages/message/some_mesg_id/\"," +
                 "\"message_body_url\": \"https://go.urbanairship.com/api/user/userId/messages/message/some_mesg_id/body/\"," +
                 "\"message_read_url\": \"https://go.urbanairship.com/api/user/userId/messages/message/some_mesg_id/read/\"," +
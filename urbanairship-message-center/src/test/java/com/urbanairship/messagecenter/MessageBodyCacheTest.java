@@ -0,0 +1,180 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.messagecenter;
+
+import android.webkit.WebResourceResponse;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * {@link MessageBodyCache} tests.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MessageBodyCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+    private MessageBodyCache cache;
+
+    @Before
+    public void setup() {
+        directory = new File(temporaryFolder.getRoot(), "bodies");
+        cache = new MessageBodyCache(directory, 1024 * 1024);
+    }
+
+    /**
+     * Test finding asset URLs in a message body.
+     */
+    @Test
+    public void testFindAssetUrls() {
+        String body = "<html><img src=\"https://example.com/image.png\">" +
+                "<script SRC='/js/app.js'></script>" +
+                "<img src=\"data:image/png;base64,abc\">" +
+                "<img src=\"https://example.com/image.png\"></html>";
+
+        List<String> urls = new ArrayList<>(MessageBodyCache.findAssetUrls("https://example.com/messages/body/", body));
+        assertEquals(Arrays.asList("https://example.com/image.png", "https://example.com/js/app.js"), urls);
+    }
+
+    /**
+     * Test caching a message body.
+     */
+    @Test
+    public void testPut() {
+        Message message = MessageCenterTestUtils.createMessage("message", null, false);
+        assertFalse(cache.contains(message));
+
+        cache.put(message, "<html>body</html>");
+        assertTrue(cache.contains(message));
+
+        WebResourceResponse response = cache.getResponse(message.getMessageBodyUrl());
+        assertNotNull(response);
+        assertEquals("text/html", response.getMimeType());
+        assertEquals(1, cache.getHitCount());
+
+        assertNull(cache.getResponse("https://example.com/not-cached"));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Test the cache index is restored from disk.
+     */
+    @Test
+    public void testPersistence() {
+        Message message = MessageCenterTestUtils.createMessage("message", null, false);
+        cache.put(message, "<html>body</html>");
+
+        MessageBodyCache restored = new MessageBodyCache(directory, 1024 * 1024);
+        assertTrue(restored.contains(message));
+        assertNotNull(restored.getResponse(message.getMessageBodyUrl()));
+    }
+
+    /**
+     * Test removing messages that are no longer in the inbox.
+     */
+    @Test
+    public void testRetainAll() {
+        Message first = MessageCenterTestUtils.createMessage("first", null, false);
+        Message second = MessageCenterTestUtils.createMessage("second", null, false);
+        cache.put(first, "<html>first</html>");
+        cache.put(second, "<html>second</html>");
+
+        cache.retainAll(new HashSet<>(Collections.singletonList("second")));
+
+        assertFalse(cache.contains(first));
+        assertNull(cache.getResponse(first.getMessageBodyUrl()));
+        assertTrue(cache.contains(second));
+    }
+
+    /**
+     * Test the least recently used messages are evicted once the cache is full.
+     */
+    @Test
+    public void testEviction() {
+        cache = new MessageBodyCache(directory, 20);
+
+        Message first = MessageCenterTestUtils.createMessage("first", null, false);
+        Message second = MessageCenterTestUtils.createMessage("second", null, false);
+        cache.put(first, "<html>first</html>");
+
+        // Make the first message the least recently used
+        for (File entryDirectory : directory.listFiles()) {
+            new File(entryDirectory, "index.json").setLastModified(1000);
+        }
+
+        cache.put(second, "<html>second</html>");
+
+        assertFalse(cache.contains(first));
+        assertTrue(cache.contains(second));
+    }
+
+    /**
+     * Test replacing a cached body does not affect a response that was already handed out.
+     */
+    @Test
+    public void testReplace() throws IOException {
+        Message message = MessageCenterTestUtils.createMessage("message", null, false);
+        cache.put(message, "<html>first</html>");
+
+        WebResourceResponse previous = cache.getResponse(message.getMessageBodyUrl());
+        assertNotNull(previous);
+
+        cache.put(message, "<html>second</html>");
+
+        assertEquals("<html>first</html>", read(previous.getData()));
+        assertEquals("<html>second</html>", read(cache.getResponse(message.getMessageBodyUrl()).getData()));
+
+        // Only the entry directory is left
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    /**
+     * Test temp directories from a put that did not finish are removed.
+     */
+    @Test
+    public void testRemovesTempDirectories() {
+        File tempDirectory = new File(directory, "entry.tmp");
+        assertTrue(tempDirectory.mkdirs());
+
+        Message message = MessageCenterTestUtils.createMessage("message", null, false);
+        assertFalse(cache.contains(message));
+
+        assertFalse(tempDirectory.exists());
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        inputStream.close();
+        return outputStream.toString("UTF-8");
+    }
+
+}